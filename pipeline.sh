@@ -18,54 +18,28 @@ echo "Input: $INPUT_FILE"
 echo "Output directory: $OUTPUT_DIR"
 echo
 
-# Stage 1 + 2: Parse + Typecheck (hw2)
-echo "Stage 2: Type checking..."
-TYPECHECK_OUTPUT="$OUTPUT_DIR/${BASENAME}.txt"
-gradle run -Phomework=hw2 -q < "$INPUT_FILE" > "$TYPECHECK_OUTPUT" 2>&1
-if [ $? -eq 0 ]; then
-    echo "✓ Type checking successful"
-else
-    echo "✗ Type checking failed"
-    cat "$TYPECHECK_OUTPUT"
-    exit 1
-fi
-
-# Stage 3: J2S (hw3) - MiniJava to Sparrow
-echo "Stage 3: Translating MiniJava to Sparrow..."
 SPARROW_OUTPUT="$OUTPUT_DIR/${BASENAME}.sparrow"
-gradle run -Phomework=hw3 -q < "$INPUT_FILE" > "$SPARROW_OUTPUT" 2>&1
-if [ $? -eq 0 ]; then
-    echo "✓ Translation to Sparrow successful"
-    echo "  Output size: $(wc -l < "$SPARROW_OUTPUT") lines"
-else
-    echo "✗ Translation to Sparrow failed"
-    cat "$SPARROW_OUTPUT"
-    exit 1
-fi
-
-# Stage 4: S2SV (hw4) - Sparrow to Sparrow-V
-echo "Stage 4: Translating Sparrow to Sparrow-V..."
 SPARROWV_OUTPUT="$OUTPUT_DIR/${BASENAME}.sparrowv"
-gradle run -Phomework=hw4 -q < "$SPARROW_OUTPUT" > "$SPARROWV_OUTPUT" 2>&1
-if [ $? -eq 0 ]; then
-    echo "✓ Translation to Sparrow-V successful"
-    echo "  Output size: $(wc -l < "$SPARROWV_OUTPUT") lines"
+RISCV_OUTPUT="$OUTPUT_DIR/${BASENAME}.riscv"
+INPUT_PATH="$(cd "$(dirname "$INPUT_FILE")" && pwd)/$(basename "$INPUT_FILE")"
+
+# Stages 1-5 run in a single JVM: parse, typecheck, J2S, S2SV and SV2V.
+# If a compile server is running (gradle run -Phomework=server), set COMPILE_SERVER_PORT
+# to send the file to it instead of starting gradle; only the RISC-V output is produced then.
+echo "Compiling MiniJava to RISC-V..."
+if [ -n "$COMPILE_SERVER_PORT" ]; then
+    java -cp build/classes/java/main Compiler.CompileClient --port "$COMPILE_SERVER_PORT" -o "$RISCV_OUTPUT" "$INPUT_PATH" > "$OUTPUT_DIR/${BASENAME}.txt" 2>&1
 else
-    echo "✗ Translation to Sparrow-V failed"
-    cat "$SPARROWV_OUTPUT"
-    exit 1
+    gradle run -Phomework=pipeline -q --args="--sparrow $PWD/$SPARROW_OUTPUT --sparrowv $PWD/$SPARROWV_OUTPUT -o $PWD/$RISCV_OUTPUT $INPUT_PATH" > "$OUTPUT_DIR/${BASENAME}.txt" 2>&1
 fi
-
-# Stage 5: SV2V (hw5) - Sparrow-V to RISC-V
-echo "Stage 5: Translating Sparrow-V to RISC-V..."
-RISCV_OUTPUT="$OUTPUT_DIR/${BASENAME}.riscv"
-gradle run -Phomework=hw5 -q < "$SPARROWV_OUTPUT" > "$RISCV_OUTPUT" 2>&1
 if [ $? -eq 0 ]; then
-    echo "✓ Translation to RISC-V successful"
-    echo "  Output size: $(wc -l < "$RISCV_OUTPUT") lines"
+    echo "✓ Compilation successful"
+    [ -f "$SPARROW_OUTPUT" ] && echo "  Sparrow size: $(wc -l < "$SPARROW_OUTPUT") lines"
+    [ -f "$SPARROWV_OUTPUT" ] && echo "  Sparrow-V size: $(wc -l < "$SPARROWV_OUTPUT") lines"
+    echo "  RISC-V size: $(wc -l < "$RISCV_OUTPUT") lines"
 else
-    echo "✗ Translation to RISC-V failed"
-    cat "$RISCV_OUTPUT"
+    echo "✗ Compilation failed"
+    cat "$OUTPUT_DIR/${BASENAME}.txt"
     exit 1
 fi
 
@@ -74,7 +48,6 @@ echo "=== Pipeline Complete ==="
 echo "Final RISC-V output: $RISCV_OUTPUT"
 echo
 echo "Generated files:"
-echo "  - Parse + Typecheck output: $TYPECHECK_OUTPUT"
 echo "  - Sparrow IR: $SPARROW_OUTPUT"
 echo "  - Sparrow-V IR: $SPARROWV_OUTPUT"
 echo "  - RISC-V assembly: $RISCV_OUTPUT"
@@ -0,0 +1,79 @@
+package Bench;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import S2SV.S2SV;
+import SV2V.SV2V;
+
+/**
+ * The back-end stages on the hand-written IR corpus: S2SV on hw4 Sparrow programs and
+ * SV2V on hw5 Sparrow-V programs, which exercise register pressure the MiniJava front end rarely produces.
+ *
+ * Run: gradle jmh -PjmhArgs="IRBenchmark"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IRBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SparrowInput {
+        @Param({"hw4/Factorial.sparrow"})
+        public String sparrow;
+
+        sparrow.Program prog;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            prog = Inputs.parseSparrow(Inputs.read(sparrow));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SparrowVInput {
+        @Param({
+            "hw5/1-PrintLiteral.sparrow-v", "hw5/2-Add.sparrow-v", "hw5/3-Call.sparrow-v",
+            "hw5/4-Vars.sparrow-v", "hw5/5-OutOfBounds.sparrow-v", "hw5/BinaryTree.sparrow-v",
+            "hw5/BubbleSort.sparrow-v", "hw5/Factorial.sparrow-v", "hw5/LinearSearch.sparrow-v",
+            "hw5/LinkedList.sparrow-v", "hw5/MoreThan4.sparrow-v", "hw5/QuickSort.sparrow-v",
+            "hw5/TreeVisitor.sparrow-v", "hw5/stretch1.sparrow-v", "hw5/stretch2.sparrow-v",
+            "hw5/stretch3.sparrow-v", "hw5/stretch4.sparrow-v", "hw5/stretch5.sparrow-v"
+        })
+        public String sparrowv;
+
+        sparrowv.Program prog;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            prog = Inputs.parseSparrowV(Inputs.read(sparrowv));
+        }
+    }
+
+    @Benchmark
+    public sparrowv.Program s2sv(SparrowInput in) {
+        return S2SV.translate(in.prog);
+    }
+
+    @Benchmark
+    public String sv2v(SparrowVInput in) {
+        StringWriter out = new StringWriter();
+        SV2V.translate(in.prog, out);
+        return out.toString();
+    }
+}
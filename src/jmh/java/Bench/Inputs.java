@@ -0,0 +1,58 @@
+package Bench;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import IR.ParseException;
+import IR.SparrowParser;
+import IR.registers.Registers;
+import IR.visitor.SparrowConstructor;
+import IR.visitor.SparrowVConstructor;
+
+/**
+ * Benchmark inputs: files of the testcases corpus, or synthetic MiniJava programs.
+ * An input name is either a path relative to the testcases directory (e.g. "hw3/BinaryTree.java")
+ * or "synthetic:N" for a generated program with N classes.
+ */
+public class Inputs {
+    static {
+        // Needed before any Sparrow-V text is parsed
+        Registers.SetRiscVregs();
+    }
+
+    /**
+     * Source text of a benchmark input
+     * @param name corpus path or "synthetic:N"
+     */
+    public static String read(String name) throws IOException {
+        if (name.startsWith("synthetic:")) {
+            return synthetic(Integer.parseInt(name.substring("synthetic:".length())));
+        }
+        String dir = System.getProperty("testcases", "testcases");
+        return new String(Files.readAllBytes(Paths.get(dir, name)), StandardCharsets.UTF_8);
+    }
+
+    public static sparrow.Program parseSparrow(String text) throws ParseException {
+        SparrowConstructor constructor = new SparrowConstructor();
+        new SparrowParser(new StringReader(text)).Program().accept(constructor);
+        return constructor.getProgram();
+    }
+
+    public static sparrowv.Program parseSparrowV(String text) throws ParseException {
+        SparrowVConstructor constructor = new SparrowVConstructor();
+        new SparrowParser(new StringReader(text)).Program().accept(constructor);
+        return constructor.getProgram();
+    }
+
+    /**
+     * A generated MiniJava program with the given number of classes and default shape
+     */
+    public static String synthetic(int classes) {
+        ProgramGenerator.Config cfg = new ProgramGenerator.Config();
+        cfg.classes = classes;
+        return new ProgramGenerator(cfg).source();
+    }
+}
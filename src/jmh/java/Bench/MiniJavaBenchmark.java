@@ -0,0 +1,134 @@
+package Bench;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Compiler.PassTimer;
+import J2S.ClassCollector;
+import J2S.SparrowGenerator;
+import S2SV.S2SV;
+import SV2V.SV2V;
+import Typecheck.InheritanceResolver;
+import Typecheck.SymbolTable;
+import Typecheck.TableBuilder;
+import Typecheck.Visitor;
+import minijava.MiniJavaParser;
+import minijava.syntaxtree.Goal;
+
+/**
+ * Every compiler stage on MiniJava inputs: the hw2/hw3 corpus and synthetic programs.
+ * Each benchmark measures one stage; its input is produced once per trial by the earlier stages,
+ * as the compiler runs them.
+ *
+ * Run: gradle jmh -PjmhArgs="MiniJavaBenchmark -p input=synthetic:1000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MiniJavaBenchmark {
+    @Param({
+        "hw2/Basic.java", "hw2/BinaryTree.java", "hw2/BubbleSort.java", "hw2/Factorial.java",
+        "hw2/LinearSearch.java", "hw2/LinkedList.java", "hw2/MoreThan4.java", "hw2/QuickSort.java",
+        "hw2/TreeVisitor.java",
+        "hw3/1-PrintLiteral.java", "hw3/2-Add.java", "hw3/3-Call.java", "hw3/4-Vars.java",
+        "hw3/5-OutOfBounds.java",
+        "synthetic:10", "synthetic:100", "synthetic:1000"
+    })
+    public String input;
+
+    String source;
+    Goal root;
+    TableBuilder typecheckTable;        // Typecheck symbol table, after inheritance resolution
+    List<String> sortedClasses;         // J2S classes, parents first
+    ClassCollector collector;
+    J2S.TableBuilder layouts;           // J2S class layouts, after inheritance resolution
+    sparrow.Program sparrowProg;
+    sparrowv.Program sparrowvProg;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        source = Inputs.read(input);
+        root = new MiniJavaParser(new StringReader(source)).Goal();
+
+        typecheckTable = new TableBuilder();
+        root.accept(typecheckTable, null);
+        root.accept(new InheritanceResolver(typecheckTable.getClassTable()), null);
+
+        collector = new ClassCollector();
+        root.accept(collector);
+        sortedClasses = J2S.J2S.topoSort(collector.allClasses, collector.parentMap);
+        layouts = new J2S.TableBuilder();
+        J2S.InheritanceResolver ir = new J2S.InheritanceResolver(layouts.getLayouts());
+        for (String c : sortedClasses) collector.classNodes.get(c).accept(layouts);
+        for (String c : sortedClasses) collector.classNodes.get(c).accept(ir);
+
+        // Later stages take what the compiler gives them, after the J2S optimizations
+        sparrowProg = J2S.J2S.translate(root, PassTimer.NONE);
+        sparrowvProg = S2SV.translate(sparrowProg, PassTimer.NONE);
+    }
+
+    @Benchmark
+    public Goal parse() throws Exception {
+        return new MiniJavaParser(new StringReader(source)).Goal();
+    }
+
+    @Benchmark
+    public TableBuilder typecheckTableBuilder() {
+        TableBuilder tb = new TableBuilder();
+        root.accept(tb, null);
+        return tb;
+    }
+
+    /* Idempotent on an already resolved table: every inherited member is already present */
+    @Benchmark
+    public InheritanceResolver typecheckInheritanceResolver() {
+        InheritanceResolver ir = new InheritanceResolver(typecheckTable.getClassTable());
+        root.accept(ir, null);
+        return ir;
+    }
+
+    @Benchmark
+    public Visitor typecheckVisitor() {
+        Visitor v = new Visitor();
+        root.accept(v, new SymbolTable(typecheckTable.getClassTable()));
+        return v;
+    }
+
+    @Benchmark
+    public sparrow.Program j2sSparrowGenerator() {
+        SparrowGenerator codegen = new SparrowGenerator(layouts.getLayouts());
+        root.accept(codegen);
+        return codegen.getProgram();
+    }
+
+    /* Liveness analysis, register allocation and lowering */
+    @Benchmark
+    public sparrowv.Program s2sv() {
+        return S2SV.translate(sparrowProg);
+    }
+
+    @Benchmark
+    public String sv2v() {
+        StringWriter out = new StringWriter();
+        SV2V.translate(sparrowvProg, out);
+        return out.toString();
+    }
+}
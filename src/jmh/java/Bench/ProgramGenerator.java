@@ -0,0 +1,518 @@
+package Bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Generates large, valid, type-correct MiniJava programs for stress testing, together
+ * with their expected output. The program is built as a small model that is both printed
+ * as MiniJava and interpreted here, so the expected output does not depend on the compiler.
+ *
+ * Classes form inheritance chains of the configured depth. Every class of a chain overrides
+ * some of the chain root's methods and adds fields. Method bodies mix arithmetic, field and
+ * array accesses, nested ifs and bounded loops, and dynamically dispatched calls. Every method
+ * takes a call budget d; calls only happen while d > 0, so runtime stays bounded at any size.
+ * Every method returns a checksum over its locals, the fields it can see and its array, so the
+ * output depends on the whole computation.
+ *
+ * Usage: ProgramGenerator [options] -o out/Name      (writes out/Name.java and out/Name.java.out)
+ * Options: --classes N --depth D --methods M --locals L --loops N --calls PCT --stmts S
+ *          --fuel F --seed X
+ */
+public class ProgramGenerator {
+    /* Generation parameters */
+    public static class Config {
+        public int classes = 10;        // Number of classes besides Main
+        public int depth = 3;           // Length of each inheritance chain
+        public int methods = 4;         // Methods per class
+        public int locals = 6;          // int locals per method (at least 2)
+        public int loops = 2;           // Maximum loop nesting
+        public int calls = 10;          // Percentage of statements that are calls
+        public int stmts = 20;          // Statements per method body, nested ones included
+        public int fuel = 2;            // Call budget passed from main
+        public long seed = 1;
+    }
+
+    static final int TRIPS = 3;         // Iterations of every loop
+    static final int ARRAY_SIZE = 8;    // Length of each method's scratch array (>= TRIPS)
+    static final int FIELDS = 2;        // Fields declared per class
+    static final int MIX = 31;          // Checksum multiplier
+
+    Config cfg;
+    Random rnd;
+    List<ClassModel> classes = new ArrayList<>();
+
+    public ProgramGenerator(Config cfg) {
+        this.cfg = cfg;
+        this.rnd = new Random(cfg.seed);
+        build();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Config cfg = new Config();
+        String out = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-o":          out = args[++i]; break;
+                case "--classes":   cfg.classes = Integer.parseInt(args[++i]); break;
+                case "--depth":     cfg.depth = Integer.parseInt(args[++i]); break;
+                case "--methods":   cfg.methods = Integer.parseInt(args[++i]); break;
+                case "--locals":    cfg.locals = Integer.parseInt(args[++i]); break;
+                case "--loops":     cfg.loops = Integer.parseInt(args[++i]); break;
+                case "--calls":     cfg.calls = Integer.parseInt(args[++i]); break;
+                case "--stmts":     cfg.stmts = Integer.parseInt(args[++i]); break;
+                case "--fuel":      cfg.fuel = Integer.parseInt(args[++i]); break;
+                case "--seed":      cfg.seed = Long.parseLong(args[++i]); break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+        if (out == null) {
+            System.err.println("Usage: ProgramGenerator [options] -o out/Name");
+            System.exit(1);
+        }
+
+        ProgramGenerator gen = new ProgramGenerator(cfg);
+        String source = gen.source();
+        Path src = Paths.get(out + ".java");
+        if (src.getParent() != null) {
+            Files.createDirectories(src.getParent());
+        }
+        Files.write(src, source.getBytes(StandardCharsets.UTF_8));
+        Files.write(Paths.get(out + ".java.out"), gen.expectedOutput().getBytes(StandardCharsets.UTF_8));
+
+        long lines = source.chars().filter(c -> c == '\n').count();
+        System.err.println("Wrote " + src + " (" + lines + " lines)");
+    }
+
+    /**
+     * MiniJava source of the generated program
+     */
+    public String source() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("class Main {\n");
+        sb.append("    public static void main(String[] a) {\n");
+        for (ClassModel c : classes) {
+            sb.append("        System.out.println(new ").append(c.name).append("().m0(")
+              .append(cfg.fuel).append(", ").append(c.index).append("));\n");
+        }
+        sb.append("    }\n");
+        sb.append("}\n");
+
+        for (ClassModel c : classes) {
+            c.emit(sb);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * What the program prints: one line per class, from running its m0 with the full call budget
+     */
+    public String expectedOutput() {
+        StringBuilder sb = new StringBuilder();
+        for (ClassModel c : classes) {
+            sb.append(invoke(new Obj(c), "m0", cfg.fuel, c.index)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // -------------------
+    // Program model
+    // -------------------
+
+    class ClassModel {
+        int index;
+        String name;
+        ClassModel parent;
+        ClassModel root;
+        List<String> fields = new ArrayList<>();                    // Declared here
+        List<String> visibleFields = new ArrayList<>();             // Declared here or inherited
+        Map<String, MethodModel> methods = new LinkedHashMap<>();   // Declared here
+
+        void emit(StringBuilder sb) {
+            sb.append("\nclass ").append(name);
+            if (parent != null) {
+                sb.append(" extends ").append(parent.name);
+            }
+            sb.append(" {\n");
+            for (String f : fields) {
+                sb.append("    int ").append(f).append(";\n");
+            }
+            for (MethodModel m : methods.values()) {
+                sb.append('\n');
+                m.emit(sb);
+            }
+            sb.append("}\n");
+        }
+    }
+
+    class MethodModel {
+        ClassModel owner;
+        String name;
+        List<Stmt> body = new ArrayList<>();
+        TreeSet<Integer> receivers = new TreeSet<>();   // Chain roots used as receiver types
+        int loopDepth;                                  // Loop counters needed
+
+        void emit(StringBuilder sb) {
+            sb.append("    public int ").append(name).append("(int d, int p) {\n");
+            sb.append("        int[] a;\n");
+            for (int r : receivers) {
+                sb.append("        C").append(r).append(" r").append(r).append(";\n");
+            }
+            for (int i = 0; i < cfg.locals; i++) {
+                sb.append("        int v").append(i).append(";\n");
+            }
+            for (int i = 0; i < loopDepth; i++) {
+                sb.append("        int l").append(i).append(";\n");
+            }
+            sb.append("        int sum;\n");
+            sb.append("        int k;\n");
+            sb.append("        int x;\n");
+
+            sb.append("        a = new int[").append(ARRAY_SIZE).append("];\n");
+            sb.append("        v0 = p;\n");
+            sb.append("        v1 = d;\n");
+            for (int i = 2; i < cfg.locals; i++) {
+                sb.append("        v").append(i).append(" = ").append(i * 7 + owner.index % 13).append(";\n");
+            }
+            for (Stmt s : body) {
+                s.emit(sb, 2);
+            }
+            emitChecksum(sb);
+            sb.append("        return sum;\n");
+            sb.append("    }\n");
+        }
+
+        /* sum = (...(v0 * MIX + v1) * MIX + ...) over locals, visible fields, then array slots */
+        void emitChecksum(StringBuilder sb) {
+            sb.append("        sum = v0;\n");
+            for (int i = 1; i < cfg.locals; i++) {
+                mix(sb, 2, "v" + i);
+            }
+            for (String field : owner.visibleFields) {
+                mix(sb, 2, field);
+            }
+            sb.append("        k = 0;\n");
+            sb.append("        while (k < ").append(ARRAY_SIZE).append(") {\n");
+            sb.append("            x = a[k];\n");
+            mix(sb, 3, "x");
+            sb.append("            k = k + 1;\n");
+            sb.append("        }\n");
+        }
+
+        /* One expression per statement, as MiniJava requires */
+        private void mix(StringBuilder sb, int indent, String value) {
+            Stmt.line(sb, indent).append("sum = sum * ").append(MIX).append(";\n");
+            Stmt.line(sb, indent).append("sum = sum + ").append(value).append(";\n");
+        }
+    }
+
+    /* One statement: printed as MiniJava and interpreted against a Frame */
+    abstract static class Stmt {
+        abstract void emit(StringBuilder sb, int indent);
+
+        abstract void exec(Frame f);
+
+        static StringBuilder line(StringBuilder sb, int indent) {
+            for (int i = 0; i < indent; i++) sb.append("    ");
+            return sb;
+        }
+    }
+
+    /* vD = vA op (vB | constant) */
+    static class BinOp extends Stmt {
+        int dst, a, b, constant;
+        char op;
+        boolean useConst;
+
+        void emit(StringBuilder sb, int indent) {
+            line(sb, indent).append('v').append(dst).append(" = v").append(a).append(' ').append(op).append(' ');
+            if (useConst) sb.append(constant); else sb.append('v').append(b);
+            sb.append(";\n");
+        }
+
+        void exec(Frame f) {
+            int y = useConst ? constant : f.v[b];
+            int x = f.v[a];
+            f.v[dst] = op == '+' ? x + y : op == '-' ? x - y : x * y;
+        }
+    }
+
+    /* field = vS, or vD = field */
+    static class FieldAccess extends Stmt {
+        String field;
+        int local;
+        boolean store;
+
+        void emit(StringBuilder sb, int indent) {
+            if (store) line(sb, indent).append(field).append(" = v").append(local).append(";\n");
+            else line(sb, indent).append('v').append(local).append(" = ").append(field).append(";\n");
+        }
+
+        void exec(Frame f) {
+            if (store) f.self.fields.put(field, f.v[local]);
+            else f.v[local] = f.self.fields.getOrDefault(field, 0);
+        }
+    }
+
+    /* a[i] = vS, or vD = a[i], where i is a constant or the innermost loop counter */
+    static class ArrayAccess extends Stmt {
+        int local;
+        int index;          // Constant index, or -1 - loop level
+        boolean store;
+
+        void emit(StringBuilder sb, int indent) {
+            String idx = index >= 0 ? Integer.toString(index) : "l" + (-1 - index);
+            if (store) line(sb, indent).append("a[").append(idx).append("] = v").append(local).append(";\n");
+            else line(sb, indent).append('v').append(local).append(" = a[").append(idx).append("];\n");
+        }
+
+        void exec(Frame f) {
+            int i = index >= 0 ? index : f.l[-1 - index];
+            if (store) f.a[i] = f.v[local];
+            else f.v[local] = f.a[i];
+        }
+    }
+
+    /* if (vA < vB) { ... } else { ... } */
+    static class If extends Stmt {
+        int a, b;
+        List<Stmt> then = new ArrayList<>();
+        List<Stmt> otherwise = new ArrayList<>();
+
+        void emit(StringBuilder sb, int indent) {
+            line(sb, indent).append("if (v").append(a).append(" < v").append(b).append(") {\n");
+            for (Stmt s : then) s.emit(sb, indent + 1);
+            line(sb, indent).append("} else {\n");
+            for (Stmt s : otherwise) s.emit(sb, indent + 1);
+            line(sb, indent).append("}\n");
+        }
+
+        void exec(Frame f) {
+            for (Stmt s : f.v[a] < f.v[b] ? then : otherwise) s.exec(f);
+        }
+    }
+
+    /* lN = 0; while (lN < TRIPS) { ...; lN = lN + 1; } */
+    static class Loop extends Stmt {
+        int level;
+        List<Stmt> body = new ArrayList<>();
+
+        void emit(StringBuilder sb, int indent) {
+            line(sb, indent).append('l').append(level).append(" = 0;\n");
+            line(sb, indent).append("while (l").append(level).append(" < ").append(TRIPS).append(") {\n");
+            for (Stmt s : body) s.emit(sb, indent + 1);
+            line(sb, indent + 1).append('l').append(level).append(" = l").append(level).append(" + 1;\n");
+            line(sb, indent).append("}\n");
+        }
+
+        void exec(Frame f) {
+            for (f.l[level] = 0; f.l[level] < TRIPS; f.l[level]++) {
+                for (Stmt s : body) s.exec(f);
+            }
+        }
+    }
+
+    /* Guarded call on this or on a new object typed as its chain root */
+    class Call extends Stmt {
+        int dst, arg;
+        ClassModel target;  // Class to instantiate, or null to call on this
+        String method;
+
+        void emit(StringBuilder sb, int indent) {
+            String recv = target == null ? "this" : "r" + target.root.index;
+            line(sb, indent).append("if (0 < d) {\n");
+            if (target != null) {
+                line(sb, indent + 1).append(recv).append(" = new ").append(target.name).append("();\n");
+            }
+            line(sb, indent + 1).append('v').append(dst).append(" = ").append(recv).append('.').append(method)
+                .append("(d - 1, v").append(arg).append(");\n");
+            line(sb, indent).append("} else {\n");
+            line(sb, indent + 1).append('v').append(dst).append(" = v").append(dst).append(" + 1;\n");
+            line(sb, indent).append("}\n");
+        }
+
+        void exec(Frame f) {
+            if (0 < f.d) {
+                Obj recv = target == null ? f.self : new Obj(target);
+                f.v[dst] = invoke(recv, method, f.d - 1, f.v[arg]);
+            } else {
+                f.v[dst] = f.v[dst] + 1;
+            }
+        }
+    }
+
+    // -------------------
+    // Interpreter
+    // -------------------
+
+    static class Obj {
+        ClassModel cls;
+        Map<String, Integer> fields = new HashMap<>();
+
+        Obj(ClassModel cls) {
+            this.cls = cls;
+        }
+    }
+
+    static class Frame {
+        Obj self;
+        int d;
+        int[] v, l, a;
+    }
+
+    /* Dynamic dispatch: nearest declaration walking up from the object's class */
+    int invoke(Obj self, String method, int d, int p) {
+        MethodModel m = null;
+        for (ClassModel c = self.cls; m == null; c = c.parent) {
+            m = c.methods.get(method);
+        }
+
+        Frame f = new Frame();
+        f.self = self;
+        f.d = d;
+        f.v = new int[cfg.locals];
+        f.l = new int[Math.max(m.loopDepth, 1)];
+        f.a = new int[ARRAY_SIZE];
+        f.v[0] = p;
+        f.v[1] = d;
+        for (int i = 2; i < cfg.locals; i++) {
+            f.v[i] = i * 7 + m.owner.index % 13;
+        }
+        for (Stmt s : m.body) {
+            s.exec(f);
+        }
+        return checksum(f, m);
+    }
+
+    /* Same checksum the emitted method computes before returning */
+    static int checksum(Frame f, MethodModel m) {
+        int sum = f.v[0];
+        for (int i = 1; i < f.v.length; i++) {
+            sum = sum * MIX + f.v[i];
+        }
+        for (String field : m.owner.visibleFields) {
+            sum = sum * MIX + f.self.fields.getOrDefault(field, 0);
+        }
+        for (int x : f.a) {
+            sum = sum * MIX + x;
+        }
+        return sum;
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    private void build() {
+        cfg.locals = Math.max(cfg.locals, 2);
+        cfg.depth = Math.max(cfg.depth, 1);
+        cfg.methods = Math.max(cfg.methods, 1);
+
+        for (int i = 0; i < cfg.classes; i++) {
+            ClassModel c = new ClassModel();
+            c.index = i;
+            c.name = "C" + i;
+            if (i % cfg.depth != 0) {
+                c.parent = classes.get(i - 1);
+                c.root = c.parent.root;
+                c.visibleFields.addAll(c.parent.visibleFields);
+            } else {
+                c.root = c;
+            }
+            for (int k = 0; k < FIELDS; k++) {
+                c.fields.add("f" + i + "_" + k);
+            }
+            c.visibleFields.addAll(c.fields);
+            classes.add(c);
+        }
+
+        // Roots declare every method; subclasses override about half of them
+        for (ClassModel c : classes) {
+            for (int j = 0; j < cfg.methods; j++) {
+                if (c.parent == null || rnd.nextBoolean()) {
+                    MethodModel m = new MethodModel();
+                    m.owner = c;
+                    m.name = "m" + j;
+                    int[] budget = {cfg.stmts};
+                    m.body = block(m, budget, 0, 0);
+                    c.methods.put(m.name, m);
+                }
+            }
+        }
+    }
+
+    /* Random statements until the budget runs out; loops and ifs nest up to the configured depth */
+    private List<Stmt> block(MethodModel m, int[] budget, int loopLevel, int ifLevel) {
+        List<Stmt> out = new ArrayList<>();
+        int n = loopLevel + ifLevel == 0 ? Integer.MAX_VALUE : 1 + rnd.nextInt(4);
+
+        while (budget[0] > 0 && out.size() < n) {
+            budget[0]--;
+            int kind = rnd.nextInt(100);
+
+            if (kind < cfg.calls) {
+                Call c = new Call();
+                c.dst = local();
+                c.arg = local();
+                c.method = "m" + rnd.nextInt(cfg.methods);
+                if (rnd.nextBoolean()) {
+                    c.target = classes.get(rnd.nextInt(classes.size()));
+                    m.receivers.add(c.target.root.index);
+                }
+                out.add(c);
+            } else if (kind < cfg.calls + 10 && loopLevel < cfg.loops) {
+                Loop l = new Loop();
+                l.level = loopLevel;
+                m.loopDepth = Math.max(m.loopDepth, loopLevel + 1);
+                l.body = block(m, budget, loopLevel + 1, ifLevel);
+                out.add(l);
+            } else if (kind < cfg.calls + 20 && ifLevel < 2) {
+                If s = new If();
+                s.a = local();
+                s.b = local();
+                s.then = block(m, budget, loopLevel, ifLevel + 1);
+                s.otherwise = block(m, budget, loopLevel, ifLevel + 1);
+                out.add(s);
+            } else if (kind < cfg.calls + 35) {
+                FieldAccess s = new FieldAccess();
+                s.field = m.owner.visibleFields.get(rnd.nextInt(m.owner.visibleFields.size()));
+                s.local = local();
+                s.store = rnd.nextBoolean();
+                out.add(s);
+            } else if (kind < cfg.calls + 50) {
+                ArrayAccess s = new ArrayAccess();
+                s.local = local();
+                s.index = loopLevel > 0 && rnd.nextBoolean() ? -loopLevel : rnd.nextInt(ARRAY_SIZE);
+                s.store = rnd.nextBoolean();
+                out.add(s);
+            } else {
+                BinOp s = new BinOp();
+                s.dst = local();
+                s.a = local();
+                s.b = local();
+                s.op = "+-*".charAt(rnd.nextInt(3));
+                s.useConst = rnd.nextInt(3) == 0;
+                s.constant = rnd.nextInt(100);
+                out.add(s);
+            }
+        }
+        return out;
+    }
+
+    private int local() {
+        return rnd.nextInt(cfg.locals);
+    }
+}
@@ -0,0 +1,247 @@
+package Analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import sparrow.ErrorMessage;
+import sparrow.FunctionDecl;
+import sparrow.Goto;
+import sparrow.IfGoto;
+import sparrow.Instruction;
+import sparrow.LabelInstr;
+
+/**
+ * Basic blocks of a Sparrow function. Instructions are numbered by line:
+ * the formal parameters are defined at line 0 and the first instruction is line 1.
+ * A block starts at a label or after a jump, and ends at a jump, an error or the next label.
+ */
+public class ControlFlowGraph {
+    public static class BasicBlock {
+        public final int index;
+        public final int first;         // First line, inclusive
+        public final int last;          // Last line, inclusive; first - 1 for an empty function
+        public final List<BasicBlock> succs = new ArrayList<>();
+        public final List<BasicBlock> preds = new ArrayList<>();
+
+        BasicBlock(int index, int first, int last) {
+            this.index = index;
+            this.first = first;
+            this.last = last;
+        }
+    }
+
+    public final FunctionDecl function;
+    public final List<BasicBlock> blocks = new ArrayList<>();
+    private final List<Instruction> instructions;
+    private final DefUse[] defUse;          // Indexed by line
+
+    public ControlFlowGraph(FunctionDecl function) {
+        this.function = function;
+        this.instructions = function.block.instructions;
+        this.defUse = new DefUse[instructions.size() + 1];
+
+        // Split into blocks and map labels to the block they start
+        Map<String, BasicBlock> labelBlocks = new HashMap<>();
+        int start = 1;
+        for (int line = 1; line <= instructions.size(); line++) {
+            Instruction i = instruction(line);
+            defUse[line] = DefUse.of(i);
+
+            if (i instanceof LabelInstr && line > start) {
+                blocks.add(new BasicBlock(blocks.size(), start, line - 1));
+                start = line;
+            }
+            if (i instanceof Goto || i instanceof IfGoto || i instanceof ErrorMessage) {
+                blocks.add(new BasicBlock(blocks.size(), start, line));
+                start = line + 1;
+            }
+        }
+        if (start <= instructions.size() || blocks.isEmpty()) {
+            blocks.add(new BasicBlock(blocks.size(), start, instructions.size()));
+        }
+        for (BasicBlock b : blocks) {
+            if (b.first <= b.last && instruction(b.first) instanceof LabelInstr) {
+                labelBlocks.put(((LabelInstr) instruction(b.first)).label.toString(), b);
+            }
+        }
+
+        // Edges
+        for (BasicBlock b : blocks) {
+            Instruction end = b.first <= b.last ? instruction(b.last) : null;
+            BasicBlock next = b.index + 1 < blocks.size() ? blocks.get(b.index + 1) : null;
+
+            if (end instanceof Goto) {
+                edge(b, labelBlocks.get(((Goto) end).label.toString()));
+            } else if (end instanceof IfGoto) {
+                edge(b, labelBlocks.get(((IfGoto) end).label.toString()));
+                edge(b, next);
+            } else if (!(end instanceof ErrorMessage)) {
+                edge(b, next);
+            }
+        }
+    }
+
+    /* Number of instructions, which is also the last line */
+    public int size() {
+        return instructions.size();
+    }
+
+    public Instruction instruction(int line) {
+        return instructions.get(line - 1);
+    }
+
+    public DefUse defUse(int line) {
+        return defUse[line];
+    }
+
+    /**
+     * Loop nesting depth of every block. Loops are recognized by their back edges, a jump
+     * to an earlier block; the loop spans the blocks from the target to the jump.
+     * @return depth, indexed by block
+     */
+    public int[] loopDepths() {
+        int[] delta = new int[blocks.size() + 1];
+        for (BasicBlock b : blocks) {
+            for (BasicBlock s : b.succs) {
+                if (s.index <= b.index) {
+                    delta[s.index]++;
+                    delta[b.index + 1]--;
+                }
+            }
+        }
+
+        int[] depth = new int[blocks.size()];
+        int d = 0;
+        for (int i = 0; i < blocks.size(); i++) {
+            d += delta[i];
+            depth[i] = d;
+        }
+        return depth;
+    }
+
+    /**
+     * Immediate dominator of every block. blocks.size() stands for the function entry, which
+     * dominates everything; unreachable blocks get -1.
+     */
+    public int[] dominators() {
+        int n = blocks.size();
+        int[][] succs = new int[n + 1][];
+        int[][] preds = new int[n + 1][];
+        for (BasicBlock b : blocks) {
+            succs[b.index] = indices(b.succs, -1);
+            preds[b.index] = indices(b.preds, b.index == 0 ? n : -1);
+        }
+        succs[n] = new int[] {0};
+        preds[n] = new int[0];
+        return immediateDominators(succs, preds);
+    }
+
+    /**
+     * Immediate post-dominator of every block with respect to the function's return.
+     * blocks.size() stands for the return; blocks that never return, such as those ending
+     * in an error, get -1.
+     */
+    public int[] postDominators() {
+        int n = blocks.size();
+
+        // Only the last block can fall off the end into the return
+        BasicBlock last = blocks.get(n - 1);
+        Instruction end = last.first <= last.last ? instruction(last.last) : null;
+        boolean returns = !(end instanceof Goto) && !(end instanceof ErrorMessage);
+
+        int[][] succs = new int[n + 1][];
+        int[][] preds = new int[n + 1][];
+        for (BasicBlock b : blocks) {
+            succs[b.index] = indices(b.preds, -1);
+            preds[b.index] = indices(b.succs, returns && b == last ? n : -1);
+        }
+        succs[n] = returns ? new int[] {last.index} : new int[0];
+        preds[n] = new int[0];
+        return immediateDominators(succs, preds);
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    /* Block indices, plus an extra node if extra >= 0 */
+    private static int[] indices(List<BasicBlock> bs, int extra) {
+        int[] r = new int[bs.size() + (extra >= 0 ? 1 : 0)];
+        for (int i = 0; i < bs.size(); i++) r[i] = bs.get(i).index;
+        if (extra >= 0) r[bs.size()] = extra;
+        return r;
+    }
+
+    /* Cooper, Harvey and Kennedy's iterative algorithm; the last node is the root */
+    private static int[] immediateDominators(int[][] succs, int[][] preds) {
+        int n = succs.length;
+        int root = n - 1;
+
+        // Reverse postorder from the root, iteratively to survive huge functions
+        int[] post = new int[n];
+        int posts = 0;
+        boolean[] seen = new boolean[n];
+        int[] stack = new int[n];
+        int[] next = new int[n];
+        int sp = 0;
+        stack[sp++] = root;
+        seen[root] = true;
+        while (sp > 0) {
+            int v = stack[sp - 1];
+            if (next[v] < succs[v].length) {
+                int w = succs[v][next[v]++];
+                if (!seen[w]) {
+                    seen[w] = true;
+                    stack[sp++] = w;
+                }
+            } else {
+                post[posts++] = v;
+                sp--;
+            }
+        }
+        int[] order = new int[posts];
+        int[] rpo = new int[n];
+        for (int i = 0; i < posts; i++) {
+            order[i] = post[posts - 1 - i];
+            rpo[order[i]] = i;
+        }
+
+        int[] idom = new int[n];
+        Arrays.fill(idom, -1);
+        idom[root] = root;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 1; i < posts; i++) {
+                int v = order[i];
+                int d = -1;
+                for (int p : preds[v]) {
+                    if (idom[p] < 0) continue;
+                    d = d < 0 ? p : intersect(idom, rpo, p, d);
+                }
+                if (d != idom[v]) {
+                    idom[v] = d;
+                    changed = true;
+                }
+            }
+        }
+        return Arrays.copyOf(idom, n - 1);
+    }
+
+    private static int intersect(int[] idom, int[] rpo, int a, int b) {
+        while (a != b) {
+            while (rpo[a] > rpo[b]) a = idom[a];
+            while (rpo[b] > rpo[a]) b = idom[b];
+        }
+        return a;
+    }
+
+    private static void edge(BasicBlock from, BasicBlock to) {
+        if (to == null || from.succs.contains(to)) return;
+        from.succs.add(to);
+        to.preds.add(from);
+    }
+}
@@ -0,0 +1,156 @@
+package Analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import IR.token.Identifier;
+import sparrow.Add;
+import sparrow.Alloc;
+import sparrow.Call;
+import sparrow.IfGoto;
+import sparrow.Instruction;
+import sparrow.LessThan;
+import sparrow.Load;
+import sparrow.Move_Id_FuncName;
+import sparrow.Move_Id_Id;
+import sparrow.Move_Id_Integer;
+import sparrow.Multiply;
+import sparrow.Print;
+import sparrow.Store;
+import sparrow.Subtract;
+import sparrow.visitor.DepthFirst;
+
+/**
+ * The variable a Sparrow instruction defines and the variables it reads
+ */
+public class DefUse extends DepthFirst {
+    public String def;                              // null if the instruction defines nothing
+    public List<String> uses = new ArrayList<>();
+
+    public static DefUse of(Instruction i) {
+        DefUse du = new DefUse();
+        i.accept(du);
+        return du;
+    }
+
+    private void def(Identifier id) {
+        def = id.toString();
+    }
+
+    private void use(Identifier id) {
+        uses.add(id.toString());
+    }
+
+    /*   Identifier lhs;
+     *   int rhs; */
+    @Override
+    public void visit(Move_Id_Integer n) {
+        def(n.lhs);
+    }
+
+    /*   Identifier lhs;
+     *   FunctionName rhs; */
+    @Override
+    public void visit(Move_Id_FuncName n) {
+        def(n.lhs);
+    }
+
+    /*   Identifier lhs;
+     *   Identifier arg1;
+     *   Identifier arg2; */
+    @Override
+    public void visit(Add n) {
+        def(n.lhs);
+        use(n.arg1);
+        use(n.arg2);
+    }
+
+    /*   Identifier lhs;
+     *   Identifier arg1;
+     *   Identifier arg2; */
+    @Override
+    public void visit(Subtract n) {
+        def(n.lhs);
+        use(n.arg1);
+        use(n.arg2);
+    }
+
+    /*   Identifier lhs;
+     *   Identifier arg1;
+     *   Identifier arg2; */
+    @Override
+    public void visit(Multiply n) {
+        def(n.lhs);
+        use(n.arg1);
+        use(n.arg2);
+    }
+
+    /*   Identifier lhs;
+     *   Identifier arg1;
+     *   Identifier arg2; */
+    @Override
+    public void visit(LessThan n) {
+        def(n.lhs);
+        use(n.arg1);
+        use(n.arg2);
+    }
+
+    /*   Identifier lhs;
+     *   Identifier base;
+     *   int offset; */
+    @Override
+    public void visit(Load n) {
+        def(n.lhs);
+        use(n.base);
+    }
+
+    /*   Identifier base;
+     *   int offset;
+     *   Identifier rhs; */
+    @Override
+    public void visit(Store n) {
+        use(n.base);
+        use(n.rhs);
+    }
+
+    /*   Identifier lhs;
+     *   Identifier rhs; */
+    @Override
+    public void visit(Move_Id_Id n) {
+        def(n.lhs);
+        use(n.rhs);
+    }
+
+    /*   Identifier lhs;
+     *   Identifier size; */
+    @Override
+    public void visit(Alloc n) {
+        def(n.lhs);
+        use(n.size);
+    }
+
+    /*   Identifier content; */
+    @Override
+    public void visit(Print n) {
+        use(n.content);
+    }
+
+    /*   Identifier condition;
+     *   Label label; */
+    @Override
+    public void visit(IfGoto n) {
+        use(n.condition);
+    }
+
+    /*   Identifier lhs;
+     *   Identifier callee;
+     *   List<Identifier> args; */
+    @Override
+    public void visit(Call n) {
+        def(n.lhs);
+        use(n.callee);
+        for (Identifier arg : n.args) {
+            use(arg);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package Compiler;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import S2SV.Allocator;
+import Typecheck.TypeException;
+import minijava.ParseException;
+
+/**
+ * Compiles every .java file of a directory on a work-stealing pool.
+ * A failing file is reported and skipped; it never aborts the rest of the batch.
+ */
+public class BatchCompiler {
+    Path inputDir;              // Directory of MiniJava sources
+    Path outputDir;             // Directory for .riscv output
+    int jobs;                   // Worker threads
+    StageCache cache;           // Optional, shared by all workers
+    Allocator allocator;        // Register allocation strategy
+
+    public BatchCompiler(Path inputDir, Path outputDir, int jobs, StageCache cache, Allocator allocator) {
+        this.inputDir = inputDir;
+        this.outputDir = outputDir;
+        this.jobs = jobs;
+        this.cache = cache;
+        this.allocator = allocator;
+    }
+
+    /* Outcome of compiling one file */
+    static class Result {
+        Path file;
+        int lines;
+        String error;           // null if compiled successfully
+
+        Result(Path file, int lines, String error) {
+            this.file = file;
+            this.lines = lines;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Compile the whole batch and print a throughput summary
+     * @return true if every file compiled
+     */
+    public boolean run() throws IOException, InterruptedException {
+        List<Path> files;
+        try (Stream<Path> s = Files.list(inputDir)) {
+            files = s.filter(p -> p.toString().endsWith(".java"))
+                     .sorted()
+                     .collect(Collectors.toList());
+        }
+        Files.createDirectories(outputDir);
+
+        List<Callable<Result>> tasks = new ArrayList<>();
+        for (Path f : files) {
+            tasks.add(() -> compileOne(f));
+        }
+
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(jobs);
+        List<Result> results = new ArrayList<>();
+        try {
+            for (Future<Result> fut : pool.invokeAll(tasks)) {
+                results.add(fut.get());
+            }
+        } catch (ExecutionException e) {
+            // compileOne never throws, so this is a bug in the driver itself
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        double secs = (System.nanoTime() - start) / 1e9;
+
+        // Summary
+        int ok = 0;
+        long lines = 0;
+        for (Result r : results) {
+            lines += r.lines;
+            if (r.error == null) {
+                ok++;
+            } else {
+                System.err.println("FAIL " + r.file.getFileName() + ": " + r.error);
+            }
+        }
+
+        System.out.printf("Compiled %d/%d files (%d lines) in %.3f s with %d threads: %.1f files/sec, %.0f lines/sec%n",
+            ok, results.size(), lines, secs, jobs, results.size() / secs, lines / secs);
+        if (cache != null) {
+            System.out.println(cache);
+        }
+
+        return ok == results.size();
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    private Result compileOne(Path file) {
+        int lines = 0;
+        try {
+            byte[] src = Files.readAllBytes(file);
+            for (byte b : src) {
+                if (b == '\n') lines++;
+            }
+
+            String name = file.getFileName().toString();
+            Path out = outputDir.resolve(name.substring(0, name.length() - ".java".length()) + ".riscv");
+
+            try (Writer w = Files.newBufferedWriter(out)) {
+                new Compiler(null, null, cache, allocator).compile(new ByteArrayInputStream(src), w);
+                w.write("\n");
+            }
+
+            return new Result(file, lines, null);
+        } catch (ParseException e) {
+            return new Result(file, lines, "Parse exception: " + e.getMessage());
+        } catch (TypeException e) {
+            return new Result(file, lines, "Type error");
+        } catch (Exception | Error e) {
+            // Isolate lexer errors, I/O failures and internal crashes to this file
+            return new Result(file, lines, e.toString());
+        }
+    }
+}
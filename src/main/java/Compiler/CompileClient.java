@@ -0,0 +1,91 @@
+package Compiler;
+
+import java.io.BufferedInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Thin client for CompileServer: sends one source file and writes the returned RISC-V.
+ * Diagnostics go to stdout and the exit status is 1, matching the standalone driver.
+ *
+ * Usage: CompileClient [--port P] [--sparrow] [-o out.riscv] input
+ */
+public class CompileClient {
+    static final String USAGE = "Usage: CompileClient [--port P] [--sparrow] [-o out.riscv] input";
+
+    public static void main(String[] args) throws IOException {
+        int port = CompileServer.DEFAULT_PORT;
+        String lang = "java";
+        String output = null;
+        String input = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--sparrow":
+                    lang = "sparrow";
+                    break;
+                case "-o":
+                    output = args[++i];
+                    break;
+                default:
+                    if (args[i].startsWith("-") || input != null) {
+                        fail("Unexpected argument: " + args[i] + "\n" + USAGE);
+                    }
+                    input = args[i];
+            }
+        }
+
+        byte[] src = input == null ? System.in.readAllBytes() : Files.readAllBytes(Paths.get(input));
+
+        try (Socket s = new Socket(InetAddress.getLoopbackAddress(), port);
+             InputStream in = new BufferedInputStream(s.getInputStream())) {
+
+            OutputStream out = s.getOutputStream();
+            out.write((lang + " " + src.length + "\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(src);
+            out.flush();
+            s.shutdownOutput();
+
+            String line = CompileServer.readLine(in);
+            if (line == null) {
+                fail("Compile server closed the connection without a reply");
+            }
+            String[] header = line.split(" ");
+            int n = header.length == 2 ? CompileServer.length(header[1]) : -1;
+            if (n < 0) {
+                fail("Malformed reply from compile server: " + line);
+            }
+            byte[] body = in.readNBytes(n);
+
+            if (!header[0].equals("OK")) {
+                System.out.println(new String(body, StandardCharsets.UTF_8));
+                System.exit(1);
+            }
+
+            if (output == null) {
+                System.out.write(body);
+                System.out.flush();
+            } else {
+                try (OutputStream f = new FileOutputStream(output)) {
+                    f.write(body);
+                }
+            }
+        }
+    }
+
+    /* Problems with the connection itself, as opposed to compile diagnostics, exit with status 2 */
+    private static void fail(String message) {
+        System.err.println(message);
+        System.exit(2);
+    }
+}
@@ -0,0 +1,187 @@
+package Compiler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import S2SV.Allocator;
+import Typecheck.TypeException;
+
+/**
+ * Long-running compile daemon on a localhost TCP port. Keeps the (JIT-warmed) compiler
+ * resident and serves each connection on a thread from a cached pool.
+ *
+ * Protocol, repeated until the client closes the connection:
+ *   request:  "<java|sparrow> <nbytes>\n" followed by nbytes of source
+ *   response: "<OK|ERROR> <nbytes>\n" followed by nbytes of RISC-V (OK) or diagnostics (ERROR)
+ *
+ * Usage: CompileServer [--port P] [--cache dir [--cache-size MB]] [--regalloc linear|coloring|split]
+ */
+public class CompileServer {
+    public static final int DEFAULT_PORT = 7132;
+    static final String USAGE = "Usage: CompileServer [--port P] [--cache dir [--cache-size MB]] [--regalloc linear|coloring|split]";
+
+    int port;
+    StageCache cache;           // Optional, shared by all connections
+    Allocator allocator;        // Register allocation strategy
+
+    public CompileServer(int port, StageCache cache, Allocator allocator) {
+        this.port = port;
+        this.cache = cache;
+        this.allocator = allocator;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        String cacheDir = null;
+        long cacheBytes = StageCache.DEFAULT_MAX_BYTES;
+        Allocator allocator = Allocator.LINEAR;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--cache":
+                    cacheDir = args[++i];
+                    break;
+                case "--cache-size":
+                    cacheBytes = Long.parseLong(args[++i]) << 20;
+                    break;
+                case "--regalloc":
+                    allocator = Allocator.of(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println(USAGE);
+                    System.exit(2);
+            }
+        }
+
+        StageCache cache = cacheDir == null ? null : new StageCache(Paths.get(cacheDir), cacheBytes, Compiler.cacheOptions(args, -1));
+        new CompileServer(port, cache, allocator).serve();
+    }
+
+    /**
+     * Accept connections forever
+     */
+    public void serve() throws IOException {
+        ExecutorService workers = newWorkerPool();
+
+        try (ServerSocket server = new ServerSocket(port, 128, InetAddress.getLoopbackAddress())) {
+            System.err.println("Compile server listening on " + server.getLocalSocketAddress());
+            while (true) {
+                Socket client = server.accept();
+                workers.execute(() -> handle(client));
+            }
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    /* Idle threads are reused, so a connection rarely pays for starting one. An Error that escapes
+       a connection leaves the JVM in an unknown state, so it stops the server */
+    private static ExecutorService newWorkerPool() {
+        return Executors.newCachedThreadPool(task -> {
+            Thread t = new Thread(task);
+            t.setUncaughtExceptionHandler((thread, e) -> {
+                e.printStackTrace();
+                Runtime.getRuntime().halt(1);
+            });
+            return t;
+        });
+    }
+
+    void handle(Socket client) {
+        try (Socket s = client;
+             InputStream in = new BufferedInputStream(s.getInputStream());
+             OutputStream out = new BufferedOutputStream(s.getOutputStream())) {
+
+            String header;
+            while ((header = readLine(in)) != null) {
+                String[] parts = header.split(" ");
+                if (parts.length != 2) {
+                    writeFrame(out, "ERROR", "Malformed request header: " + header);
+                    return;
+                }
+
+                int n = length(parts[1]);
+                if (n < 0) {
+                    writeFrame(out, "ERROR", "Malformed request length: " + parts[1]);
+                    return;
+                }
+
+                byte[] src = in.readNBytes(n);
+                if (src.length != n) {
+                    // The stream ended inside the frame, so there is nothing left to resync with
+                    writeFrame(out, "ERROR", "Truncated request: expected " + n + " bytes, got " + src.length);
+                    return;
+                }
+                Compiler compiler = new Compiler(null, null, cache, allocator);
+
+                try {
+                    String riscv = parts[0].equals("sparrow")
+                        ? compiler.compileSparrow(new ByteArrayInputStream(src))
+                        : compiler.compile(new ByteArrayInputStream(src));
+                    writeFrame(out, "OK", riscv + "\n");
+                } catch (minijava.ParseException | IR.ParseException e) {
+                    writeFrame(out, "ERROR", "Parse exception: " + e.getMessage());
+                } catch (minijava.TokenMgrError | IR.TokenMgrError e) {
+                    writeFrame(out, "ERROR", "Lexical error: " + e.getMessage());
+                } catch (TypeException e) {
+                    writeFrame(out, "ERROR", "Type error");
+                } catch (Exception | StackOverflowError e) {
+                    // Keep the daemon alive on internal crashes and on programs nested too deeply to
+                    // compile; any other Error propagates and stops the server
+                    writeFrame(out, "ERROR", e.toString());
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            System.err.println("Dropped connection: " + e);
+        }
+    }
+
+    /* Byte count of a request header, or -1 when it is not a non-negative number */
+    static int length(String field) {
+        try {
+            return Integer.parseInt(field);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /* Read an ASCII line terminated by '\n', or null at end of stream */
+    static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c == -1) {
+                return buf.size() == 0 ? null : buf.toString(StandardCharsets.US_ASCII);
+            }
+            buf.write(c);
+        }
+        return buf.toString(StandardCharsets.US_ASCII);
+    }
+
+    static void writeFrame(OutputStream out, String tag, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        out.write((tag + " " + bytes.length + "\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(bytes);
+    }
+}
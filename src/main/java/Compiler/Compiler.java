@@ -0,0 +1,433 @@
+package Compiler;
+
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+import IR.SparrowParser;
+import IR.registers.Registers;
+import IR.visitor.SparrowConstructor;
+import IR.visitor.SparrowVConstructor;
+import J2S.J2S;
+import S2SV.Allocator;
+import S2SV.S2SV;
+import SV2V.SV2V;
+import Typecheck.TypeException;
+import Typecheck.Typecheck;
+import minijava.MiniJavaParser;
+import minijava.ParseException;
+import minijava.syntaxtree.Goal;
+import minijava.syntaxtree.NodeToken;
+import minijava.visitor.DepthFirstVisitor;
+
+/**
+ * In-process driver: parses a MiniJava program once and chains type checking,
+ * J2S, S2SV and SV2V on the in-memory IR, instead of round-tripping text between JVMs.
+ *
+ * With --cache, each stage's output is looked up in a StageCache keyed by the stage input,
+ * and the stage is skipped on a hit.
+ *
+ * Usage: Compiler [-o out.riscv] [--sparrow out.sparrow] [--sparrowv out.sparrowv] [cache options] [input.java]
+ *        Compiler --batch srcdir --out outdir [-j N] [cache options]
+ * Cache options: --cache dir [--cache-size MB]
+ * --regalloc linear|coloring|split selects the register allocator (default linear).
+ * --time-passes prints per-pass time and allocation to stderr as a table (--time-passes=json for JSON).
+ */
+public class Compiler {
+    static final String USAGE =
+        "Usage: Compiler [-o out.riscv] [--sparrow out.sparrow] [--sparrowv out.sparrowv] [cache options] [input.java]\n" +
+        "       Compiler --batch srcdir --out outdir [-j N] [cache options]\n" +
+        "Cache options: --cache dir [--cache-size MB]\n" +
+        "--regalloc linear|coloring|split selects the register allocator (default linear)\n" +
+        "--time-passes prints per-pass time and allocation to stderr (--time-passes=json for JSON)";
+
+    /* Options that cannot change the generated code, with the number of values each takes */
+    private static final Map<String, Integer> OUTPUT_NEUTRAL = new HashMap<>();
+    static {
+        for (String opt : new String[] {"-o", "--sparrow", "--sparrowv", "--batch", "--out", "-j",
+                                         "--cache", "--cache-size", "--port"}) {
+            OUTPUT_NEUTRAL.put(opt, 1);
+        }
+        OUTPUT_NEUTRAL.put("--time-passes", 0);
+        OUTPUT_NEUTRAL.put("--time-passes=json", 0);
+        OUTPUT_NEUTRAL.put("-h", 0);
+        OUTPUT_NEUTRAL.put("--help", 0);
+    }
+
+    String sparrowFile;         // Optional Sparrow dump
+    String sparrowvFile;        // Optional Sparrow-V dump
+    StageCache cache;           // Optional stage output cache
+    Allocator allocator;        // Register allocation strategy
+    PassTimer timer = PassTimer.NONE;
+
+    static {
+        // Sparrow-V text is only re-parsed on cache hits, but the register table must be set up first
+        Registers.SetRiscVregs();
+    }
+
+    public Compiler(String sparrowFile, String sparrowvFile) {
+        this(sparrowFile, sparrowvFile, null);
+    }
+
+    public Compiler(String sparrowFile, String sparrowvFile, StageCache cache) {
+        this(sparrowFile, sparrowvFile, cache, Allocator.LINEAR);
+    }
+
+    public Compiler(String sparrowFile, String sparrowvFile, StageCache cache, Allocator allocator) {
+        this.sparrowFile = sparrowFile;
+        this.sparrowvFile = sparrowvFile;
+        this.cache = cache;
+        this.allocator = allocator;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String input = null;
+        int inputIndex = -1;
+        String output = null;
+        String sparrowFile = null;
+        String sparrowvFile = null;
+        String batchDir = null;
+        String outDir = null;
+        int jobs = Runtime.getRuntime().availableProcessors();
+        String cacheDir = null;
+        long cacheBytes = StageCache.DEFAULT_MAX_BYTES;
+        String timePasses = null;
+        Allocator allocator = Allocator.LINEAR;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-o":
+                    output = args[++i];
+                    break;
+                case "--sparrow":
+                    sparrowFile = args[++i];
+                    break;
+                case "--sparrowv":
+                    sparrowvFile = args[++i];
+                    break;
+                case "--batch":
+                    batchDir = args[++i];
+                    break;
+                case "--out":
+                    outDir = args[++i];
+                    break;
+                case "-j":
+                    jobs = Integer.parseInt(args[++i]);
+                    break;
+                case "-h":
+                case "--help":
+                    System.out.println(USAGE);
+                    return;
+                case "--cache":
+                    cacheDir = args[++i];
+                    break;
+                case "--cache-size":
+                    cacheBytes = Long.parseLong(args[++i]) << 20;
+                    break;
+                case "--regalloc":
+                    allocator = Allocator.of(args[++i]);
+                    break;
+                case "--time-passes":
+                    timePasses = "table";
+                    break;
+                case "--time-passes=json":
+                    timePasses = "json";
+                    break;
+                default:
+                    if (args[i].startsWith("-")) {
+                        usage("Unknown option: " + args[i]);
+                    }
+                    if (input != null) {
+                        usage("More than one input file: " + input + ", " + args[i]);
+                    }
+                    input = args[i];
+                    inputIndex = i;
+            }
+        }
+
+        StageCache cache = cacheDir == null ? null : new StageCache(Paths.get(cacheDir), cacheBytes, cacheOptions(args, inputIndex));
+
+        if (batchDir != null) {
+            BatchCompiler batch = new BatchCompiler(
+                Paths.get(batchDir),
+                Paths.get(outDir == null ? "." : outDir),
+                jobs,
+                cache,
+                allocator
+            );
+            System.exit(batch.run() ? 0 : 1);
+        }
+
+        Compiler compiler = new Compiler(sparrowFile, sparrowvFile, cache, allocator);
+        if (timePasses != null) {
+            compiler.timer = new PassTimer();
+        }
+        Writer out = new BufferedWriter(output == null ? new OutputStreamWriter(System.out) : new FileWriter(output));
+
+        try (InputStream in = input == null ? System.in : new FileInputStream(input)) {
+
+            compiler.compile(in, out);
+
+        } catch (ParseException e) {
+
+            System.out.println("Parse exception: " + e.toString());
+            System.exit(1);
+            return;
+
+        } catch (TypeException e) {
+
+            System.out.println("Type error");
+            System.exit(1);
+            return;
+
+        }
+
+        out.write("\n");
+        out.close();
+
+        if (cache != null) {
+            System.err.println(cache);
+        }
+
+        if ("json".equals(timePasses)) {
+            compiler.timer.printJson(System.err);
+        } else if (timePasses != null) {
+            compiler.timer.printTable(System.err);
+        }
+    }
+
+    /**
+     * Compile a MiniJava program to RISC-V assembly
+     * @param in MiniJava source
+     * @return RISC-V assembly text
+     * @throws ParseException if the program is not syntactically valid
+     * @throws TypeException if the program is not well typed
+     */
+    public String compile(InputStream in) throws ParseException, IOException {
+        StringWriter out = new StringWriter();
+        compile(in, out);
+        return out.toString();
+    }
+
+    /**
+     * Compile a MiniJava program, streaming the RISC-V assembly to a writer. Nothing is
+     * written if the program fails to parse or type check.
+     * @param in MiniJava source
+     * @param out destination for the assembly text; flushed but not closed
+     * @throws ParseException if the program is not syntactically valid
+     * @throws TypeException if the program is not well typed
+     */
+    public void compile(InputStream in, Writer out) throws ParseException, IOException {
+        if (cache != null) {
+            compileCached(new String(in.readAllBytes(), StandardCharsets.UTF_8), out);
+            return;
+        }
+
+        Goal root = timer.time("parse", () -> new MiniJavaParser(in).Goal());
+        if (timer.isEnabled()) {
+            timer.count("parse", countTokens(root));
+        }
+
+        // Type check
+        Typecheck.check(root, timer);
+
+        // MiniJava -> Sparrow
+        sparrow.Program sparrowProg = J2S.translate(root, timer);
+        dump(sparrowFile, sparrowProg);
+
+        lower(sparrowProg, out);
+    }
+
+    /**
+     * Compile a Sparrow program to RISC-V assembly
+     * @param in Sparrow source
+     * @return RISC-V assembly text
+     * @throws IR.ParseException if the program is not syntactically valid
+     */
+    public String compileSparrow(InputStream in) throws IR.ParseException, IOException {
+        StringWriter out = new StringWriter();
+
+        if (cache != null) {
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            parseSparrow(new StringReader(text));       // Report syntax errors even on a cache hit
+            lowerCached(text, null, out);
+        } else {
+            lower(parseSparrow(in), out);
+        }
+        return out.toString();
+    }
+
+    private void lower(sparrow.Program sparrowProg, Writer out) throws IOException {
+        // Sparrow -> Sparrow-V
+        sparrowv.Program sparrowvProg = S2SV.translate(sparrowProg, timer, allocator);
+        dump(sparrowvFile, sparrowvProg);
+
+        // Sparrow-V -> RISC-V
+        SV2V.translate(sparrowvProg, out, timer);
+    }
+
+    /* MiniJava -> RISC-V through the stage cache; the IR is only rebuilt for stages that miss */
+    private void compileCached(String src, Writer out) throws ParseException, IOException {
+        // MiniJava -> Sparrow
+        sparrow.Program sparrowProg = null;
+        String sparrowText = cache.get("j2s", src);
+        if (sparrowText == null) {
+            Goal root = timer.time("parse", () -> new MiniJavaParser(new StringReader(src)).Goal());
+            Typecheck.check(root, timer);
+            sparrowProg = J2S.translate(root, timer);
+
+            StringBuilder sb = new StringBuilder();
+            new sparrow.visitor.Printer(sb).visit(sparrowProg);
+            sparrowText = sb.toString();
+            cache.put("j2s", src, sparrowText);
+        }
+        dump(sparrowFile, sparrowText);
+
+        lowerCached(sparrowText, sparrowProg, out);
+    }
+
+    private void lowerCached(String sparrowText, sparrow.Program sparrowProg, Writer out) throws IOException {
+        // Sparrow -> Sparrow-V
+        sparrowv.Program sparrowvProg = null;
+        String sparrowvText = cache.get("s2sv", sparrowText);
+        if (sparrowvText == null) {
+            if (sparrowProg == null) {
+                sparrowProg = reparse(() -> parseSparrow(new StringReader(sparrowText)));
+            }
+            sparrowvProg = S2SV.translate(sparrowProg, timer, allocator);
+
+            StringBuilder sb = new StringBuilder();
+            new sparrowv.visitor.Printer(sb).visit(sparrowvProg);
+            sparrowvText = sb.toString();
+            cache.put("s2sv", sparrowText, sparrowvText);
+        }
+        dump(sparrowvFile, sparrowvText);
+
+        // Sparrow-V -> RISC-V
+        String riscv = cache.get("sv2v", sparrowvText);
+        if (riscv == null) {
+            if (sparrowvProg == null) {
+                String text = sparrowvText;
+                sparrowvProg = reparse(() -> {
+                    SparrowVConstructor constructor = new SparrowVConstructor();
+                    new SparrowParser(new StringReader(text)).Program().accept(constructor);
+                    return constructor.getProgram();
+                });
+            }
+            StringWriter sw = new StringWriter();
+            SV2V.translate(sparrowvProg, sw, timer);
+            riscv = sw.toString();
+            cache.put("sv2v", sparrowvText, riscv);
+        }
+        out.write(riscv);
+        out.flush();
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    /* Reject a bad command line instead of reading an option as the input path */
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+
+    /**
+     * The part of a stage cache key that comes from the command line. Every argument goes in,
+     * in order, except the output-neutral options above and their values, and the input file
+     * (entries are keyed by the input text itself). An option that changes the generated code
+     * is therefore part of the key without being listed anywhere; only a new option that
+     * cannot change the output needs adding to OUTPUT_NEUTRAL, so entries are shared across it.
+     * @param args command line
+     * @param input index of the positional input file in args, or -1 if there is none
+     */
+    static String cacheOptions(String[] args, int input) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < args.length; i++) {
+            Integer values = OUTPUT_NEUTRAL.get(args[i]);
+            if (values != null) {
+                i += values;
+            } else if (i != input) {
+                sb.append(args[i]).append('\0');
+            }
+        }
+        return sb.toString();
+    }
+
+    /* Number of tokens in a MiniJava AST */
+    private static long countTokens(Goal root) {
+        long[] n = {0};
+        root.accept(new DepthFirstVisitor() {
+            @Override
+            public void visit(NodeToken t) {
+                n[0]++;
+            }
+        });
+        return n[0];
+    }
+
+    interface Parse<T> {
+        T run() throws IR.ParseException;
+    }
+
+    /* Parse IR text that this compiler printed itself, so a syntax error is an internal error */
+    private static <T> T reparse(Parse<T> p) {
+        try {
+            return p.run();
+        } catch (IR.ParseException e) {
+            throw new IllegalStateException("Cached IR failed to parse", e);
+        }
+    }
+
+    private static sparrow.Program parseSparrow(InputStream in) throws IR.ParseException {
+        SparrowConstructor constructor = new SparrowConstructor();
+        new SparrowParser(in).Program().accept(constructor);
+        return constructor.getProgram();
+    }
+
+    private static sparrow.Program parseSparrow(Reader in) throws IR.ParseException {
+        SparrowConstructor constructor = new SparrowConstructor();
+        new SparrowParser(in).Program().accept(constructor);
+        return constructor.getProgram();
+    }
+
+    private static void dump(String file, String text) throws IOException {
+        if (file == null) return;
+
+        try (Writer w = new BufferedWriter(new FileWriter(file))) {
+            w.write(text);
+            w.write("\n");
+        }
+    }
+
+    private static void dump(String file, sparrow.Program prog) throws IOException {
+        if (file == null) return;
+
+        try (Writer w = new BufferedWriter(new FileWriter(file))) {
+            new sparrow.visitor.Printer(w).visit(prog);
+            w.write("\n");
+        }
+    }
+
+    private static void dump(String file, sparrowv.Program prog) throws IOException {
+        if (file == null) return;
+
+        try (Writer w = new BufferedWriter(new FileWriter(file))) {
+            new sparrowv.visitor.Printer(w).visit(prog);
+            w.write("\n");
+        }
+    }
+}
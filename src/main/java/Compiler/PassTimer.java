@@ -0,0 +1,225 @@
+package Compiler;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Records wall time, bytes allocated by the compiling thread, and a size count
+ * (tokens, instructions) for each compiler pass, optionally broken down per function.
+ * The shared NONE instance records nothing, so stages can always be handed a timer.
+ */
+public class PassTimer {
+    public static final PassTimer NONE = new PassTimer(false);
+
+    /* A pass body; may throw the stage's checked exception */
+    public interface Pass<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    /* One timed run of a pass, over the whole program (function == null) or one function */
+    static class Sample {
+        String phase;
+        String function;
+        long nanos;
+        long allocBytes;
+        long count;
+
+        Sample(String phase, String function, long nanos, long allocBytes, long count) {
+            this.phase = phase;
+            this.function = function;
+            this.nanos = nanos;
+            this.allocBytes = allocBytes;
+            this.count = count;
+        }
+    }
+
+    private final boolean enabled;
+    private final List<Sample> samples = new ArrayList<>();
+    private final com.sun.management.ThreadMXBean allocBean;
+
+    public PassTimer() {
+        this(true);
+    }
+
+    private PassTimer(boolean enabled) {
+        this.enabled = enabled;
+
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (enabled && bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            this.allocBean = (com.sun.management.ThreadMXBean) bean;
+            this.allocBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            this.allocBean = null;
+        }
+    }
+
+    /**
+     * Run and time a pass over the whole program
+     * @param phase pass name
+     * @param pass pass body
+     * @return the pass's result
+     */
+    public <T, E extends Exception> T time(String phase, Pass<T, E> pass) throws E {
+        return time(phase, null, -1, pass);
+    }
+
+    /**
+     * Run and time a pass
+     * @param phase pass name
+     * @param function function the pass runs on, or null for the whole program
+     * @param count size of the pass input (tokens or instructions), or -1 if not applicable
+     * @param pass pass body
+     * @return the pass's result
+     */
+    public <T, E extends Exception> T time(String phase, String function, long count, Pass<T, E> pass) throws E {
+        if (!enabled) {
+            return pass.run();
+        }
+
+        long alloc0 = allocatedBytes();
+        long t0 = System.nanoTime();
+        T result = pass.run();
+        long nanos = System.nanoTime() - t0;
+        long alloc = allocBean == null ? -1 : allocatedBytes() - alloc0;
+
+        synchronized (samples) {
+            samples.add(new Sample(phase, function, nanos, alloc, count));
+        }
+        return result;
+    }
+
+    /* Set the size count of the latest sample of a phase, when it is only known after the pass ran */
+    public void count(String phase, long count) {
+        synchronized (samples) {
+            for (int i = samples.size() - 1; i >= 0; i--) {
+                if (samples.get(i).phase.equals(phase)) {
+                    samples.get(i).count = count;
+                    return;
+                }
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /* Same as time(), for passes that return nothing */
+    public void run(String phase, String function, long count, Runnable pass) {
+        time(phase, function, count, () -> {
+            pass.run();
+            return null;
+        });
+    }
+
+    /**
+     * Print per-phase totals followed by the per-function breakdown
+     */
+    public void printTable(PrintStream out) {
+        String row = "%-30s %-24s %11s %12s %9s%n";
+        out.printf(row, "Phase", "Function", "Time (ms)", "Alloc (KB)", "Count");
+
+        long totalNanos = 0;
+        long totalAlloc = 0;
+        for (Sample s : totals()) {
+            out.printf(row, s.phase, "-", ms(s.nanos), kb(s.allocBytes), count(s.count));
+            totalNanos += s.nanos;
+            totalAlloc += s.allocBytes;
+        }
+        out.printf(row, "Total", "-", ms(totalNanos), kb(allocBean == null ? -1 : totalAlloc), "");
+
+        out.println();
+        for (Sample s : samples) {
+            if (s.function != null) {
+                out.printf(row, s.phase, s.function, ms(s.nanos), kb(s.allocBytes), count(s.count));
+            }
+        }
+    }
+
+    /**
+     * Print the same data as printTable as a JSON object
+     */
+    public void printJson(PrintStream out) {
+        StringBuilder sb = new StringBuilder("{\n  \"phases\": [");
+        appendJson(sb, totals());
+        sb.append("\n  ],\n  \"functions\": [");
+        List<Sample> perFunction = new ArrayList<>();
+        for (Sample s : samples) {
+            if (s.function != null) perFunction.add(s);
+        }
+        appendJson(sb, perFunction);
+        sb.append("\n  ]\n}");
+        out.println(sb);
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    private long allocatedBytes() {
+        return allocBean == null ? 0 : allocBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /* Sum samples per phase, in first-seen order */
+    private List<Sample> totals() {
+        Map<String, Sample> byPhase = new LinkedHashMap<>();
+        for (Sample s : samples) {
+            Sample t = byPhase.computeIfAbsent(s.phase, p -> new Sample(p, null, 0, 0, 0));
+            t.nanos += s.nanos;
+            t.allocBytes = (t.allocBytes < 0 || s.allocBytes < 0) ? -1 : t.allocBytes + s.allocBytes;
+            t.count = (t.count < 0 || s.count < 0) ? -1 : t.count + s.count;
+        }
+        return new ArrayList<>(byPhase.values());
+    }
+
+    private static void appendJson(StringBuilder sb, List<Sample> list) {
+        for (int i = 0; i < list.size(); i++) {
+            Sample s = list.get(i);
+            sb.append(i == 0 ? "\n" : ",\n");
+            sb.append("    {\"phase\": ");
+            appendJsonString(sb, s.phase);
+            if (s.function != null) {
+                sb.append(", \"function\": ");
+                appendJsonString(sb, s.function);
+            }
+            sb.append(", \"timeMs\": ").append(ms(s.nanos));
+            sb.append(", \"allocBytes\": ").append(s.allocBytes);
+            sb.append(", \"count\": ").append(s.count).append('}');
+        }
+    }
+
+    /* Quote a string for JSON; escapes quotes, backslashes and control characters */
+    private static void appendJsonString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    private static String ms(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    private static String kb(long bytes) {
+        return bytes < 0 ? "n/a" : Long.toString(bytes / 1024);
+    }
+
+    private static String count(long count) {
+        return count < 0 ? "" : Long.toString(count);
+    }
+}
@@ -0,0 +1,273 @@
+package Compiler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed on-disk cache of stage outputs (Sparrow, Sparrow-V and RISC-V text).
+ * An entry is keyed by the SHA-256 of the stage name, the compiler build, the code generation
+ * options and the stage input. Entries are evicted least-recently-used first once the
+ * directory grows past its size limit; a hit refreshes the entry's modification time.
+ * Each entry carries a checksum of its output, and an entry that fails it is treated as a miss.
+ * Safe to share between threads and between processes using the same directory.
+ */
+public class StageCache {
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+
+    private static String buildFingerprint;         // Identifies the compiler classes in use
+
+    Path dir;
+    long maxBytes;
+    String options;
+
+    private final AtomicLong totalBytes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public StageCache(Path dir, long maxBytes, String options) throws IOException {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.options = options;
+
+        Files.createDirectories(dir);
+        this.totalBytes = new AtomicLong(diskSize());
+    }
+
+    /**
+     * Look up the output of a stage
+     * @param stage stage name, e.g. "j2s"
+     * @param input full text of the stage input
+     * @return cached output, or null on a miss
+     */
+    public String get(String stage, String input) {
+        Path entry = dir.resolve(key(stage, input));
+        try {
+            String output = decode(Files.readAllBytes(entry));
+            if (output == null) {
+                // Truncated or overwritten behind our back: drop it so the stage runs again
+                forget(entry);
+                misses.incrementAndGet();
+                return null;
+            }
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.incrementAndGet();
+            return output;
+        } catch (IOException e) {
+            // Missing, or evicted by another thread or process while we were reading it
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Record the output of a stage, evicting old entries if the cache is over its limit
+     */
+    public void put(String stage, String input, String output) throws IOException {
+        Path entry = dir.resolve(key(stage, input));
+        byte[] bytes = encode(output);
+
+        // Write to a temporary file and rename, so readers never see a partial entry
+        Path tmp = Files.createTempFile(dir, "tmp", ".part");
+        Files.write(tmp, bytes);
+        long replaced = sizeOf(entry);
+        try {
+            Files.move(tmp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        if (totalBytes.addAndGet(bytes.length - replaced) > maxBytes) {
+            evict();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /* Bytes the entries currently take on disk, as far as this process knows */
+    long size() {
+        return totalBytes.get();
+    }
+
+    @Override
+    public String toString() {
+        return "Stage cache: " + hits.get() + " hits, " + misses.get() + " misses";
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    /* An entry as seen by one directory listing */
+    private static class Entry {
+        Path path;
+        long size;
+        FileTime modified;
+
+        Entry(Path path, long size, FileTime modified) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+
+    /* Drop least recently used entries until the cache is back under its limit */
+    private synchronized void evict() throws IOException {
+        List<Entry> all = new ArrayList<>();
+        long size = 0;
+        for (Path p : entries()) {
+            try {
+                Entry e = new Entry(p, Files.size(p), Files.getLastModifiedTime(p));
+                all.add(e);
+                size += e.size;
+            } catch (IOException e) {
+                // Removed by another process since the listing
+            }
+        }
+
+        all.sort((a, b) -> a.modified.compareTo(b.modified));
+        for (Entry e : all) {
+            if (size <= maxBytes) break;
+            Files.deleteIfExists(e.path);
+            size -= e.size;
+        }
+        totalBytes.set(size);
+    }
+
+    /* Delete a bad entry; its size on disk may not be what put() recorded, so recount */
+    private synchronized void forget(Path entry) {
+        try {
+            Files.deleteIfExists(entry);
+            totalBytes.set(diskSize());
+        } catch (IOException e) {
+            // Someone else is already replacing or removing it
+        }
+    }
+
+    private long diskSize() throws IOException {
+        long size = 0;
+        for (Path p : entries()) {
+            size += sizeOf(p);
+        }
+        return size;
+    }
+
+    /* Size of an entry on disk, or 0 if there is none */
+    private static long sizeOf(Path entry) {
+        try {
+            return Files.size(entry);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /* An entry is the hex SHA-256 of the output on the first line, then the output */
+    private static byte[] encode(String output) {
+        byte[] body = output.getBytes(StandardCharsets.UTF_8);
+        byte[] header = (hex(sha256().digest(body)) + "\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] bytes = Arrays.copyOf(header, header.length + body.length);
+        System.arraycopy(body, 0, bytes, header.length, body.length);
+        return bytes;
+    }
+
+    /* Output stored in an entry, or null if the entry does not match its checksum */
+    private static String decode(byte[] bytes) {
+        int header = 64 + 1;
+        if (bytes.length < header || bytes[header - 1] != '\n') return null;
+
+        byte[] body = Arrays.copyOfRange(bytes, header, bytes.length);
+        String sum = new String(bytes, 0, header - 1, StandardCharsets.US_ASCII);
+        if (!sum.equals(hex(sha256().digest(body)))) return null;
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    private List<Path> entries() throws IOException {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(p -> !p.getFileName().toString().endsWith(".part"))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private String key(String stage, String input) {
+        MessageDigest md = sha256();
+        md.update(stage.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+        md.update(fingerprint().getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+        md.update(options.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+        md.update(input.getBytes(StandardCharsets.UTF_8));
+        return stage + "-" + hex(md.digest());
+    }
+
+    /* Hash of the compiler's own class files (or jar), so a rebuilt compiler never sees stale entries */
+    private static synchronized String fingerprint() {
+        if (buildFingerprint != null) return buildFingerprint;
+
+        MessageDigest md = sha256();
+        CodeSource source = StageCache.class.getProtectionDomain().getCodeSource();
+        try {
+            if (source == null) {
+                throw new IOException("unknown code source");
+            }
+            Path root = Paths.get(source.getLocation().toURI());
+            List<Path> files;
+            try (Stream<Path> s = Files.walk(root)) {
+                files = s.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+            }
+            byte[] buf = new byte[1 << 16];
+            for (Path f : files) {
+                md.update(root.relativize(f).toString().getBytes(StandardCharsets.UTF_8));
+                try (InputStream in = Files.newInputStream(f)) {
+                    int n;
+                    while ((n = in.read(buf)) > 0) md.update(buf, 0, n);
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            // Unknown code location: fall back to a per-process key, which just disables reuse across runs
+            md.update(Long.toString(System.nanoTime()).getBytes(StandardCharsets.UTF_8));
+        }
+
+        buildFingerprint = hex(md.digest());
+        return buildFingerprint;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+            sb.append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -9,6 +9,8 @@ public class ClassLayout {
     private Map<String, String> fieldTypes = new HashMap<>();
     private Map<String, Integer> fieldOffsets = new HashMap<>();
     private Map<String, Integer> methodOffsets = new HashMap<>();
+    private Map<String, String> methodTypes = new HashMap<>();      // Method -> return type
+    private Map<String, String> methods = new HashMap<>();          // Name it is called by -> method
 
     private int objSize;
     private int vmtSize;
@@ -32,6 +34,11 @@ public class ClassLayout {
 
     public Map<String, Integer> getMethodOffsets() { return methodOffsets; }
 
+    public Map<String, String> getMethods() { return methods; }
+
+    /* Function implementing the method called name, or null if the class has none */
+    public String getMethod(String name) { return methods.get(name); }
+
     public int getFieldOffset(String name) {
         return fieldOffsets.get(name);
     }
@@ -42,6 +49,8 @@ public class ClassLayout {
         return methodOffsets.get(name);
     }
 
+    public String getMethodType(String name) { return methodTypes.get(name); }
+
     public int getObjSize() {
         return objSize;
     }
@@ -62,8 +71,10 @@ public class ClassLayout {
         this.fieldTypes.put(field, type);
     }
 
-    public void addMethod(String method, int offset) {
+    public void addMethod(String name, String method, int offset, String type) {
+        this.methods.put(name, method);
         this.methodOffsets.put(method, offset);
+        this.methodTypes.put(method, type);
     }
 
     public void setField(String field, String type) {
@@ -1,6 +1,7 @@
 package J2S;
 
 import java.util.HashMap;
+import java.util.Map;
 
 import minijava.syntaxtree.ArrayType;
 import minijava.syntaxtree.BooleanType;
@@ -71,27 +72,36 @@ public class InheritanceResolver extends DepthFirstVisitor{
             }
         }
 
-        // Process child methods
-        int mOffset = 0;
-
+        // Inherited methods keep the parent's vtable slots, so a call through a parent-typed
+        // reference finds the overriding method at the same offset
+        Map<String, String> declared = new HashMap<>();     // Method -> return type
         for (Node node : n.f6.nodes) {
             MethodDeclaration md = (MethodDeclaration) node;
-
-            String methodName = childName + "_" + md.f2.f0.toString();
-            thisLayout.addMethod(methodName, mOffset);
-            mOffset += 4;
+            declared.put(md.f2.f0.toString(), typeString(md.f1));
         }
 
-        // Process parent methods
-        for (String pMethod : parentLayout.getMethodOffsets().keySet()) {
-            String mName = pMethod.split("_")[1];
+        int mOffset = parentLayout.getVmtSize();
+        for (Map.Entry<String, String> entry : parentLayout.getMethods().entrySet()) {
+            String mName = entry.getKey();
+            String pMethod = entry.getValue();
+            int pOffset = parentLayout.getMethodOffset(pMethod);
 
-            if (thisLayout.hasMethod(childName + "_" + mName)) {
-                continue;
+            if (declared.containsKey(mName)) {
+                thisLayout.addMethod(mName, childName + "_" + mName, pOffset, declared.get(mName));
+            } else {
+                thisLayout.addMethod(mName, pMethod, pOffset, parentLayout.getMethodType(pMethod));
             }
+        }
 
-            thisLayout.addMethod(pMethod, mOffset);
-            mOffset += 4;
+        // New child methods go after the inherited ones
+        for (Node node : n.f6.nodes) {
+            MethodDeclaration md = (MethodDeclaration) node;
+
+            String mName = md.f2.f0.toString();
+            if (thisLayout.getMethod(mName) == null) {
+                thisLayout.addMethod(mName, childName + "_" + mName, mOffset, typeString(md.f1));
+                mOffset += 4;
+            }
         }
 
         thisLayout.setObjSize(fOffset);
@@ -0,0 +1,186 @@
+package J2S;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import IR.token.Identifier;
+import IR.token.Label;
+import sparrow.Add;
+import sparrow.Alloc;
+import sparrow.Call;
+import sparrow.ErrorMessage;
+import sparrow.FunctionDecl;
+import sparrow.Goto;
+import sparrow.IfGoto;
+import sparrow.Instruction;
+import sparrow.LabelInstr;
+import sparrow.LessThan;
+import sparrow.Load;
+import sparrow.Move_Id_FuncName;
+import sparrow.Move_Id_Id;
+import sparrow.Move_Id_Integer;
+import sparrow.Multiply;
+import sparrow.Print;
+import sparrow.Program;
+import sparrow.Store;
+import sparrow.Subtract;
+
+/**
+ * Inlining of small methods at direct call sites, the ones devirtualization names with
+ * @Class_method. The callee's body replaces the call, with its parameters assigned from the
+ * arguments and its temporaries and labels renamed apart for each site.
+ *
+ * Bodies are inlined as they were before any inlining, so recursion expands at most once.
+ * Each inlined body spends part of the caller's growth budget, which keeps huge callers with
+ * many sites from blowing up.
+ */
+public class Inliner {
+    private static final int MAX_CALLEE_SIZE = 12;  // Instructions, not counting labels
+    private static final int MIN_BUDGET = 64;       // Growth allowed for any caller, in instructions
+
+    private final Map<String, FunctionDecl> callees = new HashMap<>();     // Name -> small function
+    private final Map<String, List<Instruction>> bodies = new HashMap<>(); // Name -> original body
+    private int sites = 0;                          // Suffixes renaming each inlined body apart
+
+    public Inliner(Program prog) {
+        for (FunctionDecl fd : prog.funDecls) {
+            if (size(fd.block.instructions) <= MAX_CALLEE_SIZE) {
+                callees.put(fd.functionName.toString(), fd);
+                bodies.put(fd.functionName.toString(), fd.block.instructions);
+            }
+        }
+    }
+
+    /**
+     * Inline the small methods a function calls directly
+     * @param fn caller
+     * @return number of calls inlined
+     */
+    public int run(FunctionDecl fn) {
+        List<Instruction> instrs = fn.block.instructions;
+        int budget = Math.max(MIN_BUDGET, size(instrs));
+        int inlined = 0;
+
+        List<Instruction> result = new ArrayList<>();
+        for (int k = 0; k < instrs.size(); k++) {
+            Instruction i = instrs.get(k);
+            FunctionDecl callee = k + 1 < instrs.size() ? directCallee(i, instrs.get(k + 1)) : null;
+
+            if (callee != null && callee != fn) {
+                Call call = (Call) instrs.get(k + 1);
+                int cost = size(bodies.get(callee.functionName.toString())) + call.args.size() - 1;
+                if (cost <= budget) {
+                    // The function name was only loaded for this call
+                    budget -= cost;
+                    inline(callee, call, result);
+                    inlined++;
+                    k++;
+                    continue;
+                }
+            }
+            result.add(i);
+        }
+
+        if (inlined > 0) fn.block.instructions = result;
+        return inlined;
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    /* The small function a name load and the call right after it reach, or null */
+    private FunctionDecl directCallee(Instruction load, Instruction next) {
+        if (!(load instanceof Move_Id_FuncName) || !(next instanceof Call)) return null;
+        Move_Id_FuncName f = (Move_Id_FuncName) load;
+        Call call = (Call) next;
+        if (!call.callee.toString().equals(f.lhs.toString())) return null;
+
+        FunctionDecl callee = callees.get(f.rhs.toString());
+        if (callee == null || callee.formalParameters.size() != call.args.size()) return null;
+        return callee;
+    }
+
+    private void inline(FunctionDecl callee, Call call, List<Instruction> result) {
+        String suffix = "_" + (sites++);
+
+        for (int p = 0; p < call.args.size(); p++) {
+            result.add(new Move_Id_Id(rename(callee.formalParameters.get(p), suffix), call.args.get(p)));
+        }
+        for (Instruction i : bodies.get(callee.functionName.toString())) {
+            result.add(rename(i, suffix));
+        }
+        result.add(new Move_Id_Id(call.lhs, rename(callee.block.return_id, suffix)));
+    }
+
+    private static Identifier rename(Identifier v, String suffix) {
+        return new Identifier(v + suffix);
+    }
+
+    private static Label rename(Label l, String suffix) {
+        return new Label(l + suffix);
+    }
+
+    /* Copy of an instruction of an inlined body, with its temporaries and labels renamed */
+    private static Instruction rename(Instruction i, String suffix) {
+        if (i instanceof LabelInstr) {
+            return new LabelInstr(rename(((LabelInstr) i).label, suffix));
+        } else if (i instanceof Move_Id_Integer) {
+            Move_Id_Integer m = (Move_Id_Integer) i;
+            return new Move_Id_Integer(rename(m.lhs, suffix), m.rhs);
+        } else if (i instanceof Move_Id_FuncName) {
+            Move_Id_FuncName m = (Move_Id_FuncName) i;
+            return new Move_Id_FuncName(rename(m.lhs, suffix), m.rhs);
+        } else if (i instanceof Add) {
+            Add a = (Add) i;
+            return new Add(rename(a.lhs, suffix), rename(a.arg1, suffix), rename(a.arg2, suffix));
+        } else if (i instanceof Subtract) {
+            Subtract s = (Subtract) i;
+            return new Subtract(rename(s.lhs, suffix), rename(s.arg1, suffix), rename(s.arg2, suffix));
+        } else if (i instanceof Multiply) {
+            Multiply m = (Multiply) i;
+            return new Multiply(rename(m.lhs, suffix), rename(m.arg1, suffix), rename(m.arg2, suffix));
+        } else if (i instanceof LessThan) {
+            LessThan l = (LessThan) i;
+            return new LessThan(rename(l.lhs, suffix), rename(l.arg1, suffix), rename(l.arg2, suffix));
+        } else if (i instanceof Load) {
+            Load l = (Load) i;
+            return new Load(rename(l.lhs, suffix), rename(l.base, suffix), l.offset);
+        } else if (i instanceof Store) {
+            Store s = (Store) i;
+            return new Store(rename(s.base, suffix), s.offset, rename(s.rhs, suffix));
+        } else if (i instanceof Move_Id_Id) {
+            Move_Id_Id m = (Move_Id_Id) i;
+            return new Move_Id_Id(rename(m.lhs, suffix), rename(m.rhs, suffix));
+        } else if (i instanceof Alloc) {
+            Alloc a = (Alloc) i;
+            return new Alloc(rename(a.lhs, suffix), rename(a.size, suffix));
+        } else if (i instanceof Print) {
+            return new Print(rename(((Print) i).content, suffix));
+        } else if (i instanceof ErrorMessage) {
+            return new ErrorMessage(((ErrorMessage) i).msg);
+        } else if (i instanceof Goto) {
+            return new Goto(rename(((Goto) i).label, suffix));
+        } else if (i instanceof IfGoto) {
+            IfGoto g = (IfGoto) i;
+            return new IfGoto(rename(g.condition, suffix), rename(g.label, suffix));
+        } else {
+            Call c = (Call) i;
+            List<Identifier> args = new ArrayList<>();
+            for (Identifier a : c.args) {
+                args.add(rename(a, suffix));
+            }
+            return new Call(rename(c.lhs, suffix), rename(c.callee, suffix), args);
+        }
+    }
+
+    private static int size(List<Instruction> instrs) {
+        int n = 0;
+        for (Instruction i : instrs) {
+            if (!(i instanceof LabelInstr)) n++;
+        }
+        return n;
+    }
+}
@@ -1,57 +1,120 @@
 package J2S;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import Compiler.PassTimer;
 import minijava.MiniJavaParser;
 import minijava.ParseException;
 import minijava.syntaxtree.Goal;
+import sparrow.FunctionDecl;
+import sparrow.Program;
+import sparrow.visitor.Printer;
 
 public class J2S {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         try {
 
             Goal root = new MiniJavaParser(System.in).Goal();
 
-            // Build inheritance tree
-            ClassCollector collector = new ClassCollector();
-            root.accept(collector);
+            // Stream the program out instead of building it as one String
+            Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+            new Printer(out).visit(translate(root));
+            out.write("\n");
+            out.flush();
+
+        } catch (ParseException e) {
+
+            System.out.println("Parse exception: " + e.toString());
+            System.exit(1);
+
+        }
+    }
+    
+    /**
+     * Translate a type checked MiniJava program to Sparrow
+     * @param root MiniJava AST
+     * @return Sparrow program
+     */
+    public static Program translate(Goal root) {
+        return translate(root, PassTimer.NONE);
+    }
 
-            List<String> sortedClasses = topoSort(collector.allClasses, collector.parentMap);
+    /**
+     * Translate a type checked MiniJava program to Sparrow, timing each pass
+     * @param root MiniJava AST
+     * @param timer pass instrumentation
+     * @return Sparrow program
+     */
+    public static Program translate(Goal root, PassTimer timer) {
+        Program prog = generate(root, timer);
 
-            // Preprocess class layouts
-            TableBuilder tb = new TableBuilder();
+        // Remove null checks proven redundant; every function but main takes a receiver first.
+        // The count column is checks removed
+        for (FunctionDecl fd : prog.funDecls) {
+            boolean method = fd != prog.funDecls.get(0);
+            int removed = timer.time("J2S.NullCheckElimination", fd.functionName.toString(), 0,
+                () -> new NullCheckElimination(fd, method).run());
+            timer.count("J2S.NullCheckElimination", removed);
+        }
+
+        // Inline small methods where they are called directly; the count column is calls inlined
+        Inliner inliner = new Inliner(prog);
+        for (FunctionDecl fd : prog.funDecls) {
+            int inlined = timer.time("J2S.Inliner", fd.functionName.toString(), 0, () -> inliner.run(fd));
+            timer.count("J2S.Inliner", inlined);
+        }
+        return prog;
+    }
+
+    /**
+     * Generate Sparrow for a type checked MiniJava program, before any optimization
+     * @param root MiniJava AST
+     * @param timer pass instrumentation
+     * @return Sparrow program
+     */
+    static Program generate(Goal root, PassTimer timer) {
+        // Build inheritance tree
+        ClassCollector collector = new ClassCollector();
+        List<String> sortedClasses = timer.time("J2S.ClassCollector", () -> {
+            root.accept(collector);
+            return topoSort(collector.allClasses, collector.parentMap);
+        });
+
+        // Preprocess class layouts
+        TableBuilder tb = new TableBuilder();
+        timer.run("J2S.TableBuilder", null, -1, () -> {
             for (String className : sortedClasses) {
                 collector.classNodes.get(className).accept(tb);
             }
+        });
 
-            // Inherit fields and methods
-            InheritanceResolver ir = new InheritanceResolver(tb.getLayouts());
+        // Inherit fields and methods
+        InheritanceResolver ir = new InheritanceResolver(tb.getLayouts());
+        timer.run("J2S.InheritanceResolver", null, -1, () -> {
             for (String className : sortedClasses) {
                 collector.classNodes.get(className).accept(ir);
             }
+        });
 
-            // Generate Sparrow code
-            SparrowGenerator codegen = new SparrowGenerator(tb.getLayouts());
-            root.accept(codegen);
-            System.out.println(codegen.getGeneratedCode());
-
-        } catch (ParseException e) {
-
-            System.out.println("Parse exception: " + e.toString());
-            System.exit(1);
-
-        }
+        // Generate Sparrow code
+        SparrowGenerator codegen = new SparrowGenerator(tb.getLayouts());
+        timer.run("J2S.SparrowGenerator", null, -1, () -> root.accept(codegen));
+        return codegen.getProgram();
     }
-    
+
     // -------------------
     // Helper functions
     // -------------------
 
-    static List<String> topoSort(Set<String> allClasses, Map<String, String> parentMap) {
+    public static List<String> topoSort(Set<String> allClasses, Map<String, String> parentMap) {
         List<String> sorted = new ArrayList<>();
         Set<String> visited = new HashSet<>();
         for (String c : allClasses) {
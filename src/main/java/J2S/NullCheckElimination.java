@@ -0,0 +1,257 @@
+package J2S;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import IR.token.Label;
+import Analysis.ControlFlowGraph;
+import Analysis.ControlFlowGraph.BasicBlock;
+import sparrow.ErrorMessage;
+import sparrow.FunctionDecl;
+import sparrow.Goto;
+import sparrow.IfGoto;
+import sparrow.Instruction;
+import sparrow.LabelInstr;
+import sparrow.Move_Id_Id;
+
+/**
+ * Null-check elimination over a generated Sparrow function.
+ *
+ * A forward must-analysis tracks the variables known to hold an object: the receiver of a
+ * method, which its caller checked, and every variable that passed a check or was copied
+ * from one. Checks on those variables, such as a call on `this` or on the result of `new`,
+ * are dropped along with their error blocks. The error blocks that remain are merged into
+ * one per message, and jumps and labels left with nothing to do are removed, so a checked
+ * call is a single branch.
+ */
+public class NullCheckElimination {
+    private static final String NULL_POINTER = "\"null pointer\"";
+
+    private final FunctionDecl fn;
+    private final boolean method;           // First parameter is a receiver
+    private ControlFlowGraph cfg;
+    private final Map<String, Integer> index = new HashMap<>();     // Variables checked or copied
+    private int removedChecks;
+
+    public NullCheckElimination(FunctionDecl fn, boolean method) {
+        this.fn = fn;
+        this.method = method;
+    }
+
+    /**
+     * Remove the null checks the analysis proves always pass, then merge the error blocks
+     * @return number of checks removed
+     */
+    public int run() {
+        cfg = new ControlFlowGraph(fn);
+        number();
+        List<BitSet> in = solve();
+
+        List<Instruction> instrs = rewrite(in);
+        instrs = mergeErrors(instrs);
+        fn.block.instructions = removeJumps(instrs);
+        return removedChecks;
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    /* Number the only variables that can become known non-null */
+    private void number() {
+        if (method && !fn.formalParameters.isEmpty()) variable(fn.formalParameters.get(0).toString());
+        for (Instruction i : fn.block.instructions) {
+            if (i instanceof IfGoto) {
+                variable(((IfGoto) i).condition.toString());
+            } else if (i instanceof Move_Id_Id) {
+                variable(((Move_Id_Id) i).lhs.toString());
+                variable(((Move_Id_Id) i).rhs.toString());
+            }
+        }
+    }
+
+    private int variable(String v) {
+        return index.computeIfAbsent(v, k -> index.size());
+    }
+
+    /* Non-null variables at the start of every block, or null for blocks never reached */
+    private List<BitSet> solve() {
+        int n = cfg.blocks.size();
+        List<BitSet> in = new ArrayList<>();
+        List<List<BitSet>> out = new ArrayList<>();     // {fall-through or only successor, jump target}
+        for (int b = 0; b < n; b++) {
+            in.add(null);
+            out.add(null);
+        }
+
+        BitSet entry = new BitSet();
+        if (method && !fn.formalParameters.isEmpty()) entry.set(index.get(fn.formalParameters.get(0).toString()));
+
+        // Visit blocks in order, wrapping around while a change is pending
+        BitSet pending = new BitSet();
+        pending.set(0, n);
+        int next = 0;
+        while (!pending.isEmpty()) {
+            next = pending.nextSetBit(next);
+            if (next < 0) next = pending.nextSetBit(0);
+            pending.clear(next);
+            BasicBlock b = cfg.blocks.get(next);
+
+            BitSet s = b.index == 0 ? (BitSet) entry.clone() : null;
+            for (BasicBlock p : b.preds) {
+                BitSet e = edge(out, p, b);
+                if (e == null) continue;
+                if (s == null) {
+                    s = (BitSet) e.clone();
+                } else {
+                    s.and(e);
+                }
+            }
+            if (s == null || s.equals(in.get(b.index))) continue;
+
+            in.set(b.index, s);
+            out.set(b.index, transfer(b, (BitSet) s.clone(), null));
+            for (BasicBlock succ : b.succs) pending.set(succ.index);
+        }
+        return in;
+    }
+
+    /* Non-null variables along the edge from p to b */
+    private BitSet edge(List<List<BitSet>> out, BasicBlock p, BasicBlock b) {
+        List<BitSet> o = out.get(p.index);
+        if (o == null) return null;
+        Instruction end = cfg.instruction(p.last);
+        if (!(end instanceof IfGoto)) return o.get(0);
+        if (b.index != p.index + 1) return o.get(1);
+
+        // Jumping to the very next line takes both edges
+        Instruction start = cfg.instruction(b.first);
+        boolean target = start instanceof LabelInstr
+            && ((LabelInstr) start).label.toString().equals(((IfGoto) end).label.toString());
+        if (!target || o.get(1) == null) return o.get(0);
+        BitSet both = (BitSet) o.get(0).clone();
+        both.and(o.get(1));
+        return both;
+    }
+
+    /* Run a block over its entry state, rewriting it when given a list to fill. Returns the
+       state on the fall-through and jump edges, with null for a jump never taken. */
+    private List<BitSet> transfer(BasicBlock b, BitSet s, List<Instruction> rewritten) {
+        BitSet jump = s;
+        for (int line = b.first; line <= b.last; line++) {
+            Instruction i = cfg.instruction(line);
+
+            if (i instanceof IfGoto) {
+                int c = index.get(((IfGoto) i).condition.toString());
+                if (s.get(c)) {
+                    // Never taken
+                    jump = null;
+                    if (rewritten != null && reportsNull(b)) removedChecks++;
+                    continue;
+                }
+                jump = (BitSet) s.clone();
+                s.set(c);
+            } else {
+                Integer def = cfg.defUse(line).def == null ? null : index.get(cfg.defUse(line).def);
+                boolean copied = i instanceof Move_Id_Id && s.get(index.get(((Move_Id_Id) i).rhs.toString()));
+                if (def != null) s.clear(def);
+                if (copied) s.set(def);
+            }
+            if (rewritten != null) rewritten.add(i);
+        }
+
+        List<BitSet> edges = new ArrayList<>();
+        edges.add(s);
+        edges.add(jump);
+        return edges;
+    }
+
+    /* Whether the jump ending a block leads to a null pointer error */
+    private boolean reportsNull(BasicBlock b) {
+        for (BasicBlock s : b.succs) {
+            if (s.index == b.index + 1 || s.last <= s.first) continue;
+            Instruction next = cfg.instruction(s.first + 1);
+            if (next instanceof ErrorMessage && ((ErrorMessage) next).msg.equals(NULL_POINTER)) return true;
+        }
+        return false;
+    }
+
+    /* Replay the analysis over each block, dropping the blocks no path reaches */
+    private List<Instruction> rewrite(List<BitSet> in) {
+        List<Instruction> rewritten = new ArrayList<>();
+        for (BasicBlock b : cfg.blocks) {
+            if (in.get(b.index) != null) transfer(b, (BitSet) in.get(b.index).clone(), rewritten);
+        }
+        return rewritten;
+    }
+
+    /* Send every error with the same message to its first error block */
+    private List<Instruction> mergeErrors(List<Instruction> instrs) {
+        Map<String, Label> stubs = new HashMap<>();         // Message -> label of its kept block
+        Map<String, Label> merged = new HashMap<>();        // Label of a dropped block -> replacement
+        BitSet dropped = new BitSet();
+
+        for (int k = 0; k + 1 < instrs.size(); k++) {
+            if (!(instrs.get(k) instanceof LabelInstr) || !(instrs.get(k + 1) instanceof ErrorMessage)) continue;
+            Label label = ((LabelInstr) instrs.get(k)).label;
+            String msg = ((ErrorMessage) instrs.get(k + 1)).msg;
+
+            Label stub = stubs.get(msg);
+            Instruction prev = k > 0 ? instrs.get(k - 1) : null;
+            if (stub == null) {
+                stubs.put(msg, label);
+            } else if (prev instanceof Goto || prev instanceof ErrorMessage) {
+                // Only jumps lead here
+                merged.put(label.toString(), stub);
+                dropped.set(k);
+                dropped.set(k + 1);
+            }
+        }
+        if (merged.isEmpty()) return instrs;
+
+        List<Instruction> result = new ArrayList<>();
+        for (int k = 0; k < instrs.size(); k++) {
+            if (dropped.get(k)) continue;
+            Instruction i = instrs.get(k);
+            if (i instanceof IfGoto && merged.containsKey(((IfGoto) i).label.toString())) {
+                i = new IfGoto(((IfGoto) i).condition, merged.get(((IfGoto) i).label.toString()));
+            } else if (i instanceof Goto && merged.containsKey(((Goto) i).label.toString())) {
+                i = new Goto(merged.get(((Goto) i).label.toString()));
+            }
+            result.add(i);
+        }
+        return result;
+    }
+
+    /* Drop jumps to the next line, then labels no jump targets */
+    private List<Instruction> removeJumps(List<Instruction> instrs) {
+        List<Instruction> kept = new ArrayList<>();
+        for (int k = 0; k < instrs.size(); k++) {
+            Instruction i = instrs.get(k);
+            if (i instanceof Goto && labelsAt(instrs, k + 1).contains(((Goto) i).label.toString())) continue;
+            kept.add(i);
+        }
+
+        Set<String> targets = new HashSet<>();
+        for (Instruction i : kept) {
+            if (i instanceof Goto) targets.add(((Goto) i).label.toString());
+            if (i instanceof IfGoto) targets.add(((IfGoto) i).label.toString());
+        }
+        kept.removeIf(i -> i instanceof LabelInstr && !targets.contains(((LabelInstr) i).label.toString()));
+        return kept;
+    }
+
+    /* Labels in the run starting at a line */
+    private static Set<String> labelsAt(List<Instruction> instrs, int line) {
+        Set<String> labels = new HashSet<>();
+        for (int k = line; k < instrs.size() && instrs.get(k) instanceof LabelInstr; k++) {
+            labels.add(((LabelInstr) instrs.get(k)).label.toString());
+        }
+        return labels;
+    }
+}
@@ -1,5 +1,6 @@
 package J2S;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -75,6 +76,10 @@ public class SparrowGenerator extends DepthFirstVisitor {
     private Map<String, ClassLayout> classLayouts;
     private Program code;
     private Set<String> reservedRegs;
+    private Map<String, Integer> vmtOffsets;        // Class -> offset of its vtable in the shared table
+    private int vmtTableSize;
+    private IR.token.Identifier vmtTable;           // Shared vtable table, in main
+    private Map<String, List<String>> subclasses;   // Class -> classes directly extending it
 
     public SparrowGenerator(HashMap<String, ClassLayout> layoutMap) {
         this.tempCounter = 0;
@@ -95,12 +100,32 @@ public class SparrowGenerator extends DepthFirstVisitor {
 
         for (int i = 1; i <= 11; i++)
             reservedRegs.add("s" + i);
+
+        // Every class's vtable lives in one table built once at the start of main
+        this.vmtOffsets = new HashMap<>();
+        this.vmtTableSize = 0;
+        List<String> classes = new ArrayList<>(classLayouts.keySet());
+        Collections.sort(classes);
+        for (String className : classes) {
+            vmtOffsets.put(className, vmtTableSize);
+            vmtTableSize += classLayouts.get(className).getVmtSize();
+        }
+
+        this.subclasses = new HashMap<>();
+        for (ClassLayout layout : classLayouts.values()) {
+            if (layout.getParent() != null)
+                subclasses.computeIfAbsent(layout.getParent(), k -> new ArrayList<>()).add(layout.getClassName());
+        }
     }
 
     public String getGeneratedCode() {
         return code.toString();
     }
 
+    public Program getProgram() {
+        return code;
+    }
+
     /**
      * Helper functions
      */
@@ -150,13 +175,95 @@ public class SparrowGenerator extends DepthFirstVisitor {
         if (layout == null)
             return null;
 
-        for (String name : layout.getMethodOffsets().keySet()) {
-            if (name.endsWith("_" + methodName)) {
-                return name;
+        String method = layout.getMethod(methodName);
+        if (method != null)
+            return method;
+
+        return findMethod(layout.getParent(), methodName);
+    }
+
+    /**
+     * Class hierarchy analysis: a method no subclass overrides is the only possible target of a
+     * call on its class, so the call can name it directly instead of going through the vtable.
+     * @return the method, or null if some subclass puts another method in its vtable slot
+     */
+    private String directTarget(String className, String method) {
+        int offset = classLayouts.get(className).getMethodOffset(method);
+
+        List<String> work = new ArrayList<>(subclasses.getOrDefault(className, Collections.emptyList()));
+        while (!work.isEmpty()) {
+            String sub = work.remove(work.size() - 1);
+            for (Map.Entry<String, Integer> entry : classLayouts.get(sub).getMethodOffsets().entrySet()) {
+                if (entry.getValue() == offset && !entry.getKey().equals(method))
+                    return null;
             }
+            work.addAll(subclasses.getOrDefault(sub, Collections.emptyList()));
         }
+        return method;
+    }
 
-        return findMethod(layout.getParent(), methodName);
+    /**
+     * Allocate the shared vtable table and fill in every class's vtable, once per program.
+     * Slot 0 of each vtable points back to the table, so methods can reach it through this.
+     */
+    private void buildVmtTable() {
+        if (vmtOffsets.isEmpty())
+            return;
+
+        Label nullErr = new Label("nullErr_" + (labelCounter++));
+        Label success = new Label("success_" + (labelCounter++));
+
+        vmtTable = getNewTemp("int");
+
+        IR.token.Identifier size = getNewTemp("int");
+        currentInstructions.add(new Move_Id_Integer(size, vmtTableSize));
+        currentInstructions.add(new Alloc(vmtTable, size));
+
+        currentInstructions.add(new IfGoto(vmtTable, nullErr));
+        currentInstructions.add(new Goto(success));
+
+        currentInstructions.add(new LabelInstr(nullErr));
+        currentInstructions.add(new ErrorMessage("\"null pointer\""));
+
+        currentInstructions.add(new LabelInstr(success));
+
+        List<String> classes = new ArrayList<>(vmtOffsets.keySet());
+        Collections.sort(classes);
+        for (String className : classes) {
+            int base = vmtOffsets.get(className);
+            currentInstructions.add(new Store(vmtTable, base, vmtTable));
+
+            for (Map.Entry<String, Integer> entry : classLayouts.get(className).getMethodOffsets().entrySet()) {
+                IR.token.Identifier methodLabel = getNewTemp(null);
+                currentInstructions.add(new Move_Id_FuncName(methodLabel, new FunctionName(entry.getKey())));
+                currentInstructions.add(new Store(vmtTable, base + entry.getValue(), methodLabel));
+            }
+        }
+    }
+
+    /* Address of a class's vtable: main holds the table, methods find it through this's vtable */
+    private IR.token.Identifier vmtOf(String className) {
+        IR.token.Identifier table = vmtTable;
+
+        if (!currentClass.equals("Main")) {
+            IR.token.Identifier thisVmt = getNewTemp("int");
+            currentInstructions.add(new Load(thisVmt, varMap.get("this"), 0));
+
+            table = getNewTemp("int");
+            currentInstructions.add(new Load(table, thisVmt, 0));
+        }
+
+        int offset = vmtOffsets.get(className);
+        if (offset == 0)
+            return table;
+
+        IR.token.Identifier offsetId = getNewTemp("int");
+        currentInstructions.add(new Move_Id_Integer(offsetId, offset));
+
+        IR.token.Identifier vmt = getNewTemp("int");
+        currentInstructions.add(new Add(vmt, table, offsetId));
+
+        return vmt;
     }
 
     // -----------------
@@ -187,6 +294,8 @@ public class SparrowGenerator extends DepthFirstVisitor {
         currentClass = "Main";
         currentInstructions = new ArrayList<>();
 
+        buildVmtTable();
+
         n.f14.accept(this);
         n.f15.accept(this);
 
@@ -714,15 +823,20 @@ public class SparrowGenerator extends DepthFirstVisitor {
         }
 
         String methodName = findMethod(className, n.f2.f0.toString());
-        int offset = classLayouts.get(className).getMethodOffset(methodName);
-
-        IR.token.Identifier vmt = getNewTemp("int");
-        currentInstructions.add(new Load(vmt, classObj, 0));
+        String target = directTarget(className, methodName);
 
         IR.token.Identifier funcId = getNewTemp(null);
-        currentInstructions.add(new Load(funcId, vmt, offset));
+        if (target != null) {
+            currentInstructions.add(new Move_Id_FuncName(funcId, new FunctionName(target)));
+        } else {
+            int offset = classLayouts.get(className).getMethodOffset(methodName);
+
+            IR.token.Identifier vmt = getNewTemp("int");
+            currentInstructions.add(new Load(vmt, classObj, 0));
+            currentInstructions.add(new Load(funcId, vmt, offset));
+        }
 
-        IR.token.Identifier callRes = getNewTemp(className);
+        IR.token.Identifier callRes = getNewTemp(classLayouts.get(className).getMethodType(methodName));
         currentInstructions.add(new Call(callRes, funcId, args));
 
         lastResult = callRes;
@@ -889,24 +1003,7 @@ public class SparrowGenerator extends DepthFirstVisitor {
             currentInstructions.add(new Store(result, offset, zero));
         }
 
-        IR.token.Identifier vmt = getNewTemp("int");
-        int vmtBytes = classObj.getVmtSize();
-
-        currentInstructions.add(new Move_Id_Integer(size, vmtBytes));
-        currentInstructions.add(new Alloc(vmt, size));
-
-        currentInstructions.add(new IfGoto(vmt, nullErr));
-
-        Map<String, Integer> methodOffsets = classObj.getMethodOffsets();
-
-        for (Map.Entry<String, Integer> entry : methodOffsets.entrySet()) {
-            String methodName = entry.getKey();
-            int offset = entry.getValue();
-            IR.token.Identifier methodLabel = getNewTemp(null);
-            currentInstructions.add(new Move_Id_FuncName(methodLabel, new FunctionName(methodName)));
-            currentInstructions.add(new Store(vmt, offset, methodLabel));
-        }
-
+        IR.token.Identifier vmt = vmtOf(className);
         currentInstructions.add(new Store(result, 0, vmt));
         currentInstructions.add(new Goto(success));
 
@@ -55,12 +55,12 @@ public class TableBuilder extends DepthFirstVisitor {
             fOffset += 4;
         }
 
-        // Collect methods and set method offsets
-        int mOffset = 0;
+        // Collect methods and set method offsets; slot 0 points back to the table of all vtables
+        int mOffset = 4;
         for (Node node: n.f4.nodes) {
             MethodDeclaration md = (MethodDeclaration) node;
-            String methodName = currentClass + "_" + md.f2.f0.toString();
-            layout.addMethod(methodName, mOffset);
+            String name = md.f2.f0.toString();
+            layout.addMethod(name, currentClass + "_" + name, mOffset, typeString(md.f1));
             mOffset += 4;
         }
 
@@ -0,0 +1,15 @@
+package S2SV;
+
+/**
+ * Register allocation strategies for the "t" and "s" registers
+ */
+public enum Allocator {
+    LINEAR,         // Linear scan over live intervals
+    COLORING,       // Chaitin/Briggs graph coloring with move coalescing
+    SPLIT;          // Linear scan over live ranges split at blocks and calls
+
+    /* Parse an option value such as "coloring" */
+    public static Allocator of(String name) {
+        return valueOf(name.toUpperCase(java.util.Locale.ROOT));
+    }
+}
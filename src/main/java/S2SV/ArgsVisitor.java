@@ -3,41 +3,35 @@ package S2SV;
 import java.util.HashMap;
 import java.util.Map;
 
-import IR.syntaxtree.FunctionDeclaration;
-import IR.syntaxtree.Identifier;
-import IR.visitor.GJVoidDepthFirst;
+import IR.token.Identifier;
+import sparrow.FunctionDecl;
+import sparrow.visitor.DepthFirst;
 
-public class ArgsVisitor extends GJVoidDepthFirst<FunctionStruct>{
+public class ArgsVisitor extends DepthFirst {
     Map<String, Map<String, String>> aRegs;
 
     public ArgsVisitor() {
         aRegs = new HashMap<>();
     }
 
-    /**
-     * f0 -> "func"
-     * f1 -> FunctionName()
-     * f2 -> "("
-     * f3 -> ( Identifier() )*
-     * f4 -> ")"
-     * f5 -> Block()
-     */
+    /*   Program parent;
+     *   FunctionName functionName;
+     *   List<Identifier> formalParameters;
+     *   Block block; */
     @Override
-    public void visit(FunctionDeclaration n, FunctionStruct f) {
-        f.name = n.f1.f0.toString();
+    public void visit(FunctionDecl n) {
+        String name = n.functionName.toString();
         
-        aRegs.put(f.name, new HashMap<>());
+        aRegs.put(name, new HashMap<>());
         int regNum = 2;
 
-        if (n.f3.present()) {
-            for (int i = 0; i < n.f3.size(); i++) {
-                String paramName = ((Identifier) n.f3.elementAt(i)).f0.toString();
-                
-                if (regNum <= 7)
-                    aRegs.get(f.name).put(paramName, "a" + regNum);
+        for (Identifier param : n.formalParameters) {
+            String paramName = param.toString();
 
-                regNum++;
-            }
+            if (regNum <= 7)
+                aRegs.get(name).put(paramName, "a" + regNum);
+
+            regNum++;
         }
     }
 }
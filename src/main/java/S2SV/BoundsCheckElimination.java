@@ -0,0 +1,535 @@
+package S2SV;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import Analysis.ControlFlowGraph;
+import Analysis.ControlFlowGraph.BasicBlock;
+import Analysis.DefUse;
+import IR.token.Identifier;
+import sparrow.Add;
+import sparrow.Alloc;
+import sparrow.Call;
+import sparrow.ErrorMessage;
+import sparrow.FunctionDecl;
+import sparrow.IfGoto;
+import sparrow.Instruction;
+import sparrow.LabelInstr;
+import sparrow.LessThan;
+import sparrow.Load;
+import sparrow.Move_Id_FuncName;
+import sparrow.Move_Id_Id;
+import sparrow.Move_Id_Integer;
+import sparrow.Multiply;
+import sparrow.Store;
+import sparrow.Subtract;
+
+/**
+ * Range analysis over a function's CFG that removes array bounds checks it proves redundant.
+ *
+ * A forward dataflow tracks, for each variable, an interval of values, the array it holds,
+ * the array whose length it holds, and the arrays it is known to be below the length of.
+ * Arrays are identified by the instruction that produced them; a field holding an array
+ * keeps its identity until a store to that field offset or a call. Loop conditions refine
+ * the facts on the edge into the loop body, and a check that passed refines them for
+ * whatever follows, so induction variables and repeated accesses prove their own checks.
+ * Loop heads widen growing intervals to the type's bounds.
+ *
+ * Proven comparisons become constants, proven checks are removed with the error blocks they
+ * guarded, and the definitions left without uses are dropped.
+ */
+public class BoundsCheckElimination {
+    private static final String OUT_OF_BOUNDS = "\"array index out of bounds\"";
+    private static final int WIDEN_AFTER = 2;       // Visits of a loop head before widening
+
+    private final FunctionDecl fn;
+    private ControlFlowGraph cfg;
+    private int removedChecks;
+    private boolean changed;                        // Some instruction was rewritten or removed
+
+    /* Facts holding at a program point */
+    private static class Facts {
+        final Map<String, long[]> range = new HashMap<>();          // Variable -> {lo, hi}
+        final Map<String, Integer> array = new HashMap<>();         // Variable -> array it holds
+        final Map<String, Integer> length = new HashMap<>();        // Variable -> array whose length it holds
+        final Map<String, Set<Integer>> below = new HashMap<>();    // Variable -> arrays it indexes in bounds
+        final Map<String, Map<Integer, Integer>> fields = new HashMap<>();  // Base -> offset -> array
+        final Map<String, List<String[]>> implies = new HashMap<>();  // Variable -> a < b when it is nonzero
+
+        Facts copy() {
+            return copy(null, null);
+        }
+
+        /* Copy of the facts about live variables, or about all of them when live is null */
+        Facts copy(BitSet live, Liveness liveness) {
+            Facts f = new Facts();
+            range.forEach((v, r) -> { if (isLive(v, live, liveness)) f.range.put(v, r.clone()); });
+            array.forEach((v, a) -> { if (isLive(v, live, liveness)) f.array.put(v, a); });
+            length.forEach((v, a) -> { if (isLive(v, live, liveness)) f.length.put(v, a); });
+            below.forEach((v, t) -> { if (isLive(v, live, liveness)) f.below.put(v, new HashSet<>(t)); });
+            fields.forEach((b, m) -> { if (isLive(b, live, liveness)) f.fields.put(b, new HashMap<>(m)); });
+            if (live == null) implies.forEach((v, l) -> f.implies.put(v, new ArrayList<>(l)));
+            return f;
+        }
+
+        /* Facts true on both paths; implications only live within a block */
+        Facts join(Facts o) {
+            Facts f = new Facts();
+            range.forEach((v, r) -> {
+                long[] s = o.range.get(v);
+                if (s != null) f.range.put(v, new long[] {Math.min(r[0], s[0]), Math.max(r[1], s[1])});
+            });
+            array.forEach((v, a) -> { if (a.equals(o.array.get(v))) f.array.put(v, a); });
+            length.forEach((v, a) -> { if (a.equals(o.length.get(v))) f.length.put(v, a); });
+            below.forEach((v, s) -> {
+                Set<Integer> t = o.below.get(v);
+                if (t == null) return;
+                Set<Integer> both = new HashSet<>(s);
+                both.retainAll(t);
+                if (!both.isEmpty()) f.below.put(v, both);
+            });
+            fields.forEach((b, m) -> {
+                Map<Integer, Integer> n = o.fields.get(b);
+                if (n == null) return;
+                Map<Integer, Integer> both = new HashMap<>();
+                m.forEach((off, a) -> { if (a.equals(n.get(off))) both.put(off, a); });
+                if (!both.isEmpty()) f.fields.put(b, both);
+            });
+            return f;
+        }
+
+        /* Forget variables nothing reads again; they are mostly temporaries of one block */
+        void retain(BitSet live, Liveness liveness) {
+            range.keySet().removeIf(v -> !isLive(v, live, liveness));
+            array.keySet().removeIf(v -> !isLive(v, live, liveness));
+            length.keySet().removeIf(v -> !isLive(v, live, liveness));
+            below.keySet().removeIf(v -> !isLive(v, live, liveness));
+            fields.keySet().removeIf(v -> !isLive(v, live, liveness));
+        }
+
+        private static boolean isLive(String v, BitSet live, Liveness liveness) {
+            if (live == null) return true;
+            int i = liveness.variableIndex(v);
+            return i >= 0 && live.get(i);
+        }
+
+        /* Give up on intervals that kept growing at a loop head */
+        void widen(Facts old) {
+            for (Iterator<Map.Entry<String, long[]>> it = range.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, long[]> e = it.next();
+                long[] r = e.getValue();
+                long[] p = old.range.get(e.getKey());
+                if (p == null) {
+                    it.remove();
+                    continue;
+                }
+                if (r[0] < p[0]) r[0] = Integer.MIN_VALUE;
+                if (r[1] > p[1]) r[1] = Integer.MAX_VALUE;
+                if (r[0] == Integer.MIN_VALUE && r[1] == Integer.MAX_VALUE) it.remove();
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Facts)) return false;
+            Facts o = (Facts) other;
+            if (range.size() != o.range.size()) return false;
+            for (Map.Entry<String, long[]> e : range.entrySet()) {
+                long[] r = o.range.get(e.getKey());
+                if (r == null || r[0] != e.getValue()[0] || r[1] != e.getValue()[1]) return false;
+            }
+            return array.equals(o.array) && length.equals(o.length) && below.equals(o.below)
+                && fields.equals(o.fields);
+        }
+
+        @Override
+        public int hashCode() {
+            return array.hashCode();
+        }
+
+        long lo(String v) {
+            long[] r = range.get(v);
+            return r == null ? Integer.MIN_VALUE : r[0];
+        }
+
+        long hi(String v) {
+            long[] r = range.get(v);
+            return r == null ? Integer.MAX_VALUE : r[1];
+        }
+
+        void setRange(String v, long lo, long hi) {
+            if (lo < Integer.MIN_VALUE || hi > Integer.MAX_VALUE) return;    // Might wrap around
+            if (lo == Integer.MIN_VALUE && hi == Integer.MAX_VALUE) return;
+            range.put(v, new long[] {lo, hi});
+        }
+
+        /* The variable is about to be overwritten */
+        void kill(String v) {
+            range.remove(v);
+            array.remove(v);
+            length.remove(v);
+            below.remove(v);
+            fields.remove(v);
+            implies.remove(v);
+            for (List<String[]> l : implies.values()) {
+                l.removeIf(c -> c[0].equals(v) || c[1].equals(v));
+            }
+        }
+
+        /* The instruction that produced an array runs again, creating a different one */
+        void forgetArray(int a) {
+            array.values().removeIf(x -> x == a);
+            length.values().removeIf(x -> x == a);
+            for (Set<Integer> s : below.values()) s.remove(a);
+            below.values().removeIf(Set::isEmpty);
+            for (Map<Integer, Integer> m : fields.values()) m.values().removeIf(x -> x == a);
+        }
+
+        /* Everything known about src now also holds for dst */
+        void alias(String dst, String src) {
+            if (range.containsKey(src)) range.put(dst, range.get(src).clone());
+            if (array.containsKey(src)) array.put(dst, array.get(src));
+            if (length.containsKey(src)) length.put(dst, length.get(src));
+            if (below.containsKey(src)) below.put(dst, new HashSet<>(below.get(src)));
+            if (implies.containsKey(src)) implies.put(dst, new ArrayList<>(implies.get(src)));
+        }
+
+        /* a < b holds from here on */
+        void refine(String a, String b) {
+            setRange(a, lo(a), Math.min(hi(a), hi(b) - 1));
+            setRange(b, Math.max(lo(b), lo(a) + 1), hi(b));
+
+            Set<Integer> bounds = new HashSet<>(below.getOrDefault(b, new HashSet<>()));
+            if (length.containsKey(b)) bounds.add(length.get(b));
+            if (!bounds.isEmpty()) below.computeIfAbsent(a, k -> new HashSet<>()).addAll(bounds);
+        }
+
+        boolean provesLess(String a, String b) {
+            if (hi(a) < lo(b)) return true;
+            Integer arr = length.get(b);
+            return arr != null && below.getOrDefault(a, new HashSet<>()).contains(arr);
+        }
+    }
+
+    public BoundsCheckElimination(FunctionDecl fn) {
+        this.fn = fn;
+    }
+
+    /**
+     * Remove the bounds checks the analysis proves always pass
+     * @return number of checks removed
+     */
+    public int run() {
+        if (!hasBoundsChecks()) return 0;
+
+        cfg = new ControlFlowGraph(fn);
+        Facts[] in = solve();
+
+        rewrite(in);
+        if (changed) removeDeadCode();
+        return removedChecks;
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    private boolean hasBoundsChecks() {
+        for (Instruction i : fn.block.instructions) {
+            if (i instanceof ErrorMessage && ((ErrorMessage) i).msg.equals(OUT_OF_BOUNDS)) return true;
+        }
+        return false;
+    }
+
+    /* Facts at the start of every block, or null for blocks never reached */
+    private Facts[] solve() {
+        int n = cfg.blocks.size();
+        Facts[] in = new Facts[n];
+        Facts[][] out = new Facts[n][];             // {fall-through or only successor, jump target}
+        int[] visits = new int[n];
+        Liveness live = new Liveness(cfg);
+
+        Facts entry = new Facts();
+        int param = 0;
+        for (Identifier p : fn.formalParameters) {
+            entry.array.put(p.toString(), -(++param));      // Distinct from every instruction's line
+        }
+
+        // Visit blocks in order, wrapping around while a change is pending
+        BitSet pending = new BitSet();
+        pending.set(0, n);
+        int next = 0;
+        while (!pending.isEmpty()) {
+            next = pending.nextSetBit(next);
+            if (next < 0) next = pending.nextSetBit(0);
+            pending.clear(next);
+            BasicBlock b = cfg.blocks.get(next);
+
+            Facts f = b.index == 0 ? entry.copy() : null;
+            for (BasicBlock p : b.preds) {
+                Facts e = edge(out, p, b);
+                if (e != null) f = f == null ? e.copy() : f.join(e);
+            }
+            if (f == null) continue;
+
+            f.implies.clear();
+            f.retain(live.liveIn(b), live);
+            if (in[b.index] != null && isLoopHead(b) && ++visits[b.index] > WIDEN_AFTER) {
+                f.widen(in[b.index]);
+            }
+            if (in[b.index] != null && in[b.index].equals(f)) continue;
+
+            in[b.index] = f;
+            out[b.index] = transfer(b, f.copy(), null, live);
+            for (BasicBlock s : b.succs) pending.set(s.index);
+        }
+        return in;
+    }
+
+    /* Facts flowing along the edge from p to b */
+    private Facts edge(Facts[][] out, BasicBlock p, BasicBlock b) {
+        if (out[p.index] == null) return null;
+        Instruction end = cfg.instruction(p.last);
+        if (!(end instanceof IfGoto)) return out[p.index][0];
+        if (b.index != p.index + 1) return out[p.index][1];
+
+        // Jumping to the very next line takes both edges
+        Instruction start = cfg.instruction(b.first);
+        boolean target = start instanceof LabelInstr
+            && ((LabelInstr) start).label.toString().equals(((IfGoto) end).label.toString());
+        Facts jump = out[p.index][1];
+        return target && jump != null ? out[p.index][0].join(jump) : out[p.index][0];
+    }
+
+    private boolean isLoopHead(BasicBlock b) {
+        for (BasicBlock p : b.preds) {
+            if (p.index >= b.index) return true;
+        }
+        return false;
+    }
+
+    /* Run a block's instructions over its entry facts, rewriting them when given a list to fill.
+       Returns the facts about variables live out of the block on the fall-through and jump edges,
+       with null for a jump never taken. */
+    private Facts[] transfer(BasicBlock b, Facts f, List<Instruction> rewritten, Liveness live) {
+        Facts jump = f;
+        for (int line = b.first; line <= b.last; line++) {
+            Instruction i = cfg.instruction(line);
+
+            if (i instanceof IfGoto) {
+                String c = ((IfGoto) i).condition.toString();
+                if (f.lo(c) > 0 || f.hi(c) < 0) {
+                    // Never taken; the check always passes
+                    jump = null;
+                    if (rewritten != null) {
+                        if (guardsBounds(b)) removedChecks++;
+                        changed = true;
+                        continue;
+                    }
+                } else {
+                    if (rewritten == null) jump = f.copy(live.liveOut(b), live);
+                    for (String[] cond : f.implies.getOrDefault(c, new ArrayList<>())) {
+                        f.refine(cond[0], cond[1]);
+                    }
+                    if (f.lo(c) == 0) f.setRange(c, 1, f.hi(c));
+                }
+            } else {
+                i = step(i, line, f);
+            }
+            if (rewritten != null) rewritten.add(i);
+        }
+        if (rewritten != null) return null;
+        f.retain(live.liveOut(b), live);
+        return new Facts[] {f, jump};
+    }
+
+    /* Apply one instruction to the facts; returns it, or the simpler instruction it reduces to */
+    private Instruction step(Instruction i, int line, Facts f) {
+        if (i instanceof Move_Id_Integer) {
+            Move_Id_Integer m = (Move_Id_Integer) i;
+            f.kill(m.lhs.toString());
+            f.setRange(m.lhs.toString(), m.rhs, m.rhs);
+
+        } else if (i instanceof Move_Id_Id) {
+            Move_Id_Id m = (Move_Id_Id) i;
+            String lhs = m.lhs.toString(), rhs = m.rhs.toString();
+            if (!lhs.equals(rhs)) {
+                f.kill(lhs);
+                f.alias(lhs, rhs);
+            }
+
+        } else if (i instanceof Add) {
+            Add a = (Add) i;
+            String x = a.lhs.toString(), p = a.arg1.toString(), q = a.arg2.toString();
+            long lo = f.lo(p) + f.lo(q), hi = f.hi(p) + f.hi(q);
+            Set<Integer> bounds = null;
+            if (f.hi(q) <= 0 && f.below.containsKey(p)) bounds = new HashSet<>(f.below.get(p));
+            if (f.hi(p) <= 0 && f.below.containsKey(q)) bounds = new HashSet<>(f.below.get(q));
+            f.kill(x);
+            f.setRange(x, lo, hi);
+            if (bounds != null && lo >= Integer.MIN_VALUE) f.below.put(x, bounds);
+
+        } else if (i instanceof Subtract) {
+            Subtract s = (Subtract) i;
+            String x = s.lhs.toString(), p = s.arg1.toString(), q = s.arg2.toString();
+            long lo = f.lo(p) - f.hi(q), hi = f.hi(p) - f.lo(q);
+            Set<Integer> bounds = f.lo(q) >= 0 && f.below.containsKey(p) ? new HashSet<>(f.below.get(p)) : null;
+            f.kill(x);
+            f.setRange(x, lo, hi);
+            if (bounds != null && lo >= Integer.MIN_VALUE) f.below.put(x, bounds);
+
+        } else if (i instanceof Multiply) {
+            Multiply m = (Multiply) i;
+            String x = m.lhs.toString(), p = m.arg1.toString(), q = m.arg2.toString();
+
+            // Multiplying by one is a copy
+            if (f.lo(p) == 1 && f.hi(p) == 1 || f.lo(q) == 1 && f.hi(q) == 1) {
+                String other = f.lo(p) == 1 && f.hi(p) == 1 ? q : p;
+                changed = true;
+                return step(new Move_Id_Id(m.lhs, new Identifier(other)), line, f);
+            }
+
+            long[] corners = {f.lo(p) * f.lo(q), f.lo(p) * f.hi(q), f.hi(p) * f.lo(q), f.hi(p) * f.hi(q)};
+            long lo = Long.MAX_VALUE, hi = Long.MIN_VALUE;
+            for (long c : corners) {
+                lo = Math.min(lo, c);
+                hi = Math.max(hi, c);
+            }
+            boolean small = Math.abs(f.lo(p)) <= Integer.MAX_VALUE >> 1 && Math.abs(f.hi(p)) <= Integer.MAX_VALUE >> 1
+                && Math.abs(f.lo(q)) <= Integer.MAX_VALUE >> 1 && Math.abs(f.hi(q)) <= Integer.MAX_VALUE >> 1;
+
+            // A nonzero product means both factors are nonzero
+            List<String[]> conds = new ArrayList<>(f.implies.getOrDefault(p, new ArrayList<>()));
+            conds.addAll(f.implies.getOrDefault(q, new ArrayList<>()));
+            f.kill(x);
+            if (small) f.setRange(x, lo, hi);
+            conds.removeIf(c -> c[0].equals(x) || c[1].equals(x));
+            if (!conds.isEmpty()) f.implies.put(x, conds);
+
+        } else if (i instanceof LessThan) {
+            LessThan l = (LessThan) i;
+            String x = l.lhs.toString(), p = l.arg1.toString(), q = l.arg2.toString();
+
+            if (f.provesLess(p, q)) {
+                changed = true;
+                return step(new Move_Id_Integer(l.lhs, 1), line, f);
+            }
+            if (f.lo(p) >= f.hi(q)) {
+                changed = true;
+                return step(new Move_Id_Integer(l.lhs, 0), line, f);
+            }
+
+            f.kill(x);
+            f.setRange(x, 0, 1);
+            if (!x.equals(p) && !x.equals(q)) {
+                List<String[]> conds = new ArrayList<>();
+                conds.add(new String[] {p, q});
+                f.implies.put(x, conds);
+            }
+
+        } else if (i instanceof Load) {
+            Load l = (Load) i;
+            String x = l.lhs.toString(), base = l.base.toString();
+            Integer arr = f.array.get(base);
+            Integer field = f.fields.getOrDefault(base, new HashMap<>()).get(l.offset);
+
+            f.kill(x);
+            if (l.offset == 0 && arr != null) {
+                // Array lengths never change and are never negative
+                f.length.put(x, arr);
+                f.setRange(x, 0, Integer.MAX_VALUE);
+            } else if (l.offset != 0 && !x.equals(base)) {
+                if (field == null) {
+                    f.forgetArray(line);
+                    field = line;
+                }
+                f.array.put(x, field);
+                f.fields.computeIfAbsent(base, k -> new HashMap<>()).put(l.offset, field);
+            }
+
+        } else if (i instanceof Alloc) {
+            String x = ((Alloc) i).lhs.toString();
+            f.kill(x);
+            f.forgetArray(line);
+            f.array.put(x, line);
+
+        } else if (i instanceof Store) {
+            // Any base may be the same object
+            Store s = (Store) i;
+            for (Map<Integer, Integer> m : f.fields.values()) m.remove(s.offset);
+            Integer arr = f.array.get(s.rhs.toString());
+            if (s.offset != 0 && arr != null) {
+                f.fields.computeIfAbsent(s.base.toString(), k -> new HashMap<>()).put(s.offset, arr);
+            }
+
+        } else if (i instanceof Call) {
+            // The callee may store to any field
+            f.fields.clear();
+            f.kill(((Call) i).lhs.toString());
+
+        } else if (i instanceof Move_Id_FuncName) {
+            f.kill(((Move_Id_FuncName) i).lhs.toString());
+        }
+        return i;
+    }
+
+    /* Whether the jump ending a block leads to an out-of-bounds error */
+    private boolean guardsBounds(BasicBlock b) {
+        for (BasicBlock s : b.succs) {
+            if (s.index == b.index + 1 || s.last <= s.first) continue;
+            Instruction next = cfg.instruction(s.first + 1);
+            if (next instanceof ErrorMessage && ((ErrorMessage) next).msg.equals(OUT_OF_BOUNDS)) return true;
+        }
+        return false;
+    }
+
+    /* Replay the analysis over each block, dropping the blocks no path reaches, such as the
+       error blocks of removed checks */
+    private void rewrite(Facts[] in) {
+        List<Instruction> rewritten = new ArrayList<>();
+        for (BasicBlock b : cfg.blocks) {
+            if (in[b.index] != null) {
+                transfer(b, in[b.index].copy(), rewritten, null);
+            } else if (b.first <= b.last) {
+                changed = true;
+            }
+        }
+        fn.block.instructions = rewritten;
+    }
+
+    /* Drop side-effect-free definitions nothing reads. One backward pass catches the chains within
+       a block, which is where the removed checks leave them. */
+    private void removeDeadCode() {
+        cfg = new ControlFlowGraph(fn);
+        Liveness live = new Liveness(cfg);
+
+        List<Instruction> instrs = new ArrayList<>();
+        for (BasicBlock b : cfg.blocks) {
+            BitSet now = (BitSet) live.liveOut(b).clone();
+            List<Instruction> kept = new ArrayList<>();
+            for (int line = b.last; line >= b.first; line--) {
+                Instruction i = cfg.instruction(line);
+                DefUse du = cfg.defUse(line);
+                if (du.def != null && isPure(i) && !now.get(live.variableIndex(du.def))) continue;
+
+                if (du.def != null) now.clear(live.variableIndex(du.def));
+                for (String u : du.uses) now.set(live.variableIndex(u));
+                kept.add(i);
+            }
+            for (int k = kept.size() - 1; k >= 0; k--) instrs.add(kept.get(k));
+        }
+        fn.block.instructions = instrs;
+    }
+
+    private static boolean isPure(Instruction i) {
+        return i instanceof Move_Id_Integer || i instanceof Move_Id_Id || i instanceof Move_Id_FuncName
+            || i instanceof Add || i instanceof Subtract || i instanceof Multiply || i instanceof LessThan
+            || i instanceof Load;
+    }
+}
@@ -1,10 +0,0 @@
-package S2SV;
-public class FunctionStruct {
-    String name;
-    int lineNumber;
-
-    public FunctionStruct() {
-        this.name = null;
-        this.lineNumber = 0;
-    }
-}
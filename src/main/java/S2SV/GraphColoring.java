@@ -0,0 +1,291 @@
+package S2SV;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import Analysis.ControlFlowGraph;
+import Analysis.ControlFlowGraph.BasicBlock;
+import Analysis.DefUse;
+import IR.token.Identifier;
+import sparrow.Call;
+import sparrow.Move_Id_Id;
+
+/**
+ * Chaitin/Briggs graph-coloring register allocator. Builds the interference graph from
+ * dataflow liveness, coalesces moves conservatively (Briggs test), simplifies with
+ * optimistic spilling, and spills the variables with the lowest use count per degree,
+ * where each use or def inside a loop counts 10x per nesting level.
+ *
+ * Argument registers that carry no parameter are colored only onto variables that are not
+ * live at any call, since the call sequence loads arguments into them and callees clobber them.
+ *
+ * A spilled variable simply has no register: the Translator loads and stores it around
+ * every instruction through the t0-t2 scratch registers, so no rewrite/rebuild round is needed.
+ */
+public class GraphColoring {
+    private final Liveness live;
+    private final ControlFlowGraph cfg;
+    private final List<String> callerSaved;
+    private final List<String> calleeSaved;
+    private final List<String> argRegs;
+    private final int k;
+
+    private final int n;
+    private final boolean[] allocatable;        // false for variables with a fixed "a" register
+    private final List<Set<Integer>> adj = new ArrayList<>();
+    private final double[] cost;                // Loop-weighted number of defs and uses
+    private final boolean[] crossesCall;        // Live across some call
+    private final boolean[] atCall;             // Live across, passed to or returned by some call
+    private final int[] alias;                  // Coalesced into this node
+    private final List<int[]> moves = new ArrayList<>();
+    private final List<Double> moveWeights = new ArrayList<>();
+
+    /**
+     * @param live liveness of the function
+     * @param callerSaved caller-saved registers to color with
+     * @param calleeSaved callee-saved registers to color with
+     * @param argRegs argument registers free in this function
+     * @param fixed variables that already have a register and must not be allocated
+     */
+    public GraphColoring(Liveness live, List<String> callerSaved, List<String> calleeSaved,
+                         List<String> argRegs, Set<String> fixed) {
+        this.live = live;
+        this.cfg = live.cfg;
+        this.callerSaved = callerSaved;
+        this.calleeSaved = calleeSaved;
+        this.argRegs = argRegs;
+        this.k = callerSaved.size() + calleeSaved.size() + argRegs.size();
+
+        this.n = live.variableCount();
+        this.allocatable = new boolean[n];
+        this.cost = new double[n];
+        this.crossesCall = new boolean[n];
+        this.atCall = new boolean[n];
+        BitSet calls = live.liveAtCalls();
+        this.alias = new int[n];
+        for (int v = 0; v < n; v++) {
+            allocatable[v] = !fixed.contains(live.variable(v));
+            alias[v] = v;
+            atCall[v] = calls.get(v);
+            adj.add(new HashSet<>());
+        }
+    }
+
+    /**
+     * Color the function's variables
+     * @return variable -> register, for every variable that got one
+     */
+    public Map<String, String> allocate() {
+        build();
+        coalesce();
+        Deque<Integer> stack = simplify();
+        String[] color = select(stack);
+
+        Map<String, String> assignment = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            if (allocatable[v] && color[find(v)] != null) {
+                assignment.put(live.variable(v), color[find(v)]);
+            }
+        }
+        return assignment;
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    /* Interference edges, spill costs and moves, walking each block backwards from its live-out set */
+    private void build() {
+        int[] depth = cfg.loopDepths();
+
+        for (BasicBlock b : cfg.blocks) {
+            double weight = Math.pow(10, Math.min(depth[b.index], 8));
+            BitSet now = (BitSet) live.liveOut(b).clone();
+
+            for (int line = b.last; line >= b.first; line--) {
+                DefUse du = cfg.defUse(line);
+                int d = du.def == null ? -1 : live.variableIndex(du.def);
+                int moveSrc = -1;
+
+                if (cfg.instruction(line) instanceof Move_Id_Id) {
+                    moveSrc = live.variableIndex(du.uses.get(0));
+                    moves.add(new int[] {d, moveSrc});
+                    moveWeights.add(weight);
+                }
+                if (cfg.instruction(line) instanceof Call) {
+                    for (int v = now.nextSetBit(0); v >= 0; v = now.nextSetBit(v + 1)) {
+                        if (v != d) crossesCall[v] = true;
+                    }
+                }
+
+                if (d >= 0) {
+                    cost[d] += weight;
+                    for (int v = now.nextSetBit(0); v >= 0; v = now.nextSetBit(v + 1)) {
+                        if (v != d && v != moveSrc) edge(d, v);
+                    }
+                    now.clear(d);
+                }
+                for (String u : du.uses) {
+                    int v = live.variableIndex(u);
+                    cost[v] += weight;
+                    now.set(v);
+                }
+            }
+
+            // Parameters and anything live into the function are all defined on entry
+            if (b.index == 0) {
+                for (Identifier param : cfg.function.formalParameters) {
+                    now.set(live.variableIndex(param.toString()));
+                }
+                for (int v = now.nextSetBit(0); v >= 0; v = now.nextSetBit(v + 1)) {
+                    for (int w = now.nextSetBit(v + 1); w >= 0; w = now.nextSetBit(w + 1)) {
+                        edge(v, w);
+                    }
+                }
+            }
+        }
+
+        // The return value is read after the last instruction
+        int ret = live.variableIndex(cfg.function.block.return_id.toString());
+        cost[ret] += 1;
+    }
+
+    private void edge(int a, int b) {
+        if (!allocatable[a] || !allocatable[b]) return;
+        adj.get(a).add(b);
+        adj.get(b).add(a);
+    }
+
+    private int find(int v) {
+        while (alias[v] != v) {
+            alias[v] = alias[alias[v]];
+            v = alias[v];
+        }
+        return v;
+    }
+
+    /* Briggs: merge a move's ends unless the merged node would have k or more neighbors of degree >= k */
+    private void coalesce() {
+        Integer[] order = new Integer[moves.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (x, y) -> Double.compare(moveWeights.get(y), moveWeights.get(x)));
+
+        for (int i : order) {
+            int[] m = moves.get(i);
+            if (m[0] < 0 || m[1] < 0) continue;
+            int a = find(m[0]);
+            int b = find(m[1]);
+            if (a == b || !allocatable[a] || !allocatable[b] || adj.get(a).contains(b)) continue;
+
+            Set<Integer> union = new HashSet<>(adj.get(a));
+            union.addAll(adj.get(b));
+            int significant = 0;
+            for (int t : union) {
+                int degree = adj.get(t).size();
+                if (adj.get(t).contains(a) && adj.get(t).contains(b)) degree--;
+                if (degree >= k) significant++;
+            }
+            if (significant >= k) continue;
+
+            // Merge b into a
+            for (int t : adj.get(b)) {
+                adj.get(t).remove(b);
+                adj.get(t).add(a);
+                adj.get(a).add(t);
+            }
+            adj.get(b).clear();
+            alias[b] = a;
+            cost[a] += cost[b];
+            crossesCall[a] |= crossesCall[b];
+            atCall[a] |= atCall[b];
+        }
+    }
+
+    /* Remove nodes of degree < k; when none is left, push the cheapest spill candidate optimistically */
+    private Deque<Integer> simplify() {
+        int[] degree = new int[n];
+        boolean[] removed = new boolean[n];
+        Deque<Integer> low = new ArrayDeque<>();
+        int remaining = 0;
+
+        for (int v = 0; v < n; v++) {
+            if (!allocatable[v] || find(v) != v) {
+                removed[v] = true;
+                continue;
+            }
+            degree[v] = adj.get(v).size();
+            remaining++;
+            if (degree[v] < k) low.add(v);
+        }
+
+        Deque<Integer> stack = new ArrayDeque<>();
+        while (remaining > 0) {
+            int v = -1;
+            while (!low.isEmpty()) {
+                int c = low.poll();
+                if (!removed[c]) {
+                    v = c;
+                    break;
+                }
+            }
+
+            if (v < 0) {
+                double best = Double.MAX_VALUE;
+                for (int c = 0; c < n; c++) {
+                    if (removed[c]) continue;
+                    double h = cost[c] / Math.max(degree[c], 1);
+                    if (h < best) {
+                        best = h;
+                        v = c;
+                    }
+                }
+            }
+
+            removed[v] = true;
+            remaining--;
+            stack.push(v);
+            for (int t : adj.get(v)) {
+                if (!removed[t] && --degree[t] == k - 1) low.add(t);
+            }
+        }
+        return stack;
+    }
+
+    /* Pop nodes and give each the first register its colored neighbors leave free.
+       Values live across a call prefer callee-saved registers, which are saved once per function;
+       values never live at a call prefer the free argument registers. */
+    private String[] select(Deque<Integer> stack) {
+        String[] color = new String[n];
+
+        while (!stack.isEmpty()) {
+            int v = stack.pop();
+            Set<String> taken = new HashSet<>();
+            for (int t : adj.get(v)) {
+                if (color[t] != null) taken.add(color[t]);
+            }
+
+            if (!atCall[v]) color[v] = pick(argRegs, taken);
+
+            List<String> first = crossesCall[v] ? calleeSaved : callerSaved;
+            List<String> second = crossesCall[v] ? callerSaved : calleeSaved;
+            if (color[v] == null) color[v] = pick(first, taken);
+            if (color[v] == null) color[v] = pick(second, taken);
+        }
+        return color;
+    }
+
+    private static String pick(List<String> regs, Set<String> taken) {
+        for (String r : regs) {
+            if (!taken.contains(r)) return r;
+        }
+        return null;
+    }
+}
@@ -26,27 +26,14 @@ public class Interval {
 
     public String getID() { return id; }
 
+    /* Line of this event: the start of the interval, or its end for an end event */
+    int position() { return isEnd ? last : first; }
+
+    // Order events by line; at the same line an end comes before a start, so its register is freed first
     public static Comparator<Interval> comparator = (Interval i1, Interval i2) -> {
-        if (i1.isEnd != i2.isEnd) {
-            if (!i1.isEnd && i2.isEnd) {
-                if (i1.first != i2.last) {
-                    return i1.first - i2.last;
-                } else {
-                    return 1;
-                }
-            } else {
-                if (i1.isEnd && !i2.isEnd) {
-                    return i1.last - i2.first;
-                } else {
-                    return -1;
-                }
-            }
-        } else {
-            if (!i1.isEnd) {
-                return i1.first - i2.first;
-            } else {
-                return i1.last - i2.last;
-            }
+        if (i1.position() != i2.position()) {
+            return Integer.compare(i1.position(), i2.position());
         }
+        return Boolean.compare(!i1.isEnd, !i2.isEnd);
     };
 }
@@ -0,0 +1,127 @@
+package S2SV;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import Analysis.ControlFlowGraph;
+import Analysis.ControlFlowGraph.BasicBlock;
+import Analysis.DefUse;
+
+/**
+ * Per-register index of the lines after which the register holds a live value, so a call site
+ * can ask whether a register needs saving in O(log n) instead of scanning every variable.
+ * A block is indexed in one backward pass from its live-out set the first time a call in it
+ * asks, so blocks without calls cost nothing and a long block with many calls is walked once.
+ */
+public class LiveRegisterIndex {
+    /* Runs of lines after which some variable in the register is live, sorted by start */
+    private static class Runs {
+        final List<int[]> runs = new ArrayList<>();
+        int[] starts;
+        int[] maxEnds;              // Largest end among runs[0..i], since coalesced variables may overlap
+    }
+
+    private final Liveness live;
+    private final Function<String, String> home;
+    private final String[] reg;                     // Register of each variable, once looked up
+    private final boolean[] looked;
+    private final Map<Integer, Map<String, Runs>> blocks = new HashMap<>();    // block -> register -> runs
+
+    /**
+     * @param live liveness of the function
+     * @param home register of a variable that keeps one register throughout, or null
+     */
+    public LiveRegisterIndex(Liveness live, Function<String, String> home) {
+        this.live = live;
+        this.home = home;
+        this.reg = new String[live.variableCount()];
+        this.looked = new boolean[live.variableCount()];
+    }
+
+    /**
+     * Whether a register holds a value that is live right after a line
+     * @param reg register name
+     * @param line instruction line
+     */
+    public boolean liveAfter(String reg, int line) {
+        BasicBlock b = live.blockOf(line);
+        Runs r = blocks.computeIfAbsent(b.index, k -> index(b)).get(reg);
+        if (r == null) return false;
+
+        // Last run starting at or before line
+        int lo = 0, hi = r.starts.length - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (r.starts[mid] <= line) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found >= 0 && r.maxEnds[found] >= line;
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    /* Walk a block backwards from its live-out set, closing a run whenever a variable stops being live */
+    private Map<String, Runs> index(BasicBlock b) {
+        ControlFlowGraph cfg = live.cfg;
+        Map<String, Runs> index = new HashMap<>();
+        Map<Integer, Integer> top = new HashMap<>();        // Live variable -> last line of its current run
+
+        BitSet out = live.liveOut(b);
+        for (int v = out.nextSetBit(0); v >= 0; v = out.nextSetBit(v + 1)) {
+            if (reg(v) != null) top.put(v, b.last);
+        }
+
+        // top holds the variables live after line
+        for (int line = b.last; line >= b.first; line--) {
+            DefUse du = cfg.defUse(line);
+            if (du.def != null) {
+                int d = live.variableIndex(du.def);
+                Integer last = top.remove(d);
+                if (last != null) add(index, reg(d), line, last);
+            }
+            for (String u : du.uses) {
+                int v = live.variableIndex(u);
+                if (reg(v) != null) top.putIfAbsent(v, line - 1);
+            }
+        }
+        for (Map.Entry<Integer, Integer> e : top.entrySet()) {
+            add(index, reg(e.getKey()), b.first, e.getValue());
+        }
+
+        for (Runs r : index.values()) {
+            r.runs.sort((x, y) -> Integer.compare(x[0], y[0]));
+            r.starts = new int[r.runs.size()];
+            r.maxEnds = new int[r.runs.size()];
+            int max = Integer.MIN_VALUE;
+            for (int i = 0; i < r.runs.size(); i++) {
+                r.starts[i] = r.runs.get(i)[0];
+                max = Math.max(max, r.runs.get(i)[1]);
+                r.maxEnds[i] = max;
+            }
+        }
+        return index;
+    }
+
+    private String reg(int v) {
+        if (!looked[v]) {
+            reg[v] = home.apply(live.variable(v));
+            looked[v] = true;
+        }
+        return reg[v];
+    }
+
+    private static void add(Map<String, Runs> index, String reg, int first, int last) {
+        if (first > last) return;
+        index.computeIfAbsent(reg, k -> new Runs()).runs.add(new int[] {first, last});
+    }
+}
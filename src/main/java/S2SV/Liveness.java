@@ -0,0 +1,233 @@
+package S2SV;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import Analysis.ControlFlowGraph;
+import Analysis.ControlFlowGraph.BasicBlock;
+import Analysis.DefUse;
+import IR.token.Identifier;
+import sparrow.Call;
+
+/**
+ * Iterative dataflow liveness over a ControlFlowGraph. Variables are numbered and sets are
+ * bit vectors; live-in/live-out of every block are solved with a worklist, and the function's
+ * return value is live at its end.
+ */
+public class Liveness {
+    public final ControlFlowGraph cfg;
+
+    private final Map<String, Integer> index = new HashMap<>();
+    private final List<String> variables = new ArrayList<>();
+    private final BitSet[] use, def, in, out;    // Indexed by block
+
+    public Liveness(ControlFlowGraph cfg) {
+        this.cfg = cfg;
+        int n = cfg.blocks.size();
+        use = new BitSet[n];
+        def = new BitSet[n];
+        in = new BitSet[n];
+        out = new BitSet[n];
+
+        for (Identifier param : cfg.function.formalParameters) {
+            indexOf(param.toString());
+        }
+
+        // Upward-exposed uses and definitions of each block
+        for (BasicBlock b : cfg.blocks) {
+            use[b.index] = new BitSet();
+            def[b.index] = new BitSet();
+            in[b.index] = new BitSet();
+            out[b.index] = new BitSet();
+
+            for (int line = b.first; line <= b.last; line++) {
+                DefUse du = cfg.defUse(line);
+                for (String u : du.uses) {
+                    int v = indexOf(u);
+                    if (!def[b.index].get(v)) use[b.index].set(v);
+                }
+                if (du.def != null) {
+                    def[b.index].set(indexOf(du.def));
+                }
+            }
+        }
+        BitSet exit = new BitSet();
+        exit.set(indexOf(cfg.function.block.return_id.toString()));
+
+        // Solve backwards: out = union of successors' in (plus the return value at the end),
+        // in = use + (out - def)
+        Deque<BasicBlock> worklist = new ArrayDeque<>();
+        boolean[] queued = new boolean[n];
+        for (int i = n - 1; i >= 0; i--) {
+            worklist.add(cfg.blocks.get(i));
+            queued[i] = true;
+        }
+
+        while (!worklist.isEmpty()) {
+            BasicBlock b = worklist.poll();
+            queued[b.index] = false;
+
+            BitSet o = out[b.index];
+            if (b.index == n - 1) o.or(exit);
+            for (BasicBlock s : b.succs) {
+                o.or(in[s.index]);
+            }
+
+            BitSet newIn = (BitSet) o.clone();
+            newIn.andNot(def[b.index]);
+            newIn.or(use[b.index]);
+
+            if (!newIn.equals(in[b.index])) {
+                in[b.index] = newIn;
+                for (BasicBlock p : b.preds) {
+                    if (!queued[p.index]) {
+                        queued[p.index] = true;
+                        worklist.add(p);
+                    }
+                }
+            }
+        }
+    }
+
+    public int variableCount() {
+        return variables.size();
+    }
+
+    public String variable(int v) {
+        return variables.get(v);
+    }
+
+    /* Number of a variable, or -1 if the function never mentions it */
+    public int variableIndex(String var) {
+        Integer v = index.get(var);
+        return v == null ? -1 : v;
+    }
+
+    public BitSet liveIn(BasicBlock b) {
+        return in[b.index];
+    }
+
+    public BitSet liveOut(BasicBlock b) {
+        return out[b.index];
+    }
+
+    /**
+     * Variables live right after an instruction, found by walking back from the end of its block
+     * @param line instruction line
+     */
+    public BitSet liveAfter(int line) {
+        BasicBlock b = blockOf(line);
+        BitSet live = (BitSet) out[b.index].clone();
+        for (int l = b.last; l > line; l--) {
+            DefUse du = cfg.defUse(l);
+            if (du.def != null) live.clear(index.get(du.def));
+            for (String u : du.uses) live.set(index.get(u));
+        }
+        return live;
+    }
+
+    /**
+     * Variables that are live across, passed to or returned by some call
+     */
+    public BitSet liveAtCalls() {
+        BitSet result = new BitSet();
+        for (BasicBlock b : cfg.blocks) {
+            BitSet live = (BitSet) out[b.index].clone();
+            for (int line = b.last; line >= b.first; line--) {
+                DefUse du = cfg.defUse(line);
+                boolean call = cfg.instruction(line) instanceof Call;
+                if (call) result.or(live);
+                if (du.def != null) {
+                    if (call) result.set(index.get(du.def));
+                    live.clear(index.get(du.def));
+                }
+                for (String u : du.uses) {
+                    if (call) result.set(index.get(u));
+                    live.set(index.get(u));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Smallest line span covering every point where each variable is defined, used or live.
+     * Parameters start at line 0 and the return value is used at the last line.
+     * @return variable -> interval
+     */
+    public Map<String, Interval> intervals() {
+        int n = variables.size();
+        int[] first = new int[n];
+        int[] last = new int[n];
+        Arrays.fill(first, Integer.MAX_VALUE);
+        Arrays.fill(last, -1);
+
+        for (Identifier param : cfg.function.formalParameters) {
+            int v = index.get(param.toString());
+            first[v] = 0;
+            last[v] = Math.max(last[v], 0);
+        }
+        int ret = index.get(cfg.function.block.return_id.toString());
+        first[ret] = Math.min(first[ret], cfg.size());
+        last[ret] = Math.max(last[ret], cfg.size());
+
+        for (BasicBlock b : cfg.blocks) {
+            for (int v = in[b.index].nextSetBit(0); v >= 0; v = in[b.index].nextSetBit(v + 1)) {
+                first[v] = Math.min(first[v], b.first);
+            }
+            for (int v = out[b.index].nextSetBit(0); v >= 0; v = out[b.index].nextSetBit(v + 1)) {
+                last[v] = Math.max(last[v], b.last);
+            }
+            for (int line = b.first; line <= b.last; line++) {
+                DefUse du = cfg.defUse(line);
+                if (du.def != null) {
+                    int v = index.get(du.def);
+                    first[v] = Math.min(first[v], line);
+                    last[v] = Math.max(last[v], line);
+                }
+                for (String u : du.uses) {
+                    int v = index.get(u);
+                    first[v] = Math.min(first[v], line);
+                    last[v] = Math.max(last[v], line);
+                }
+            }
+        }
+
+        Map<String, Interval> result = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            result.put(variables.get(v), new Interval(first[v], last[v]));
+        }
+        return result;
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    private int indexOf(String var) {
+        Integer v = index.get(var);
+        if (v == null) {
+            v = variables.size();
+            index.put(var, v);
+            variables.add(var);
+        }
+        return v;
+    }
+
+    /* Block containing a line, by binary search over the block start lines */
+    public BasicBlock blockOf(int line) {
+        List<BasicBlock> blocks = cfg.blocks;
+        int lo = 0, hi = blocks.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (blocks.get(mid).first <= line) lo = mid; else hi = mid - 1;
+        }
+        return blocks.get(lo);
+    }
+}
@@ -1,33 +1,114 @@
 package S2SV;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import Compiler.PassTimer;
 import IR.SparrowParser;
 import IR.syntaxtree.Node;
 import IR.visitor.SparrowConstructor;
+import sparrow.Block;
+import sparrow.FunctionDecl;
+import sparrowv.visitor.Printer;
 
 public class S2SV {
     public static void main(String[] args) throws Exception {
-        new SparrowParser(System.in);
-        Node root = SparrowParser.Program();
+        Allocator allocator = Allocator.LINEAR;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--regalloc")) {
+                allocator = Allocator.of(args[++i]);
+            }
+        }
+
+        Node root = new SparrowParser(System.in).Program();
+
+        // Build Sparrow IR object model
+        SparrowConstructor constructor = new SparrowConstructor();
+        root.accept(constructor);
+        sparrow.Program prog = constructor.getProgram();
+
+        // Stream the program out instead of building it as one String
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+        new Printer(out).visit(translate(prog, PassTimer.NONE, allocator));
+        out.write("\n");
+        out.flush();
+    }
+
+    /**
+     * Allocate registers and lower a Sparrow program to Sparrow-V
+     * @param prog Sparrow program
+     * @return equivalent Sparrow-V program
+     */
+    public static sparrowv.Program translate(sparrow.Program prog) {
+        return translate(prog, PassTimer.NONE);
+    }
+
+    /**
+     * Allocate registers and lower a Sparrow program to Sparrow-V, timing each pass per function
+     * @param prog Sparrow program
+     * @param timer pass instrumentation
+     * @return equivalent Sparrow-V program
+     */
+    public static sparrowv.Program translate(sparrow.Program prog, PassTimer timer) {
+        return translate(prog, timer, Allocator.LINEAR);
+    }
+
+    /**
+     * Allocate registers with the given strategy and lower a Sparrow program to Sparrow-V.
+     * The optimizations here work on a copy, so the given program is left unchanged
+     * @param prog Sparrow program
+     * @param timer pass instrumentation
+     * @param allocator register allocation strategy
+     * @return equivalent Sparrow-V program
+     */
+    public static sparrowv.Program translate(sparrow.Program prog, PassTimer timer, Allocator allocator) {
+        // Remove array bounds checks proven redundant; the count column is checks removed
+        prog = copy(prog);
+        for (FunctionDecl fd : prog.funDecls) {
+            int removed = timer.time("BoundsCheckElimination", fd.functionName.toString(), 0,
+                () -> new BoundsCheckElimination(fd).run());
+            timer.count("BoundsCheckElimination", removed);
+        }
 
         // Allocate assignment registers
         ArgsVisitor av = new ArgsVisitor();
-        root.accept(av, new FunctionStruct());
+        for (FunctionDecl fd : prog.funDecls) {
+            timer.run("ArgsVisitor", fd.functionName.toString(), fd.block.instructions.size(), () -> fd.accept(av));
+        }
 
-        // Fast liveness analysis and register allocation
-        LivenessVisitor lv = new LivenessVisitor(av.aRegs);
-        root.accept(lv, new FunctionStruct());
+        // Liveness analysis and register allocation
+        LivenessVisitor lv = new LivenessVisitor(av.aRegs, allocator);
+        for (FunctionDecl fd : prog.funDecls) {
+            timer.run("LivenessVisitor", fd.functionName.toString(), fd.block.instructions.size(), () -> fd.accept(lv));
+        }
 
         // Generate SparrowV code
-        SparrowConstructor constructor = new SparrowConstructor();
-        root.accept(constructor);
-        sparrow.Program prog = constructor.getProgram();
         Translator tr = new Translator(
             lv.linearRegAlloc,
             lv.aRegs,
-            lv.tsIntervals,
-            lv.aRanges
+            lv.splits,
+            lv.liveness,
+            timer
         );
         tr.visit(prog);
 
-        System.out.println(tr.prog);
+        return tr.prog;
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    /* Copy of the functions and their blocks. Passes replace a block's instruction list rather
+       than editing it or its instructions, so those are shared */
+    private static sparrow.Program copy(sparrow.Program prog) {
+        List<FunctionDecl> funDecls = new ArrayList<>();
+        for (FunctionDecl fd : prog.funDecls) {
+            Block block = new Block(fd.block.instructions, fd.block.return_id);
+            funDecls.add(new FunctionDecl(fd.functionName, fd.formalParameters, block));
+        }
+        return new sparrow.Program(funDecls);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,188 @@
+package S2SV;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import Analysis.ControlFlowGraph;
+import Analysis.ControlFlowGraph.BasicBlock;
+import sparrow.Goto;
+import sparrow.IfGoto;
+import sparrow.LabelInstr;
+
+/**
+ * Shrink-wrapping of callee-saved registers. Each register is saved at the start of the nearest
+ * block dominating every block that touches it and restored at the end of the nearest block
+ * post-dominating them, instead of in the prologue and epilogue. Both points are kept out of
+ * loops so a save always pairs with one restore.
+ *
+ * Paths that end in an error never return, so they need no restore; a register touched only
+ * on such paths is not saved at all.
+ */
+public class ShrinkWrap {
+    private final ControlFlowGraph cfg;
+    private final int[] idom;
+    private final int[] ipdom;
+    private final int[] depth;
+    private final int[] domDepth;
+    private final int[] pdomDepth;
+
+    // Registers to save or restore in the prologue, epilogue, or around a line
+    private final Set<String> prologue = new HashSet<>();
+    private final Set<String> epilogue = new HashSet<>();
+    private final Map<Integer, Set<String>> savesBefore = new HashMap<>();
+    private final Map<Integer, Set<String>> savesAfter = new HashMap<>();
+    private final Map<Integer, Set<String>> restoresBefore = new HashMap<>();
+    private final Map<Integer, Set<String>> restoresAfter = new HashMap<>();
+
+    /**
+     * @param cfg control-flow graph of the function
+     * @param uses callee-saved register -> blocks that read or write it
+     */
+    public ShrinkWrap(ControlFlowGraph cfg, Map<String, BitSet> uses) {
+        this.cfg = cfg;
+        this.idom = cfg.dominators();
+        this.ipdom = cfg.postDominators();
+        this.depth = cfg.loopDepths();
+        this.domDepth = treeDepths(idom);
+        this.pdomDepth = treeDepths(ipdom);
+
+        for (Map.Entry<String, BitSet> e : uses.entrySet()) {
+            place(e.getKey(), e.getValue());
+        }
+    }
+
+    public Set<String> prologue() {
+        return prologue;
+    }
+
+    public Set<String> epilogue() {
+        return epilogue;
+    }
+
+    /* Registers to save before translating a line, at the start of a block */
+    public Set<String> savesBefore(int line) {
+        return savesBefore.isEmpty() ? Collections.emptySet() : savesBefore.getOrDefault(line, Collections.emptySet());
+    }
+
+    /* Registers to save after a line, the label starting a block */
+    public Set<String> savesAfter(int line) {
+        return savesAfter.isEmpty() ? Collections.emptySet() : savesAfter.getOrDefault(line, Collections.emptySet());
+    }
+
+    /* Registers to restore before a line, the jump ending a block */
+    public Set<String> restoresBefore(int line) {
+        return restoresBefore.isEmpty() ? Collections.emptySet() : restoresBefore.getOrDefault(line, Collections.emptySet());
+    }
+
+    /* Registers to restore after a line, the end of a block falling through */
+    public Set<String> restoresAfter(int line) {
+        return restoresAfter.isEmpty() ? Collections.emptySet() : restoresAfter.getOrDefault(line, Collections.emptySet());
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    private void place(String reg, BitSet blocks) {
+        int n = cfg.blocks.size();
+
+        // Blocks from which the function can return; the others end in an error
+        BitSet returning = new BitSet();
+        for (int b = blocks.nextSetBit(0); b >= 0; b = blocks.nextSetBit(b + 1)) {
+            if (ipdom[b] >= 0) returning.set(b);
+        }
+        if (returning.isEmpty()) return;
+
+        // The block falling into the epilogue stands for the return when dominating it
+        int exitBlock = ipdom[n - 1] == n ? n - 1 : -1;
+
+        int save = -1, restore = -1;
+        while (true) {
+            // Dominate every use and the restore, outside any loop
+            int s = -1;
+            for (int b = blocks.nextSetBit(0); b >= 0; b = blocks.nextSetBit(b + 1)) {
+                if (idom[b] >= 0) s = s < 0 ? b : common(idom, domDepth, s, b);
+            }
+            int r = restore == n ? exitBlock : restore;
+            if (s < 0) s = n;
+            if (r >= 0) s = common(idom, domDepth, s, r);
+            while (s != n && depth[s] > 0) s = idom[s];
+
+            // Post-dominate every returning use and the save, outside any loop and after a branch
+            r = s == n || ipdom[s] < 0 ? n : s;
+            for (int b = returning.nextSetBit(0); b >= 0; b = returning.nextSetBit(b + 1)) {
+                r = common(ipdom, pdomDepth, r, b);
+            }
+            while (r != n && (depth[r] > 0 || endsWithBranch(r))) r = ipdom[r];
+
+            if (s == save && r == restore) break;
+            save = s;
+            restore = r;
+        }
+
+        // The first block's start is the prologue, and the last block falls into the epilogue
+        if (save == n || save == 0) {
+            prologue.add(reg);
+        } else {
+            BasicBlock b = cfg.blocks.get(save);
+            boolean label = cfg.instruction(b.first) instanceof LabelInstr;
+            (label ? savesAfter : savesBefore).computeIfAbsent(b.first, k -> new HashSet<>()).add(reg);
+        }
+        if (restore == n || restore == exitBlock) {
+            epilogue.add(reg);
+        } else {
+            BasicBlock b = cfg.blocks.get(restore);
+            boolean jump = cfg.instruction(b.last) instanceof Goto;
+            (jump ? restoresBefore : restoresAfter).computeIfAbsent(b.last, k -> new HashSet<>()).add(reg);
+        }
+    }
+
+    /* Restoring before a conditional jump could clobber its condition */
+    private boolean endsWithBranch(int b) {
+        BasicBlock block = cfg.blocks.get(b);
+        return block.first <= block.last && cfg.instruction(block.last) instanceof IfGoto;
+    }
+
+    /* Nearest common ancestor in a tree given by parent links, whose root is blocks.size() */
+    private static int common(int[] parent, int[] treeDepth, int a, int b) {
+        int root = parent.length;
+        while (a != b) {
+            int da = a == root ? 0 : treeDepth[a];
+            int db = b == root ? 0 : treeDepth[b];
+            if (da >= db) a = a == root ? root : parent[a];
+            if (db > da) b = b == root ? root : parent[b];
+        }
+        return a;
+    }
+
+    private static int[] treeDepths(int[] parent) {
+        int[] d = new int[parent.length];
+        Arrays.fill(d, -1);
+        for (int v = 0; v < parent.length; v++) {
+            depthOf(parent, d, v);
+        }
+        return d;
+    }
+
+    /* Iterative, since huge functions have deep trees */
+    private static void depthOf(int[] parent, int[] d, int v) {
+        int len = 0;
+        int u = v;
+        while (u != parent.length && u >= 0 && d[u] < 0) {
+            len++;
+            u = parent[u];
+        }
+        int base = u == parent.length || u < 0 ? 0 : d[u];
+        int k = base + len;
+        u = v;
+        while (u != parent.length && u >= 0 && d[u] < 0) {
+            d[u] = k--;
+            u = parent[u];
+        }
+    }
+}
@@ -0,0 +1,550 @@
+package S2SV;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import Analysis.ControlFlowGraph;
+import Analysis.ControlFlowGraph.BasicBlock;
+import Analysis.DefUse;
+import IR.token.Identifier;
+import sparrow.Call;
+import sparrow.Goto;
+import sparrow.IfGoto;
+import sparrow.LabelInstr;
+
+/**
+ * Linear scan over split live ranges, in the style of second-chance binpacking.
+ * Each variable's lifetime is cut at block boundaries and after calls into pieces, and every
+ * piece independently gets a register or stays in memory (its Sparrow-V stack variable).
+ *
+ * Moves only happen at split points. A value whose register copy is newer than memory is
+ * stored where that copy is lost, before a call or on an edge into a piece in memory or in
+ * another register; the next piece then loads it, at the end of a single-successor
+ * predecessor, at the start of the block, or right after the call. A value that would need
+ * a store on a critical edge is stored at each of its definitions instead.
+ *
+ * Pieces that do not reach a call may also take the argument registers no parameter uses.
+ */
+public class SplitLinearScan {
+    /* Part of one variable's lifetime inside one segment (block part between calls) */
+    static class Piece {
+        String var;
+        int start, end;             // Lines, inclusive
+        boolean liveIn;             // Live on entry to the segment, so start is the segment start
+        boolean liveOut;            // Live on exit from the segment, so end is the segment end
+        double weight;              // Loop-weighted references
+        int depth;                  // Loop nesting depth of the block
+        String reg;                 // null while in memory
+    }
+
+    private final Liveness live;
+    private final ControlFlowGraph cfg;
+    private final List<String> callerSaved;
+    private final List<String> calleeSaved;
+    private final List<String> argRegs;
+    private final Set<String> fixed;
+
+    private final Map<String, List<Piece>> pieces = new HashMap<>();    // Per variable, in line order
+    private final Map<Integer, List<String[]>> loadsBefore = new HashMap<>();
+    private final Map<Integer, List<String[]>> loadsAfter = new HashMap<>();
+    private final Map<Integer, List<String[]>> storesBefore = new HashMap<>();
+    private final Map<Integer, List<String[]>> storesAfter = new HashMap<>();
+    private final BitSet stores = new BitSet();                          // Lines whose definition is stored
+    private final Map<Integer, BitSet> liveAfterCalls = new HashMap<>();
+    private final Map<Integer, BasicBlock> blockStarts = new HashMap<>();
+
+    /**
+     * Split and allocate the variables of a function
+     * @param live liveness of the function
+     * @param callerSaved caller-saved registers to allocate
+     * @param calleeSaved callee-saved registers to allocate
+     * @param argRegs argument registers free in this function
+     * @param fixed variables that already have a register and must not be allocated
+     */
+    public SplitLinearScan(Liveness live, List<String> callerSaved, List<String> calleeSaved,
+                           List<String> argRegs, Set<String> fixed) {
+        this.live = live;
+        this.cfg = live.cfg;
+        this.callerSaved = callerSaved;
+        this.calleeSaved = calleeSaved;
+        this.argRegs = argRegs;
+        this.fixed = fixed;
+        for (BasicBlock b : cfg.blocks) {
+            blockStarts.put(b.first, b);
+        }
+
+        List<Piece> all = split();
+        scan(all);
+        resolve();
+        placeStores();
+    }
+
+    /**
+     * Register holding a variable at a line
+     * @return register, or null if the variable is in memory there
+     */
+    public String registerAt(String var, int line) {
+        List<Piece> ps = pieces.get(var);
+        if (ps == null) return null;
+
+        int lo = 0, hi = ps.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            Piece p = ps.get(mid);
+            if (p.end < line) lo = mid + 1;
+            else if (p.start > line) hi = mid - 1;
+            else return p.reg;
+        }
+        return null;
+    }
+
+    /* (variable, register) pairs to load from memory before translating a line */
+    public List<String[]> loadsBefore(int line) {
+        return loadsBefore.getOrDefault(line, Collections.emptyList());
+    }
+
+    /* (variable, register) pairs to load from memory after translating a line */
+    public List<String[]> loadsAfter(int line) {
+        return loadsAfter.getOrDefault(line, Collections.emptyList());
+    }
+
+    /* (variable, register) pairs to store to memory before translating a line, ahead of its loads */
+    public List<String[]> storesBefore(int line) {
+        return storesBefore.getOrDefault(line, Collections.emptyList());
+    }
+
+    /* (variable, register) pairs to store to memory after translating a line, ahead of its loads */
+    public List<String[]> storesAfter(int line) {
+        return storesAfter.getOrDefault(line, Collections.emptyList());
+    }
+
+    /* Whether the definition at a line, if made in a register, must also be stored to memory */
+    public boolean storeAfter(int line) {
+        return stores.get(line);
+    }
+
+    /* Blocks in which each register holds a piece, is loaded or is stored */
+    public Map<String, BitSet> registerBlocks() {
+        Map<String, BitSet> result = new HashMap<>();
+        for (List<Piece> ps : pieces.values()) {
+            for (Piece p : ps) {
+                if (p.reg != null) result.computeIfAbsent(p.reg, k -> new BitSet()).set(live.blockOf(p.start).index);
+            }
+        }
+        for (Map<Integer, List<String[]>> at : List.of(loadsBefore, loadsAfter, storesBefore, storesAfter)) {
+            for (Map.Entry<Integer, List<String[]>> e : at.entrySet()) {
+                for (String[] move : e.getValue()) {
+                    result.computeIfAbsent(move[1], k -> new BitSet()).set(live.blockOf(e.getKey()).index);
+                }
+            }
+        }
+        return result;
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    /* Cut every variable's lifetime into pieces, one per segment it is live or referenced in */
+    private List<Piece> split() {
+        int[] depth = cfg.loopDepths();
+        List<Piece> all = new ArrayList<>();
+
+        for (BasicBlock b : cfg.blocks) {
+            BitSet now = (BitSet) live.liveOut(b).clone();
+            int segEnd = b.last;
+            BitSet segOut = (BitSet) now.clone();
+            Map<Integer, int[]> refs = new HashMap<>();         // variable -> {first, last} reference
+            Map<Integer, Integer> counts = new HashMap<>();
+
+            for (int line = b.last; line >= b.first - 1; line--) {
+                boolean segStart = line == b.first - 1 || cfg.instruction(line) instanceof Call && line < segEnd;
+                if (segStart) {
+                    // now holds the live-in set of the segment [line + 1, segEnd]
+                    all.addAll(pieces(line + 1, segEnd, now, segOut, refs, counts, depth[b.index]));
+                    if (line < b.first) break;
+                    segEnd = line;
+                    segOut = (BitSet) now.clone();
+                    refs = new HashMap<>();
+                    counts = new HashMap<>();
+                }
+
+                DefUse du = cfg.defUse(line);
+                if (du.def != null) {
+                    int d = live.variableIndex(du.def);
+                    ref(refs, counts, d, line);
+                    now.clear(d);
+                }
+                for (String u : du.uses) {
+                    int v = live.variableIndex(u);
+                    ref(refs, counts, v, line);
+                    now.set(v);
+                }
+                if (line == cfg.size()) {
+                    // The return value is read after the last instruction
+                    ref(refs, counts, live.variableIndex(cfg.function.block.return_id.toString()), line);
+                }
+            }
+        }
+
+        // The return value needs a home even when nothing defines it, as in an empty function
+        String ret = cfg.function.block.return_id.toString();
+        if (!fixed.contains(ret) && all.stream().noneMatch(this::returnsValue)) {
+            Piece p = new Piece();
+            p.var = ret;
+            p.start = cfg.size();
+            p.end = cfg.size();
+            all.add(p);
+        }
+
+        for (Piece p : all) {
+            pieces.computeIfAbsent(p.var, k -> new ArrayList<>()).add(p);
+        }
+        for (List<Piece> ps : pieces.values()) {
+            ps.sort((x, y) -> Integer.compare(x.start, y.start));
+
+            // A piece a loop carries through to a later use in the same loop is worth that use,
+            // so the value is loaded before the loop rather than on every trip
+            for (int i = ps.size() - 2; i >= 0; i--) {
+                Piece p = ps.get(i);
+                Piece next = ps.get(i + 1);
+                if (p.weight == 0 && p.depth > 0 && next.depth >= p.depth) {
+                    p.weight = density(next) * (p.end - p.start + 1);
+                }
+            }
+        }
+        return all;
+    }
+
+    private static void ref(Map<Integer, int[]> refs, Map<Integer, Integer> counts, int v, int line) {
+        int[] r = refs.computeIfAbsent(v, k -> new int[] {line, line});
+        r[0] = Math.min(r[0], line);
+        counts.merge(v, 1, Integer::sum);
+    }
+
+    private List<Piece> pieces(int start, int end, BitSet in, BitSet out,
+                               Map<Integer, int[]> refs, Map<Integer, Integer> counts, int depth) {
+        double weight = Math.pow(10, Math.min(depth, 8));
+        BitSet vars = (BitSet) in.clone();
+        vars.or(out);
+        for (int v : refs.keySet()) vars.set(v);
+
+        List<Piece> result = new ArrayList<>();
+        for (int v = vars.nextSetBit(0); v >= 0; v = vars.nextSetBit(v + 1)) {
+            String var = live.variable(v);
+            if (fixed.contains(var) || start > end) continue;
+
+            int[] r = refs.get(v);
+            Piece p = new Piece();
+            p.var = var;
+            p.liveIn = in.get(v);
+            p.liveOut = out.get(v);
+            p.start = p.liveIn || r == null ? start : r[0];
+            p.end = p.liveOut || r == null ? end : r[1];
+            p.weight = counts.getOrDefault(v, 0) * weight;
+            p.depth = depth;
+            result.add(p);
+        }
+        return result;
+    }
+
+    /* Linear scan over the pieces; when registers run out, the lightest overlapping piece goes to memory */
+    private void scan(List<Piece> all) {
+        // At the same line, values flowing in choose first, so they can keep the register they arrive in
+        all.sort((x, y) -> x.start != y.start ? Integer.compare(x.start, y.start)
+                         : x.liveIn != y.liveIn ? (x.liveIn ? -1 : 1)
+                         : Integer.compare(x.end, y.end));
+
+        Map<String, Piece> holder = new HashMap<>();
+        Map<Piece, Piece> sharing = new HashMap<>();     // Piece -> earlier holder it shares its first line with
+        Map<String, String> lastReg = new HashMap<>();
+        List<String> regs = concat(callerSaved, calleeSaved);
+        List<String> withArgs = concat(callerSaved, concat(argRegs, calleeSaved));
+        List<String> calleeFirst = concat(calleeSaved, callerSaved);
+
+        for (Piece p : all) {
+            // Inside a loop, a value the loop never uses stays in memory, where it is always current
+            if (p.weight == 0 && p.depth > 0 && !returnsValue(p)) continue;
+
+            // A piece ending at a call is live across it or takes part in it
+            boolean atCall = p.end > 0 && cfg.instruction(p.end) instanceof Call;
+            List<String> allowed = atCall ? regs : withArgs;
+            String prev = lastReg.get(p.var);
+            String reg = null;
+
+            if (prev != null && allowed.contains(prev) && free(holder.get(prev), p)) {
+                reg = prev;
+            } else {
+                for (String r : atCall && p.liveOut ? calleeFirst : allowed) {
+                    if (free(holder.get(r), p)) {
+                        reg = r;
+                        break;
+                    }
+                }
+            }
+
+            Piece under = reg == null ? null : holder.get(reg);
+            if (reg == null) {
+                // Evict the lightest piece per line, possibly this one unless it holds the return value,
+                // which may have no definition to give it a stack variable. A piece that shares its
+                // first line with an earlier holder only frees the register if that holder is done too.
+                Piece victim = returnsValue(p) ? null : p;
+                for (String r : allowed) {
+                    Piece q = holder.get(r);
+                    if (sharing.containsKey(q) && !free(sharing.get(q), p)) continue;
+                    if (victim == null || density(q) < density(victim)) victim = q;
+                }
+                if (victim == p || victim == null) continue;
+
+                reg = victim.reg;
+                under = sharing.get(victim);
+                victim.reg = null;
+            }
+
+            p.reg = reg;
+            if (under != null && under.reg != null && under.end >= p.start) {
+                sharing.put(p, under);
+            }
+            holder.put(reg, p);
+            lastReg.put(p.var, reg);
+        }
+    }
+
+    /* Whether a piece holds the return value at the return */
+    private boolean returnsValue(Piece p) {
+        return p.end == cfg.size() && p.var.equals(cfg.function.block.return_id.toString());
+    }
+
+    /* A register is free for p unless its holder is still live when p starts */
+    private static boolean free(Piece q, Piece p) {
+        if (q == null || q.reg == null || q.end < p.start) return true;
+        // Same line: the holder's last use may share a register with p's definition
+        return q.end == p.start && !q.liveOut && !p.liveIn;
+    }
+
+    private static double density(Piece p) {
+        return p.weight / (p.end - p.start + 1);
+    }
+
+    private static List<String> concat(List<String> a, List<String> b) {
+        List<String> r = new ArrayList<>(a);
+        r.addAll(b);
+        return r;
+    }
+
+    /* Decide where each piece that starts in a register but not with a definition gets its value */
+    private void resolve() {
+        Set<String> params = new HashSet<>();
+        for (Identifier param : cfg.function.formalParameters) {
+            params.add(param.toString());
+        }
+
+        for (List<Piece> ps : pieces.values()) {
+            for (int i = 0; i < ps.size(); i++) {
+                Piece p = ps.get(i);
+                if (p.reg == null || !p.liveIn) continue;
+
+                BasicBlock b = blockStarts.get(p.start);
+                if (b == null) {
+                    // Segment after a call in the same block
+                    int call = p.start - 1;
+                    if (!survives(ps.get(i - 1).reg, p.reg, call, p.var)) {
+                        load(loadsAfter, call, p);
+                    }
+                } else if (b.index == 0 && params.contains(p.var)) {
+                    loadAtStart(b, p);
+                } else if (b.index > 0 || !b.preds.isEmpty()) {
+                    resolveEdges(b, p);
+                }
+            }
+        }
+    }
+
+    private void resolveEdges(BasicBlock b, Piece p) {
+        List<BasicBlock> mismatched = new ArrayList<>();
+        boolean atStart = b.preds.isEmpty();
+        for (BasicBlock pred : b.preds) {
+            if (!survives(registerAt(p.var, pred.last), p.reg, pred.last, p.var)) {
+                mismatched.add(pred);
+                // A load at the end of a branching block would not be on this edge alone
+                if (pred.succs.size() > 1 || cfg.instruction(pred.last) instanceof IfGoto) atStart = true;
+            }
+        }
+
+        if (atStart) {
+            loadAtStart(b, p);
+            return;
+        }
+        for (BasicBlock pred : mismatched) {
+            load(cfg.instruction(pred.last) instanceof Goto ? loadsBefore : loadsAfter, pred.last, p);
+        }
+    }
+
+    /* Whether the value in register from after line is still valid in register to */
+    private boolean survives(String from, String to, int line, String var) {
+        if (from == null || !from.equals(to)) return false;
+        if (!(cfg.instruction(line) instanceof Call)) return true;
+        return calleeSaved.contains(from) || var.equals(cfg.defUse(line).def);
+    }
+
+    /* A block of one label or jump can also end a predecessor of the next block; its own loads
+       go first so that the ones for the successor are the values left in the registers */
+    private void loadAtStart(BasicBlock b, Piece p) {
+        Map<Integer, List<String[]>> at = cfg.instruction(b.first) instanceof LabelInstr ? loadsAfter : loadsBefore;
+        at.computeIfAbsent(b.first, k -> new ArrayList<>()).add(0, new String[] {p.var, p.reg});
+    }
+
+    private void load(Map<Integer, List<String[]>> at, int line, Piece p) {
+        at.computeIfAbsent(line, k -> new ArrayList<>()).add(new String[] {p.var, p.reg});
+    }
+
+    /* Store a value only where its register copy is lost while the value is still needed:
+       before a call that clobbers it, or on an edge into a different register or memory.
+       A value that cannot be stored on its own edge is stored at every definition instead. */
+    private void placeStores() {
+        indexCalls();
+        Set<String> writeThrough = new HashSet<>();
+        while (true) {
+            BitSet[] dirtyOut = dirtyOut(writeThrough);
+            storesAfter.clear();
+
+            Set<String> fallback = new HashSet<>();
+            for (BasicBlock b : cfg.blocks) {
+                for (BasicBlock s : b.succs) {
+                    for (int v : lostOnEdge(dirtyOut[b.index], b, s)) {
+                        String var = live.variable(v);
+                        String[] store = {var, registerAt(var, b.last)};
+                        // At the end of the predecessor when it can, ahead of the loads for this edge
+                        if (b.succs.size() == 1 && !(cfg.instruction(b.last) instanceof IfGoto)) {
+                            Map<Integer, List<String[]>> at = cfg.instruction(b.last) instanceof Goto ? storesBefore : storesAfter;
+                            at.computeIfAbsent(b.last, k -> new ArrayList<>()).add(store);
+                        } else if (s.preds.size() == 1) {
+                            Map<Integer, List<String[]>> at = cfg.instruction(s.first) instanceof LabelInstr ? storesAfter : storesBefore;
+                            at.computeIfAbsent(s.first, k -> new ArrayList<>()).add(0, store);
+                        } else {
+                            fallback.add(var);
+                        }
+                    }
+                }
+            }
+
+            if (fallback.isEmpty()) {
+                stores.clear();
+                for (int line = 1; line <= cfg.size(); line++) {
+                    String def = cfg.defUse(line).def;
+                    if (def != null && writeThrough.contains(def)) stores.set(line);
+                }
+                return;
+            }
+            writeThrough.addAll(fallback);
+        }
+    }
+
+    /* Forward dataflow of "in a register and newer than memory" at the end of each block,
+       placing the stores before calls on the way. Loads need no transfer: a value is stored
+       wherever it is lost, so it is never newer than memory when something loads it. */
+    private BitSet[] dirtyOut(Set<String> writeThrough) {
+        BitSet[] out = new BitSet[cfg.blocks.size()];
+        for (BasicBlock b : cfg.blocks) {
+            out[b.index] = new BitSet(live.variableCount());
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            storesBefore.clear();
+            for (BasicBlock b : cfg.blocks) {
+                BitSet now = new BitSet(live.variableCount());
+                for (BasicBlock p : b.preds) {
+                    BitSet kept = (BitSet) out[p.index].clone();
+                    for (int v : lostOnEdge(out[p.index], p, b)) kept.clear(v);
+                    kept.and(live.liveIn(b));
+                    now.or(kept);
+                }
+
+                for (int line = b.first; line <= b.last; line++) {
+                    DefUse du = cfg.defUse(line);
+                    if (cfg.instruction(line) instanceof Call) {
+                        storeBeforeCall(now, b, line, du.def);
+                    }
+                    if (du.def != null && !fixed.contains(du.def)) {
+                        now.set(live.variableIndex(du.def),
+                                registerAt(du.def, line) != null && !writeThrough.contains(du.def));
+                    }
+                }
+
+                if (!now.equals(out[b.index])) {
+                    out[b.index] = now;
+                    changed = true;
+                }
+            }
+        }
+        return out;
+    }
+
+    /* Variables live after each call, from one backward pass over each block that has calls */
+    private void indexCalls() {
+        for (BasicBlock b : cfg.blocks) {
+            BitSet now = null;
+            for (int line = b.last; line >= b.first; line--) {
+                if (cfg.instruction(line) instanceof Call) {
+                    if (now == null) now = live.liveAfter(line);
+                    liveAfterCalls.put(line, (BitSet) now.clone());
+                }
+                if (now == null) continue;
+
+                DefUse du = cfg.defUse(line);
+                if (du.def != null) now.clear(live.variableIndex(du.def));
+                for (String u : du.uses) {
+                    now.set(live.variableIndex(u));
+                }
+            }
+        }
+    }
+
+    /* Values live after a call that lose their register there are stored before it */
+    private void storeBeforeCall(BitSet dirty, BasicBlock b, int call, String def) {
+        BitSet after = liveAfterCalls.get(call);
+        Set<String> reloaded = new HashSet<>();
+        for (String[] load : loadsAfter(call)) {
+            reloaded.add(load[0]);
+        }
+
+        for (int v = dirty.nextSetBit(0); v >= 0; v = dirty.nextSetBit(v + 1)) {
+            String var = live.variable(v);
+            if (var.equals(def) || !after.get(v)) continue;
+
+            String reg = registerAt(var, call);
+            boolean lost = !calleeSaved.contains(reg) || reloaded.contains(var)
+                        || call < b.last && !reg.equals(registerAt(var, call + 1));
+            if (lost) {
+                storesBefore.computeIfAbsent(call, k -> new ArrayList<>()).add(new String[] {var, reg});
+                dirty.clear(v);
+            }
+        }
+    }
+
+    /* Dirty values on edge b -> s that s needs from memory: it keeps them elsewhere or reloads them */
+    private List<Integer> lostOnEdge(BitSet dirty, BasicBlock b, BasicBlock s) {
+        Set<String> reloaded = new HashSet<>();
+        for (String[] load : cfg.instruction(s.first) instanceof LabelInstr ? loadsAfter(s.first) : loadsBefore(s.first)) {
+            reloaded.add(load[0]);
+        }
+
+        List<Integer> lost = new ArrayList<>();
+        BitSet in = live.liveIn(s);
+        for (int v = dirty.nextSetBit(0); v >= 0; v = dirty.nextSetBit(v + 1)) {
+            String var = live.variable(v);
+            if (in.get(v) && (reloaded.contains(var) || !registerAt(var, b.last).equals(registerAt(var, s.first)))) {
+                lost.add(v);
+            }
+        }
+        return lost;
+    }
+}
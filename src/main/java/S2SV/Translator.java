@@ -1,14 +1,18 @@
 package S2SV;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+import Analysis.ControlFlowGraph;
+import Analysis.DefUse;
+import Compiler.PassTimer;
 import IR.token.Identifier;
 import IR.token.Register;
 import sparrow.Add;
@@ -35,8 +39,8 @@ public class Translator extends DepthFirst {
     // Liveness information
     final private Map<String, Map<String, String>> linearRegAlloc;        // linear register allocation
     final private Map<String, Map<String, String>> aRegs;                 // argument "a" registers
-    final private Map<String, Map<String, Interval>> liveRanges;          // live ranges of local variables
-    final private Map<String, Map<String, Interval>> aLiveRanges;         // argument live ranges
+    final private Map<String, Liveness> liveness;                         // dataflow liveness per function
+    final private Map<String, SplitLinearScan> splits;                    // split allocations, if used
 
     // Sparrow-V states
     List<sparrowv.Instruction> instructions;
@@ -51,17 +55,22 @@ public class Translator extends DepthFirst {
 
     boolean isMain;
     private int currLine;
+    private LiveRegisterIndex liveRegs;         // Registers live after each line, built at the first call
+    private ShrinkWrap wrap;                    // Where callee-saved registers are saved and restored
+    private final PassTimer timer;
 
     public Translator(
         Map<String, Map<String, String>> linearRegAlloc,
         Map<String, Map<String, String>> aRegs,
-        Map<String, Map<String, Interval>> tsIntervals,
-        Map<String, Map<String, Interval>> aRanges
+        Map<String, SplitLinearScan> splits,
+        Map<String, Liveness> liveness,
+        PassTimer timer
     ) {
+        this.timer = timer;
+        this.splits = splits;
+        this.liveness = liveness;
         this.linearRegAlloc = linearRegAlloc;
         this.aRegs = aRegs;
-        this.liveRanges = new HashMap<>(tsIntervals);
-        this.aLiveRanges = new HashMap<>(aRanges);
     }
 
     private String getRegisterOrSpill(String id) {
@@ -70,6 +79,13 @@ public class Translator extends DepthFirst {
             return aRegs.get(currentFunction).get(id);
         }
 
+        // Split variables live in a different place at each line
+        SplitLinearScan split = splits.get(currentFunction);
+        if (split != null) {
+            String reg = split.registerAt(id, currLine);
+            return reg == null ? id : reg;
+        }
+
         // Check "t" and "s" registers
         if (linearRegAlloc.get(currentFunction) != null && linearRegAlloc.get(currentFunction).containsKey(id)) {
             return linearRegAlloc.get(currentFunction).get(id);
@@ -98,15 +114,74 @@ public class Translator extends DepthFirst {
         }
     }
 
-    private boolean livePastNow(String reg) {
-        Map<String, Interval> l  = liveRanges.get(currentFunction);
-        Map<String, Interval> al = aLiveRanges.get(currentFunction);
+    private void spill(List<String[]> stores) {
+        for (String[] store : stores) {
+            instructions.add(new sparrowv.Move_Id_Reg(new Identifier(store[0]), new Register(store[1])));
+        }
+    }
+
+    /* Blocks in which each callee-saved register holds or receives a value */
+    private Map<String, BitSet> calleeUses(FunctionDecl n) {
+        Liveness live = liveness.get(currentFunction);
+        Map<String, BitSet> uses = new HashMap<>();
+
+        SplitLinearScan split = splits.get(currentFunction);
+        if (split != null) {
+            split.registerBlocks().forEach((reg, blocks) -> {
+                if (CALLEE_SET.contains(reg)) uses.put(reg, blocks);
+            });
+            return uses;
+        }
+
+        Map<String, String> homes = linearRegAlloc.get(currentFunction);
+        String[] reg = new String[live.variableCount()];
+        BitSet callee = new BitSet();
+        for (int v = 0; v < reg.length; v++) {
+            String r = homes.get(live.variable(v));
+            if (CALLEE_SET.contains(r)) {
+                reg[v] = r;
+                callee.set(v);
+            }
+        }
+        for (ControlFlowGraph.BasicBlock b : live.cfg.blocks) {
+            BitSet in = live.liveIn(b), out = live.liveOut(b);
+            for (int v = callee.nextSetBit(0); v >= 0; v = callee.nextSetBit(v + 1)) {
+                if (in.get(v) || out.get(v)) markCallee(uses, reg[v], b.index);
+            }
+            for (int line = b.first; line <= b.last; line++) {
+                DefUse du = live.cfg.defUse(line);
+                if (du.def != null) markCallee(uses, reg[live.variableIndex(du.def)], b.index);
+                for (String u : du.uses) markCallee(uses, reg[live.variableIndex(u)], b.index);
+            }
+        }
+
+        // Parameters past the sixth are loaded into their registers in the prologue
+        for (int i = 6; i < n.formalParameters.size(); i++) {
+            String r = homes.get(n.formalParameters.get(i).toString());
+            if (CALLEE_SET.contains(r)) markCallee(uses, r, 0);
+        }
+        return uses;
+    }
+
+    private static void markCallee(Map<String, BitSet> uses, String reg, int block) {
+        if (reg != null) uses.computeIfAbsent(reg, k -> new BitSet()).set(block);
+    }
 
-        return Stream.concat(l.entrySet().stream(), al.entrySet().stream())
-                    .anyMatch(e -> {
-                        String home = getRegisterOrSpill(e.getKey());
-                        return home.equals(reg) && e.getValue().getLast() > currLine + 1;
-                    });
+    /* Index the registers a call may clobber, for variables that keep one register throughout;
+       split variables are reloaded after calls instead */
+    private LiveRegisterIndex liveRegisterIndex() {
+        Map<String, String> args = aRegs.get(currentFunction);
+        Map<String, String> homes = splits.containsKey(currentFunction) ? new HashMap<>() : linearRegAlloc.get(currentFunction);
+        return new LiveRegisterIndex(liveness.get(currentFunction), v -> {
+            String reg = args.getOrDefault(v, homes.get(v));
+            return CALLER_SET.contains(reg) || ARG_REGS.contains(reg) ? reg : null;
+        });
+    }
+
+    private void reload(List<String[]> loads) {
+        for (String[] load : loads) {
+            instructions.add(new sparrowv.Move_Reg_Id(new Register(load[1]), new Identifier(load[0])));
+        }
     }
 
     @Override
@@ -116,7 +191,7 @@ public class Translator extends DepthFirst {
 
         for (FunctionDecl fd : n.funDecls) {
             isMain = (idx == 0);
-            fd.accept(this);
+            timer.run("Translator", fd.functionName.toString(), fd.block.instructions.size(), () -> fd.accept(this));
             idx++;
         }
         prog = new sparrowv.Program(funcs);
@@ -127,6 +202,8 @@ public class Translator extends DepthFirst {
         currentFunction = n.functionName.toString();
         currLine = 0;
 
+        liveRegs = null;
+
         // Load formal parameters
         List<Identifier> params = new ArrayList<>();
         for (int i = 6; i < n.formalParameters.size(); i++) {
@@ -136,19 +213,15 @@ public class Translator extends DepthFirst {
 
         instructions = new ArrayList<>();
 
-        // Get used callees for the current function
-        Set<String> usedCallees = linearRegAlloc.get(currentFunction)
-            .values()
-            .stream()
-            .filter(CALLEE_SET::contains)
-            .collect(Collectors.toSet());
-
-        // Save callee-saved registers
-        if (!isMain)
-            saveRestore(usedCallees, new HashSet<>(), true);
+        // Save callee-saved registers around the blocks that use them; main has no caller to preserve
+        SplitLinearScan split = splits.get(currentFunction);
+        Map<String, BitSet> calleeUses = isMain ? new HashMap<>() : calleeUses(n);
+        wrap = calleeUses.isEmpty() ? null : new ShrinkWrap(liveness.get(currentFunction).cfg, calleeUses);
+        if (wrap != null)
+            saveRestore(wrap.prologue(), new HashSet<>(), true);
         
-        // Load formal parameters into registers if needed
-        for (int i = 0; i < params.size(); i++) {
+        // Load formal parameters into registers if needed; split allocations load them at their first block
+        for (int i = 0; i < params.size() && split == null; i++) {
             Identifier param = params.get(i);
             String paramName = param.toString();
             String paramReg = getRegisterOrSpill(paramName);
@@ -166,14 +239,45 @@ public class Translator extends DepthFirst {
         if (!isSpilled(returnId.toString()))
             instructions.add(new sparrowv.Move_Id_Reg(returnId, new Register(returnReg)));
 
-        // Restore used callee registers
-        if (!isMain)
-            saveRestore(usedCallees, new HashSet<>(), false);
+        // Restore callee registers saved in the prologue or left to the epilogue
+        if (wrap != null)
+            saveRestore(wrap.epilogue(), new HashSet<>(), false);
 
         sparrowv.Block block = new sparrowv.Block(instructions, returnId);
         funcs.add(new sparrowv.FunctionDecl(n.functionName, params, block));
     }
 
+    @Override
+    public void visit(sparrow.Block n) {
+        SplitLinearScan split = splits.get(currentFunction);
+
+        // Around each instruction: shrink-wrapped callee saves at block starts and restores at block
+        // ends, and for split allocations, stores and reloads where a variable's register changes
+        // and stores of the definitions of variables that are kept current in memory
+        for (sparrow.Instruction i : n.instructions) {
+            int line = currLine + 1;
+            if (wrap != null) saveRestore(wrap.savesBefore(line), Collections.emptySet(), true);
+            if (split != null) {
+                spill(split.storesBefore(line));
+                reload(split.loadsBefore(line));
+            }
+            if (wrap != null) saveRestore(wrap.restoresBefore(line), Collections.emptySet(), false);
+
+            i.accept(this);
+
+            if (wrap != null) saveRestore(wrap.savesAfter(line), Collections.emptySet(), true);
+            if (split != null) {
+                String def = DefUse.of(i).def;
+                if (def != null && split.storeAfter(line) && !isSpilled(def)) {
+                    instructions.add(new sparrowv.Move_Id_Reg(new Identifier(def), new Register(getRegisterOrSpill(def))));
+                }
+                spill(split.storesAfter(line));
+                reload(split.loadsAfter(line));
+            }
+            if (wrap != null) saveRestore(wrap.restoresAfter(line), Collections.emptySet(), false);
+        }
+    }
+
     @Override
     public void visit(LabelInstr n) {
         currLine++;
@@ -454,7 +558,7 @@ public class Translator extends DepthFirst {
 
         // System.err.println("Translating function: " + currentFunction + ", at Sparrow line: " + currLine);
 
-        // Save all caller-saved and argument registers before call
+        // Save live caller-saved and argument registers before call
         String callee = n.callee.toString();
         String lhs = n.lhs.toString();
 
@@ -467,31 +571,25 @@ public class Translator extends DepthFirst {
             ignoreRegs.add(lhsReg);
         }
 
-        // Get live caller and args registers after the call
+        // Registers holding values still needed after the call
+        if (liveRegs == null) liveRegs = liveRegisterIndex();
         Set<String> liveCaller = CALLER_SET.stream()
-                     .filter(this::livePastNow)
+                     .filter(r -> liveRegs.liveAfter(r, currLine))
+                     .collect(Collectors.toSet());
+        Set<String> liveArgs = ARG_REGS.stream()
+                     .filter(r -> liveRegs.liveAfter(r, currLine))
                      .collect(Collectors.toSet());
 
-        Set<String> liveArgs = new HashSet<>();
-        if (aRegs.get(currentFunction) != null) {
-            liveArgs.addAll(aRegs.get(currentFunction).values());
+        // Argument registers passed on are read back from their save slots, since loading the
+        // arguments overwrites them
+        Set<String> savedArgs = new HashSet<>(liveArgs);
+        for (Identifier arg : n.args) {
+            String reg = getRegisterOrSpill(arg.toString());
+            if (ARG_REGS.contains(reg)) savedArgs.add(reg);
         }
 
-        // (1) compute the sets as usual:
-Set<String> liveCallerRegs = CALLER_SET.stream()
-                                       .filter(this::livePastNow)
-                                       .collect(Collectors.toSet());
-Set<String> liveArgRegs    = ARG_REGS.stream()
-                                     .filter(this::livePastNow)
-                                     .collect(Collectors.toSet());
-
-// (2) print them out for debugging:
-// System.err.println("CALL @S‐line " + currLine
-//     + "  liveCallerRegs=" + liveCallerRegs
-//     + "  liveArgRegs="    + liveArgRegs);
-
         saveRestore(liveCaller, ignoreRegs, true);
-        saveRestore(liveArgs, ignoreRegs, true);
+        saveRestore(savedArgs, new HashSet<>(), true);
 
         if (isSpilled(callee))
             instructions.add(new sparrowv.Move_Reg_Id(new Register(calleeReg), n.callee));
@@ -537,7 +635,7 @@ Set<String> liveArgRegs    = ARG_REGS.stream()
             instructions.add(new sparrowv.Move_Id_Reg(n.lhs, new Register(lhsReg)));
         }
 
-        // Restore all caller-saved and argument registers after call
+        // Restore live caller-saved and argument registers after call
         saveRestore(liveCaller, ignoreRegs, false);
         saveRestore(liveArgs, ignoreRegs, false);
     }
@@ -0,0 +1,86 @@
+package SV2V;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Buffered sink for RISC-V assembly. Mnemonics, register names, labels and integer
+ * immediates are appended straight to the underlying Writer, so no String is built
+ * per instruction and the program text is never held in memory as a whole.
+ */
+public class AsmWriter {
+    private final Writer out;
+    private final char[] digits = new char[11];     // Scratch for formatting an int
+
+    public AsmWriter(Writer out) {
+        this.out = out instanceof BufferedWriter ? out : new BufferedWriter(out, 1 << 16);
+    }
+
+    /* Raw text */
+    public AsmWriter s(String text) {
+        try {
+            out.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    /* "  op " */
+    public AsmWriter op(String mnemonic) {
+        return s("  ").s(mnemonic).s(" ");
+    }
+
+    /* ", " */
+    public AsmWriter sep() {
+        return s(", ");
+    }
+
+    public AsmWriter nl() {
+        return s("\n");
+    }
+
+    /* "offset(base)" */
+    public AsmWriter mem(int offset, String base) {
+        return i(offset).s("(").s(base).s(")");
+    }
+
+    /* Function-local label: "function_label" */
+    public AsmWriter label(String function, String label) {
+        return s(function).s("_").s(label);
+    }
+
+    /* Decimal integer, without going through Integer.toString */
+    public AsmWriter i(int value) {
+        try {
+            if (value == Integer.MIN_VALUE) {
+                out.write("-2147483648");
+                return this;
+            }
+
+            int pos = digits.length;
+            int v = Math.abs(value);
+            do {
+                digits[--pos] = (char) ('0' + v % 10);
+                v /= 10;
+            } while (v != 0);
+            if (value < 0) {
+                digits[--pos] = '-';
+            }
+            out.write(digits, pos, digits.length - pos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
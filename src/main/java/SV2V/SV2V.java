@@ -1,29 +1,67 @@
 package SV2V;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 
+import Compiler.PassTimer;
 import IR.SparrowParser;
 import IR.registers.Registers;
 import IR.syntaxtree.Node;
 import IR.visitor.SparrowVConstructor;
+import sparrowv.FunctionDecl;
 import sparrowv.Program;
 
 public class SV2V {
     public static void main(String[] args) throws Exception {
         Registers.SetRiscVregs();
         InputStream in = System.in;
-        new SparrowParser(in);
-        Node root = SparrowParser.Program();
+        Node root = new SparrowParser(in).Program();
         SparrowVConstructor constructor = new SparrowVConstructor();
         root.accept(constructor);
         Program program = constructor.getProgram();
 
+        Writer out = new OutputStreamWriter(System.out);
+        translate(program, out);
+        out.write("\n");
+        out.flush();
+    }
+
+    /**
+     * Lower a Sparrow-V program to RISC-V assembly
+     * @param program Sparrow-V program
+     * @return RISC-V assembly text
+     */
+    public static String translate(Program program) {
+        StringWriter out = new StringWriter();
+        translate(program, out);
+        return out.toString();
+    }
+
+    /**
+     * Lower a Sparrow-V program to RISC-V assembly, streaming it to a writer as it is generated
+     * @param program Sparrow-V program
+     * @param out destination for the assembly text; flushed but not closed
+     */
+    public static void translate(Program program, Writer out) {
+        translate(program, out, PassTimer.NONE);
+    }
+
+    /**
+     * Lower a Sparrow-V program to RISC-V assembly, timing each pass per function
+     * @param program Sparrow-V program
+     * @param out destination for the assembly text; flushed but not closed
+     * @param timer pass instrumentation
+     */
+    public static void translate(Program program, Writer out, PassTimer timer) {
         // Pre-compute stack offsets and stack frame size
         OffsetVisitor ov = new OffsetVisitor();
-        ov.visit(program);
+        for (FunctionDecl fd : program.funDecls) {
+            timer.run("OffsetVisitor", fd.functionName.toString(), fd.block.instructions.size(), () -> fd.accept(ov));
+        }
 
         // Translate Sparrow-V to RISC-V
-        VTranslator tr = new VTranslator(ov.fmd);
+        VTranslator tr = new VTranslator(ov.fmd, new AsmWriter(out), timer);
         tr.visit(program);
-        System.out.println(tr.riscProgram.toString());
     }
-}
\ No newline at end of file
+}
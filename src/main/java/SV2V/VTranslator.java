@@ -1,16 +1,23 @@
 package SV2V;
 
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import Compiler.PassTimer;
 import IR.token.Identifier;
+import IR.token.Register;
 import sparrowv.Add;
 import sparrowv.Alloc;
+import sparrowv.Block;
 import sparrowv.Call;
 import sparrowv.ErrorMessage;
 import sparrowv.FunctionDecl;
 import sparrowv.Goto;
 import sparrowv.IfGoto;
+import sparrowv.Instruction;
 import sparrowv.LabelInstr;
 import sparrowv.LessThan;
 import sparrowv.Load;
@@ -28,15 +35,31 @@ import sparrowv.visitor.DepthFirst;
 
 public class VTranslator extends DepthFirst {
 
-    public StringBuilder riscProgram;              // RISC-V program
+    private final AsmWriter asm;                   // RISC-V program sink
     private boolean isMain;
     private final Map<String, FunctionStruct> fmd;
     private String currentFunction;
     private FunctionStruct currFuncMetadata;
     private int count;
 
-    public VTranslator(Map<String, FunctionStruct> fmd) {
-        this.riscProgram = new StringBuilder();
+    // Conditional branches reach +-4 KiB; farther targets need a jump
+    private static final int BRANCH_RANGE = 4096;
+    private int[] position;                         // Upper bound on each instruction's byte offset in its block
+    private final Map<String, Integer> labelIndex = new HashMap<>();
+    private List<Instruction> instructions;
+    private int index;                              // Instruction being translated
+
+    // Registers known to hold a constant since the last label or call. A pending constant has not
+    // been loaded yet: its li is emitted at the first use that needs the register, and dropped if
+    // the register is overwritten first
+    private final Map<String, Integer> constants = new HashMap<>();
+    private final Set<String> pending = new HashSet<>();
+
+    private final PassTimer timer;
+
+    public VTranslator(Map<String, FunctionStruct> fmd, AsmWriter asm, PassTimer timer) {
+        this.asm = asm;
+        this.timer = timer;
         this.fmd = new HashMap<>(fmd);
     }
 
@@ -46,83 +69,98 @@ public class VTranslator extends DepthFirst {
     @Override
     public void visit(Program n) {
         /* Add program header */ 
-        riscProgram.append(".equiv @sbrk, 9\n");                                        // .equiv @sbrk, 9
-        riscProgram.append(".equiv @print_string, 4\n");                                // .equiv @print_string, 4
-        riscProgram.append(".equiv @print_char, 11\n");                                 // .equiv @print_char, 11
-        riscProgram.append(".equiv @print_int, 1\n");                                   // .equiv @print_int, 1
-        riscProgram.append(".equiv @exit, 10\n");                                       // .equiv @exit, 10
-        riscProgram.append(".equiv @exit2, 17\n");                                      // .equiv @exit2, 17
-        riscProgram.append("\n");
-
-        riscProgram.append(".text\n");                                                  // .text
-        riscProgram.append("\n");
-
-        /* RISC-V entry point */
-        riscProgram.append("\n.globl main\n");                                          // .globl main
-        riscProgram.append("  jal Main\n");                                             // jal Main
-        riscProgram.append("  li a0, @exit\n");                                         // li a0, @exit
-        riscProgram.append("  ecall\n");                                                // ecall
-        riscProgram.append("\n");
+        asm.s(".equiv @sbrk, 9\n");                                        // .equiv @sbrk, 9
+        asm.s(".equiv @print_string, 4\n");                                // .equiv @print_string, 4
+        asm.s(".equiv @print_char, 11\n");                                 // .equiv @print_char, 11
+        asm.s(".equiv @print_int, 1\n");                                   // .equiv @print_int, 1
+        asm.s(".equiv @exit, 10\n");                                       // .equiv @exit, 10
+        asm.s(".equiv @exit2, 17\n");                                      // .equiv @exit2, 17
+        asm.s(".equiv @heap_chunk, 65536\n");                              // .equiv @heap_chunk, 65536
+        asm.s("\n");
+
+        asm.s(".text\n");                                                  // .text
+        asm.s("\n");
+
+        /* RISC-V entry point. gp holds the heap bump pointer, the address the next Alloc returns,
+           and tp holds the end of the current heap chunk. No other generated code uses either
+           register. Both start at 0, so the first Alloc takes the slow path and gets a chunk. */
+        asm.s("\n.globl main\n");                                          // .globl main
+        asm.s("  li gp, 0\n");                                             // li gp, 0         (heap bump pointer)
+        asm.s("  li tp, 0\n");                                             // li tp, 0         (end of the heap chunk)
+        asm.s("  jal Main\n");                                             // jal Main
+        asm.s("  li a0, @exit\n");                                         // li a0, @exit
+        asm.s("  ecall\n");                                                // ecall
+        asm.s("\n");
         
         /* Translate functions to RISC-V */
         int idx = 0;
         for (FunctionDecl fd : n.funDecls) {
             isMain = (idx == 0);
-            fd.accept(this);
+            timer.run("VTranslator", fd.functionName.toString(), fd.block.instructions.size(), () -> fd.accept(this));
             idx++;
         }
 
         /* Print */
-        riscProgram.append("\n.globl print\n");                                         // .globl print
-        riscProgram.append("print:\n");                                                 // print:
-        riscProgram.append("  mv a1, a0\n");                                            // mv a1, a0
-        riscProgram.append("  li a0, @print_int\n");                                    // li a0, @print_int
-        riscProgram.append("  ecall\n");                                                // ecall
-        riscProgram.append("  li a1, 10\n");                                            // li a1, 10
-        riscProgram.append("  li a0, @print_char\n");                                   // li a0, @print_char
-        riscProgram.append("  ecall\n");                                                // ecall
-        riscProgram.append("  jr ra\n");                                                // jr ra
-        riscProgram.append("\n");
+        asm.s("\n.globl print\n");                                         // .globl print
+        asm.s("print:\n");                                                 // print:
+        asm.s("  mv a1, a0\n");                                            // mv a1, a0
+        asm.s("  li a0, @print_int\n");                                    // li a0, @print_int
+        asm.s("  ecall\n");                                                // ecall
+        asm.s("  li a1, 10\n");                                            // li a1, 10
+        asm.s("  li a0, @print_char\n");                                   // li a0, @print_char
+        asm.s("  ecall\n");                                                // ecall
+        asm.s("  jr ra\n");                                                // jr ra
+        asm.s("\n");
 
         /* Error */
-        riscProgram.append("\n.globl error\n");                                         // .globl error
-        riscProgram.append("error:\n");                                                 // error:
-        riscProgram.append("  mv a1, a0\n");                                            // mv a1, a0
-        riscProgram.append("  li a0, @print_string\n");                                 // li a0, @print_string
-        riscProgram.append("  ecall\n");                                                // ecall
-        riscProgram.append("  li a1, 10\n");                                            // li a1, 10
-        riscProgram.append("  li a0, @print_char\n");                                   // li a0, @print_char
-        riscProgram.append("  ecall\n");                                                // ecall
-        riscProgram.append("  li a0, @exit\n");                                         // li a0, @exit
-        riscProgram.append("  ecall\n");                                                // ecall
-        riscProgram.append("abort_17:\n");                                              // abort_17:
-        riscProgram.append("   j abort_17\n");                                          // j abort_17
-        riscProgram.append("\n");
-
-        /* Alloc */
-        riscProgram.append("\n.globl alloc\n");                                         // .globl alloc
-        riscProgram.append("alloc:\n");                                                 // alloc:
-        riscProgram.append("  mv a1, a0\n");                                            // mv a1, a0
-        riscProgram.append("  li a0, @sbrk\n");                                         // li a0, @sbrk
-        riscProgram.append("  ecall\n");                                                // ecall
-        riscProgram.append("  jr ra\n");                                                // jr ra
-        riscProgram.append("\n");
+        asm.s("\n.globl error\n");                                         // .globl error
+        asm.s("error:\n");                                                 // error:
+        asm.s("  mv a1, a0\n");                                            // mv a1, a0
+        asm.s("  li a0, @print_string\n");                                 // li a0, @print_string
+        asm.s("  ecall\n");                                                // ecall
+        asm.s("  li a1, 10\n");                                            // li a1, 10
+        asm.s("  li a0, @print_char\n");                                   // li a0, @print_char
+        asm.s("  ecall\n");                                                // ecall
+        asm.s("  li a0, @exit\n");                                         // li a0, @exit
+        asm.s("  ecall\n");                                                // ecall
+        asm.s("abort_17:\n");                                              // abort_17:
+        asm.s("   j abort_17\n");                                          // j abort_17
+        asm.s("\n");
+
+        /* Alloc: slow path when the heap chunk is exhausted. Takes the size in a0, starts a new chunk
+           of at least @heap_chunk bytes in gp/tp, and returns the bump pointer past the request */
+        asm.s("\n.globl alloc\n");                                         // .globl alloc
+        asm.s("alloc:\n");                                                 // alloc:
+        asm.s("  mv t6, a0\n");                                            // mv t6, a0
+        asm.s("  li a1, @heap_chunk\n");                                   // li a1, @heap_chunk
+        asm.s("  bgeu a1, t6, alloc_chunk\n");                             // bgeu a1, t6, alloc_chunk
+        asm.s("  mv a1, t6\n");                                            // mv a1, t6
+        asm.s("alloc_chunk:\n");                                           // alloc_chunk:
+        asm.s("  mv tp, a1\n");                                            // mv tp, a1
+        asm.s("  li a0, @sbrk\n");                                         // li a0, @sbrk
+        asm.s("  ecall\n");                                                // ecall
+        asm.s("  mv gp, a0\n");                                            // mv gp, a0
+        asm.s("  add tp, tp, a0\n");                                       // add tp, tp, a0
+        asm.s("  add a0, a0, t6\n");                                       // add a0, a0, t6
+        asm.s("  jr ra\n");                                                // jr ra
+        asm.s("\n");
         
-        riscProgram.append(".data\n");                                                  // .data
-        riscProgram.append("\n");
+        asm.s(".data\n");                                                  // .data
+        asm.s("\n");
 
         /* Null pointer */
-        riscProgram.append("\n.globl msg_nullptr\n");                                   // .globl msg_nullptr
-        riscProgram.append("msg_nullptr:\n");                                           // msg_nullptr
-        riscProgram.append("  .asciiz \"null pointer\"\n");                             // .asciiz "null pointer"
-        riscProgram.append("  .align 2\n");                                             // .align 2
-        riscProgram.append("\n");
+        asm.s("\n.globl msg_nullptr\n");                                   // .globl msg_nullptr
+        asm.s("msg_nullptr:\n");                                           // msg_nullptr
+        asm.s("  .asciiz \"null pointer\"\n");                             // .asciiz "null pointer"
+        asm.s("  .align 2\n");                                             // .align 2
+        asm.s("\n");
 
         /* Array index out of bounds */
-        riscProgram.append("\n.globl msg_array_oob\n");                                 // .globl msg_array_oob
-        riscProgram.append("msg_array_oob:\n");                                         // msg_array_oob
-        riscProgram.append("  .asciiz \"array index out of bounds\"\n");                // .asciiz "array index out of bounds"
-        riscProgram.append("  .align 2\n");                                             // .align 2
+        asm.s("\n.globl msg_array_oob\n");                                 // .globl msg_array_oob
+        asm.s("msg_array_oob:\n");                                         // msg_array_oob
+        asm.s("  .asciiz \"array index out of bounds\"\n");                // .asciiz "array index out of bounds"
+        asm.s("  .align 2\n");                                             // .align 2
+        asm.flush();
     }
 
     /*   Program parent;
@@ -136,84 +174,85 @@ public class VTranslator extends DepthFirst {
 
         if (isMain) {
             /* Sparrow-V Main function */
-            riscProgram.append("\n.globl Main\n");                                      // .globl Main
-            riscProgram.append("Main:\n");                                              // Main:
+            asm.s("\n.globl Main\n");                                                  // .globl Main
+            asm.s("Main:\n");                                                          // Main:
         } else {
             /* Other Sparrow-V function */
-            String firstInstr = "\n.globl " + currentFunction + "\n";
-            String secondInstr = currentFunction + ":\n";
-
-            /* Build RISC-V instructions */
-            riscProgram.append(firstInstr);                                                 // .globl Foo
-            riscProgram.append(secondInstr);                                                // Foo:
+            asm.s("\n.globl ").s(currentFunction).nl();                                 // .globl Foo
+            asm.s(currentFunction).s(":\n");                                            // Foo:
         }
 
         /* Create new activation record */
         int frameSize = currFuncMetadata.getFrameSize();
-        String storeFrameSize = "  li t6, " + frameSize + "\n";
 
-        riscProgram.append("  sw fp, -8(sp)\n");
-        riscProgram.append("  mv fp, sp\n");
-        riscProgram.append(storeFrameSize);
-        riscProgram.append("  sub sp, sp, t6\n");
-        riscProgram.append("  sw ra, -4(fp)\n");
+        asm.s("  sw fp, -8(sp)\n");
+        asm.s("  mv fp, sp\n");
+        moveStack(-frameSize);                                                          // addi sp, sp, -12
+        asm.s("  sw ra, -4(fp)\n");
 
         /* Process instruction in function block */
         n.block.accept(this);
 
         /* Store return value */
-        String retId = n.block.return_id.toString();
-        int offset = currFuncMetadata.hasVar(retId) ? currFuncMetadata.getVarOffsets().get(retId) : currFuncMetadata.getArgOffsets().get(retId);
+        int offset = offsetOf(n.block.return_id.toString());
 
-        String storeRetId = "  lw a0, " + offset + "(fp)\n";
-        riscProgram.append(storeRetId);
+        asm.op("lw").s("a0").sep().mem(offset, "fp").nl();                              // lw a0, -12(fp)
 
         /* Deallocate local variables and arguments from activation record */
-        String restoreSp = "  addi sp, sp, " + frameSize + "\n";
+        asm.s("  lw ra, -4(fp)\n");
+        asm.s("  lw fp, -8(fp)\n");
+        moveStack(frameSize);                                                           // addi sp, sp, 12
+        asm.s("  jr ra\n");
+    }
+
+    /*   List<Instruction> instructions;
+     *   Identifier return_id; */
+    @Override
+    public void visit(Block n) {
+        /* Bound where every instruction and label can end up, so branches know their reach */
+        instructions = n.instructions;
+        position = new int[n.instructions.size() + 1];
+        labelIndex.clear();
+        for (int i = 0; i < n.instructions.size(); i++) {
+            Instruction instr = n.instructions.get(i);
+            if (instr instanceof LabelInstr) {
+                labelIndex.put(((LabelInstr) instr).label.toString(), i);
+            }
+            position[i + 1] = position[i] + maxBytes(instr);
+        }
 
-        riscProgram.append("  lw ra, -4(fp)\n");
-        riscProgram.append("  lw fp, -8(fp)\n");
-        riscProgram.append(restoreSp);
-        riscProgram.append("  jr ra\n");
+        constants.clear();
+        pending.clear();
+        for (index = 0; index < n.instructions.size(); index++) {
+            n.instructions.get(index).accept(this);
+        }
     }
 
     /*   Label label; */
     @Override
     public void visit(LabelInstr n) {
-        /* Deconstruct Sparrow-V instruction components */
-        String label = n.label.toString();
-
-        String mangled = currentFunction + "_" + label;
+        forget();
 
         /* Build RISC-V instruction */
-        String instr = mangled + ":\n";
-        riscProgram.append(instr);
+        asm.label(currentFunction, n.label.toString()).s(":\n");                        // Foo_L1:
     }
 
     /*   Register lhs;
      *   int rhs; */
     @Override
     public void visit(Move_Reg_Integer n) {
-        /* Deconstruct Sparrow-V instruction components */
-        String lhs = n.lhs.toString();
-        int rhs = n.rhs;
-
-        /* Build RISC-V instruction */
-        String instr = "  li " + lhs + ", " + rhs + "\n";                                   // li t0, 1
-        riscProgram.append(instr);
+        /* Load lazily: li t0, 1 */
+        constant(n.lhs, n.rhs);
     }
 
     /*   Register lhs;
      *   FunctionName rhs; */
     @Override
     public void visit(Move_Reg_FuncName n) {
-        /* Deconstruct Sparrow-V instruction components */
-        String lhs = n.lhs.toString();
-        String rhs = n.rhs.toString();
+        define(n.lhs);
 
         /* Build RISC-V instruction */
-        String instr = "  la " + lhs + ", " + rhs + "\n";                                   // la t0, Foo
-        riscProgram.append(instr);
+        asm.op("la").s(n.lhs.toString()).sep().s(n.rhs.toString()).nl();               // la t0, Foo
     }
 
     /*   Register lhs;
@@ -221,15 +260,18 @@ public class VTranslator extends DepthFirst {
      *   Register arg2; */
     @Override
     public void visit(Add n) {
-        /* Deconstruct Sparrow-V instruction components */
-        String lhs = n.lhs.toString();
-        String arg1 = n.arg1.toString();
-        String arg2 = n.arg2.toString();
-
-        /* Build RISC-V instruction */
-        String instr = "  add " + lhs + ", " + arg1 + ", " + arg2 + "\n";                   // add t0, t1, t2
-
-        riscProgram.append(instr);
+        Integer a = constants.get(n.arg1.toString());
+        Integer b = constants.get(n.arg2.toString());
+
+        if (a != null && b != null) {
+            constant(n.lhs, a + b);
+        } else if (b != null && fitsImmediate(b)) {
+            immediate("addi", n.lhs, n.arg1, b);                                        // addi t0, t1, 4
+        } else if (a != null && fitsImmediate(a)) {
+            immediate("addi", n.lhs, n.arg2, a);                                        // addi t0, t2, 4
+        } else {
+            binary("add", n.lhs, n.arg1, n.arg2);                                       // add t0, t1, t2
+        }
     }
 
     /*   Register lhs;
@@ -237,15 +279,16 @@ public class VTranslator extends DepthFirst {
      *   Register arg2; */
     @Override
     public void visit(Subtract n) {
-        /* Deconstruct Sparrow-V instruction components */
-        String lhs = n.lhs.toString();
-        String arg1 = n.arg1.toString();
-        String arg2 = n.arg2.toString();
+        Integer a = constants.get(n.arg1.toString());
+        Integer b = constants.get(n.arg2.toString());
 
-        /* Build RISC-V instruction */
-        String instr = "  sub " + lhs + ", " + arg1 + ", " + arg2 + "\n";                   // sub t0, t1, t2
-
-        riscProgram.append(instr);
+        if (a != null && b != null) {
+            constant(n.lhs, a - b);
+        } else if (b != null && fitsImmediate(-(long) b)) {
+            immediate("addi", n.lhs, n.arg1, -b);                                       // addi t0, t1, -4
+        } else {
+            binary("sub", n.lhs, n.arg1, n.arg2);                                       // sub t0, t1, t2
+        }
     }
 
     /*   Register lhs;
@@ -253,15 +296,18 @@ public class VTranslator extends DepthFirst {
      *   Register arg2; */
     @Override
     public void visit(Multiply n) {
-        /* Deconstruct Sparrow-V instruction components */
-        String lhs = n.lhs.toString();
-        String arg1 = n.arg1.toString();
-        String arg2 = n.arg2.toString();
-
-        /* Build RISC-V instruction */
-        String instr = "  mul " + lhs + ", " + arg1 + ", " + arg2 + "\n";                   // mul t0, t1, t2
-
-        riscProgram.append(instr);
+        Integer a = constants.get(n.arg1.toString());
+        Integer b = constants.get(n.arg2.toString());
+
+        if (a != null && b != null) {
+            constant(n.lhs, a * b);
+        } else if (b != null && isPowerOfTwo(b)) {
+            immediate("slli", n.lhs, n.arg1, Integer.numberOfTrailingZeros(b));         // slli t0, t1, 2
+        } else if (a != null && isPowerOfTwo(a)) {
+            immediate("slli", n.lhs, n.arg2, Integer.numberOfTrailingZeros(a));         // slli t0, t2, 2
+        } else {
+            binary("mul", n.lhs, n.arg1, n.arg2);                                       // mul t0, t1, t2
+        }
     }
 
     /*   Register lhs;
@@ -269,15 +315,16 @@ public class VTranslator extends DepthFirst {
      *   Register arg2; */
     @Override
     public void visit(LessThan n) {
-        /* Deconstruct Sparrow-V instruction components */
-        String lhs = n.lhs.toString();
-        String arg1 = n.arg1.toString();
-        String arg2 = n.arg2.toString();
+        Integer a = constants.get(n.arg1.toString());
+        Integer b = constants.get(n.arg2.toString());
 
-        /* Build RISC-V instruction */
-        String instr = "  slt " + lhs + ", " + arg1 + ", " + arg2 + "\n";                   // slt t0, t1, t2
-
-        riscProgram.append(instr);
+        if (a != null && b != null) {
+            constant(n.lhs, a < b ? 1 : 0);
+        } else if (b != null && fitsImmediate(b)) {
+            immediate("slti", n.lhs, n.arg1, b);                                        // slti t0, t1, 4
+        } else {
+            binary("slt", n.lhs, n.arg1, n.arg2);                                       // slt t0, t1, t2
+        }
     }
 
     /*   Register lhs;
@@ -285,15 +332,11 @@ public class VTranslator extends DepthFirst {
      *   int offset; */
     @Override
     public void visit(Load n) {
-        /* Deconstruct Sparrow-V instuction components */
-        String lhs = n.lhs.toString();
-        String base = n.base.toString();
-        int offset = n.offset;
+        String base = use(n.base);
+        define(n.lhs);
 
         /* Build RISC-V instruction */
-        String instr = "  lw " + lhs + ", " + offset + "(" + base + ")" + "\n";             // lw t0, 4(t1)
-
-        riscProgram.append(instr);
+        asm.op("lw").s(n.lhs.toString()).sep().mem(n.offset, base).nl();                // lw t0, 4(t1)
     }
 
     /*   Register base;
@@ -301,90 +344,99 @@ public class VTranslator extends DepthFirst {
      *   Register rhs; */
     @Override
     public void visit(Store n) {
-        /* Deconstruct Sparrow-V instruction components */
-        String base = n.base.toString();
-        int offset = n.offset;
-        String rhs = n.rhs.toString();
+        String rhs = use(n.rhs);
+        String base = use(n.base);
 
         /* Build RISC-V instruction */
-        String instr = "  sw " + rhs + ", " + offset + "(" + base + ")" + "\n";             // sw t1, 4(t0)
-
-        riscProgram.append(instr);
+        asm.op("sw").s(rhs).sep().mem(n.offset, base).nl();                             // sw t1, 4(t0)
     }
 
     /*   Register lhs;
      *   Register rhs; */
     @Override
     public void visit(Move_Reg_Reg n) {
-        /* Deconstruct Sparrow-V instruction components */
-        String lhs = n.lhs.toString();
-        String rhs = n.rhs.toString();
+        Integer value = constants.get(n.rhs.toString());
+        if (value != null) {
+            constant(n.lhs, value);
+            return;
+        }
 
-        /* Build RISC-V instruction */
-        String instr = "  mv " + lhs + ", " + rhs + "\n";                                  // mv t0, t1
+        if (n.lhs.toString().equals(n.rhs.toString())) return;
+
+        String rhs = use(n.rhs);
+        define(n.lhs);
 
-        riscProgram.append(instr);
+        /* Build RISC-V instruction */
+        asm.op("mv").s(n.lhs.toString()).sep().s(rhs).nl();                            // mv t0, t1
     }
 
     /*   Identifier lhs;
      *   Register rhs; */
     @Override
     public void visit(Move_Id_Reg n) {
-        /* Deconstruct Sparrow-V instruction components */
-        String lhs = n.lhs.toString();
-        String rhs = n.rhs.toString();
-
         /* Get offset for this identifier */
-        int offset = currFuncMetadata.hasVar(lhs) ? currFuncMetadata.getVarOffsets().get(lhs) : currFuncMetadata.getArgOffsets().get(lhs);
+        int offset = offsetOf(n.lhs.toString());
+
+        String rhs = use(n.rhs);
 
         /* Build RISC-V instruction */
-        String instr = "  sw " + rhs + ", " + offset + "(fp)\n";
-        riscProgram.append(instr);
+        asm.op("sw").s(rhs).sep().mem(offset, "fp").nl();                               // sw t0, -12(fp)
     }
 
     /*   Register lhs;
      *   Identifier rhs; */
     @Override
     public void visit(Move_Reg_Id n) {
-        /* Deconstruct Sparrow-V instruction comoennts */
-        String lhs = n.lhs.toString();
-        String rhs = n.rhs.toString();
-
         /* Get offset for this identifier */
-        int offset = currFuncMetadata.hasVar(rhs) ? currFuncMetadata.getVarOffsets().get(rhs) : currFuncMetadata.getArgOffsets().get(rhs);
+        int offset = offsetOf(n.rhs.toString());
+        define(n.lhs);
 
         /* Build RISC-V instruction */
-        String instr = "  lw " + lhs + ", " + offset + "(fp)\n";
-        riscProgram.append(instr);
+        asm.op("lw").s(n.lhs.toString()).sep().mem(offset, "fp").nl();                  // lw t0, -12(fp)
     }
 
     /*   Register lhs;
      *   Register size; */
     @Override
     public void visit(Alloc n) {
-        /* Deconstruct Sparrow-V instruction components */
-        String lhs = n.lhs.toString();
-        String size = n.size.toString();
-
-        /* Build RISC-V instructions */
-        String firstInstr = "  mv a0, " + size + "\n";
-        String lastInstr = "  mv " + lhs + ", a0" + "\n";
-
-        riscProgram.append(firstInstr);                                                     // mv a0, t1
-        riscProgram.append("  jal alloc\n");                                            // jal alloc
-        riscProgram.append(lastInstr);                                                      // mv t0, a0
+        int done = count++;
+        Integer size = constants.get(n.size.toString());
+        boolean fixed = size != null && fitsImmediate(size);
+        String sizeReg = fixed ? null : use(n.size);
+        define(n.lhs);
+
+        /* Bump gp inline; call alloc only when the request runs past the end of the chunk */
+        if (fixed) {
+            asm.op("addi").s("a0").sep().s("gp").sep().i(size).nl();                    // addi a0, gp, 8
+        } else {
+            asm.op("add").s("a0").sep().s("gp").sep().s(sizeReg).nl();                  // add a0, gp, t1
+        }
+        asm.op("bgeu").s("tp").sep().s("a0").sep()
+           .label(currentFunction, "alloc_done_").i(done).nl();                         // bgeu tp, a0, Foo_alloc_done_0
+        if (fixed) {
+            asm.op("li").s("a0").sep().i(size).nl();                                    // li a0, 8
+        } else {
+            asm.op("mv").s("a0").sep().s(sizeReg).nl();                                 // mv a0, t1
+        }
+        asm.s("  jal alloc\n");                                                         // jal alloc
+        asm.label(currentFunction, "alloc_done_").i(done).s(":\n");                     // Foo_alloc_done_0:
+        asm.op("mv").s(n.lhs.toString()).sep().s("gp").nl();                            // mv t0, gp
+        asm.op("mv").s("gp").sep().s("a0").nl();                                        // mv gp, a0
     }
 
     /*   Register content; */
     @Override
     public void visit(Print n) {
-        /* Deconstruct Sparrow-V instruction component */
-        String content = n.content.toString();
+        Integer value = constants.get(n.content.toString());
 
         /* Build RISC-V instructions */
-        String instr = "  mv a0, " + content + "\n";
-        riscProgram.append(instr);                                                          // mv a0, t0
-        riscProgram.append("  jal print\n");                                            // jal print
+        if (value != null) {
+            asm.op("li").s("a0").sep().i(value).nl();                                   // li a0, 5
+        } else {
+            String content = use(n.content);
+            asm.op("mv").s("a0").sep().s(content).nl();                                 // mv a0, t0
+        }
+        asm.s("  jal print\n");                                                         // jal print
     }
 
     /*   String msg; */
@@ -393,44 +445,54 @@ public class VTranslator extends DepthFirst {
         String label = n.msg.equals("\"array index out of bounds\"") ? "msg_array_oob" : "msg_nullptr";
 
         /* Build RISC-V instructions */
-        String instr = "  la a0, " + label + "\n";
-        riscProgram.append(instr);                                                      // la a0, msg_nullptr | la a0, msg_array_oob
-        riscProgram.append("  jal error\n");                                            // jal error
+        asm.op("la").s("a0").sep().s(label).nl();                                       // la a0, msg_nullptr | la a0, msg_array_oob
+        asm.s("  jal error\n");                                                         // jal error
+
+        /* Nothing after an error runs, so nothing needs its constants */
+        constants.clear();
+        pending.clear();
     }
 
     /*   Label label; */
     @Override
     public void visit(Goto n) {
-        /* Deconstruct Sparrow-V instruction component */
-        String label = n.label.toString();
-
-        String mangled = currentFunction + "_" + label;
+        flush();
 
         /* Build RISC-V instruction */
-        String instr = "  jal " + mangled + "\n";
-        riscProgram.append(instr);
+        asm.op("j").label(currentFunction, n.label.toString()).nl();                    // j Foo_L1
     }
 
     /*   Register condition;
      *   Label label; */
     @Override
     public void visit(IfGoto n) {
-        /* Deconstruct Sparrow-V instruction component */
-        String cond = n.condition.toString();
         String label = n.label.toString();
+        Integer value = constants.get(n.condition.toString());
 
-        String mangled = currentFunction + "_" + label;
+        /* An error reads no registers, so constants can stay pending on the way to one */
+        if (!reportsError(label)) flush();
 
-        String skip = mangled + "_no_jump_" + count++;
+        /* A known condition either always jumps or never does */
+        if (value != null) {
+            if (value == 0) {
+                asm.op("j").label(currentFunction, label).nl();                         // j Foo_L1
+            }
+            return;
+        }
 
-        /* Build RISC-V instructions */
-        String firstInstr = "  bnez " + cond + ", " + skip + "\n";
-        String secondInstr = "  jal " + mangled + "\n";
-        String thirdInstr = skip + ":\n";
+        if (inBranchRange(label)) {
+            /* Build RISC-V instruction */
+            asm.op("beqz").s(n.condition.toString()).sep().label(currentFunction, label).nl();     // beqz t0, Foo_L1
+            return;
+        }
+
+        int skip = count++;
 
-        riscProgram.append(firstInstr);
-        riscProgram.append(secondInstr);
-        riscProgram.append(thirdInstr);
+        /* Build RISC-V instructions */
+        asm.op("bnez").s(n.condition.toString()).sep()
+           .label(currentFunction, label).s("_no_jump_").i(skip).nl();                  // bnez t0, Foo_L1_no_jump_0
+        asm.op("j").label(currentFunction, label).nl();                                 // j Foo_L1
+        asm.label(currentFunction, label).s("_no_jump_").i(skip).s(":\n");              // Foo_L1_no_jump_0:
     }
 
     /*   Register lhs;
@@ -440,38 +502,140 @@ public class VTranslator extends DepthFirst {
     public void visit(Call n) {
         int numArgs = n.args.size();
 
-        /* Build RISC-V instructions */
-        String firstInstr = "  li t6, " + (numArgs * 4) + "\n";
-        String moveSp = "  sub sp, sp, t6\n";
+        /* The callee reads its register arguments and may clobber any register it does not save */
+        forget();
+        define(n.lhs);
 
-        riscProgram.append(firstInstr);
-        riscProgram.append(moveSp);
+        /* Build RISC-V instructions */
+        moveStack(-numArgs * 4);                                                        // addi sp, sp, -8
         
         /* Load call arguments */
         int spOffset = 0;
         for (Identifier a : n.args) {
-            String argName = a.toString();
-            int offset = currFuncMetadata.hasVar(argName) ? currFuncMetadata.getVarOffsets().get(argName) : currFuncMetadata.getArgOffsets().get(argName);
-
-            String instrLoad = "  lw t6, " + offset + "(fp)\n";
-            String instrStore = "  sw t6, " + spOffset + "(sp)\n";
+            int offset = offsetOf(a.toString());
 
-            riscProgram.append(instrLoad);
-            riscProgram.append(instrStore);
+            asm.op("lw").s("t6").sep().mem(offset, "fp").nl();                          // lw t6, -12(fp)
+            asm.op("sw").s("t6").sep().mem(spOffset, "sp").nl();                        // sw t6, 0(sp)
 
             spOffset += 4;
         }
 
         /* Make call */
-        String doCall = "  jalr " + n.callee.toString() + "\n";
-        riscProgram.append(doCall);
+        asm.op("jalr").s(n.callee.toString()).nl();                                     // jalr t0
 
         /* Reset stack pointer */
-        String resetSp = "  addi sp, sp, " + (numArgs * 4) + "\n";
-        String storeReturn = "  mv " + n.lhs.toString() + ", a0\n";
+        moveStack(numArgs * 4);                                                         // addi sp, sp, 8
+        asm.op("mv").s(n.lhs.toString()).sep().s("a0").nl();                            // mv t0, a0
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    private void binary(String op, Register lhs, Register arg1, Register arg2) {
+        String a = use(arg1);
+        String b = use(arg2);
+        define(lhs);
+        asm.op(op).s(lhs.toString()).sep().s(a).sep().s(b).nl();
+    }
+
+    private void immediate(String op, Register lhs, Register arg, int value) {
+        String a = use(arg);
+        define(lhs);
+        asm.op(op).s(lhs.toString()).sep().s(a).sep().i(value).nl();
+    }
+
+    /* Name of a register about to be read, loading its constant first if still pending */
+    private String use(Register r) {
+        String reg = r.toString();
+        if (!pending.contains(reg)) return reg;
+
+        int value = constants.get(reg);
+        if (value == 0) return "zero";
+
+        asm.op("li").s(reg).sep().i(value).nl();                                        // li t0, 1
+        pending.remove(reg);
+        return reg;
+    }
+
+    /* The register is about to be overwritten; a pending constant in it was never read */
+    private void define(Register r) {
+        constants.remove(r.toString());
+        pending.remove(r.toString());
+    }
 
-        riscProgram.append(resetSp);
-        riscProgram.append(storeReturn);
+    private void constant(Register r, int value) {
+        define(r);
+        constants.put(r.toString(), value);
+        pending.add(r.toString());
     }
 
+    /* Load every pending constant, before control leaves straight-line code */
+    private void flush() {
+        for (String reg : pending) {
+            asm.op("li").s(reg).sep().i(constants.get(reg)).nl();                       // li t0, 1
+        }
+        pending.clear();
+    }
+
+    /* Load pending constants and stop assuming anything about registers */
+    private void forget() {
+        flush();
+        constants.clear();
+    }
+
+    private static boolean fitsImmediate(long value) {
+        return value >= -2048 && value <= 2047;
+    }
+
+    private static boolean isPowerOfTwo(int value) {
+        return value > 0 && (value & (value - 1)) == 0;
+    }
+
+    /* Whether the label starts a block that only reports an error */
+    private boolean reportsError(String label) {
+        Integer target = labelIndex.get(label);
+        return target != null && target + 1 < instructions.size()
+            && instructions.get(target + 1) instanceof ErrorMessage;
+    }
+
+    /* Grow or shrink the stack, through t6 when the amount does not fit an immediate */
+    private void moveStack(int bytes) {
+        if (bytes == 0) return;
+
+        if (fitsImmediate(bytes)) {
+            asm.op("addi").s("sp").sep().s("sp").sep().i(bytes).nl();                   // addi sp, sp, -12
+        } else {
+            asm.op("li").s("t6").sep().i(bytes).nl();                                   // li t6, -4096
+            asm.s("  add sp, sp, t6\n");                                                // add sp, sp, t6
+        }
+    }
+
+    /* Whether a branch at the current instruction surely reaches the label */
+    private boolean inBranchRange(String label) {
+        Integer target = labelIndex.get(label);
+        if (target == null) return false;
+
+        // Constants still pending here are loaded somewhere on the way to a forward target
+        int carried = target > index ? 8 * pending.size() : 0;
+        return Math.abs(position[target] - position[index]) + carried < BRANCH_RANGE;
+    }
+
+    /* Bytes an instruction can take: at most 6 lines, or 5 plus two per argument for a call,
+       each of which may assemble to two instructions. An instruction that can leave a constant
+       pending also pays for the li that loads it later, wherever that is emitted */
+    private static int maxBytes(Instruction instr) {
+        int lines = instr instanceof Call ? 5 + 2 * ((Call) instr).args.size() : 6;
+        if (mayDefer(instr)) lines++;
+        return lines * 8;
+    }
+
+    private static boolean mayDefer(Instruction instr) {
+        return instr instanceof Move_Reg_Integer || instr instanceof Move_Reg_Reg || instr instanceof Add
+            || instr instanceof Subtract || instr instanceof Multiply || instr instanceof LessThan;
+    }
+
+    private int offsetOf(String id) {
+        return currFuncMetadata.hasVar(id) ? currFuncMetadata.getVarOffsets().get(id) : currFuncMetadata.getArgOffsets().get(id);
+    }
 }
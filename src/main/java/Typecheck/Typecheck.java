@@ -2,6 +2,7 @@ package Typecheck;
 
 import java.io.InputStream;
 
+import Compiler.PassTimer;
 import minijava.MiniJavaParser;
 import minijava.ParseException;
 import minijava.syntaxtree.Goal;
@@ -14,15 +15,7 @@ public class Typecheck {
                 InputStream in = System.in;
                 Goal root = new MiniJavaParser(in).Goal();
 
-                TableBuilder tb = new TableBuilder();
-                root.accept(tb, null);
-
-                InheritanceResolver ir = new InheritanceResolver(tb.getClassTable());
-                root.accept(ir, null);
-
-                SymbolTable st = new SymbolTable(tb.getClassTable());
-                Visitor v = new Visitor();
-                root.accept(v, st);
+                check(root);
 
             } catch (ParseException e) {
 
@@ -38,4 +31,31 @@ public class Typecheck {
 
             System.out.println("Program type checked successfully");
     }
+
+    /**
+     * Run symbol table construction, inheritance resolution and type checking on a parsed program
+     * @param root MiniJava AST
+     * @throws TypeException if the program is not well typed
+     */
+    public static void check(Goal root) {
+        check(root, PassTimer.NONE);
+    }
+
+    /**
+     * Type check a parsed program, timing each pass
+     * @param root MiniJava AST
+     * @param timer pass instrumentation
+     * @throws TypeException if the program is not well typed
+     */
+    public static void check(Goal root, PassTimer timer) {
+        TableBuilder tb = new TableBuilder();
+        timer.run("Typecheck.TableBuilder", null, -1, () -> root.accept(tb, null));
+
+        InheritanceResolver ir = new InheritanceResolver(tb.getClassTable());
+        timer.run("Typecheck.InheritanceResolver", null, -1, () -> root.accept(ir, null));
+
+        SymbolTable st = new SymbolTable(tb.getClassTable());
+        Visitor v = new Visitor();
+        timer.run("Typecheck.Visitor", null, -1, () -> root.accept(v, st));
+    }
 }
@@ -9,7 +9,7 @@ public
 class JavaCharStream
 {
   /** Whether parser is static. */
-  public static final boolean staticFlag = true;
+  public static final boolean staticFlag = false;
 
   static final int hexval(char c) throws java.io.IOException {
     switch(c)
@@ -59,32 +59,32 @@ class JavaCharStream
   }
 
 /** Position in buffer. */
-  static public int bufpos = -1;
-  static int bufsize;
-  static int available;
-  static int tokenBegin;
-  static protected int bufline[];
-  static protected int bufcolumn[];
+  public int bufpos = -1;
+  int bufsize;
+  int available;
+  int tokenBegin;
+  protected int bufline[];
+  protected int bufcolumn[];
 
-  static protected int column = 0;
-  static protected int line = 1;
+  protected int column = 0;
+  protected int line = 1;
 
-  static protected boolean prevCharIsCR = false;
-  static protected boolean prevCharIsLF = false;
+  protected boolean prevCharIsCR = false;
+  protected boolean prevCharIsLF = false;
 
-  static protected java.io.Reader inputStream;
+  protected java.io.Reader inputStream;
 
-  static protected char[] nextCharBuf;
-  static protected char[] buffer;
-  static protected int maxNextCharInd = 0;
-  static protected int nextCharInd = -1;
-  static protected int inBuf = 0;
-  static protected int tabSize = 8;
+  protected char[] nextCharBuf;
+  protected char[] buffer;
+  protected int maxNextCharInd = 0;
+  protected int nextCharInd = -1;
+  protected int inBuf = 0;
+  protected int tabSize = 8;
 
-  static protected void setTabSize(int i) { tabSize = i; }
-  static protected int getTabSize(int i) { return tabSize; }
+  protected void setTabSize(int i) { tabSize = i; }
+  protected int getTabSize(int i) { return tabSize; }
 
-  static protected void ExpandBuff(boolean wrapAround)
+  protected void ExpandBuff(boolean wrapAround)
   {
     char[] newbuffer = new char[bufsize + 2048];
     int newbufline[] = new int[bufsize + 2048];
@@ -131,7 +131,7 @@ class JavaCharStream
     tokenBegin = 0;
   }
 
-  static protected void FillBuff() throws java.io.IOException
+  protected void FillBuff() throws java.io.IOException
   {
     int i;
     if (maxNextCharInd == 4096)
@@ -163,7 +163,7 @@ class JavaCharStream
     }
   }
 
-  static protected char ReadByte() throws java.io.IOException
+  protected char ReadByte() throws java.io.IOException
   {
     if (++nextCharInd >= maxNextCharInd)
       FillBuff();
@@ -172,7 +172,7 @@ class JavaCharStream
   }
 
 /** @return starting character for cs132.IR.token. */
-  static public char BeginToken() throws java.io.IOException
+  public char BeginToken() throws java.io.IOException
   {
     if (inBuf > 0)
     {
@@ -191,7 +191,7 @@ class JavaCharStream
     return readChar();
   }
 
-  static protected void AdjustBuffSize()
+  protected void AdjustBuffSize()
   {
     if (available == bufsize)
     {
@@ -211,7 +211,7 @@ class JavaCharStream
       available = tokenBegin;
   }
 
-  static protected void UpdateLineColumn(char c)
+  protected void UpdateLineColumn(char c)
   {
     column++;
 
@@ -252,7 +252,7 @@ class JavaCharStream
   }
 
 /** Read a character. */
-  static public char readChar() throws java.io.IOException
+  public char readChar() throws java.io.IOException
   {
     if (inBuf > 0)
     {
@@ -350,7 +350,7 @@ class JavaCharStream
    * @deprecated
    * @see #getEndColumn
    */
-  static public int getColumn() {
+  public int getColumn() {
     return bufcolumn[bufpos];
   }
 
@@ -359,32 +359,32 @@ class JavaCharStream
    * @deprecated
    * @see #getEndLine
    */
-  static public int getLine() {
+  public int getLine() {
     return bufline[bufpos];
   }
 
 /** Get end column. */
-  static public int getEndColumn() {
+  public int getEndColumn() {
     return bufcolumn[bufpos];
   }
 
 /** Get end line. */
-  static public int getEndLine() {
+  public int getEndLine() {
     return bufline[bufpos];
   }
 
 /** @return column of token start */
-  static public int getBeginColumn() {
+  public int getBeginColumn() {
     return bufcolumn[tokenBegin];
   }
 
 /** @return line number of token start */
-  static public int getBeginLine() {
+  public int getBeginLine() {
     return bufline[tokenBegin];
   }
 
 /** Retreat. */
-  static public void backup(int amount) {
+  public void backup(int amount) {
 
     inBuf += amount;
     if ((bufpos -= amount) < 0)
@@ -395,10 +395,6 @@ class JavaCharStream
   public JavaCharStream(java.io.Reader dstream,
                  int startline, int startcolumn, int buffersize)
   {
-    if (inputStream != null)
-      throw new Error("\n   ERROR: Second call to the constructor of a static JavaCharStream.\n" +
-      "       You must either use ReInit() or set the JavaCC option STATIC to false\n" +
-      "       during the generation of this class.");
     inputStream = dstream;
     line = startline;
     column = startcolumn - 1;
@@ -533,7 +529,7 @@ class JavaCharStream
   }
 
   /** @return token image as String */
-  static public String GetImage()
+  public String GetImage()
   {
     if (bufpos >= tokenBegin)
       return new String(buffer, tokenBegin, bufpos - tokenBegin + 1);
@@ -543,7 +539,7 @@ class JavaCharStream
   }
 
   /** @return suffix */
-  static public char[] GetSuffix(int len)
+  public char[] GetSuffix(int len)
   {
     char[] ret = new char[len];
 
@@ -560,7 +556,7 @@ class JavaCharStream
   }
 
   /** Set buffers back to null when finished. */
-  static public void Done()
+  public void Done()
   {
     nextCharBuf = null;
     buffer = null;
@@ -571,7 +567,7 @@ class JavaCharStream
   /**
    * Method to adjust line and column numbers for the start of a cs132.IR.token.
    */
-  static public void adjustBeginLineColumn(int newLine, int newCol)
+  public void adjustBeginLineColumn(int newLine, int newCol)
   {
     int start = tokenBegin;
     int len;
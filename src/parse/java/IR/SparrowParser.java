@@ -6,7 +6,7 @@ import IR.syntaxtree.*;
 
 public class SparrowParser implements SparrowParserConstants {
 
-  static final public Program Program() throws ParseException {
+  final public Program Program() throws ParseException {
    NodeListOptional n0 = new NodeListOptional();
    FunctionDeclaration n1;
    NodeToken n2;
@@ -32,7 +32,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public FunctionDeclaration FunctionDeclaration() throws ParseException {
+  final public FunctionDeclaration FunctionDeclaration() throws ParseException {
    NodeToken n0;
    Token n1;
    FunctionName n2;
@@ -69,7 +69,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Block Block() throws ParseException {
+  final public Block Block() throws ParseException {
    NodeListOptional n0 = new NodeListOptional();
    Instruction n1;
    NodeToken n2;
@@ -93,7 +93,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Instruction Instruction() throws ParseException {
+  final public Instruction Instruction() throws ParseException {
    NodeChoice n0;
    LabelWithColon n1;
    SetInteger n2;
@@ -167,7 +167,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public LabelWithColon LabelWithColon() throws ParseException {
+  final public LabelWithColon LabelWithColon() throws ParseException {
    Label n0;
    NodeToken n1;
    Token n2;
@@ -178,7 +178,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public SetInteger SetInteger() throws ParseException {
+  final public SetInteger SetInteger() throws ParseException {
    Identifier n0;
    NodeToken n1;
    Token n2;
@@ -191,7 +191,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public SetFuncName SetFuncName() throws ParseException {
+  final public SetFuncName SetFuncName() throws ParseException {
    Identifier n0;
    NodeToken n1;
    Token n2;
@@ -208,7 +208,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Add Add() throws ParseException {
+  final public Add Add() throws ParseException {
    Identifier n0;
    NodeToken n1;
    Token n2;
@@ -227,7 +227,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Subtract Subtract() throws ParseException {
+  final public Subtract Subtract() throws ParseException {
    Identifier n0;
    NodeToken n1;
    Token n2;
@@ -246,7 +246,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Multiply Multiply() throws ParseException {
+  final public Multiply Multiply() throws ParseException {
    Identifier n0;
    NodeToken n1;
    Token n2;
@@ -265,7 +265,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public LessThan LessThan() throws ParseException {
+  final public LessThan LessThan() throws ParseException {
    Identifier n0;
    NodeToken n1;
    Token n2;
@@ -284,7 +284,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Load Load() throws ParseException {
+  final public Load Load() throws ParseException {
    Identifier n0;
    NodeToken n1;
    Token n2;
@@ -311,7 +311,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Store Store() throws ParseException {
+  final public Store Store() throws ParseException {
    NodeToken n0;
    Token n1;
    Identifier n2;
@@ -338,7 +338,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Move Move() throws ParseException {
+  final public Move Move() throws ParseException {
    Identifier n0;
    NodeToken n1;
    Token n2;
@@ -351,7 +351,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Alloc Alloc() throws ParseException {
+  final public Alloc Alloc() throws ParseException {
    Identifier n0;
    NodeToken n1;
    Token n2;
@@ -376,7 +376,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Print Print() throws ParseException {
+  final public Print Print() throws ParseException {
    NodeToken n0;
    Token n1;
    NodeToken n2;
@@ -395,7 +395,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public ErrorMessage ErrorMessage() throws ParseException {
+  final public ErrorMessage ErrorMessage() throws ParseException {
    NodeToken n0;
    Token n1;
    NodeToken n2;
@@ -414,7 +414,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Goto Goto() throws ParseException {
+  final public Goto Goto() throws ParseException {
    NodeToken n0;
    Token n1;
    Label n2;
@@ -425,7 +425,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public IfGoto IfGoto() throws ParseException {
+  final public IfGoto IfGoto() throws ParseException {
    NodeToken n0;
    Token n1;
    Identifier n2;
@@ -442,7 +442,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Call Call() throws ParseException {
+  final public Call Call() throws ParseException {
    Identifier n0;
    NodeToken n1;
    Token n2;
@@ -483,7 +483,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public FunctionName FunctionName() throws ParseException {
+  final public FunctionName FunctionName() throws ParseException {
    NodeToken n0;
    Token n1;
     n1 = jj_consume_token(IDENTIFIER);
@@ -492,7 +492,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Label Label() throws ParseException {
+  final public Label Label() throws ParseException {
    NodeToken n0;
    Token n1;
     n1 = jj_consume_token(IDENTIFIER);
@@ -501,7 +501,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Identifier Identifier() throws ParseException {
+  final public Identifier Identifier() throws ParseException {
    NodeToken n0;
    Token n1;
     n1 = jj_consume_token(IDENTIFIER);
@@ -510,7 +510,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public IntegerLiteral IntegerLiteral() throws ParseException {
+  final public IntegerLiteral IntegerLiteral() throws ParseException {
    NodeToken n0;
    Token n1;
     n1 = jj_consume_token(INTEGER_LITERAL);
@@ -519,7 +519,7 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public StringLiteral StringLiteral() throws ParseException {
+  final public StringLiteral StringLiteral() throws ParseException {
    NodeToken n0;
    Token n1;
     n1 = jj_consume_token(STRINGCONSTANT);
@@ -528,126 +528,126 @@ public class SparrowParser implements SparrowParserConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static private boolean jj_2_1(int xla) {
+  private boolean jj_2_1(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_1(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(0, xla); }
   }
 
-  static private boolean jj_2_2(int xla) {
+  private boolean jj_2_2(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_2(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(1, xla); }
   }
 
-  static private boolean jj_2_3(int xla) {
+  private boolean jj_2_3(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_3(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(2, xla); }
   }
 
-  static private boolean jj_2_4(int xla) {
+  private boolean jj_2_4(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_4(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(3, xla); }
   }
 
-  static private boolean jj_2_5(int xla) {
+  private boolean jj_2_5(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_5(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(4, xla); }
   }
 
-  static private boolean jj_2_6(int xla) {
+  private boolean jj_2_6(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_6(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(5, xla); }
   }
 
-  static private boolean jj_2_7(int xla) {
+  private boolean jj_2_7(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_7(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(6, xla); }
   }
 
-  static private boolean jj_2_8(int xla) {
+  private boolean jj_2_8(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_8(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(7, xla); }
   }
 
-  static private boolean jj_2_9(int xla) {
+  private boolean jj_2_9(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_9(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(8, xla); }
   }
 
-  static private boolean jj_2_10(int xla) {
+  private boolean jj_2_10(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_10(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(9, xla); }
   }
 
-  static private boolean jj_2_11(int xla) {
+  private boolean jj_2_11(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_11(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(10, xla); }
   }
 
-  static private boolean jj_2_12(int xla) {
+  private boolean jj_2_12(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_12(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(11, xla); }
   }
 
-  static private boolean jj_2_13(int xla) {
+  private boolean jj_2_13(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_13(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(12, xla); }
   }
 
-  static private boolean jj_2_14(int xla) {
+  private boolean jj_2_14(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_14(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(13, xla); }
   }
 
-  static private boolean jj_2_15(int xla) {
+  private boolean jj_2_15(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_15(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(14, xla); }
   }
 
-  static private boolean jj_2_16(int xla) {
+  private boolean jj_2_16(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_16(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(15, xla); }
   }
 
-  static private boolean jj_2_17(int xla) {
+  private boolean jj_2_17(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_17(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(16, xla); }
   }
 
-  static private boolean jj_3R_5() {
+  private boolean jj_3R_5() {
     Token xsp;
     xsp = jj_scanpos;
     if (jj_3_2()) {
@@ -699,14 +699,14 @@ public class SparrowParser implements SparrowParserConstants {
     return false;
   }
 
-  static private boolean jj_3R_7() {
+  private boolean jj_3R_7() {
     if (jj_3R_23()) return true;
     if (jj_scan_token(ASSIGN)) return true;
     if (jj_3R_24()) return true;
     return false;
   }
 
-  static private boolean jj_3R_20() {
+  private boolean jj_3R_20() {
     if (jj_scan_token(IFZERO)) return true;
     if (jj_3R_23()) return true;
     if (jj_scan_token(GOTO)) return true;
@@ -714,19 +714,19 @@ public class SparrowParser implements SparrowParserConstants {
     return false;
   }
 
-  static private boolean jj_3R_24() {
+  private boolean jj_3R_24() {
     if (jj_scan_token(INTEGER_LITERAL)) return true;
     return false;
   }
 
-  static private boolean jj_3R_15() {
+  private boolean jj_3R_15() {
     if (jj_3R_23()) return true;
     if (jj_scan_token(ASSIGN)) return true;
     if (jj_3R_23()) return true;
     return false;
   }
 
-  static private boolean jj_3R_11() {
+  private boolean jj_3R_11() {
     if (jj_3R_23()) return true;
     if (jj_scan_token(ASSIGN)) return true;
     if (jj_3R_23()) return true;
@@ -735,34 +735,34 @@ public class SparrowParser implements SparrowParserConstants {
     return false;
   }
 
-  static private boolean jj_3R_6() {
+  private boolean jj_3R_6() {
     if (jj_3R_22()) return true;
     if (jj_scan_token(35)) return true;
     return false;
   }
 
-  static private boolean jj_3R_19() {
+  private boolean jj_3R_19() {
     if (jj_scan_token(GOTO)) return true;
     if (jj_3R_22()) return true;
     return false;
   }
 
-  static private boolean jj_3R_23() {
+  private boolean jj_3R_23() {
     if (jj_scan_token(IDENTIFIER)) return true;
     return false;
   }
 
-  static private boolean jj_3_1() {
+  private boolean jj_3_1() {
     if (jj_3R_5()) return true;
     return false;
   }
 
-  static private boolean jj_3_17() {
+  private boolean jj_3_17() {
     if (jj_3R_21()) return true;
     return false;
   }
 
-  static private boolean jj_3R_14() {
+  private boolean jj_3R_14() {
     if (jj_scan_token(LSQPAREN)) return true;
     if (jj_3R_23()) return true;
     if (jj_scan_token(PLUS)) return true;
@@ -771,7 +771,7 @@ public class SparrowParser implements SparrowParserConstants {
     return false;
   }
 
-  static private boolean jj_3R_10() {
+  private boolean jj_3R_10() {
     if (jj_3R_23()) return true;
     if (jj_scan_token(ASSIGN)) return true;
     if (jj_3R_23()) return true;
@@ -780,17 +780,17 @@ public class SparrowParser implements SparrowParserConstants {
     return false;
   }
 
-  static private boolean jj_3_16() {
+  private boolean jj_3_16() {
     if (jj_3R_20()) return true;
     return false;
   }
 
-  static private boolean jj_3R_22() {
+  private boolean jj_3R_22() {
     if (jj_scan_token(IDENTIFIER)) return true;
     return false;
   }
 
-  static private boolean jj_3R_18() {
+  private boolean jj_3R_18() {
     if (jj_scan_token(ERROR)) return true;
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_26()) return true;
@@ -798,37 +798,37 @@ public class SparrowParser implements SparrowParserConstants {
     return false;
   }
 
-  static private boolean jj_3_15() {
+  private boolean jj_3_15() {
     if (jj_3R_19()) return true;
     return false;
   }
 
-  static private boolean jj_3_14() {
+  private boolean jj_3_14() {
     if (jj_3R_18()) return true;
     return false;
   }
 
-  static private boolean jj_3_13() {
+  private boolean jj_3_13() {
     if (jj_3R_17()) return true;
     return false;
   }
 
-  static private boolean jj_3R_25() {
+  private boolean jj_3R_25() {
     if (jj_scan_token(IDENTIFIER)) return true;
     return false;
   }
 
-  static private boolean jj_3_12() {
+  private boolean jj_3_12() {
     if (jj_3R_16()) return true;
     return false;
   }
 
-  static private boolean jj_3_11() {
+  private boolean jj_3_11() {
     if (jj_3R_15()) return true;
     return false;
   }
 
-  static private boolean jj_3R_9() {
+  private boolean jj_3R_9() {
     if (jj_3R_23()) return true;
     if (jj_scan_token(ASSIGN)) return true;
     if (jj_3R_23()) return true;
@@ -837,12 +837,12 @@ public class SparrowParser implements SparrowParserConstants {
     return false;
   }
 
-  static private boolean jj_3_10() {
+  private boolean jj_3_10() {
     if (jj_3R_14()) return true;
     return false;
   }
 
-  static private boolean jj_3R_13() {
+  private boolean jj_3R_13() {
     if (jj_3R_23()) return true;
     if (jj_scan_token(ASSIGN)) return true;
     if (jj_scan_token(LSQPAREN)) return true;
@@ -851,7 +851,7 @@ public class SparrowParser implements SparrowParserConstants {
     return false;
   }
 
-  static private boolean jj_3R_17() {
+  private boolean jj_3R_17() {
     if (jj_scan_token(PRINT)) return true;
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_23()) return true;
@@ -859,22 +859,22 @@ public class SparrowParser implements SparrowParserConstants {
     return false;
   }
 
-  static private boolean jj_3_9() {
+  private boolean jj_3_9() {
     if (jj_3R_13()) return true;
     return false;
   }
 
-  static private boolean jj_3_8() {
+  private boolean jj_3_8() {
     if (jj_3R_12()) return true;
     return false;
   }
 
-  static private boolean jj_3_7() {
+  private boolean jj_3_7() {
     if (jj_3R_11()) return true;
     return false;
   }
 
-  static private boolean jj_3R_21() {
+  private boolean jj_3R_21() {
     if (jj_3R_23()) return true;
     if (jj_scan_token(ASSIGN)) return true;
     if (jj_scan_token(CALL)) return true;
@@ -883,12 +883,12 @@ public class SparrowParser implements SparrowParserConstants {
     return false;
   }
 
-  static private boolean jj_3_6() {
+  private boolean jj_3_6() {
     if (jj_3R_10()) return true;
     return false;
   }
 
-  static private boolean jj_3R_8() {
+  private boolean jj_3R_8() {
     if (jj_3R_23()) return true;
     if (jj_scan_token(ASSIGN)) return true;
     if (jj_scan_token(ADDRESS)) return true;
@@ -896,12 +896,12 @@ public class SparrowParser implements SparrowParserConstants {
     return false;
   }
 
-  static private boolean jj_3_5() {
+  private boolean jj_3_5() {
     if (jj_3R_9()) return true;
     return false;
   }
 
-  static private boolean jj_3R_16() {
+  private boolean jj_3R_16() {
     if (jj_3R_23()) return true;
     if (jj_scan_token(ASSIGN)) return true;
     if (jj_scan_token(ALLOC)) return true;
@@ -910,12 +910,12 @@ public class SparrowParser implements SparrowParserConstants {
     return false;
   }
 
-  static private boolean jj_3_4() {
+  private boolean jj_3_4() {
     if (jj_3R_8()) return true;
     return false;
   }
 
-  static private boolean jj_3R_12() {
+  private boolean jj_3R_12() {
     if (jj_3R_23()) return true;
     if (jj_scan_token(ASSIGN)) return true;
     if (jj_3R_23()) return true;
@@ -924,34 +924,33 @@ public class SparrowParser implements SparrowParserConstants {
     return false;
   }
 
-  static private boolean jj_3_3() {
+  private boolean jj_3_3() {
     if (jj_3R_7()) return true;
     return false;
   }
 
-  static private boolean jj_3_2() {
+  private boolean jj_3_2() {
     if (jj_3R_6()) return true;
     return false;
   }
 
-  static private boolean jj_3R_26() {
+  private boolean jj_3R_26() {
     if (jj_scan_token(STRINGCONSTANT)) return true;
     return false;
   }
 
-  static private boolean jj_initialized_once = false;
   /** Generated Token Manager. */
-  static public SparrowParserTokenManager token_source;
-  static JavaCharStream jj_input_stream;
+  public SparrowParserTokenManager token_source;
+  JavaCharStream jj_input_stream;
   /** Current cs132.IR.token. */
-  static public Token token;
+  public Token token;
   /** Next cs132.IR.token. */
-  static public Token jj_nt;
-  static private int jj_ntk;
-  static private Token jj_scanpos, jj_lastpos;
-  static private int jj_la;
-  static private int jj_gen;
-  static final private int[] jj_la1 = new int[3];
+  public Token jj_nt;
+  private int jj_ntk;
+  private Token jj_scanpos, jj_lastpos;
+  private int jj_la;
+  private int jj_gen;
+  final private int[] jj_la1 = new int[3];
   static private int[] jj_la1_0;
   static private int[] jj_la1_1;
   static {
@@ -964,9 +963,9 @@ public class SparrowParser implements SparrowParserConstants {
    private static void jj_la1_init_1() {
       jj_la1_1 = new int[] {0x0,0x0,0x0,};
    }
-  static final private JJCalls[] jj_2_rtns = new JJCalls[17];
-  static private boolean jj_rescan = false;
-  static private int jj_gc = 0;
+  final private JJCalls[] jj_2_rtns = new JJCalls[17];
+  private boolean jj_rescan = false;
+  private int jj_gc = 0;
 
   /** Constructor with InputStream. */
   public SparrowParser(java.io.InputStream stream) {
@@ -974,13 +973,6 @@ public class SparrowParser implements SparrowParserConstants {
   }
   /** Constructor with InputStream and supplied encoding */
   public SparrowParser(java.io.InputStream stream, String encoding) {
-    if (jj_initialized_once) {
-      System.out.println("ERROR: Second call to constructor of static parser.  ");
-      System.out.println("       You must either use ReInit() or set the JavaCC option STATIC to false");
-      System.out.println("       during parser generation.");
-      throw new Error();
-    }
-    jj_initialized_once = true;
     try { jj_input_stream = new JavaCharStream(stream, encoding, 1, 1); } catch(java.io.UnsupportedEncodingException e) { throw new RuntimeException(e); }
     token_source = new SparrowParserTokenManager(jj_input_stream);
     token = new Token();
@@ -991,11 +983,11 @@ public class SparrowParser implements SparrowParserConstants {
   }
 
   /** Reinitialise. */
-  static public void ReInit(java.io.InputStream stream) {
+  public void ReInit(java.io.InputStream stream) {
      ReInit(stream, null);
   }
   /** Reinitialise. */
-  static public void ReInit(java.io.InputStream stream, String encoding) {
+  public void ReInit(java.io.InputStream stream, String encoding) {
     try { jj_input_stream.ReInit(stream, encoding, 1, 1); } catch(java.io.UnsupportedEncodingException e) { throw new RuntimeException(e); }
     token_source.ReInit(jj_input_stream);
     token = new Token();
@@ -1007,13 +999,6 @@ public class SparrowParser implements SparrowParserConstants {
 
   /** Constructor. */
   public SparrowParser(java.io.Reader stream) {
-    if (jj_initialized_once) {
-      System.out.println("ERROR: Second call to constructor of static parser. ");
-      System.out.println("       You must either use ReInit() or set the JavaCC option STATIC to false");
-      System.out.println("       during parser generation.");
-      throw new Error();
-    }
-    jj_initialized_once = true;
     jj_input_stream = new JavaCharStream(stream, 1, 1);
     token_source = new SparrowParserTokenManager(jj_input_stream);
     token = new Token();
@@ -1024,7 +1009,7 @@ public class SparrowParser implements SparrowParserConstants {
   }
 
   /** Reinitialise. */
-  static public void ReInit(java.io.Reader stream) {
+  public void ReInit(java.io.Reader stream) {
     jj_input_stream.ReInit(stream, 1, 1);
     token_source.ReInit(jj_input_stream);
     token = new Token();
@@ -1036,13 +1021,6 @@ public class SparrowParser implements SparrowParserConstants {
 
   /** Constructor with generated Token Manager. */
   public SparrowParser(SparrowParserTokenManager tm) {
-    if (jj_initialized_once) {
-      System.out.println("ERROR: Second call to constructor of static parser. ");
-      System.out.println("       You must either use ReInit() or set the JavaCC option STATIC to false");
-      System.out.println("       during parser generation.");
-      throw new Error();
-    }
-    jj_initialized_once = true;
     token_source = tm;
     token = new Token();
     jj_ntk = -1;
@@ -1061,7 +1039,7 @@ public class SparrowParser implements SparrowParserConstants {
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
-  static private Token jj_consume_token(int kind) throws ParseException {
+  private Token jj_consume_token(int kind) throws ParseException {
     Token oldToken;
     if ((oldToken = token).next != null) token = token.next;
     else token = token.next = token_source.getNextToken();
@@ -1086,8 +1064,8 @@ public class SparrowParser implements SparrowParserConstants {
   }
 
   static private final class LookaheadSuccess extends java.lang.Error { }
-  static final private LookaheadSuccess jj_ls = new LookaheadSuccess();
-  static private boolean jj_scan_token(int kind) {
+  final private LookaheadSuccess jj_ls = new LookaheadSuccess();
+  private boolean jj_scan_token(int kind) {
     if (jj_scanpos == jj_lastpos) {
       jj_la--;
       if (jj_scanpos.next == null) {
@@ -1110,7 +1088,7 @@ public class SparrowParser implements SparrowParserConstants {
 
 
 /** Get the next cs132.IR.token. */
-  static final public Token getNextToken() {
+  final public Token getNextToken() {
     if (token.next != null) token = token.next;
     else token = token.next = token_source.getNextToken();
     jj_ntk = -1;
@@ -1119,7 +1097,7 @@ public class SparrowParser implements SparrowParserConstants {
   }
 
 /** Get the specific cs132.IR.token. */
-  static final public Token getToken(int index) {
+  final public Token getToken(int index) {
     Token t = token;
     for (int i = 0; i < index; i++) {
       if (t.next != null) t = t.next;
@@ -1128,20 +1106,20 @@ public class SparrowParser implements SparrowParserConstants {
     return t;
   }
 
-  static private int jj_ntk() {
+  private int jj_ntk() {
     if ((jj_nt=token.next) == null)
       return (jj_ntk = (token.next=token_source.getNextToken()).kind);
     else
       return (jj_ntk = jj_nt.kind);
   }
 
-  static private java.util.List<int[]> jj_expentries = new java.util.ArrayList<int[]>();
-  static private int[] jj_expentry;
-  static private int jj_kind = -1;
-  static private int[] jj_lasttokens = new int[100];
-  static private int jj_endpos;
+  private java.util.List<int[]> jj_expentries = new java.util.ArrayList<int[]>();
+  private int[] jj_expentry;
+  private int jj_kind = -1;
+  private int[] jj_lasttokens = new int[100];
+  private int jj_endpos;
 
-  static private void jj_add_error_token(int kind, int pos) {
+  private void jj_add_error_token(int kind, int pos) {
     if (pos >= 100) return;
     if (pos == jj_endpos + 1) {
       jj_lasttokens[jj_endpos++] = kind;
@@ -1167,7 +1145,7 @@ public class SparrowParser implements SparrowParserConstants {
   }
 
   /** Generate ParseException. */
-  static public ParseException generateParseException() {
+  public ParseException generateParseException() {
     jj_expentries.clear();
     boolean[] la1tokens = new boolean[37];
     if (jj_kind >= 0) {
@@ -1204,14 +1182,14 @@ public class SparrowParser implements SparrowParserConstants {
   }
 
   /** Enable tracing. */
-  static final public void enable_tracing() {
+  final public void enable_tracing() {
   }
 
   /** Disable tracing. */
-  static final public void disable_tracing() {
+  final public void disable_tracing() {
   }
 
-  static private void jj_rescan_token() {
+  private void jj_rescan_token() {
     jj_rescan = true;
     for (int i = 0; i < 17; i++) {
     try {
@@ -1246,7 +1224,7 @@ public class SparrowParser implements SparrowParserConstants {
     jj_rescan = false;
   }
 
-  static private void jj_save(int index, int xla) {
+  private void jj_save(int index, int xla) {
     JJCalls p = jj_2_rtns[index];
     while (p.gen > jj_gen) {
       if (p.next == null) { p = p.next = new JJCalls(); break; }
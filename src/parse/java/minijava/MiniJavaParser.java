@@ -7,7 +7,7 @@ import minijava.syntaxtree.*;
 
 public class MiniJavaParser implements MiniJavaParserConstants {
 
-  static final public Goal Goal() throws ParseException {
+  final public Goal Goal() throws ParseException {
     MainClass n0;
    NodeListOptional n1 = new NodeListOptional();
    TypeDeclaration n2;
@@ -36,7 +36,7 @@ n4.beginColumn++; n4.endColumn++;
     throw new Error("Missing return statement in function");
   }
 
-  static final public MainClass MainClass() throws ParseException {NodeToken n0;
+  final public MainClass MainClass() throws ParseException {NodeToken n0;
    Token n1;
    Identifier n2;
    NodeToken n3;
@@ -134,7 +134,7 @@ n32 = JTBToolkit.makeNodeToken(n33);
     throw new Error("Missing return statement in function");
   }
 
-  static final public TypeDeclaration TypeDeclaration() throws ParseException {NodeChoice n0;
+  final public TypeDeclaration TypeDeclaration() throws ParseException {NodeChoice n0;
    ClassDeclaration n1;
    ClassExtendsDeclaration n2;
     if (jj_2_2(3)) {
@@ -157,7 +157,7 @@ n0 = new NodeChoice(n2, 1);
     throw new Error("Missing return statement in function");
   }
 
-  static final public ClassDeclaration ClassDeclaration() throws ParseException {NodeToken n0;
+  final public ClassDeclaration ClassDeclaration() throws ParseException {NodeToken n0;
    Token n1;
    Identifier n2;
    NodeToken n3;
@@ -211,7 +211,7 @@ n9 = JTBToolkit.makeNodeToken(n10);
     throw new Error("Missing return statement in function");
   }
 
-  static final public ClassExtendsDeclaration ClassExtendsDeclaration() throws ParseException {NodeToken n0;
+  final public ClassExtendsDeclaration ClassExtendsDeclaration() throws ParseException {NodeToken n0;
    Token n1;
    Identifier n2;
    NodeToken n3;
@@ -271,7 +271,7 @@ n12 = JTBToolkit.makeNodeToken(n13);
     throw new Error("Missing return statement in function");
   }
 
-  static final public VarDeclaration VarDeclaration() throws ParseException {Type n0;
+  final public VarDeclaration VarDeclaration() throws ParseException {Type n0;
    Identifier n1;
    NodeToken n2;
    Token n3;
@@ -283,7 +283,7 @@ n2 = JTBToolkit.makeNodeToken(n3);
     throw new Error("Missing return statement in function");
   }
 
-  static final public MethodDeclaration MethodDeclaration() throws ParseException {NodeToken n0;
+  final public MethodDeclaration MethodDeclaration() throws ParseException {NodeToken n0;
    Token n1;
    Type n2;
    Identifier n3;
@@ -369,7 +369,7 @@ n21 = JTBToolkit.makeNodeToken(n22);
     throw new Error("Missing return statement in function");
   }
 
-  static final public FormalParameterList FormalParameterList() throws ParseException {FormalParameter n0;
+  final public FormalParameterList FormalParameterList() throws ParseException {FormalParameter n0;
    NodeListOptional n1 = new NodeListOptional();
    FormalParameterRest n2;
     n0 = FormalParameter();
@@ -392,7 +392,7 @@ n1.nodes.trimToSize();
     throw new Error("Missing return statement in function");
   }
 
-  static final public FormalParameter FormalParameter() throws ParseException {Type n0;
+  final public FormalParameter FormalParameter() throws ParseException {Type n0;
    Identifier n1;
     n0 = Type();
     n1 = Identifier();
@@ -400,7 +400,7 @@ n1.nodes.trimToSize();
     throw new Error("Missing return statement in function");
   }
 
-  static final public FormalParameterRest FormalParameterRest() throws ParseException {NodeToken n0;
+  final public FormalParameterRest FormalParameterRest() throws ParseException {NodeToken n0;
    Token n1;
    FormalParameter n2;
     n1 = jj_consume_token(47);
@@ -410,7 +410,7 @@ n0 = JTBToolkit.makeNodeToken(n1);
     throw new Error("Missing return statement in function");
   }
 
-  static final public Type Type() throws ParseException {NodeChoice n0;
+  final public Type Type() throws ParseException {NodeChoice n0;
    ArrayType n1;
    BooleanType n2;
    IntegerType n3;
@@ -445,7 +445,7 @@ n0 = new NodeChoice(n4, 3);
     throw new Error("Missing return statement in function");
   }
 
-  static final public ArrayType ArrayType() throws ParseException {NodeToken n0;
+  final public ArrayType ArrayType() throws ParseException {NodeToken n0;
    Token n1;
    NodeToken n2;
    Token n3;
@@ -461,7 +461,7 @@ n4 = JTBToolkit.makeNodeToken(n5);
     throw new Error("Missing return statement in function");
   }
 
-  static final public BooleanType BooleanType() throws ParseException {NodeToken n0;
+  final public BooleanType BooleanType() throws ParseException {NodeToken n0;
    Token n1;
     n1 = jj_consume_token(BOOLEAN);
 n0 = JTBToolkit.makeNodeToken(n1);
@@ -469,7 +469,7 @@ n0 = JTBToolkit.makeNodeToken(n1);
     throw new Error("Missing return statement in function");
   }
 
-  static final public IntegerType IntegerType() throws ParseException {NodeToken n0;
+  final public IntegerType IntegerType() throws ParseException {NodeToken n0;
    Token n1;
     n1 = jj_consume_token(INTEGER);
 n0 = JTBToolkit.makeNodeToken(n1);
@@ -477,7 +477,7 @@ n0 = JTBToolkit.makeNodeToken(n1);
     throw new Error("Missing return statement in function");
   }
 
-  static final public Statement Statement() throws ParseException {NodeChoice n0;
+  final public Statement Statement() throws ParseException {NodeChoice n0;
    Block n1;
    AssignmentStatement n2;
    ArrayAssignmentStatement n3;
@@ -526,7 +526,7 @@ n0 = new NodeChoice(n6, 5);
     throw new Error("Missing return statement in function");
   }
 
-  static final public Block Block() throws ParseException {NodeToken n0;
+  final public Block Block() throws ParseException {NodeToken n0;
    Token n1;
    NodeListOptional n2 = new NodeListOptional();
    Statement n3;
@@ -559,7 +559,7 @@ n4 = JTBToolkit.makeNodeToken(n5);
     throw new Error("Missing return statement in function");
   }
 
-  static final public AssignmentStatement AssignmentStatement() throws ParseException {Identifier n0;
+  final public AssignmentStatement AssignmentStatement() throws ParseException {Identifier n0;
    NodeToken n1;
    Token n2;
    Expression n3;
@@ -575,7 +575,7 @@ n4 = JTBToolkit.makeNodeToken(n5);
     throw new Error("Missing return statement in function");
   }
 
-  static final public ArrayAssignmentStatement ArrayAssignmentStatement() throws ParseException {Identifier n0;
+  final public ArrayAssignmentStatement ArrayAssignmentStatement() throws ParseException {Identifier n0;
    NodeToken n1;
    Token n2;
    Expression n3;
@@ -601,7 +601,7 @@ n9 = JTBToolkit.makeNodeToken(n10);
     throw new Error("Missing return statement in function");
   }
 
-  static final public IfStatement IfStatement() throws ParseException {NodeToken n0;
+  final public IfStatement IfStatement() throws ParseException {NodeToken n0;
    Token n1;
    NodeToken n2;
    Token n3;
@@ -627,7 +627,7 @@ n8 = JTBToolkit.makeNodeToken(n9);
     throw new Error("Missing return statement in function");
   }
 
-  static final public WhileStatement WhileStatement() throws ParseException {NodeToken n0;
+  final public WhileStatement WhileStatement() throws ParseException {NodeToken n0;
    Token n1;
    NodeToken n2;
    Token n3;
@@ -647,7 +647,7 @@ n5 = JTBToolkit.makeNodeToken(n6);
     throw new Error("Missing return statement in function");
   }
 
-  static final public PrintStatement PrintStatement() throws ParseException {NodeToken n0;
+  final public PrintStatement PrintStatement() throws ParseException {NodeToken n0;
    Token n1;
    NodeToken n2;
    Token n3;
@@ -669,7 +669,7 @@ n7 = JTBToolkit.makeNodeToken(n8);
     throw new Error("Missing return statement in function");
   }
 
-  static final public Expression Expression() throws ParseException {NodeChoice n0;
+  final public Expression Expression() throws ParseException {NodeChoice n0;
    AndExpression n1;
    CompareExpression n2;
    PlusExpression n3;
@@ -727,7 +727,7 @@ n0 = new NodeChoice(n9, 8);
     throw new Error("Missing return statement in function");
   }
 
-  static final public AndExpression AndExpression() throws ParseException {PrimaryExpression n0;
+  final public AndExpression AndExpression() throws ParseException {PrimaryExpression n0;
    NodeToken n1;
    Token n2;
    PrimaryExpression n3;
@@ -739,7 +739,7 @@ n1 = JTBToolkit.makeNodeToken(n2);
     throw new Error("Missing return statement in function");
   }
 
-  static final public CompareExpression CompareExpression() throws ParseException {PrimaryExpression n0;
+  final public CompareExpression CompareExpression() throws ParseException {PrimaryExpression n0;
    NodeToken n1;
    Token n2;
    PrimaryExpression n3;
@@ -751,7 +751,7 @@ n1 = JTBToolkit.makeNodeToken(n2);
     throw new Error("Missing return statement in function");
   }
 
-  static final public PlusExpression PlusExpression() throws ParseException {PrimaryExpression n0;
+  final public PlusExpression PlusExpression() throws ParseException {PrimaryExpression n0;
    NodeToken n1;
    Token n2;
    PrimaryExpression n3;
@@ -763,7 +763,7 @@ n1 = JTBToolkit.makeNodeToken(n2);
     throw new Error("Missing return statement in function");
   }
 
-  static final public MinusExpression MinusExpression() throws ParseException {PrimaryExpression n0;
+  final public MinusExpression MinusExpression() throws ParseException {PrimaryExpression n0;
    NodeToken n1;
    Token n2;
    PrimaryExpression n3;
@@ -775,7 +775,7 @@ n1 = JTBToolkit.makeNodeToken(n2);
     throw new Error("Missing return statement in function");
   }
 
-  static final public TimesExpression TimesExpression() throws ParseException {PrimaryExpression n0;
+  final public TimesExpression TimesExpression() throws ParseException {PrimaryExpression n0;
    NodeToken n1;
    Token n2;
    PrimaryExpression n3;
@@ -787,7 +787,7 @@ n1 = JTBToolkit.makeNodeToken(n2);
     throw new Error("Missing return statement in function");
   }
 
-  static final public ArrayLookup ArrayLookup() throws ParseException {PrimaryExpression n0;
+  final public ArrayLookup ArrayLookup() throws ParseException {PrimaryExpression n0;
    NodeToken n1;
    Token n2;
    PrimaryExpression n3;
@@ -803,7 +803,7 @@ n4 = JTBToolkit.makeNodeToken(n5);
     throw new Error("Missing return statement in function");
   }
 
-  static final public ArrayLength ArrayLength() throws ParseException {PrimaryExpression n0;
+  final public ArrayLength ArrayLength() throws ParseException {PrimaryExpression n0;
    NodeToken n1;
    Token n2;
    NodeToken n3;
@@ -817,7 +817,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     throw new Error("Missing return statement in function");
   }
 
-  static final public MessageSend MessageSend() throws ParseException {PrimaryExpression n0;
+  final public MessageSend MessageSend() throws ParseException {PrimaryExpression n0;
    NodeToken n1;
    Token n2;
    Identifier n3;
@@ -856,7 +856,7 @@ n8 = JTBToolkit.makeNodeToken(n9);
     throw new Error("Missing return statement in function");
   }
 
-  static final public ExpressionList ExpressionList() throws ParseException {Expression n0;
+  final public ExpressionList ExpressionList() throws ParseException {Expression n0;
    NodeListOptional n1 = new NodeListOptional();
    ExpressionRest n2;
     n0 = Expression();
@@ -879,7 +879,7 @@ n1.nodes.trimToSize();
     throw new Error("Missing return statement in function");
   }
 
-  static final public ExpressionRest ExpressionRest() throws ParseException {NodeToken n0;
+  final public ExpressionRest ExpressionRest() throws ParseException {NodeToken n0;
    Token n1;
    Expression n2;
     n1 = jj_consume_token(47);
@@ -889,7 +889,7 @@ n0 = JTBToolkit.makeNodeToken(n1);
     throw new Error("Missing return statement in function");
   }
 
-  static final public PrimaryExpression PrimaryExpression() throws ParseException {NodeChoice n0;
+  final public PrimaryExpression PrimaryExpression() throws ParseException {NodeChoice n0;
    IntegerLiteral n1;
    TrueLiteral n2;
    FalseLiteral n3;
@@ -958,7 +958,7 @@ n0 = new NodeChoice(n9, 8);
     throw new Error("Missing return statement in function");
   }
 
-  static final public IntegerLiteral IntegerLiteral() throws ParseException {NodeToken n0;
+  final public IntegerLiteral IntegerLiteral() throws ParseException {NodeToken n0;
    Token n1;
     n1 = jj_consume_token(INTEGER_LITERAL);
 n0 = JTBToolkit.makeNodeToken(n1);
@@ -966,7 +966,7 @@ n0 = JTBToolkit.makeNodeToken(n1);
     throw new Error("Missing return statement in function");
   }
 
-  static final public TrueLiteral TrueLiteral() throws ParseException {NodeToken n0;
+  final public TrueLiteral TrueLiteral() throws ParseException {NodeToken n0;
    Token n1;
     n1 = jj_consume_token(TRUE);
 n0 = JTBToolkit.makeNodeToken(n1);
@@ -974,7 +974,7 @@ n0 = JTBToolkit.makeNodeToken(n1);
     throw new Error("Missing return statement in function");
   }
 
-  static final public FalseLiteral FalseLiteral() throws ParseException {NodeToken n0;
+  final public FalseLiteral FalseLiteral() throws ParseException {NodeToken n0;
    Token n1;
     n1 = jj_consume_token(FALSE);
 n0 = JTBToolkit.makeNodeToken(n1);
@@ -982,7 +982,7 @@ n0 = JTBToolkit.makeNodeToken(n1);
     throw new Error("Missing return statement in function");
   }
 
-  static final public Identifier Identifier() throws ParseException {NodeToken n0;
+  final public Identifier Identifier() throws ParseException {NodeToken n0;
    Token n1;
     n1 = jj_consume_token(IDENTIFIER);
 n0 = JTBToolkit.makeNodeToken(n1);
@@ -990,7 +990,7 @@ n0 = JTBToolkit.makeNodeToken(n1);
     throw new Error("Missing return statement in function");
   }
 
-  static final public ThisExpression ThisExpression() throws ParseException {NodeToken n0;
+  final public ThisExpression ThisExpression() throws ParseException {NodeToken n0;
    Token n1;
     n1 = jj_consume_token(THIS);
 n0 = JTBToolkit.makeNodeToken(n1);
@@ -998,7 +998,7 @@ n0 = JTBToolkit.makeNodeToken(n1);
     throw new Error("Missing return statement in function");
   }
 
-  static final public ArrayAllocationExpression ArrayAllocationExpression() throws ParseException {NodeToken n0;
+  final public ArrayAllocationExpression ArrayAllocationExpression() throws ParseException {NodeToken n0;
    Token n1;
    NodeToken n2;
    Token n3;
@@ -1020,7 +1020,7 @@ n7 = JTBToolkit.makeNodeToken(n8);
     throw new Error("Missing return statement in function");
   }
 
-  static final public AllocationExpression AllocationExpression() throws ParseException {NodeToken n0;
+  final public AllocationExpression AllocationExpression() throws ParseException {NodeToken n0;
    Token n1;
    Identifier n2;
    NodeToken n3;
@@ -1038,7 +1038,7 @@ n5 = JTBToolkit.makeNodeToken(n6);
     throw new Error("Missing return statement in function");
   }
 
-  static final public NotExpression NotExpression() throws ParseException {NodeToken n0;
+  final public NotExpression NotExpression() throws ParseException {NodeToken n0;
    Token n1;
    Expression n2;
     n1 = jj_consume_token(NOT);
@@ -1048,7 +1048,7 @@ n0 = JTBToolkit.makeNodeToken(n1);
     throw new Error("Missing return statement in function");
   }
 
-  static final public BracketExpression BracketExpression() throws ParseException {NodeToken n0;
+  final public BracketExpression BracketExpression() throws ParseException {NodeToken n0;
    Token n1;
    Expression n2;
    NodeToken n3;
@@ -1062,7 +1062,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     throw new Error("Missing return statement in function");
   }
 
-  static private boolean jj_2_1(int xla)
+  private boolean jj_2_1(int xla)
  {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_1(); }
@@ -1070,7 +1070,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     finally { jj_save(0, xla); }
   }
 
-  static private boolean jj_2_2(int xla)
+  private boolean jj_2_2(int xla)
  {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_2(); }
@@ -1078,7 +1078,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     finally { jj_save(1, xla); }
   }
 
-  static private boolean jj_2_3(int xla)
+  private boolean jj_2_3(int xla)
  {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_3(); }
@@ -1086,7 +1086,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     finally { jj_save(2, xla); }
   }
 
-  static private boolean jj_2_4(int xla)
+  private boolean jj_2_4(int xla)
  {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_4(); }
@@ -1094,7 +1094,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     finally { jj_save(3, xla); }
   }
 
-  static private boolean jj_2_5(int xla)
+  private boolean jj_2_5(int xla)
  {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_5(); }
@@ -1102,7 +1102,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     finally { jj_save(4, xla); }
   }
 
-  static private boolean jj_2_6(int xla)
+  private boolean jj_2_6(int xla)
  {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_6(); }
@@ -1110,7 +1110,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     finally { jj_save(5, xla); }
   }
 
-  static private boolean jj_2_7(int xla)
+  private boolean jj_2_7(int xla)
  {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_7(); }
@@ -1118,7 +1118,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     finally { jj_save(6, xla); }
   }
 
-  static private boolean jj_2_8(int xla)
+  private boolean jj_2_8(int xla)
  {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_8(); }
@@ -1126,7 +1126,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     finally { jj_save(7, xla); }
   }
 
-  static private boolean jj_2_9(int xla)
+  private boolean jj_2_9(int xla)
  {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_9(); }
@@ -1134,7 +1134,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     finally { jj_save(8, xla); }
   }
 
-  static private boolean jj_2_10(int xla)
+  private boolean jj_2_10(int xla)
  {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_10(); }
@@ -1142,7 +1142,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     finally { jj_save(9, xla); }
   }
 
-  static private boolean jj_2_11(int xla)
+  private boolean jj_2_11(int xla)
  {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_11(); }
@@ -1150,7 +1150,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     finally { jj_save(10, xla); }
   }
 
-  static private boolean jj_2_12(int xla)
+  private boolean jj_2_12(int xla)
  {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_12(); }
@@ -1158,7 +1158,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     finally { jj_save(11, xla); }
   }
 
-  static private boolean jj_2_13(int xla)
+  private boolean jj_2_13(int xla)
  {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_13(); }
@@ -1166,7 +1166,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     finally { jj_save(12, xla); }
   }
 
-  static private boolean jj_2_14(int xla)
+  private boolean jj_2_14(int xla)
  {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_14(); }
@@ -1174,7 +1174,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     finally { jj_save(13, xla); }
   }
 
-  static private boolean jj_2_15(int xla)
+  private boolean jj_2_15(int xla)
  {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_15(); }
@@ -1182,13 +1182,13 @@ n3 = JTBToolkit.makeNodeToken(n4);
     finally { jj_save(14, xla); }
   }
 
-  static private boolean jj_3_15()
+  private boolean jj_3_15()
  {
     if (jj_3R_20()) return true;
     return false;
   }
 
-  static private boolean jj_3R_20()
+  private boolean jj_3R_20()
  {
     if (jj_scan_token(NEW)) return true;
     if (jj_scan_token(INTEGER)) return true;
@@ -1198,13 +1198,13 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3R_26()
+  private boolean jj_3R_26()
  {
     if (jj_3R_36()) return true;
     return false;
   }
 
-  static private boolean jj_3R_53()
+  private boolean jj_3R_53()
  {
     if (jj_3R_18()) return true;
     if (jj_scan_token(LT)) return true;
@@ -1212,38 +1212,38 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3R_40()
+  private boolean jj_3R_40()
  {
     if (jj_scan_token(BOOLEAN)) return true;
     return false;
   }
 
-  static private boolean jj_3R_25()
+  private boolean jj_3R_25()
  {
     if (jj_3R_19()) return true;
     return false;
   }
 
-  static private boolean jj_3_1()
+  private boolean jj_3_1()
  {
     if (jj_3R_13()) return true;
     return false;
   }
 
-  static private boolean jj_3R_16()
+  private boolean jj_3R_16()
  {
     if (jj_3R_19()) return true;
     if (jj_scan_token(ASSIGN)) return true;
     return false;
   }
 
-  static private boolean jj_3R_24()
+  private boolean jj_3R_24()
  {
     if (jj_3R_35()) return true;
     return false;
   }
 
-  static private boolean jj_3R_58()
+  private boolean jj_3R_58()
  {
     if (jj_3R_18()) return true;
     if (jj_scan_token(DOT)) return true;
@@ -1251,19 +1251,19 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3R_23()
+  private boolean jj_3R_23()
  {
     if (jj_3R_34()) return true;
     return false;
   }
 
-  static private boolean jj_3R_22()
+  private boolean jj_3R_22()
  {
     if (jj_3R_33()) return true;
     return false;
   }
 
-  static private boolean jj_3R_15()
+  private boolean jj_3R_15()
  {
     if (jj_scan_token(INTEGER)) return true;
     if (jj_scan_token(LSQPAREN)) return true;
@@ -1271,7 +1271,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3R_18()
+  private boolean jj_3R_18()
  {
     Token xsp;
     xsp = jj_scanpos;
@@ -1303,7 +1303,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3R_52()
+  private boolean jj_3R_52()
  {
     if (jj_3R_18()) return true;
     if (jj_scan_token(AND)) return true;
@@ -1311,19 +1311,19 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3R_36()
+  private boolean jj_3R_36()
  {
     if (jj_scan_token(THIS)) return true;
     return false;
   }
 
-  static private boolean jj_3_3()
+  private boolean jj_3_3()
  {
     if (jj_3R_13()) return true;
     return false;
   }
 
-  static private boolean jj_3R_57()
+  private boolean jj_3R_57()
  {
     if (jj_3R_18()) return true;
     if (jj_scan_token(LSQPAREN)) return true;
@@ -1332,7 +1332,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3_14()
+  private boolean jj_3_14()
  {
     if (jj_3R_18()) return true;
     if (jj_scan_token(DOT)) return true;
@@ -1341,7 +1341,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3_13()
+  private boolean jj_3_13()
  {
     if (jj_3R_18()) return true;
     if (jj_scan_token(DOT)) return true;
@@ -1349,44 +1349,44 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3R_19()
+  private boolean jj_3R_19()
  {
     if (jj_scan_token(IDENTIFIER)) return true;
     return false;
   }
 
-  static private boolean jj_3R_51()
+  private boolean jj_3R_51()
  {
     if (jj_3R_18()) return true;
     return false;
   }
 
-  static private boolean jj_3R_32()
+  private boolean jj_3R_32()
  {
     if (jj_3R_19()) return true;
     return false;
   }
 
-  static private boolean jj_3_12()
+  private boolean jj_3_12()
  {
     if (jj_3R_18()) return true;
     if (jj_scan_token(LSQPAREN)) return true;
     return false;
   }
 
-  static private boolean jj_3R_31()
+  private boolean jj_3R_31()
  {
     if (jj_3R_41()) return true;
     return false;
   }
 
-  static private boolean jj_3R_50()
+  private boolean jj_3R_50()
  {
     if (jj_3R_59()) return true;
     return false;
   }
 
-  static private boolean jj_3R_39()
+  private boolean jj_3R_39()
  {
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_42()) return true;
@@ -1394,58 +1394,58 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3R_63()
+  private boolean jj_3R_63()
  {
     if (jj_scan_token(47)) return true;
     if (jj_3R_42()) return true;
     return false;
   }
 
-  static private boolean jj_3R_30()
+  private boolean jj_3R_30()
  {
     if (jj_3R_40()) return true;
     return false;
   }
 
-  static private boolean jj_3_11()
+  private boolean jj_3_11()
  {
     if (jj_3R_18()) return true;
     if (jj_scan_token(48)) return true;
     return false;
   }
 
-  static private boolean jj_3R_49()
+  private boolean jj_3R_49()
  {
     if (jj_3R_58()) return true;
     return false;
   }
 
-  static private boolean jj_3_4()
+  private boolean jj_3_4()
  {
     if (jj_3R_15()) return true;
     return false;
   }
 
-  static private boolean jj_3_10()
+  private boolean jj_3_10()
  {
     if (jj_3R_18()) return true;
     if (jj_scan_token(MINUS)) return true;
     return false;
   }
 
-  static private boolean jj_3R_48()
+  private boolean jj_3R_48()
  {
     if (jj_3R_57()) return true;
     return false;
   }
 
-  static private boolean jj_3R_35()
+  private boolean jj_3R_35()
  {
     if (jj_scan_token(FALSE)) return true;
     return false;
   }
 
-  static private boolean jj_3R_56()
+  private boolean jj_3R_56()
  {
     if (jj_3R_18()) return true;
     if (jj_scan_token(48)) return true;
@@ -1453,7 +1453,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3R_21()
+  private boolean jj_3R_21()
  {
     Token xsp;
     xsp = jj_scanpos;
@@ -1470,20 +1470,20 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3_9()
+  private boolean jj_3_9()
  {
     if (jj_3R_18()) return true;
     if (jj_scan_token(PLUS)) return true;
     return false;
   }
 
-  static private boolean jj_3R_47()
+  private boolean jj_3R_47()
  {
     if (jj_3R_56()) return true;
     return false;
   }
 
-  static private boolean jj_3R_14()
+  private boolean jj_3R_14()
  {
     if (jj_scan_token(CLASS)) return true;
     if (jj_3R_19()) return true;
@@ -1491,52 +1491,52 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3_8()
+  private boolean jj_3_8()
  {
     if (jj_3R_18()) return true;
     if (jj_scan_token(LT)) return true;
     return false;
   }
 
-  static private boolean jj_3R_62()
+  private boolean jj_3R_62()
  {
     if (jj_3R_63()) return true;
     return false;
   }
 
-  static private boolean jj_3R_46()
+  private boolean jj_3R_46()
  {
     if (jj_3R_55()) return true;
     return false;
   }
 
-  static private boolean jj_3R_38()
+  private boolean jj_3R_38()
  {
     if (jj_scan_token(NOT)) return true;
     if (jj_3R_42()) return true;
     return false;
   }
 
-  static private boolean jj_3_6()
+  private boolean jj_3_6()
  {
     if (jj_3R_17()) return true;
     return false;
   }
 
-  static private boolean jj_3_7()
+  private boolean jj_3_7()
  {
     if (jj_3R_18()) return true;
     if (jj_scan_token(AND)) return true;
     return false;
   }
 
-  static private boolean jj_3R_45()
+  private boolean jj_3R_45()
  {
     if (jj_3R_54()) return true;
     return false;
   }
 
-  static private boolean jj_3R_61()
+  private boolean jj_3R_61()
  {
     if (jj_3R_42()) return true;
     Token xsp;
@@ -1547,25 +1547,25 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3R_34()
+  private boolean jj_3R_34()
  {
     if (jj_scan_token(TRUE)) return true;
     return false;
   }
 
-  static private boolean jj_3_5()
+  private boolean jj_3_5()
  {
     if (jj_3R_16()) return true;
     return false;
   }
 
-  static private boolean jj_3R_44()
+  private boolean jj_3R_44()
  {
     if (jj_3R_53()) return true;
     return false;
   }
 
-  static private boolean jj_3R_55()
+  private boolean jj_3R_55()
  {
     if (jj_3R_18()) return true;
     if (jj_scan_token(MINUS)) return true;
@@ -1573,13 +1573,13 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3R_43()
+  private boolean jj_3R_43()
  {
     if (jj_3R_52()) return true;
     return false;
   }
 
-  static private boolean jj_3R_42()
+  private boolean jj_3R_42()
  {
     Token xsp;
     xsp = jj_scanpos;
@@ -1611,19 +1611,19 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3R_33()
+  private boolean jj_3R_33()
  {
     if (jj_scan_token(INTEGER_LITERAL)) return true;
     return false;
   }
 
-  static private boolean jj_3R_60()
+  private boolean jj_3R_60()
  {
     if (jj_3R_61()) return true;
     return false;
   }
 
-  static private boolean jj_3R_37()
+  private boolean jj_3R_37()
  {
     if (jj_scan_token(NEW)) return true;
     if (jj_3R_19()) return true;
@@ -1632,27 +1632,27 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3_2()
+  private boolean jj_3_2()
  {
     if (jj_3R_14()) return true;
     return false;
   }
 
-  static private boolean jj_3R_13()
+  private boolean jj_3R_13()
  {
     if (jj_3R_21()) return true;
     if (jj_3R_19()) return true;
     return false;
   }
 
-  static private boolean jj_3R_17()
+  private boolean jj_3R_17()
  {
     if (jj_3R_19()) return true;
     if (jj_scan_token(LSQPAREN)) return true;
     return false;
   }
 
-  static private boolean jj_3R_59()
+  private boolean jj_3R_59()
  {
     if (jj_3R_18()) return true;
     if (jj_scan_token(DOT)) return true;
@@ -1665,7 +1665,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3R_54()
+  private boolean jj_3R_54()
  {
     if (jj_3R_18()) return true;
     if (jj_scan_token(PLUS)) return true;
@@ -1673,43 +1673,42 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return false;
   }
 
-  static private boolean jj_3R_29()
+  private boolean jj_3R_29()
  {
     if (jj_3R_39()) return true;
     return false;
   }
 
-  static private boolean jj_3R_41()
+  private boolean jj_3R_41()
  {
     if (jj_scan_token(INTEGER)) return true;
     return false;
   }
 
-  static private boolean jj_3R_28()
+  private boolean jj_3R_28()
  {
     if (jj_3R_38()) return true;
     return false;
   }
 
-  static private boolean jj_3R_27()
+  private boolean jj_3R_27()
  {
     if (jj_3R_37()) return true;
     return false;
   }
 
-  static private boolean jj_initialized_once = false;
   /** Generated Token Manager. */
-  static public MiniJavaParserTokenManager token_source;
-  static JavaCharStream jj_input_stream;
+  public MiniJavaParserTokenManager token_source;
+  JavaCharStream jj_input_stream;
   /** Current token. */
-  static public Token token;
+  public Token token;
   /** Next token. */
-  static public Token jj_nt;
-  static private int jj_ntk;
-  static private Token jj_scanpos, jj_lastpos;
-  static private int jj_la;
-  static private int jj_gen;
-  static final private int[] jj_la1 = new int[19];
+  public Token jj_nt;
+  private int jj_ntk;
+  private Token jj_scanpos, jj_lastpos;
+  private int jj_la;
+  private int jj_gen;
+  final private int[] jj_la1 = new int[19];
   static private int[] jj_la1_0;
   static private int[] jj_la1_1;
   static {
@@ -1722,9 +1721,9 @@ n3 = JTBToolkit.makeNodeToken(n4);
    private static void jj_la1_init_1() {
       jj_la1_1 = new int[] {0x0,0x1200,0x0,0x1000,0x8,0x1000,0x8,0x1000,0x1200,0x8000,0x1000,0x0,0x200,0x1200,0x1984,0x1984,0x8000,0x1980,0x4,};
    }
-  static final private JJCalls[] jj_2_rtns = new JJCalls[15];
-  static private boolean jj_rescan = false;
-  static private int jj_gc = 0;
+  final private JJCalls[] jj_2_rtns = new JJCalls[15];
+  private boolean jj_rescan = false;
+  private int jj_gc = 0;
 
   /** Constructor with InputStream. */
   public MiniJavaParser(java.io.InputStream stream) {
@@ -1732,13 +1731,6 @@ n3 = JTBToolkit.makeNodeToken(n4);
   }
   /** Constructor with InputStream and supplied encoding */
   public MiniJavaParser(java.io.InputStream stream, String encoding) {
-    if (jj_initialized_once) {
-      System.out.println("ERROR: Second call to constructor of static parser.  ");
-      System.out.println("       You must either use ReInit() or set the JavaCC option STATIC to false");
-      System.out.println("       during parser generation.");
-      throw new Error();
-    }
-    jj_initialized_once = true;
     try { jj_input_stream = new JavaCharStream(stream, encoding, 1, 1); } catch(java.io.UnsupportedEncodingException e) { throw new RuntimeException(e); }
     token_source = new MiniJavaParserTokenManager(jj_input_stream);
     token = new Token();
@@ -1749,11 +1741,11 @@ n3 = JTBToolkit.makeNodeToken(n4);
   }
 
   /** Reinitialise. */
-  static public void ReInit(java.io.InputStream stream) {
+  public void ReInit(java.io.InputStream stream) {
      ReInit(stream, null);
   }
   /** Reinitialise. */
-  static public void ReInit(java.io.InputStream stream, String encoding) {
+  public void ReInit(java.io.InputStream stream, String encoding) {
     try { jj_input_stream.ReInit(stream, encoding, 1, 1); } catch(java.io.UnsupportedEncodingException e) { throw new RuntimeException(e); }
     token_source.ReInit(jj_input_stream);
     token = new Token();
@@ -1765,13 +1757,6 @@ n3 = JTBToolkit.makeNodeToken(n4);
 
   /** Constructor. */
   public MiniJavaParser(java.io.Reader stream) {
-    if (jj_initialized_once) {
-      System.out.println("ERROR: Second call to constructor of static parser. ");
-      System.out.println("       You must either use ReInit() or set the JavaCC option STATIC to false");
-      System.out.println("       during parser generation.");
-      throw new Error();
-    }
-    jj_initialized_once = true;
     jj_input_stream = new JavaCharStream(stream, 1, 1);
     token_source = new MiniJavaParserTokenManager(jj_input_stream);
     token = new Token();
@@ -1782,7 +1767,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
   }
 
   /** Reinitialise. */
-  static public void ReInit(java.io.Reader stream) {
+  public void ReInit(java.io.Reader stream) {
     jj_input_stream.ReInit(stream, 1, 1);
     token_source.ReInit(jj_input_stream);
     token = new Token();
@@ -1794,13 +1779,6 @@ n3 = JTBToolkit.makeNodeToken(n4);
 
   /** Constructor with generated Token Manager. */
   public MiniJavaParser(MiniJavaParserTokenManager tm) {
-    if (jj_initialized_once) {
-      System.out.println("ERROR: Second call to constructor of static parser. ");
-      System.out.println("       You must either use ReInit() or set the JavaCC option STATIC to false");
-      System.out.println("       during parser generation.");
-      throw new Error();
-    }
-    jj_initialized_once = true;
     token_source = tm;
     token = new Token();
     jj_ntk = -1;
@@ -1819,7 +1797,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
-  static private Token jj_consume_token(int kind) throws ParseException {
+  private Token jj_consume_token(int kind) throws ParseException {
     Token oldToken;
     if ((oldToken = token).next != null) token = token.next;
     else token = token.next = token_source.getNextToken();
@@ -1845,8 +1823,8 @@ n3 = JTBToolkit.makeNodeToken(n4);
 
   @SuppressWarnings("serial")
   static private final class LookaheadSuccess extends java.lang.Error { }
-  static final private LookaheadSuccess jj_ls = new LookaheadSuccess();
-  static private boolean jj_scan_token(int kind) {
+  final private LookaheadSuccess jj_ls = new LookaheadSuccess();
+  private boolean jj_scan_token(int kind) {
     if (jj_scanpos == jj_lastpos) {
       jj_la--;
       if (jj_scanpos.next == null) {
@@ -1869,7 +1847,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
 
 
 /** Get the next Token. */
-  static final public Token getNextToken() {
+  final public Token getNextToken() {
     if (token.next != null) token = token.next;
     else token = token.next = token_source.getNextToken();
     jj_ntk = -1;
@@ -1878,7 +1856,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
   }
 
 /** Get the specific Token. */
-  static final public Token getToken(int index) {
+  final public Token getToken(int index) {
     Token t = token;
     for (int i = 0; i < index; i++) {
       if (t.next != null) t = t.next;
@@ -1887,20 +1865,20 @@ n3 = JTBToolkit.makeNodeToken(n4);
     return t;
   }
 
-  static private int jj_ntk_f() {
+  private int jj_ntk_f() {
     if ((jj_nt=token.next) == null)
       return (jj_ntk = (token.next=token_source.getNextToken()).kind);
     else
       return (jj_ntk = jj_nt.kind);
   }
 
-  static private java.util.List<int[]> jj_expentries = new java.util.ArrayList<int[]>();
-  static private int[] jj_expentry;
-  static private int jj_kind = -1;
-  static private int[] jj_lasttokens = new int[100];
-  static private int jj_endpos;
+  private java.util.List<int[]> jj_expentries = new java.util.ArrayList<int[]>();
+  private int[] jj_expentry;
+  private int jj_kind = -1;
+  private int[] jj_lasttokens = new int[100];
+  private int jj_endpos;
 
-  static private void jj_add_error_token(int kind, int pos) {
+  private void jj_add_error_token(int kind, int pos) {
     if (pos >= 100) return;
     if (pos == jj_endpos + 1) {
       jj_lasttokens[jj_endpos++] = kind;
@@ -1926,7 +1904,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
   }
 
   /** Generate ParseException. */
-  static public ParseException generateParseException() {
+  public ParseException generateParseException() {
     jj_expentries.clear();
     boolean[] la1tokens = new boolean[49];
     if (jj_kind >= 0) {
@@ -1963,14 +1941,14 @@ n3 = JTBToolkit.makeNodeToken(n4);
   }
 
   /** Enable tracing. */
-  static final public void enable_tracing() {
+  final public void enable_tracing() {
   }
 
   /** Disable tracing. */
-  static final public void disable_tracing() {
+  final public void disable_tracing() {
   }
 
-  static private void jj_rescan_token() {
+  private void jj_rescan_token() {
     jj_rescan = true;
     for (int i = 0; i < 15; i++) {
     try {
@@ -2003,7 +1981,7 @@ n3 = JTBToolkit.makeNodeToken(n4);
     jj_rescan = false;
   }
 
-  static private void jj_save(int index, int xla) {
+  private void jj_save(int index, int xla) {
     JJCalls p = jj_2_rtns[index];
     while (p.gen > jj_gen) {
       if (p.next == null) { p = p.next = new JJCalls(); break; }
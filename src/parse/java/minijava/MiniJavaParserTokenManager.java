@@ -6,10 +6,10 @@ package minijava;
 @SuppressWarnings("unused")public class MiniJavaParserTokenManager implements MiniJavaParserConstants {
 
   /** Debug output. */
-  public static  java.io.PrintStream debugStream = System.out;
+  public java.io.PrintStream debugStream = System.out;
   /** Set debug output. */
-  public static  void setDebugStream(java.io.PrintStream ds) { debugStream = ds; }
-private static final int jjStopStringLiteralDfa_0(int pos, long active0){
+  public void setDebugStream(java.io.PrintStream ds) { debugStream = ds; }
+private final int jjStopStringLiteralDfa_0(int pos, long active0){
    switch (pos)
    {
       case 0:
@@ -213,16 +213,16 @@ private static final int jjStopStringLiteralDfa_0(int pos, long active0){
          return -1;
    }
 }
-private static final int jjStartNfa_0(int pos, long active0){
+private final int jjStartNfa_0(int pos, long active0){
    return jjMoveNfa_0(jjStopStringLiteralDfa_0(pos, active0), pos + 1);
 }
-static private int jjStopAtPos(int pos, int kind)
+private int jjStopAtPos(int pos, int kind)
 {
    jjmatchedKind = kind;
    jjmatchedPos = pos;
    return pos + 1;
 }
-static private int jjMoveStringLiteralDfa0_0(){
+private int jjMoveStringLiteralDfa0_0(){
    switch(curChar)
    {
       case 33:
@@ -291,7 +291,7 @@ static private int jjMoveStringLiteralDfa0_0(){
          return jjMoveNfa_0(0, 0);
    }
 }
-static private int jjMoveStringLiteralDfa1_0(long active0){
+private int jjMoveStringLiteralDfa1_0(long active0){
    try { curChar = input_stream.readChar(); }
    catch(java.io.IOException e) {
       jjStopStringLiteralDfa_0(0, active0);
@@ -334,7 +334,7 @@ static private int jjMoveStringLiteralDfa1_0(long active0){
    }
    return jjStartNfa_0(0, active0);
 }
-static private int jjMoveStringLiteralDfa2_0(long old0, long active0){
+private int jjMoveStringLiteralDfa2_0(long old0, long active0){
    if (((active0 &= old0)) == 0L)
       return jjStartNfa_0(0, old0);
    try { curChar = input_stream.readChar(); }
@@ -378,7 +378,7 @@ static private int jjMoveStringLiteralDfa2_0(long old0, long active0){
    }
    return jjStartNfa_0(1, active0);
 }
-static private int jjMoveStringLiteralDfa3_0(long old0, long active0){
+private int jjMoveStringLiteralDfa3_0(long old0, long active0){
    if (((active0 &= old0)) == 0L)
       return jjStartNfa_0(1, old0);
    try { curChar = input_stream.readChar(); }
@@ -421,7 +421,7 @@ static private int jjMoveStringLiteralDfa3_0(long old0, long active0){
    }
    return jjStartNfa_0(2, active0);
 }
-static private int jjMoveStringLiteralDfa4_0(long old0, long active0){
+private int jjMoveStringLiteralDfa4_0(long old0, long active0){
    if (((active0 &= old0)) == 0L)
       return jjStartNfa_0(2, old0);
    try { curChar = input_stream.readChar(); }
@@ -454,7 +454,7 @@ static private int jjMoveStringLiteralDfa4_0(long old0, long active0){
    }
    return jjStartNfa_0(3, active0);
 }
-static private int jjMoveStringLiteralDfa5_0(long old0, long active0){
+private int jjMoveStringLiteralDfa5_0(long old0, long active0){
    if (((active0 &= old0)) == 0L)
       return jjStartNfa_0(3, old0);
    try { curChar = input_stream.readChar(); }
@@ -495,7 +495,7 @@ static private int jjMoveStringLiteralDfa5_0(long old0, long active0){
    }
    return jjStartNfa_0(4, active0);
 }
-static private int jjMoveStringLiteralDfa6_0(long old0, long active0){
+private int jjMoveStringLiteralDfa6_0(long old0, long active0){
    if (((active0 &= old0)) == 0L)
       return jjStartNfa_0(4, old0);
    try { curChar = input_stream.readChar(); }
@@ -522,7 +522,7 @@ static private int jjMoveStringLiteralDfa6_0(long old0, long active0){
    }
    return jjStartNfa_0(5, active0);
 }
-static private int jjMoveStringLiteralDfa7_0(long old0, long active0){
+private int jjMoveStringLiteralDfa7_0(long old0, long active0){
    if (((active0 &= old0)) == 0L)
       return jjStartNfa_0(5, old0);
    try { curChar = input_stream.readChar(); }
@@ -541,7 +541,7 @@ static private int jjMoveStringLiteralDfa7_0(long old0, long active0){
    }
    return jjStartNfa_0(6, active0);
 }
-static private int jjMoveStringLiteralDfa8_0(long old0, long active0){
+private int jjMoveStringLiteralDfa8_0(long old0, long active0){
    if (((active0 &= old0)) == 0L)
       return jjStartNfa_0(6, old0);
    try { curChar = input_stream.readChar(); }
@@ -562,7 +562,7 @@ static private int jjMoveStringLiteralDfa8_0(long old0, long active0){
    }
    return jjStartNfa_0(7, active0);
 }
-static private int jjMoveStringLiteralDfa9_0(long old0, long active0){
+private int jjMoveStringLiteralDfa9_0(long old0, long active0){
    if (((active0 &= old0)) == 0L)
       return jjStartNfa_0(7, old0);
    try { curChar = input_stream.readChar(); }
@@ -579,7 +579,7 @@ static private int jjMoveStringLiteralDfa9_0(long old0, long active0){
    }
    return jjStartNfa_0(8, active0);
 }
-static private int jjMoveStringLiteralDfa10_0(long old0, long active0){
+private int jjMoveStringLiteralDfa10_0(long old0, long active0){
    if (((active0 &= old0)) == 0L)
       return jjStartNfa_0(8, old0);
    try { curChar = input_stream.readChar(); }
@@ -596,7 +596,7 @@ static private int jjMoveStringLiteralDfa10_0(long old0, long active0){
    }
    return jjStartNfa_0(9, active0);
 }
-static private int jjMoveStringLiteralDfa11_0(long old0, long active0){
+private int jjMoveStringLiteralDfa11_0(long old0, long active0){
    if (((active0 &= old0)) == 0L)
       return jjStartNfa_0(9, old0);
    try { curChar = input_stream.readChar(); }
@@ -613,7 +613,7 @@ static private int jjMoveStringLiteralDfa11_0(long old0, long active0){
    }
    return jjStartNfa_0(10, active0);
 }
-static private int jjMoveStringLiteralDfa12_0(long old0, long active0){
+private int jjMoveStringLiteralDfa12_0(long old0, long active0){
    if (((active0 &= old0)) == 0L)
       return jjStartNfa_0(10, old0);
    try { curChar = input_stream.readChar(); }
@@ -630,7 +630,7 @@ static private int jjMoveStringLiteralDfa12_0(long old0, long active0){
    }
    return jjStartNfa_0(11, active0);
 }
-static private int jjMoveStringLiteralDfa13_0(long old0, long active0){
+private int jjMoveStringLiteralDfa13_0(long old0, long active0){
    if (((active0 &= old0)) == 0L)
       return jjStartNfa_0(11, old0);
    try { curChar = input_stream.readChar(); }
@@ -647,7 +647,7 @@ static private int jjMoveStringLiteralDfa13_0(long old0, long active0){
    }
    return jjStartNfa_0(12, active0);
 }
-static private int jjMoveStringLiteralDfa14_0(long old0, long active0){
+private int jjMoveStringLiteralDfa14_0(long old0, long active0){
    if (((active0 &= old0)) == 0L)
       return jjStartNfa_0(12, old0);
    try { curChar = input_stream.readChar(); }
@@ -664,7 +664,7 @@ static private int jjMoveStringLiteralDfa14_0(long old0, long active0){
    }
    return jjStartNfa_0(13, active0);
 }
-static private int jjMoveStringLiteralDfa15_0(long old0, long active0){
+private int jjMoveStringLiteralDfa15_0(long old0, long active0){
    if (((active0 &= old0)) == 0L)
       return jjStartNfa_0(13, old0);
    try { curChar = input_stream.readChar(); }
@@ -681,7 +681,7 @@ static private int jjMoveStringLiteralDfa15_0(long old0, long active0){
    }
    return jjStartNfa_0(14, active0);
 }
-static private int jjMoveStringLiteralDfa16_0(long old0, long active0){
+private int jjMoveStringLiteralDfa16_0(long old0, long active0){
    if (((active0 &= old0)) == 0L)
       return jjStartNfa_0(14, old0);
    try { curChar = input_stream.readChar(); }
@@ -698,7 +698,7 @@ static private int jjMoveStringLiteralDfa16_0(long old0, long active0){
    }
    return jjStartNfa_0(15, active0);
 }
-static private int jjMoveStringLiteralDfa17_0(long old0, long active0){
+private int jjMoveStringLiteralDfa17_0(long old0, long active0){
    if (((active0 &= old0)) == 0L)
       return jjStartNfa_0(15, old0);
    try { curChar = input_stream.readChar(); }
@@ -717,7 +717,7 @@ static private int jjMoveStringLiteralDfa17_0(long old0, long active0){
    }
    return jjStartNfa_0(16, active0);
 }
-static private int jjStartNfaWithStates_0(int pos, int kind, int state)
+private int jjStartNfaWithStates_0(int pos, int kind, int state)
 {
    jjmatchedKind = kind;
    jjmatchedPos = pos;
@@ -749,7 +749,7 @@ static final long[] jjbitVec7 = {
 static final long[] jjbitVec8 = {
    0x0L, 0x0L, 0xffffffffffffffffL, 0xffffffffffffffffL
 };
-static private int jjMoveNfa_0(int startState, int curPos)
+private int jjMoveNfa_0(int startState, int curPos)
 {
    int startsAt = 0;
    jjnewStateCnt = 24;
@@ -1033,7 +1033,7 @@ public static final String[] jjstrLiteralImages = {
 "\156\145\167", "\160\165\142\154\151\143", "\162\145\164\165\162\156", 
 "\163\164\141\164\151\143", "\123\164\162\151\156\147", "\164\150\151\163", "\164\162\165\145", 
 "\123\171\163\164\145\155\56\157\165\164\56\160\162\151\156\164\154\156", "\166\157\151\144", null, null, null, null, "\54", "\52", };
-static protected Token jjFillToken()
+protected Token jjFillToken()
 {
    final Token t;
    final String curTokenImage;
@@ -1057,15 +1057,15 @@ static protected Token jjFillToken()
    return t;
 }
 
-static int curLexState = 0;
-static int defaultLexState = 0;
-static int jjnewStateCnt;
-static int jjround;
-static int jjmatchedPos;
-static int jjmatchedKind;
+int curLexState = 0;
+int defaultLexState = 0;
+int jjnewStateCnt;
+int jjround;
+int jjmatchedPos;
+int jjmatchedKind;
 
 /** Get the next Token. */
-public static Token getNextToken() 
+public Token getNextToken() 
 {
   Token specialToken = null;
   Token matchedToken;
@@ -1144,7 +1144,7 @@ public static Token getNextToken()
   }
 }
 
-static private void jjCheckNAdd(int state)
+private void jjCheckNAdd(int state)
 {
    if (jjrounds[state] != jjround)
    {
@@ -1152,19 +1152,19 @@ static private void jjCheckNAdd(int state)
       jjrounds[state] = jjround;
    }
 }
-static private void jjAddStates(int start, int end)
+private void jjAddStates(int start, int end)
 {
    do {
       jjstateSet[jjnewStateCnt++] = jjnextStates[start];
    } while (start++ != end);
 }
-static private void jjCheckNAddTwoStates(int state1, int state2)
+private void jjCheckNAddTwoStates(int state1, int state2)
 {
    jjCheckNAdd(state1);
    jjCheckNAdd(state2);
 }
 
-static private void jjCheckNAddStates(int start, int end)
+private void jjCheckNAddStates(int start, int end)
 {
    do {
       jjCheckNAdd(jjnextStates[start]);
@@ -1174,9 +1174,6 @@ static private void jjCheckNAddStates(int start, int end)
     /** Constructor. */
     public MiniJavaParserTokenManager(JavaCharStream stream){
 
-      if (input_stream != null)
-        throw new TokenMgrError("ERROR: Second call to constructor of static lexer. You must use ReInit() to initialize the static variables.", TokenMgrError.STATIC_LEXER_ERROR);
-
     input_stream = stream;
   }
 
@@ -1187,7 +1184,7 @@ static private void jjCheckNAddStates(int start, int end)
   }
 
   /** Reinitialise parser. */
-  static public void ReInit(JavaCharStream stream)
+  public void ReInit(JavaCharStream stream)
   {
     jjmatchedPos = jjnewStateCnt = 0;
     curLexState = defaultLexState;
@@ -1195,7 +1192,7 @@ static private void jjCheckNAddStates(int start, int end)
     ReInitRounds();
   }
 
-  static private void ReInitRounds()
+  private void ReInitRounds()
   {
     int i;
     jjround = 0x80000001;
@@ -1204,14 +1201,14 @@ static private void jjCheckNAddStates(int start, int end)
   }
 
   /** Reinitialise parser. */
-  static public void ReInit(JavaCharStream stream, int lexState)
+  public void ReInit(JavaCharStream stream, int lexState)
   {
     ReInit(stream);
     SwitchTo(lexState);
   }
 
   /** Switch to specified lex state. */
-  static public void SwitchTo(int lexState)
+  public void SwitchTo(int lexState)
   {
     if (lexState >= 1 || lexState < 0)
       throw new TokenMgrError("Error: Ignoring invalid lexical state : " + lexState + ". State unchanged.", TokenMgrError.INVALID_LEXICAL_STATE);
@@ -1232,11 +1229,11 @@ static final long[] jjtoSkip = {
 static final long[] jjtoSpecial = {
    0x1c0L, 
 };
-    static protected JavaCharStream  input_stream;
+    protected JavaCharStream  input_stream;
 
-    static private final int[] jjrounds = new int[24];
-    static private final int[] jjstateSet = new int[2 * 24];
+    private final int[] jjrounds = new int[24];
+    private final int[] jjstateSet = new int[2 * 24];
 
     
-    static protected char curChar;
+    protected char curChar;
 }
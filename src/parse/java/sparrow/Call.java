@@ -3,6 +3,7 @@ package sparrow;
 import IR.token.Identifier;
 import sparrow.visitor.ArgRetVisitor;
 import sparrow.visitor.ArgVisitor;
+import sparrow.visitor.Printer;
 import sparrow.visitor.RetVisitor;
 import sparrow.visitor.Visitor;
 
@@ -36,15 +37,8 @@ public class Call extends Instruction {
   }
 
   public String toString() {
-    String res = lhs + " = call " + callee + "(";
-    String s = "";
-    for (Identifier param: args) {
-      s = s + param + " ";
-    }
-    if (!(s.equals(""))) {
-       res = res + s.subSequence(0,s.length()-1);
-    }
-    res = res + ")";
-    return res;
+    StringBuilder sb = new StringBuilder();
+    accept(new Printer(sb));
+    return sb.toString();
   }
 }
@@ -4,6 +4,7 @@ import IR.token.FunctionName;
 import IR.token.Identifier;
 import sparrow.visitor.ArgRetVisitor;
 import sparrow.visitor.ArgVisitor;
+import sparrow.visitor.Printer;
 import sparrow.visitor.RetVisitor;
 import sparrow.visitor.Visitor;
 
@@ -43,16 +44,8 @@ public class FunctionDecl {
   }
 
   public String toString() {
-    String res = "func " + functionName + "(";
-
-    String s = "";
-    for (Identifier fp: formalParameters) {
-      s = s + fp.toString() + " ";
-    }
-    if (!(s.equals(""))) {
-       res = res + s.subSequence(0,s.length()-1);
-    }
-    res = res + ")\n" + block.toString() + "\n\n";
-    return res;
+    StringBuilder sb = new StringBuilder();
+    accept(new Printer(sb));
+    return sb.toString();
   }
 }
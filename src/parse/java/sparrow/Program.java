@@ -2,6 +2,7 @@ package sparrow;
 
 import sparrow.visitor.ArgRetVisitor;
 import sparrow.visitor.ArgVisitor;
+import sparrow.visitor.Printer;
 import sparrow.visitor.RetVisitor;
 import sparrow.visitor.Visitor;
 
@@ -33,10 +34,8 @@ public class Program {
   }
 
   public String toString() {
-    String res = "";
-    for (FunctionDecl fd: funDecls) {
-      res = res + fd.toString();
-    }
-    return res;
+    StringBuilder sb = new StringBuilder();
+    accept(new Printer(sb));
+    return sb.toString();
   }
 }
@@ -0,0 +1,198 @@
+package sparrow.visitor;
+
+import IR.token.Identifier;
+import sparrow.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/* Writes a program in Sparrow concrete syntax to an Appendable in a single pass.
+ * I/O failures of the underlying Appendable are rethrown as UncheckedIOException. */
+public class Printer implements Visitor {
+  Appendable out;
+
+  public Printer(Appendable out) {
+    this.out = out;
+  }
+
+  /*   List<FunctionDecl> funDecls; */
+  public void visit(Program n) {
+    for (FunctionDecl fd: n.funDecls) {
+        fd.accept(this);
+    }
+  }
+
+  /*   Program parent;
+   *   FunctionName functionName;
+   *   List<Identifier> formalParameters;
+   *   Block block; */
+  public void visit(FunctionDecl n) {
+    emit("func ", n.functionName.toString(), "(");
+    emitList(n.formalParameters);
+    emit(")\n");
+    n.block.accept(this);
+    emit("\n\n");
+  }
+
+  /*   FunctionDecl parent;
+   *   List<Instruction> instructions;
+   *   Identifier return_id; */
+  public void visit(Block n) {
+    for (Instruction i: n.instructions) {
+        i.accept(this);
+        emit("\n");
+    }
+    emit("      return ", n.return_id.toString());
+  }
+
+  /*   Label label; */
+  public void visit(LabelInstr n) {
+    emit(n.label.toString(), ":");
+  }
+
+  /*   Identifier lhs;
+   *   int rhs; */
+  public void visit(Move_Id_Integer n) {
+    emit(n.lhs.toString(), " = ");
+    emit(n.rhs);
+  }
+
+  /*   Identifier lhs;
+   *   FunctionName rhs; */
+  public void visit(Move_Id_FuncName n) {
+    emit(n.lhs.toString(), " = @", n.rhs.toString());
+  }
+
+  /*   Identifier lhs;
+   *   Identifier arg1;
+   *   Identifier arg2; */
+  public void visit(Add n) {
+    binary(n.lhs, n.arg1, " + ", n.arg2);
+  }
+
+  /*   Identifier lhs;
+   *   Identifier arg1;
+   *   Identifier arg2; */
+  public void visit(Subtract n) {
+    binary(n.lhs, n.arg1, " - ", n.arg2);
+  }
+
+  /*   Identifier lhs;
+   *   Identifier arg1;
+   *   Identifier arg2; */
+  public void visit(Multiply n) {
+    binary(n.lhs, n.arg1, " * ", n.arg2);
+  }
+
+  /*   Identifier lhs;
+   *   Identifier arg1;
+   *   Identifier arg2; */
+  public void visit(LessThan n) {
+    binary(n.lhs, n.arg1, " < ", n.arg2);
+  }
+
+  /*   Identifier lhs;
+   *   Identifier base;
+   *   int offset; */
+  public void visit(Load n) {
+    emit(n.lhs.toString(), " = [", n.base.toString());
+    emit(" + ");
+    emit(n.offset);
+    emit("]");
+  }
+
+  /*   Identifier base;
+   *   int offset;
+   *   Identifier rhs; */
+  public void visit(Store n) {
+    emit("[", n.base.toString(), " + ");
+    emit(n.offset);
+    emit("] = ", n.rhs.toString());
+  }
+
+  /*   Identifier lhs;
+   *   Identifier rhs; */
+  public void visit(Move_Id_Id n) {
+    emit(n.lhs.toString(), " = ", n.rhs.toString());
+  }
+
+  /*   Identifier lhs;
+   *   Identifier size; */
+  public void visit(Alloc n) {
+    emit(n.lhs.toString(), " = alloc(", n.size.toString());
+    emit(")");
+  }
+
+  /*   Identifier content; */
+  public void visit(Print n) {
+    emit("print(", n.content.toString(), ")");
+  }
+
+  /*   String msg; */
+  public void visit(ErrorMessage n) {
+    emit("error(", n.msg, ")");
+  }
+
+  /*   Label label; */
+  public void visit(Goto n) {
+    emit("goto ", n.label.toString());
+  }
+
+  /*   Identifier condition;
+   *   Label label; */
+  public void visit(IfGoto n) {
+    emit("if0 ", n.condition.toString(), " goto ");
+    emit(n.label.toString());
+  }
+
+  /*   Identifier lhs;
+   *   Identifier callee;
+   *   List<Identifier> args; */
+  public void visit(Call n) {
+    emit(n.lhs.toString(), " = call ", n.callee.toString());
+    emit("(");
+    emitList(n.args);
+    emit(")");
+  }
+
+  void binary(Identifier lhs, Identifier arg1, String op, Identifier arg2) {
+    emit(lhs.toString(), " = ", arg1.toString());
+    emit(op, arg2.toString());
+  }
+
+  void emitList(List<Identifier> ids) {
+    for (int i = 0; i < ids.size(); i++) {
+      if (i > 0) emit(" ");
+      emit(ids.get(i).toString());
+    }
+  }
+
+  void emit(String a, String b, String c) {
+    emit(a);
+    emit(b);
+    emit(c);
+  }
+
+  void emit(String a, String b) {
+    emit(a);
+    emit(b);
+  }
+
+  void emit(String s) {
+    try {
+      out.append(s);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  void emit(int i) {
+    // Appendable has no int overload; go through the StringBuilder fast path when possible
+    if (out instanceof StringBuilder) {
+      ((StringBuilder) out).append(i);
+    } else {
+      emit(Integer.toString(i));
+    }
+  }
+}
@@ -3,6 +3,7 @@ package sparrowv;
 import IR.token.Identifier;
 import sparrowv.visitor.ArgRetVisitor;
 import sparrowv.visitor.ArgVisitor;
+import sparrowv.visitor.Printer;
 import sparrowv.visitor.RetVisitor;
 import sparrowv.visitor.Visitor;
 
@@ -38,11 +39,8 @@ public class Block {
   }
 
   public String toString() {
-    String res = "";
-    for (Instruction li: instructions) {
-      res = res + li.toString() + "\n";
-    }
-    res = res + "      return " + return_id;
-    return res;
+    StringBuilder sb = new StringBuilder();
+    accept(new Printer(sb));
+    return sb.toString();
   }
 }
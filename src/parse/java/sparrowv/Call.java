@@ -4,6 +4,7 @@ import IR.token.Identifier;
 import IR.token.Register;
 import sparrowv.visitor.ArgRetVisitor;
 import sparrowv.visitor.ArgVisitor;
+import sparrowv.visitor.Printer;
 import sparrowv.visitor.RetVisitor;
 import sparrowv.visitor.Visitor;
 
@@ -37,15 +38,8 @@ public class Call extends Instruction {
   }
 
   public String toString() {
-    String res = lhs + " = call " + callee + "(";
-    String s = "";
-    for (Identifier param: args) {
-      s = s + param + " ";
-    }
-    if (!(s.equals(""))) {
-       res = res + s.subSequence(0,s.length()-1);
-    }
-    res = res + ")";
-    return res;
+    StringBuilder sb = new StringBuilder();
+    accept(new Printer(sb));
+    return sb.toString();
   }
 }
@@ -4,6 +4,7 @@ import IR.token.FunctionName;
 import IR.token.Identifier;
 import sparrowv.visitor.ArgRetVisitor;
 import sparrowv.visitor.ArgVisitor;
+import sparrowv.visitor.Printer;
 import sparrowv.visitor.RetVisitor;
 import sparrowv.visitor.Visitor;
 
@@ -42,16 +43,8 @@ public class FunctionDecl {
   }
 
   public String toString() {
-    String res = "func " + functionName + "(";
-
-    String s = "";
-    for (Identifier fp: formalParameters) {
-      s = s + fp.toString() + " ";
-    }
-    if (!(s.equals(""))) {
-       res = res + s.subSequence(0,s.length()-1);
-    }
-    res = res + ")\n" + block.toString() + "\n\n";
-    return res;
+    StringBuilder sb = new StringBuilder();
+    accept(new Printer(sb));
+    return sb.toString();
   }
 }
@@ -2,6 +2,7 @@ package sparrowv;
 
 import sparrowv.visitor.ArgRetVisitor;
 import sparrowv.visitor.ArgVisitor;
+import sparrowv.visitor.Printer;
 import sparrowv.visitor.RetVisitor;
 import sparrowv.visitor.Visitor;
 
@@ -33,10 +34,8 @@ public class Program {
   }
 
   public String toString() {
-    String res = "";
-    for (FunctionDecl fd: funDecls) {
-      res = res + fd.toString();
-    }
-    return res;
+    StringBuilder sb = new StringBuilder();
+    accept(new Printer(sb));
+    return sb.toString();
   }
 }
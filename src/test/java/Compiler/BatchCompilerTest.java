@@ -0,0 +1,75 @@
+package Compiler;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import S2SV.Allocator;
+
+public class BatchCompilerTest {
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test public void matchesTheSequentialCompile() throws Exception {
+        Path out = tmp.newFolder("out").toPath();
+        assertTrue(new BatchCompiler(Paths.get("testcases/hw3"), out, 4, null, Allocator.LINEAR).run());
+
+        File[] files = new File("testcases/hw3").listFiles((dir, name) -> name.endsWith(".java"));
+        Arrays.sort(files);
+        assertTrue(files.length > 0);
+        for (File f : files) {
+            assertEquals(f.getName(), compile(f.toPath()) + "\n", read(out.resolve(riscvName(f.toPath()))));
+        }
+    }
+
+    @Test public void reportsAFailingFileAndCompilesTheRest() throws Exception {
+        Path src = tmp.newFolder("src").toPath();
+        Path out = tmp.newFolder("out").toPath();
+        Path good = Paths.get("testcases/hw3/Factorial.java");
+        Files.copy(good, src.resolve("Factorial.java"));
+        Files.write(src.resolve("Broken.java"), "class Main { public static void main(String[] a) {".getBytes());
+        Files.write(src.resolve("Untyped.java"),
+            "class Main { public static void main(String[] a) { System.out.println(true); } }".getBytes());
+
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        PrintStream stderr = System.err;
+        System.setErr(new PrintStream(err, true));
+        try {
+            assertFalse(new BatchCompiler(src, out, 2, null, Allocator.LINEAR).run());
+        } finally {
+            System.setErr(stderr);
+        }
+
+        String report = err.toString();
+        assertTrue(report, report.contains("FAIL Broken.java: Parse exception"));
+        assertTrue(report, report.contains("FAIL Untyped.java: Type error"));
+        assertEquals(compile(good) + "\n", read(out.resolve("Factorial.riscv")));
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    private static String compile(Path file) throws Exception {
+        return new Compiler(null, null).compile(new ByteArrayInputStream(Files.readAllBytes(file)));
+    }
+
+    private static String riscvName(Path file) {
+        String name = file.getFileName().toString();
+        return name.substring(0, name.length() - ".java".length()) + ".riscv";
+    }
+
+    private static String read(Path file) throws Exception {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
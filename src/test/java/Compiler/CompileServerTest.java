@@ -0,0 +1,99 @@
+package Compiler;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import S2SV.Allocator;
+
+public class CompileServerTest {
+    private static final String PROGRAM =
+        "class Main { public static void main(String[] a) { System.out.println(42); } }";
+
+    @Test public void compilesAFrame() throws Exception {
+        String reply = exchange(frame("java " + PROGRAM.length(), PROGRAM));
+        assertTrue(reply, reply.startsWith("OK "));
+    }
+
+    @Test public void keepsServingAfterAnError() throws Exception {
+        String bad = "class Main {";
+        String reply = exchange(concat(frame("java " + bad.length(), bad), frame("java " + PROGRAM.length(), PROGRAM)));
+        assertTrue(reply, reply.startsWith("ERROR "));
+        assertTrue(reply, reply.contains("Parse exception"));
+        assertTrue(reply, reply.indexOf("OK ") > 0);
+    }
+
+    @Test public void reportsALexicalError() throws Exception {
+        String bad = "class Main { # }";
+        String reply = exchange(frame("java " + bad.length(), bad));
+        assertTrue(reply, reply.startsWith("ERROR "));
+        assertTrue(reply, reply.contains("Lexical error"));
+    }
+
+    @Test public void rejectsANegativeLength() throws Exception {
+        String reply = exchange(frame("java -5", PROGRAM));
+        assertTrue(reply, reply.startsWith("ERROR "));
+        assertTrue(reply, reply.contains("Malformed request length"));
+    }
+
+    @Test public void rejectsANonNumericLength() throws Exception {
+        String reply = exchange(frame("java ten", PROGRAM));
+        assertTrue(reply, reply.contains("Malformed request length"));
+    }
+
+    @Test public void rejectsATruncatedFrame() throws Exception {
+        // Claims more bytes than the client sends before closing its side
+        String reply = exchange(frame("java " + (PROGRAM.length() + 10), PROGRAM));
+        assertTrue(reply, reply.startsWith("ERROR "));
+        assertTrue(reply, reply.contains("Truncated request"));
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    private static byte[] frame(String header, String body) {
+        return (header + "\n" + body).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] both = new byte[a.length + b.length];
+        System.arraycopy(a, 0, both, 0, a.length);
+        System.arraycopy(b, 0, both, a.length, b.length);
+        return both;
+    }
+
+    /* Send a request over a loopback connection served by handle, and return everything it replies */
+    private static String exchange(byte[] request) throws Exception {
+        CompileServer server = new CompileServer(0, null, Allocator.LINEAR);
+        try (ServerSocket listener = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             Socket client = new Socket(InetAddress.getLoopbackAddress(), listener.getLocalPort())) {
+            Socket accepted = listener.accept();
+            Thread worker = new Thread(() -> server.handle(accepted));
+            worker.start();
+
+            OutputStream out = client.getOutputStream();
+            out.write(request);
+            out.flush();
+            client.shutdownOutput();
+
+            String reply = readAll(client.getInputStream());
+            worker.join(10000);
+            return reply;
+        }
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        in.transferTo(buf);
+        return buf.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,48 @@
+package Compiler;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class CompilerTest {
+    /* The parsers keep no static state, so every thread can compile at the same time */
+    @Test public void compilesOnSeveralThreadsAtOnce() throws Exception {
+        File[] files = new File("testcases/hw3").listFiles((dir, name) -> name.endsWith(".java"));
+        Arrays.sort(files);
+        assertTrue(files.length > 0);
+
+        List<String> expected = new ArrayList<>();
+        for (File f : files) {
+            expected.add(compile(f));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int round = 0; round < 4; round++) {
+                for (File f : files) {
+                    results.add(pool.submit(() -> compile(f)));
+                }
+            }
+            for (int k = 0; k < results.size(); k++) {
+                assertEquals(files[k % files.length].getName(), expected.get(k % files.length), results.get(k).get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static String compile(File f) throws Exception {
+        byte[] src = Files.readAllBytes(f.toPath());
+        return new Compiler(null, null).compile(new ByteArrayInputStream(src));
+    }
+}
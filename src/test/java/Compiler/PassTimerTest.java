@@ -0,0 +1,189 @@
+package Compiler;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PassTimerTest {
+    private static final List<String> PHASES = Arrays.asList(
+        "parse",
+        "Typecheck.TableBuilder", "Typecheck.InheritanceResolver", "Typecheck.Visitor",
+        "J2S.ClassCollector", "J2S.TableBuilder", "J2S.InheritanceResolver", "J2S.SparrowGenerator",
+        "J2S.NullCheckElimination", "J2S.Inliner",
+        "BoundsCheckElimination", "ArgsVisitor", "LivenessVisitor", "Translator",
+        "OffsetVisitor", "VTranslator"
+    );
+
+    @Test public void tableListsEveryPhase() throws Exception {
+        PassTimer timer = compile("testcases/hw3/BinaryTree.java");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        timer.printTable(new PrintStream(out, true));
+
+        String table = out.toString();
+        for (String phase : PHASES) {
+            assertTrue(phase, table.contains("\n" + phase + " "));
+        }
+    }
+
+    @Test public void jsonParsesAndListsEveryPhase() throws Exception {
+        PassTimer timer = compile("testcases/hw3/BinaryTree.java");
+        Map<?, ?> json = (Map<?, ?>) Json.parse(json(timer));
+
+        List<String> phases = new ArrayList<>();
+        for (Object o : (List<?>) json.get("phases")) {
+            Map<?, ?> phase = (Map<?, ?>) o;
+            phases.add((String) phase.get("phase"));
+            assertTrue(phase.get("timeMs") instanceof Double);
+        }
+        assertEquals(PHASES, phases);
+
+        boolean perFunction = false;
+        for (Object o : (List<?>) json.get("functions")) {
+            Map<?, ?> sample = (Map<?, ?>) o;
+            perFunction |= "VTranslator".equals(sample.get("phase")) && "BT_Start".equals(sample.get("function"));
+        }
+        assertTrue(perFunction);
+    }
+
+    @Test public void jsonEscapesNames() {
+        PassTimer timer = new PassTimer();
+        String name = "odd \"phase\" \\ with\ta newline\n";
+        timer.run(name, name, 1, () -> { });
+
+        Map<?, ?> json = (Map<?, ?>) Json.parse(json(timer));
+        Map<?, ?> phase = (Map<?, ?>) ((List<?>) json.get("phases")).get(0);
+        Map<?, ?> function = (Map<?, ?>) ((List<?>) json.get("functions")).get(0);
+        assertEquals(name, phase.get("phase"));
+        assertEquals(name, function.get("function"));
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    private static PassTimer compile(String file) throws Exception {
+        Compiler compiler = new Compiler(null, null);
+        compiler.timer = new PassTimer();
+        compiler.compile(Files.newInputStream(Paths.get(file)));
+        return compiler.timer;
+    }
+
+    private static String json(PassTimer timer) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        timer.printJson(new PrintStream(out, true));
+        return out.toString();
+    }
+
+    /* Strict reader for the subset of JSON the timer writes: objects, arrays, strings, numbers */
+    private static class Json {
+        private final String s;
+        private int i;
+
+        private Json(String s) {
+            this.s = s;
+        }
+
+        static Object parse(String s) {
+            Json p = new Json(s);
+            Object value = p.value();
+            p.space();
+            if (p.i != s.length()) throw new IllegalArgumentException("Trailing text at " + p.i);
+            return value;
+        }
+
+        private Object value() {
+            space();
+            char c = peek();
+            if (c == '{') {
+                Map<String, Object> map = new LinkedHashMap<>();
+                i++;
+                space();
+                if (peek() == '}') { i++; return map; }
+                do {
+                    space();
+                    String key = string();
+                    space();
+                    expect(':');
+                    map.put(key, value());
+                    space();
+                } while (next() == ',');
+                i--;
+                expect('}');
+                return map;
+            }
+            if (c == '[') {
+                List<Object> list = new ArrayList<>();
+                i++;
+                space();
+                if (peek() == ']') { i++; return list; }
+                do {
+                    list.add(value());
+                    space();
+                } while (next() == ',');
+                i--;
+                expect(']');
+                return list;
+            }
+            if (c == '"') {
+                return string();
+            }
+            int start = i;
+            while (i < s.length() && "-+.eE0123456789".indexOf(s.charAt(i)) >= 0) i++;
+            String number = s.substring(start, i);
+            if (number.isEmpty()) throw new IllegalArgumentException("Unexpected '" + c + "' at " + start);
+            return number.matches("-?\\d+") ? (Object) Long.valueOf(number) : (Object) Double.valueOf(number);
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            for (char c; (c = next()) != '"'; ) {
+                if (c < 0x20) throw new IllegalArgumentException("Raw control character at " + (i - 1));
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = next();
+                switch (e) {
+                    case '"': case '\\': case '/': sb.append(e); break;
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u': sb.append((char) Integer.parseInt(s.substring(i, i + 4), 16)); i += 4; break;
+                    default: throw new IllegalArgumentException("Bad escape at " + (i - 1));
+                }
+            }
+            return sb.toString();
+        }
+
+        private void space() {
+            while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        }
+
+        private char peek() {
+            if (i >= s.length()) throw new IllegalArgumentException("Unexpected end");
+            return s.charAt(i);
+        }
+
+        private char next() {
+            char c = peek();
+            i++;
+            return c;
+        }
+
+        private void expect(char c) {
+            if (next() != c) throw new IllegalArgumentException("Expected '" + c + "' at " + (i - 1));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package Compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import J2S.J2S;
+import S2SV.Allocator;
+import S2SV.S2SV;
+import Typecheck.Typecheck;
+import minijava.MiniJavaParser;
+import minijava.syntaxtree.Goal;
+
+/**
+ * Shared helpers for tests that compile MiniJava through the early stages and run the result
+ * on the reference interpreter in misc/sparrow.jar.
+ */
+public class Programs {
+    private static final String INTERPRETER = "misc/sparrow.jar";
+
+    /**
+     * Type check a MiniJava program and translate it to Sparrow
+     * @param src MiniJava source
+     * @return Sparrow program
+     */
+    public static sparrow.Program sparrow(String src) throws Exception {
+        Goal root = new MiniJavaParser(new StringReader(src)).Goal();
+        Typecheck.check(root);
+        return J2S.translate(root);
+    }
+
+    /**
+     * Translate a MiniJava program all the way to Sparrow-V
+     * @param src MiniJava source
+     * @param allocator register allocation strategy
+     * @return Sparrow-V program
+     */
+    public static sparrowv.Program sparrowV(String src, Allocator allocator) throws Exception {
+        return S2SV.translate(sparrow(src), PassTimer.NONE, allocator);
+    }
+
+    public static String print(sparrow.Program prog) {
+        StringBuilder sb = new StringBuilder();
+        new sparrow.visitor.Printer(sb).visit(prog);
+        return sb.toString();
+    }
+
+    public static String print(sparrowv.Program prog) {
+        StringBuilder sb = new StringBuilder();
+        new sparrowv.visitor.Printer(sb).visit(prog);
+        return sb.toString();
+    }
+
+    /* Output of a Sparrow program on the interpreter */
+    public static String run(sparrow.Program prog) throws IOException, InterruptedException {
+        return interpret("s", print(prog));
+    }
+
+    /* Output of a Sparrow-V program on the interpreter */
+    public static String run(sparrowv.Program prog) throws IOException, InterruptedException {
+        return interpret("sv", print(prog));
+    }
+
+    /**
+     * Code of one function of a printed Sparrow or Sparrow-V program
+     * @param code printed program
+     * @param name function name, e.g. N_run
+     */
+    public static String function(String code, String name) {
+        String fn = code.substring(code.indexOf("func " + name + "("));
+        int end = fn.indexOf("\nfunc ");
+        return end < 0 ? fn : fn.substring(0, end);
+    }
+
+    /* Number of times some text occurs in code */
+    public static int count(String code, String text) {
+        int n = 0;
+        for (int at = code.indexOf(text); at >= 0; at = code.indexOf(text, at + 1)) n++;
+        return n;
+    }
+
+    /**
+     * Read one of the bundled test programs
+     * @param path path relative to the project directory, e.g. testcases/hw3/Factorial.java
+     */
+    public static String read(String path) throws IOException {
+        return new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8);
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    /* Run the interpreter on a program, dropping the banner it prints before a runtime error */
+    private static String interpret(String mode, String code) throws IOException, InterruptedException {
+        Process p = new ProcessBuilder("java", "-jar", INTERPRETER, mode).redirectErrorStream(true).start();
+        try (OutputStream in = p.getOutputStream()) {
+            in.write(code.getBytes(StandardCharsets.UTF_8));
+        }
+        String out = readAll(p.getInputStream());
+        p.waitFor();
+
+        StringBuilder sb = new StringBuilder();
+        for (String line : out.split("\n")) {
+            if (!line.startsWith("--- Error")) sb.append(line).append("\n");
+        }
+        return sb.toString();
+    }
+
+    private static String readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        in.transferTo(buf);
+        return buf.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,151 @@
+package Compiler;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class StageCacheTest {
+    @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test public void keysAreStableAcrossInstances() throws Exception {
+        Path dir = tmp.newFolder().toPath();
+        new StageCache(dir, StageCache.DEFAULT_MAX_BYTES, "").put("j2s", "input", "output");
+
+        StageCache again = new StageCache(dir, StageCache.DEFAULT_MAX_BYTES, "");
+        assertEquals("output", again.get("j2s", "input"));
+        assertNull(again.get("s2sv", "input"));
+        assertNull(again.get("j2s", "input "));
+        assertNull(new StageCache(dir, StageCache.DEFAULT_MAX_BYTES, "--regalloc\0x\0").get("j2s", "input"));
+    }
+
+    @Test public void countsHitsAndMisses() throws Exception {
+        StageCache cache = new StageCache(tmp.newFolder().toPath(), StageCache.DEFAULT_MAX_BYTES, "");
+        assertNull(cache.get("j2s", "a"));
+        cache.put("j2s", "a", "A");
+        assertEquals("A", cache.get("j2s", "a"));
+        assertEquals("A", cache.get("j2s", "a"));
+
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    /* A cold and a warm cache both produce exactly what the uncached compiler does */
+    @Test public void cachedCompileMatchesUncached() throws Exception {
+        StageCache cache = new StageCache(tmp.newFolder().toPath(), StageCache.DEFAULT_MAX_BYTES, "");
+        File[] files = new File("testcases/hw3").listFiles((dir, name) -> name.endsWith(".java"));
+        Arrays.sort(files);
+        assertTrue(files.length > 0);
+
+        for (int round = 0; round < 2; round++) {
+            for (File f : files) {
+                byte[] src = Files.readAllBytes(f.toPath());
+                String expected = new Compiler(null, null).compile(new ByteArrayInputStream(src));
+                assertEquals(f.getName(), expected, new Compiler(null, null, cache).compile(new ByteArrayInputStream(src)));
+            }
+        }
+        assertEquals(3 * files.length, cache.getHits());
+    }
+
+    @Test public void replacingAnEntryCountsItsSizeOnce() throws Exception {
+        Path dir = tmp.newFolder().toPath();
+        StageCache cache = new StageCache(dir, StageCache.DEFAULT_MAX_BYTES, "");
+        cache.put("j2s", "a", "first");
+        cache.put("j2s", "a", "second");
+
+        assertEquals(Files.size(entries(dir).get(0)), cache.size());
+    }
+
+    @Test public void evictsTheLeastRecentlyUsedEntries() throws Exception {
+        Path dir = tmp.newFolder().toPath();
+        String big = String.join("", Collections.nCopies(1000, "x"));
+        StageCache cache = new StageCache(dir, 2500, "");
+
+        cache.put("j2s", "old", big);
+        cache.put("j2s", "used", big);
+        age(dir, 60_000);
+        assertEquals(big, cache.get("j2s", "used"));   // Refreshes it past "old"
+
+        cache.put("j2s", "new", big);
+        assertNull(cache.get("j2s", "old"));
+        assertEquals(big, cache.get("j2s", "used"));
+        assertEquals(big, cache.get("j2s", "new"));
+        assertTrue(cache.size() <= 2500);
+        assertEquals(cache.size(), entries(dir).stream().mapToLong(StageCacheTest::size).sum());
+    }
+
+    @Test public void dropsACorruptEntry() throws Exception {
+        Path dir = tmp.newFolder().toPath();
+        StageCache cache = new StageCache(dir, StageCache.DEFAULT_MAX_BYTES, "");
+        cache.put("j2s", "a", "a long enough output");
+        Path entry = entries(dir).get(0);
+        byte[] bytes = Files.readAllBytes(entry);
+        Files.write(entry, Arrays.copyOf(bytes, bytes.length - 3));   // Truncated
+
+        assertNull(cache.get("j2s", "a"));
+        assertFalse(Files.exists(entry));
+        assertEquals(0, cache.size());
+
+        cache.put("j2s", "a", "again");
+        assertEquals("again", cache.get("j2s", "a"));
+    }
+
+    /* A temporary file left by a writer that died is neither an entry nor counted */
+    @Test public void ignoresALeftoverPartialWrite() throws Exception {
+        Path dir = tmp.newFolder().toPath();
+        new StageCache(dir, StageCache.DEFAULT_MAX_BYTES, "").put("j2s", "a", "A");
+        Path entry = entries(dir).get(0);
+        Files.write(dir.resolve("tmp123.part"), "garbage".getBytes());
+
+        StageCache cache = new StageCache(dir, StageCache.DEFAULT_MAX_BYTES, "");
+        assertEquals(Files.size(entry), cache.size());
+        assertEquals("A", cache.get("j2s", "a"));
+    }
+
+    @Test public void keysOnlyOnOptionsThatCanChangeTheOutput() {
+        String[] a = {"-o", "a.riscv", "--cache", "c1", "--cache-size", "10", "-j", "2", "in.java"};
+        String[] b = {"--sparrow", "x.sparrow", "--cache", "c2", "other.java"};
+        assertEquals("", Compiler.cacheOptions(a, 8));
+        assertEquals("", Compiler.cacheOptions(b, 4));
+
+        // Anything not known to be neutral, including options added later, is part of the key
+        String[] c = {"--cache", "c1", "--regalloc", "coloring", "in.java"};
+        assertEquals("--regalloc\0coloring\0", Compiler.cacheOptions(c, 4));
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    private static List<Path> entries(Path dir) throws Exception {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(p -> !p.toString().endsWith(".part")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /* Make every entry look older than anything touched from now on */
+    private static void age(Path dir, long millis) throws Exception {
+        for (Path p : entries(dir)) {
+            Files.setLastModifiedTime(p, FileTime.fromMillis(Files.getLastModifiedTime(p).toMillis() - millis));
+        }
+    }
+
+    private static long size(Path p) {
+        try {
+            return Files.size(p);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
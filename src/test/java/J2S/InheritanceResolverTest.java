@@ -0,0 +1,119 @@
+package J2S;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import Compiler.Programs;
+
+public class InheritanceResolverTest {
+    /* B overrides only the second method of A and adds one; C overrides the first again */
+    private static final String OVERRIDES = String.join("\n",
+        "class Main {",
+        "    public static void main(String[] a) {",
+        "        System.out.println(new Runner().run());",
+        "    }",
+        "}",
+        "class Runner {",
+        "    public int run() {",
+        "        A x;",
+        "        B y;",
+        "        int r;",
+        "        x = new B();",
+        "        System.out.println(x.first());",
+        "        System.out.println(x.second());",
+        "        y = new B();",
+        "        System.out.println(y.third());",
+        "        x = new C();",
+        "        System.out.println(x.first());",
+        "        System.out.println(x.second());",
+        "        y = new C();",
+        "        r = y.third();",
+        "        return r;",
+        "    }",
+        "}",
+        "class A {",
+        "    public int first() { return 1; }",
+        "    public int second() { return 2; }",
+        "}",
+        "class B extends A {",
+        "    public int second() { return 20; }",
+        "    public int third() { return 30; }",
+        "}",
+        "class C extends B {",
+        "    public int first() { return 100; }",
+        "}");
+
+    @Test public void overridingMethodsKeepTheParentSlot() throws Exception {
+        assertEquals("1\n20\n30\n100\n20\n30\n", Programs.run(Programs.sparrow(OVERRIDES)));
+    }
+
+    @Test public void methodNamesMayContainUnderscores() throws Exception {
+        String src = String.join("\n",
+            "class Main {",
+            "    public static void main(String[] a) {",
+            "        A x;",
+            "        x = new B();",
+            "        System.out.println(x.get_value());",
+            "        System.out.println(x.set_value(7));",
+            "    }",
+            "}",
+            "class A {",
+            "    int v;",
+            "    public int set_value(int n) { v = n; return 0; }",
+            "    public int get_value() { return 5; }",
+            "}",
+            "class B extends A {",
+            "    public int get_value() { return v; }",
+            "}");
+        assertEquals("0\n0\n", Programs.run(Programs.sparrow(src)));
+    }
+
+    /* Overrides are matched by method name, not by splitting Class_method at an underscore */
+    @Test public void classNamesMayContainUnderscores() throws Exception {
+        String src = String.join("\n",
+            "class Main {",
+            "    public static void main(String[] a) {",
+            "        Foo_bar x;",
+            "        x = new Foo_bar();",
+            "        System.out.println(x.get_value());",
+            "        System.out.println(x.other());",
+            "        x = new Foo_bar_baz();",
+            "        System.out.println(x.get_value());",
+            "        System.out.println(x.other());",
+            "    }",
+            "}",
+            "class Foo_bar {",
+            "    public int get_value() { return 10; }",
+            "    public int other() { return 11; }",
+            "}",
+            "class Foo_bar_baz extends Foo_bar {",
+            "    public int get_value() { return 20; }",
+            "    public int other() { return 21; }",
+            "}");
+        assertEquals("10\n11\n20\n21\n", Programs.run(Programs.sparrow(src)));
+    }
+
+    /* Slot 0 of a subclass vtable still points to the shared table that new reads through this */
+    @Test public void subclassMethodsCanAllocate() throws Exception {
+        String src = String.join("\n",
+            "class Main {",
+            "    public static void main(String[] a) {",
+            "        A x;",
+            "        x = new B();",
+            "        System.out.println(x.make());",
+            "    }",
+            "}",
+            "class A {",
+            "    public int first() { return 1; }",
+            "    public int make() { return 0; }",
+            "}",
+            "class B extends A {",
+            "    public int make() {",
+            "        A y;",
+            "        y = new B();",
+            "        return y.first();",
+            "    }",
+            "}");
+        assertEquals("1\n", Programs.run(Programs.sparrow(src)));
+    }
+}
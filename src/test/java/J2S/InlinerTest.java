@@ -0,0 +1,82 @@
+package J2S;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import Compiler.Programs;
+
+public class InlinerTest {
+    @Test public void expandsRecursionOnlyOnce() throws Exception {
+        String src = String.join("\n",
+            "class Main {",
+            "    public static void main(String[] a) {",
+            "        System.out.println(new R().run());",
+            "    }",
+            "}",
+            "class R {",
+            "    public int run() {",
+            "        return this.down(5);",
+            "    }",
+            "    public int down(int n) {",
+            "        int r;",
+            "        if (0 < n) r = this.down(n - 1); else r = 100;",
+            "        return r + n;",
+            "    }",
+            "}");
+        sparrow.Program prog = Programs.sparrow(src);
+        String code = Programs.print(prog);
+        String run = Programs.function(code, "R_run");
+        String down = Programs.function(code, "R_down");
+
+        // run holds one copy of down, whose own recursive call stays a call
+        assertEquals(run, 1, Programs.count(run, "@R_down"));
+        assertEquals(run, 1, Programs.count(run, "call "));
+        assertEquals(down, 1, Programs.count(down, "call "));
+        assertEquals("115\n", Programs.run(prog));
+    }
+
+    @Test public void renamesEachSiteApart() throws Exception {
+        String src = String.join("\n",
+            "class Main {",
+            "    public static void main(String[] a) {",
+            "        System.out.println(new S().go());",
+            "    }",
+            "}",
+            "class S {",
+            "    int k;",
+            "    public int dec(int x) {",
+            "        while (0 < x) x = x - 2;",
+            "        return x;",
+            "    }",
+            "    public int inc(int x) {",
+            "        x = x + 1;",
+            "        k = x;",
+            "        return x;",
+            "    }",
+            "    public int go() {",
+            "        int x;",
+            "        x = 9;",
+            "        x = this.inc(x);",
+            "        x = this.inc(x);",
+            "        System.out.println(x);",
+            "        System.out.println(this.dec(x));",
+            "        System.out.println(this.dec(7));",
+            "        return k;",
+            "    }",
+            "}");
+        sparrow.Program prog = Programs.sparrow(src);
+        String go = Programs.function(Programs.print(prog), "S_go");
+
+        assertEquals(go, 0, Programs.count(go, "call "));
+        // Both copies of dec keep their own loop labels
+        Set<String> labels = new HashSet<>();
+        for (String line : go.split("\n")) {
+            if (line.endsWith(":")) assertTrue(go, labels.add(line));
+        }
+        assertEquals(go, 4, labels.size());
+        assertEquals("11\n-1\n-1\n11\n", Programs.run(prog));
+    }
+}
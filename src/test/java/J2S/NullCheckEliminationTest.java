@@ -0,0 +1,83 @@
+package J2S;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import Compiler.Programs;
+
+public class NullCheckEliminationTest {
+    private static final String CHECK = "goto nullErr_";
+    private static final String NULL = "null pointer\n";
+
+    /* Calls on this, on new objects and on copies of them need no check, but the receiver read
+       from an unset field does, even once get and set are inlined */
+    @Test public void keepsTheCheckOnANullReceiverAfterInlining() throws Exception {
+        String src = String.join("\n",
+            "class Main {",
+            "    public static void main(String[] a) {",
+            "        System.out.println(new N().run());",
+            "    }",
+            "}",
+            "class N {",
+            "    N next;",
+            "    int v;",
+            "    public int get() {",
+            "        return v;",
+            "    }",
+            "    public int set(int x) {",
+            "        v = x;",
+            "        return x;",
+            "    }",
+            "    public int run() {",
+            "        N n;",
+            "        N m;",
+            "        int s;",
+            "        n = new N();",
+            "        s = n.set(3);",
+            "        s = s + (n.get());",
+            "        s = s + (this.set(4));",
+            "        m = n;",
+            "        s = s + (m.get());",
+            "        System.out.println(s);",
+            "        if (s < 100) m = next; else m = n;",
+            "        s = s + (m.get());",
+            "        return s;",
+            "    }",
+            "}");
+        sparrow.Program prog = Programs.sparrow(src);
+        String run = Programs.function(Programs.print(prog), "N_run");
+
+        assertEquals(run, 0, Programs.count(run, "call "));
+        // The allocation of n, and m after the branch
+        assertEquals(run, 2, Programs.count(run, CHECK));
+        assertEquals("13\n" + NULL, Programs.run(prog));
+    }
+
+    @Test public void keepsTheCheckOnAParameter() throws Exception {
+        String src = String.join("\n",
+            "class Main {",
+            "    public static void main(String[] a) {",
+            "        System.out.println(new N().run());",
+            "    }",
+            "}",
+            "class N {",
+            "    N none;",
+            "    public int run() {",
+            "        System.out.println(this.twice(this));",
+            "        return this.twice(none);",
+            "    }",
+            "    public int one() {",
+            "        return 1;",
+            "    }",
+            "    public int twice(N p) {",
+            "        return (p.one()) + (p.one());",
+            "    }",
+            "}");
+        sparrow.Program prog = Programs.sparrow(src);
+        String twice = Programs.function(Programs.print(prog), "N_twice");
+
+        // The second call reuses the first check
+        assertEquals(twice, 1, Programs.count(twice, CHECK));
+        assertEquals("2\n" + NULL, Programs.run(prog));
+    }
+}
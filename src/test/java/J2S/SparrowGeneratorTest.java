@@ -0,0 +1,121 @@
+package J2S;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.StringReader;
+
+import Compiler.PassTimer;
+import Compiler.Programs;
+import Typecheck.Typecheck;
+import minijava.MiniJavaParser;
+import minijava.syntaxtree.Goal;
+
+public class SparrowGeneratorTest {
+    /* A.make returns a B, so chained calls such as (x.make()).both() dispatch on B rather than
+       on the receiver's class A */
+    private static final String CHAINED = String.join("\n",
+        "class Main {",
+        "    public static void main(String[] a) {",
+        "        A x;",
+        "        x = new A();",
+        "        System.out.println((x.make()).onlyInB());",
+        "        System.out.println((x.make()).both());",
+        "        System.out.println(((x.make()).self()).onlyInB());",
+        "    }",
+        "}",
+        "class A {",
+        "    public B make() { return new B(); }",
+        "    public int both() { return 1; }",
+        "}",
+        "class B {",
+        "    public int onlyInB() { return 7; }",
+        "    public B self() { return this; }",
+        "    public int both() { return 2; }",
+        "}");
+
+    /* Calls on A, B and C mix methods some subclass overrides with ones none does */
+    private static final String HIERARCHY = String.join("\n",
+        "class Main {",
+        "    public static void main(String[] a) {",
+        "        System.out.println(new Run().go());",
+        "    }",
+        "}",
+        "class A {",
+        "    public int foo() { return 1; }",
+        "    public int bar() { return 10; }",
+        "    public B mk() { return new B(); }",
+        "}",
+        "class B extends A {",
+        "    public int foo() { return 2; }",
+        "    public A up() { return new C(); }",
+        "}",
+        "class C extends A {",
+        "    public int bar() { return 30; }",
+        "}",
+        "class D extends B {",
+        "    public int baz() { return 400; }",
+        "}",
+        "class Run {",
+        "    public int go() {",
+        "        A a;",
+        "        B b;",
+        "        C c;",
+        "        D d;",
+        "        int s;",
+        "        a = new A();",
+        "        s = a.foo();",
+        "        s = s + (a.bar());",
+        "        a = new B();",
+        "        s = s + (a.foo());",
+        "        a = new C();",
+        "        s = s + (a.bar());",
+        "        b = new D();",
+        "        s = s + (b.foo());",
+        "        s = s + (b.bar());",
+        "        c = new C();",
+        "        s = s + (c.foo());",
+        "        d = new D();",
+        "        s = s + (d.baz());",
+        "        s = s + ((d.up()).bar());",
+        "        s = s + ((a.mk()).foo());",
+        "        s = s + (((a.mk()).up()).bar());",
+        "        return s;",
+        "    }",
+        "}");
+
+    @Test public void devirtualizesOnlyCallsNoSubclassOverrides() throws Exception {
+        String go = Programs.function(Programs.print(generate(HIERARCHY)), "Run_go");
+
+        // b.foo, (a.mk()).foo: no subclass of B overrides foo
+        assertEquals(go, 2, Programs.count(go, "= @B_foo\n"));
+        // b.bar: B and D inherit A's
+        assertEquals(go, 1, Programs.count(go, "= @A_bar\n"));
+        // c.foo: C inherits A's
+        assertEquals(go, 1, Programs.count(go, "= @A_foo\n"));
+        assertEquals(go, 1, Programs.count(go, "= @D_baz\n"));
+        // d.up, (a.mk()).up
+        assertEquals(go, 2, Programs.count(go, "= @B_up\n"));
+        assertEquals(go, 2, Programs.count(go, "= @A_mk\n"));
+
+        // a.foo twice, a.bar twice and bar on the A that up returns twice go through the vtable
+        assertEquals(go, 9, Programs.count(go, "= @"));
+        assertEquals(go, 15, Programs.count(go, "= call "));
+        assertEquals("518\n", Programs.run(Programs.sparrow(HIERARCHY)));
+    }
+
+    @Test public void typesCallResultsByTheMethodsReturnType() throws Exception {
+        assertEquals("7\n2\n7\n", Programs.run(Programs.sparrow(CHAINED)));
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    /* Sparrow straight from the generator, before the passes that inline direct calls */
+    private static sparrow.Program generate(String src) throws Exception {
+        Goal root = new MiniJavaParser(new StringReader(src)).Goal();
+        Typecheck.check(root);
+        return J2S.generate(root, PassTimer.NONE);
+    }
+}
@@ -0,0 +1,442 @@
+package S2SV;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import Compiler.Programs;
+import SV2V.SV2V;
+
+/* Every test runs once per register allocation strategy */
+@RunWith(Parameterized.class)
+public class AllocatorTest {
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> allocators() {
+        List<Object[]> result = new ArrayList<>();
+        for (Allocator a : Allocator.values()) {
+            result.add(new Object[] {a});
+        }
+        return result;
+    }
+
+    private final Allocator allocator;
+
+    public AllocatorTest(Allocator allocator) {
+        this.allocator = allocator;
+    }
+
+    @Test public void runsTheHw3Programs() throws Exception {
+        File[] files = new File("testcases/hw3").listFiles((dir, name) -> name.endsWith(".java"));
+        Arrays.sort(files);
+        assertTrue(files.length > 0);
+
+        for (File f : files) {
+            String src = Programs.read(f.getPath());
+            assertEquals(f.getName(), Programs.run(Programs.sparrow(src)), Programs.run(Programs.sparrowV(src, allocator)));
+        }
+    }
+
+    @Test public void passesMoreThanEightArguments() throws Exception {
+        int n = 10;
+        StringBuilder sb = new StringBuilder();
+        sb.append("class Main {\n");
+        sb.append("    public static void main(String[] a) {\n");
+        sb.append("        System.out.println(new A().run());\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        sb.append("class A {\n");
+
+        // run calls mix directly, then through rotate, which shifts every argument one place
+        sb.append("    public int run() {\n");
+        sb.append("        int r;\n");
+        sb.append("        r = this.mix(").append(args(n, "", 1)).append(");\n");
+        sb.append("        System.out.println(r);\n");
+        sb.append("        r = this.rotate(").append(args(n, "", 1)).append(");\n");
+        sb.append("        return r;\n");
+        sb.append("    }\n");
+
+        sb.append("    public int rotate(").append(params(n)).append(") {\n");
+        sb.append("        return this.mix(p").append(n - 1).append(", ").append(args(n - 1, "p", 0)).append(");\n");
+        sb.append("    }\n");
+
+        // mix weighs each argument by its position, so a misplaced argument changes the result
+        sb.append("    public int mix(").append(params(n)).append(") {\n");
+        sb.append("        int s;\n");
+        sb.append("        s = 0;\n");
+        for (int i = 0; i < n; i++) {
+            sb.append("        s = s * 3;\n");
+            sb.append("        s = s + p").append(i).append(";\n");
+        }
+        sb.append("        System.out.println(p0);\n");
+        sb.append("        System.out.println(p").append(n - 1).append(");\n");
+        sb.append("        return s;\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+
+        int[] direct = new int[n];
+        int[] rotated = new int[n];
+        for (int i = 0; i < n; i++) {
+            direct[i] = i + 1;
+            rotated[(i + 1) % n] = i + 1;
+        }
+        String expected = 1 + "\n" + n + "\n" + mix(direct) + "\n" + n + "\n" + (n - 1) + "\n" + mix(rotated) + "\n";
+        assertEquals(expected, Programs.run(Programs.sparrowV(sb.toString(), allocator)));
+    }
+
+    @Test public void keepsManyValuesLiveAcrossCalls() throws Exception {
+        int n = 30;
+        int trips = 3;
+        StringBuilder sb = new StringBuilder();
+        sb.append("class Main {\n");
+        sb.append("    public static void main(String[] a) {\n");
+        sb.append("        System.out.println(new A().run(5));\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        sb.append("class A {\n");
+        sb.append("    public int run(int p) {\n");
+        sb.append("        int k;\n");
+        sb.append("        int s;\n");
+        for (int i = 0; i < n; i++) {
+            sb.append("        int x").append(i).append(";\n");
+        }
+        for (int i = 0; i < n; i++) {
+            sb.append("        x").append(i).append(" = p + ").append(i).append(";\n");
+        }
+
+        // Every value is live around the loop and across each call in it
+        sb.append("        k = 0;\n");
+        sb.append("        while (k < ").append(trips).append(") {\n");
+        for (int i = 0; i < n; i++) {
+            sb.append("            x").append(i).append(" = x").append(i).append(" + x").append((i + 1) % n).append(";\n");
+            if (i % 10 == 9) sb.append("            x").append(i).append(" = this.twice(x").append(i).append(");\n");
+        }
+        sb.append("            k = k + 1;\n");
+        sb.append("        }\n");
+
+        sb.append("        s = 0;\n");
+        for (int i = 0; i < n; i++) {
+            sb.append("        s = s * 3;\n");
+            sb.append("        s = s + x").append(i).append(";\n");
+        }
+        sb.append("        return s;\n");
+        sb.append("    }\n");
+        sb.append("    public int twice(int v) {\n");
+        sb.append("        return v + v;\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+
+        int[] x = new int[n];
+        for (int i = 0; i < n; i++) x[i] = 5 + i;
+        for (int t = 0; t < trips; t++) {
+            for (int i = 0; i < n; i++) {
+                x[i] = x[i] + x[(i + 1) % n];
+                if (i % 10 == 9) x[i] = x[i] + x[i];
+            }
+        }
+        assertEquals(mix(x) + "\n", Programs.run(Programs.sparrowV(sb.toString(), allocator)));
+    }
+
+    /* Graph coloring weighs spill cost by loop depth, and split allocation gives the loop its own pieces,
+       so both keep the loop variables in registers; only linear scan moves them through memory */
+    @Test public void keepsLoopValuesInRegisters() throws Exception {
+        int n = 24;
+        int trips = 100;
+        StringBuilder sb = new StringBuilder();
+        sb.append("class Main {\n");
+        sb.append("    public static void main(String[] a) {\n");
+        sb.append("        System.out.println(new A().run(5));\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        sb.append("class A {\n");
+        sb.append("    public int run(int p) {\n");
+        sb.append("        int k;\n");
+        sb.append("        int s;\n");
+        sb.append("        int h0;\n");
+        sb.append("        int h1;\n");
+        sb.append("        int h2;\n");
+        for (int i = 0; i < n; i++) {
+            sb.append("        int c").append(i).append(";\n");
+        }
+
+        // The loop values have the longest live ranges, which is what linear scan spills first
+        sb.append("        h0 = 1;\n");
+        sb.append("        h1 = 2;\n");
+        sb.append("        h2 = 3;\n");
+        for (int i = 0; i < n; i++) {
+            sb.append("        c").append(i).append(" = p + ").append(i).append(";\n");
+        }
+        sb.append("        k = 0;\n");
+        sb.append("        while (k < ").append(trips).append(") {\n");
+        sb.append("            h0 = h0 + k;\n");
+        sb.append("            h1 = h1 + h0;\n");
+        sb.append("            h2 = h2 + h1;\n");
+        sb.append("            k = k + 1;\n");
+        sb.append("        }\n");
+        sb.append("        s = 0;\n");
+        for (int i = 0; i < n; i++) {
+            sb.append("        s = s + c").append(i).append(";\n");
+        }
+        sb.append("        s = s + h2;\n");
+        sb.append("        s = s + h1;\n");
+        sb.append("        s = s + h0;\n");
+        sb.append("        return s;\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+
+        int h0 = 1;
+        int h1 = 2;
+        int h2 = 3;
+        int s = 0;
+        for (int k = 0; k < trips; k++) {
+            h0 += k;
+            h1 += h0;
+            h2 += h1;
+        }
+        for (int i = 0; i < n; i++) s += 5 + i;
+        s += h2 + h1 + h0;
+
+        sparrowv.Program prog = Programs.sparrowV(sb.toString(), allocator);
+        assertEquals(s + "\n", Programs.run(prog));
+        if (allocator != Allocator.LINEAR) {
+            String code = Programs.function(Programs.print(prog), "A_run");
+            String loop = code.substring(code.indexOf("\nwhile_"), code.indexOf("\nendWhile_"));
+            assertEquals(loop, 0, stackAccesses(loop));
+            assertTrue(code, stackAccesses(code) > 0);
+        }
+    }
+
+    /* A function without calls has a4-a7 to spare once its parameters are in a2 and a3 */
+    @Test public void usesFreeArgumentRegisters() throws Exception {
+        int n = 20;
+        StringBuilder sb = new StringBuilder();
+        sb.append("class Main {\n");
+        sb.append("    public static void main(String[] a) {\n");
+        sb.append("        System.out.println(new A().run(5));\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        sb.append("class A {\n");
+        sb.append("    public int run(int p) {\n");
+        sb.append("        int s;\n");
+        for (int i = 0; i < n; i++) {
+            sb.append("        int x").append(i).append(";\n");
+        }
+
+        // Every value is live at once, more than the t and s registers hold
+        for (int i = 0; i < n; i++) {
+            sb.append("        x").append(i).append(" = p + ").append(i).append(";\n");
+        }
+        sb.append("        s = 0;\n");
+        for (int i = 0; i < n; i++) {
+            sb.append("        s = s * 3;\n");
+            sb.append("        s = s + x").append(i).append(";\n");
+        }
+        sb.append("        return s;\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+
+        int[] x = new int[n];
+        for (int i = 0; i < n; i++) x[i] = 5 + i;
+
+        sparrowv.Program prog = Programs.sparrowV(sb.toString(), allocator);
+        assertEquals(mix(x) + "\n", Programs.run(prog));
+        String code = Programs.function(Programs.print(prog), "A_run");
+        assertTrue(code, code.matches("(?s).*\\ba[4-7]\\b.*"));
+        assertFalse(code, code.matches("(?s).*\\ba[01]\\b.*"));
+    }
+
+    /* p is dead once the loop starts, so its argument register is not saved around the call in it */
+    @Test public void savesOnlyRegistersLiveAfterCalls() throws Exception {
+        String src = String.join("\n",
+            "class Main {",
+            "    public static void main(String[] a) {",
+            "        System.out.println(new A().run(5));",
+            "    }",
+            "}",
+            "class A {",
+            "    public int run(int p) {",
+            "        int k;",
+            "        int t;",
+            "        int s;",
+            "        t = p;",
+            "        k = 0;",
+            "        s = 0;",
+            "        while (k < 10) {",
+            "            s = this.g(t + k);",
+            "            t = s;",
+            "            k = k + 1;",
+            "        }",
+            "        return s;",
+            "    }",
+            "    public int g(int v) {",
+            "        return v + 1;",
+            "    }",
+            "}");
+
+        sparrowv.Program prog = Programs.sparrowV(src, allocator);
+        assertEquals("60\n", Programs.run(prog));
+        String code = Programs.function(Programs.print(prog), "A_run");
+        assertEquals(code, 0, Programs.count(code, "stack_save_a3"));
+    }
+
+    /* Only the branch with calls needs callee-saved registers, so the other path saves none */
+    @Test public void savesCalleeRegistersOnlyOnPathsThatUseThem() throws Exception {
+        int n = 6;
+        StringBuilder sb = new StringBuilder();
+        sb.append("class Main {\n");
+        sb.append("    public static void main(String[] a) {\n");
+        sb.append("        System.out.println(new A().run(0));\n");
+        sb.append("        System.out.println(new A().run(1));\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+        sb.append("class A {\n");
+        sb.append("    public int run(int p) {\n");
+        sb.append("        int r;\n");
+        for (int i = 0; i < n; i++) {
+            sb.append("        int x").append(i).append(";\n");
+        }
+        sb.append("        if (p < 1) {\n");
+
+        // Every value is live across the call
+        for (int i = 0; i < n; i++) {
+            sb.append("            x").append(i).append(" = p + ").append(i).append(";\n");
+        }
+        sb.append("            r = this.twice(p);\n");
+        for (int i = 0; i < n; i++) {
+            sb.append("            r = r * 3;\n");
+            sb.append("            r = r + x").append(i).append(";\n");
+        }
+        sb.append("        } else {\n");
+        sb.append("            r = p;\n");
+        sb.append("        }\n");
+        sb.append("        return r;\n");
+        sb.append("    }\n");
+        // A loop makes twice too large to inline, so the call stays
+        sb.append("    public int twice(int v) {\n");
+        sb.append("        int s;\n");
+        sb.append("        int k;\n");
+        sb.append("        s = 0;\n");
+        sb.append("        k = 0;\n");
+        sb.append("        while (k < 2) {\n");
+        sb.append("            s = s + v;\n");
+        sb.append("            k = k + 1;\n");
+        sb.append("        }\n");
+        sb.append("        return s;\n");
+        sb.append("    }\n");
+        sb.append("}\n");
+
+        int[] x = new int[n + 1];
+        for (int i = 0; i < n; i++) x[i + 1] = i;
+
+        sparrowv.Program prog = Programs.sparrowV(sb.toString(), allocator);
+        assertEquals(mix(x) + "\n1\n", Programs.run(prog));
+        String code = Programs.function(Programs.print(prog), "A_run");
+        String entry = code.substring(0, code.indexOf("\nif0 "));
+        String other = code.substring(code.indexOf("\nelse_"), code.indexOf("\nendif_"));
+        assertTrue(code, Programs.count(code, "stack_save_s") > 0);
+        assertEquals(code, 0, Programs.count(entry, "stack_save_s"));
+        assertEquals(code, 0, Programs.count(other, "stack_save_s"));
+    }
+
+    @Test public void returnsALocalNeverAssigned() throws Exception {
+        assertReturnHasAHome(String.join("\n",
+            "class Main {",
+            "    public static void main(String[] a) {",
+            "        System.out.println(new A().f());",
+            "    }",
+            "}",
+            "class A {",
+            "    public int f() {",
+            "        int n;",
+            "        return n;",
+            "    }",
+            "}"), "A_f");
+    }
+
+    @Test public void returnsALocalNeverAssignedAfterCalls() throws Exception {
+        assertReturnHasAHome(String.join("\n",
+            "class Main {",
+            "    public static void main(String[] a) {",
+            "        System.out.println(new A().f(1, 2, 3));",
+            "    }",
+            "}",
+            "class A {",
+            "    public int f(int x, int y, int z) {",
+            "        int n;",
+            "        int s;",
+            "        s = this.g(x, y);",
+            "        s = this.g(s, z);",
+            "        System.out.println(s);",
+            "        return n;",
+            "    }",
+            "    public int g(int x, int y) {",
+            "        return x + y;",
+            "    }",
+            "}"), "A_f");
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    /* The program lowers to RISC-V, and the function assigns its return variable before returning */
+    private void assertReturnHasAHome(String src, String function) throws Exception {
+        sparrowv.Program prog = Programs.sparrowV(src, allocator);
+        String code = Programs.function(Programs.print(prog), function);
+        assertNotNull(SV2V.translate(prog));
+
+        int end = code.indexOf("return");
+        String ret = code.substring(end + "return".length()).trim().split("\\s+")[0];
+        assertTrue(code, code.substring(0, end).contains("\n" + ret + " = "));
+    }
+
+    /* Same value the generated mix computes */
+    private static int mix(int[] values) {
+        int s = 0;
+        for (int v : values) {
+            s = s * 3 + v;
+        }
+        return s;
+    }
+
+    /* Number of instructions that move a value to or from a stack slot rather than a register */
+    private static int stackAccesses(String code) {
+        int n = 0;
+        for (String line : code.split("\n")) {
+            String[] sides = line.trim().split(" = ");
+            if (sides.length == 2 && (isStackSlot(sides[0]) || isStackSlot(sides[1]))) n++;
+        }
+        return n;
+    }
+
+    private static boolean isStackSlot(String operand) {
+        return operand.matches("[A-Za-z_]\\w*") && !operand.matches("a[0-7]|s([1-9]|1[01])|t[0-5]");
+    }
+
+    /* "int p0, int p1, ..." */
+    private static String params(int n) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append("int p").append(i);
+        }
+        return sb.toString();
+    }
+
+    /* n arguments named prefix + (i + base), or literals when the prefix is empty */
+    private static String args(int n, String prefix, int base) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(prefix).append(i + base);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,249 @@
+package S2SV;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import Compiler.PassTimer;
+import Compiler.Programs;
+
+/*
+ * Each program keeps the code under test in N.run. The tests count the bounds checks left in
+ * its Sparrow-V and compare the output on the interpreter with the unoptimized program's.
+ */
+public class BoundsCheckEliminationTest {
+    private static final String CHECK = "goto boundsErr_";
+    private static final String OOB = "array index out of bounds\n";
+
+    // -------------------
+    // Checks that must stay
+    // -------------------
+
+    @Test public void keepsAnIndexReadFromAField() throws Exception {
+        String src = program(
+            "    int k;",
+            "    public int run() {",
+            "        int[] a;",
+            "        a = new int[5];",
+            "        k = this.pick();",
+            "        a[k] = 1;",
+            "        return k;",
+            "    }",
+            "    public int pick() { return 5; }");
+        assertChecks(src, 1, OOB);
+    }
+
+    @Test public void keepsAnIndexIntoAParameterArray() throws Exception {
+        String src = String.join("\n",
+            "class Main {",
+            "    public static void main(String[] x) {",
+            "        int[] p;",
+            "        p = new int[1];",
+            "        System.out.println(new N().run(p));",
+            "    }",
+            "}",
+            "class N {",
+            "    public int run(int[] p) {",
+            "        p[0] = 3;",
+            "        return p[1];",
+            "    }",
+            "}");
+        assertChecks(src, 2, OOB);
+    }
+
+    @Test public void keepsAnIndexUsedAfterItsLoop() throws Exception {
+        String src = program(
+            "    public int run() {",
+            "        int[] a;",
+            "        int i;",
+            "        a = new int[5];",
+            "        i = 0;",
+            "        while (i < (a.length)) {",
+            "            a[i] = i;",
+            "            i = i + 1;",
+            "        }",
+            "        return a[i];",
+            "    }");
+        assertChecks(src, 1, OOB);
+    }
+
+    @Test public void keepsAnIndexBelowTheLoopCounter() throws Exception {
+        String src = program(
+            "    public int run() {",
+            "        int[] a;",
+            "        int i;",
+            "        int s;",
+            "        a = new int[5];",
+            "        i = 0;",
+            "        s = 0;",
+            "        while (i < (a.length)) {",
+            "            s = s + (a[(i - 1)]);",
+            "            i = i + 1;",
+            "        }",
+            "        return s;",
+            "    }");
+        assertChecks(src, 1, OOB);
+    }
+
+    @Test public void keepsAnIndexIntoAFieldArrayReplacedByALongerOne() throws Exception {
+        String src = program(
+            "    int[] f;",
+            "    int[] g;",
+            "    public int run() {",
+            "        f = new int[3];",
+            "        g = new int[10];",
+            "        f[2] = 7;",
+            "        f = g;",
+            "        f[9] = 1;",
+            "        System.out.println(f[9]);",
+            "        f = new int[3];",
+            "        return f[9];",
+            "    }");
+        assertEquals("1\n" + OOB, run(src));
+    }
+
+    // -------------------
+    // Checks that may go
+    // -------------------
+
+    @Test public void removesChecksOnTheLoopCounter() throws Exception {
+        String src = program(
+            "    public int run() {",
+            "        int[] a;",
+            "        int i;",
+            "        int s;",
+            "        a = new int[5];",
+            "        i = 0;",
+            "        s = 0;",
+            "        while (i < (a.length)) {",
+            "            a[i] = i;",
+            "            s = s + (a[i]);",
+            "            i = i + 1;",
+            "        }",
+            "        return s;",
+            "    }");
+        assertChecks(src, 0, "10\n");
+    }
+
+    @Test public void removesChecksBelowAHoistedLength() throws Exception {
+        String src = program(
+            "    public int run() {",
+            "        int[] a;",
+            "        int i;",
+            "        int n;",
+            "        int s;",
+            "        a = new int[5];",
+            "        n = a.length;",
+            "        i = 0;",
+            "        s = 0;",
+            "        while (i < n) {",
+            "            a[i] = i;",
+            "            i = i + 1;",
+            "        }",
+            "        i = 0;",
+            "        while (i < n) {",
+            "            s = s + (a[i]);",
+            "            i = i + 1;",
+            "        }",
+            "        return s;",
+            "    }");
+        assertChecks(src, 0, "10\n");
+    }
+
+    @Test public void removesChecksInANestedLoopBelowTheOuterCounter() throws Exception {
+        String src = program(
+            "    public int run() {",
+            "        int[] a;",
+            "        int i;",
+            "        int j;",
+            "        int s;",
+            "        a = new int[5];",
+            "        i = 0;",
+            "        s = 0;",
+            "        while (i < (a.length)) {",
+            "            a[i] = i;",
+            "            i = i + 1;",
+            "        }",
+            "        i = 0;",
+            "        while (i < (a.length)) {",
+            "            j = 0;",
+            "            while (j < i) {",
+            "                s = s + (a[j]);",
+            "                j = j + 1;",
+            "            }",
+            "            i = i + 1;",
+            "        }",
+            "        return s;",
+            "    }");
+        assertChecks(src, 0, "10\n");
+    }
+
+    @Test public void removesARepeatedCheckOnAnUnknownIndex() throws Exception {
+        String src = program(
+            "    public int run() {",
+            "        int[] a;",
+            "        int i;",
+            "        a = new int[5];",
+            "        i = this.pick();",
+            "        a[i] = 4;",
+            "        return a[i];",
+            "    }",
+            "    public int pick() { return 3; }");
+        assertChecks(src, 1, "4\n");
+    }
+
+    /* Translating a program twice removes the same checks: the first translation leaves its input alone */
+    @Test public void leavesTheSparrowProgramUnchanged() throws Exception {
+        String src = program(
+            "    public int run() {",
+            "        int[] a;",
+            "        int i;",
+            "        a = new int[5];",
+            "        i = 0;",
+            "        while (i < (a.length)) {",
+            "            a[i] = i;",
+            "            i = i + 1;",
+            "        }",
+            "        return i;",
+            "    }");
+        sparrow.Program prog = Programs.sparrow(src);
+        String before = Programs.print(prog);
+
+        String first = Programs.print(S2SV.translate(prog, PassTimer.NONE, Allocator.LINEAR));
+        assertEquals(before, Programs.print(prog));
+        assertEquals(first, Programs.print(S2SV.translate(prog, PassTimer.NONE, Allocator.LINEAR)));
+        assertEquals(0, Programs.count(Programs.function(first, "N_run"), CHECK));
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    /* A program printing the result of N.run(), with the given members in N */
+    private static String program(String... members) {
+        return String.join("\n",
+            "class Main {",
+            "    public static void main(String[] x) {",
+            "        System.out.println(new N().run());",
+            "    }",
+            "}",
+            "class N {",
+            String.join("\n", members),
+            "}");
+    }
+
+    /* N.run keeps the given number of bounds checks, and the program prints what it should */
+    private static void assertChecks(String src, int checks, String output) throws Exception {
+        sparrowv.Program prog = Programs.sparrowV(src, Allocator.LINEAR);
+        String code = Programs.print(prog);
+        assertEquals(code, checks, Programs.count(Programs.function(code, "N_run"), CHECK));
+
+        assertEquals(output, Programs.run(prog));
+        assertEquals(output, Programs.run(Programs.sparrow(src)));
+    }
+
+    private static String run(String src) throws Exception {
+        String output = Programs.run(Programs.sparrowV(src, Allocator.LINEAR));
+        assertEquals(Programs.run(Programs.sparrow(src)), output);
+        return output;
+    }
+}
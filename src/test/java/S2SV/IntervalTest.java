@@ -0,0 +1,51 @@
+package S2SV;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class IntervalTest {
+    @Test public void endSortsBeforeStartOnTheSameLine() {
+        Interval start = new Interval(5, 9, "a", false);
+        Interval end = new Interval(1, 5, "b", true);
+        assertTrue(Interval.comparator.compare(end, start) < 0);
+        assertTrue(Interval.comparator.compare(start, end) > 0);
+    }
+
+    @Test public void comparatorIsAntisymmetric() {
+        List<Interval> events = events(new Random(1), 40, 10);
+        for (Interval a : events) {
+            for (Interval b : events) {
+                assertEquals(Integer.signum(Interval.comparator.compare(a, b)),
+                    -Integer.signum(Interval.comparator.compare(b, a)));
+            }
+        }
+    }
+
+    @Test public void sortsTheEventsOfALargeFunction() {
+        List<Interval> events = events(new Random(7), 20000, 500);
+        events.sort(Interval.comparator);
+
+        for (int k = 1; k < events.size(); k++) {
+            Interval prev = events.get(k - 1);
+            Interval next = events.get(k);
+            assertTrue(prev.position() <= next.position());
+            if (prev.position() == next.position()) assertTrue(prev.isEnd || !next.isEnd);
+        }
+    }
+
+    /* Start and end events of random intervals over a few lines, so many share a line */
+    private static List<Interval> events(Random random, int count, int lines) {
+        List<Interval> events = new ArrayList<>();
+        for (int k = 0; k < count; k++) {
+            int first = random.nextInt(lines);
+            int last = first + random.nextInt(lines - first);
+            events.add(new Interval(first, last, "v" + k, false));
+            events.add(new Interval(first, last, "v" + k, true));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,49 @@
+package S2SV;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.Function;
+
+import Analysis.ControlFlowGraph;
+import Compiler.Programs;
+import sparrow.FunctionDecl;
+
+public class LiveRegisterIndexTest {
+    private static final String[] REGS = {"t3", "t4", "a4", "a5"};
+
+    /* Every answer matches a scan of the variables live after the line */
+    @Test public void matchesTheLiveSetsOfTheHw3Programs() throws Exception {
+        File[] files = new File("testcases/hw3").listFiles((dir, name) -> name.endsWith(".java"));
+        Arrays.sort(files);
+        assertTrue(files.length > 0);
+
+        for (File f : files) {
+            for (FunctionDecl fn : Programs.sparrow(Programs.read(f.getPath())).funDecls) {
+                Liveness live = new Liveness(new ControlFlowGraph(fn));
+
+                // Several variables share each register, and some have none
+                Function<String, String> home = v -> {
+                    int h = Math.floorMod(v.hashCode(), REGS.length + 1);
+                    return h < REGS.length ? REGS[h] : null;
+                };
+                LiveRegisterIndex index = new LiveRegisterIndex(live, home);
+
+                for (int line = 1; line <= live.cfg.size(); line++) {
+                    BitSet after = live.liveAfter(line);
+                    for (String reg : REGS) {
+                        boolean expected = false;
+                        for (int v = after.nextSetBit(0); v >= 0; v = after.nextSetBit(v + 1)) {
+                            expected |= reg.equals(home.apply(live.variable(v)));
+                        }
+                        assertEquals(f.getName() + " " + fn.functionName + " line " + line + " " + reg,
+                            expected, index.liveAfter(reg, line));
+                    }
+                }
+            }
+        }
+    }
+}
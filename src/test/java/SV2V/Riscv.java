@@ -0,0 +1,382 @@
+package SV2V;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the RISC-V assembly VTranslator emits, so tests do not need Venus. Covers the RV32IM
+ * instructions and pseudo-instructions the code generator uses, and the Venus environment
+ * calls of its runtime (print_int, print_string, print_char, sbrk, exit).
+ *
+ * The program is checked the way an assembler would: immediates must fit their field, and
+ * branches must reach their target. Addresses are laid out with li and la taking two
+ * instructions when they need to, so a branch that only just fits is measured correctly.
+ */
+public class Riscv {
+    private static final long MAX_STEPS = 200_000_000L;
+    private static final int DATA = 0x10000000;
+    private static final int STACK = 0x7ffffff0;
+    private static final int BRANCH_REACH = 4096;
+    private static final int JUMP_REACH = 1 << 20;
+
+    private static final String[] NAMES = {
+        "zero", "ra", "sp", "gp", "tp", "t0", "t1", "t2", "fp", "s1", "a0", "a1", "a2", "a3", "a4", "a5",
+        "a6", "a7", "s2", "s3", "s4", "s5", "s6", "s7", "s8", "s9", "s10", "s11", "t3", "t4", "t5", "t6"
+    };
+    private static final Map<String, Integer> REGISTERS = new HashMap<>();
+    static {
+        for (int r = 0; r < NAMES.length; r++) REGISTERS.put(NAMES[r], r);
+        REGISTERS.put("s0", 8);
+    }
+
+    /* One assembled (pseudo-)instruction */
+    private static class Instr {
+        String op;
+        int rd, rs1, rs2;       // Register numbers, where the instruction has them
+        int imm;                // Immediate, memory offset, or target address
+        String target;          // Label operand, resolved into imm
+        int address;
+        String source;          // Original line, for error messages
+
+        Instr(String op, int address, String source) {
+            this.op = op;
+            this.address = address;
+            this.source = source;
+        }
+    }
+
+    private final List<Instr> text = new ArrayList<>();
+    private final Map<Integer, Integer> index = new HashMap<>();     // Address -> instruction
+    private final Map<String, Integer> symbols = new HashMap<>();    // Labels and .equiv constants
+    private final Map<Integer, byte[]> pages = new HashMap<>();
+    private final int[] regs = new int[32];
+    private final StringBuilder out = new StringBuilder();
+    private int brk;
+    private long steps;
+
+    /**
+     * Assemble and run a program
+     * @param asm RISC-V assembly text
+     * @return everything the program printed
+     * @throws IllegalStateException if the program does not assemble, faults, or runs too long
+     */
+    public static String run(String asm) {
+        Riscv machine = new Riscv(asm);
+        machine.execute();
+        return machine.out.toString();
+    }
+
+    private Riscv(String asm) {
+        boolean inText = true;
+        int pc = 0;
+        int data = DATA;
+
+        for (String raw : asm.split("\n")) {
+            String line = raw.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            if (line.endsWith(":")) {
+                define(line.substring(0, line.length() - 1), inText ? pc : data, line);
+                continue;
+            }
+
+            String op = line.split("\\s+")[0];
+            String[] args = operands(line.substring(op.length()));
+            switch (op) {
+                case ".text":
+                    inText = true;
+                    continue;
+                case ".data":
+                    inText = false;
+                    continue;
+                case ".globl":
+                    continue;
+                case ".equiv":
+                    define(args[0], Integer.decode(args[1]), line);
+                    continue;
+                case ".asciiz":
+                    byte[] bytes = unquote(args[0]).getBytes(StandardCharsets.US_ASCII);
+                    for (byte b : bytes) store(data++, b);
+                    store(data++, (byte) 0);
+                    continue;
+                case ".align":
+                    int align = 1 << Integer.parseInt(args[0]);
+                    data = (data + align - 1) & -align;
+                    continue;
+                default:
+                    if (!inText) throw new IllegalStateException("Instruction in .data: " + line);
+            }
+
+            Instr instr = assemble(op, args, pc, line);
+            index.put(pc, text.size());
+            text.add(instr);
+            pc += 4 * size(instr);
+        }
+        brk = (data + 7) & -8;
+
+        // Resolve labels now that every address is known
+        for (Instr instr : text) {
+            if (instr.target == null) continue;
+
+            Integer address = symbols.get(instr.target);
+            if (address == null) throw new IllegalStateException("Undefined label: " + instr.source);
+            instr.imm = address;
+
+            int reach = instr.op.startsWith("b") ? BRANCH_REACH : instr.op.equals("la") ? Integer.MAX_VALUE : JUMP_REACH;
+            long offset = (long) address - instr.address;
+            if (offset < -reach || offset >= reach) {
+                throw new IllegalStateException("Target out of range (" + offset + " bytes): " + instr.source);
+            }
+        }
+    }
+
+    // -------------------
+    // Assembler
+    // -------------------
+
+    private Instr assemble(String op, String[] args, int address, String line) {
+        Instr i = new Instr(op, address, line);
+        switch (op) {
+            case "add": case "sub": case "mul": case "slt":
+                expect(args, 3, line);
+                i.rd = reg(args[0], line);
+                i.rs1 = reg(args[1], line);
+                i.rs2 = reg(args[2], line);
+                break;
+            case "addi": case "slti":
+                expect(args, 3, line);
+                i.rd = reg(args[0], line);
+                i.rs1 = reg(args[1], line);
+                i.imm = immediate(args[2], -2048, 2047, line);
+                break;
+            case "slli":
+                expect(args, 3, line);
+                i.rd = reg(args[0], line);
+                i.rs1 = reg(args[1], line);
+                i.imm = immediate(args[2], 0, 31, line);
+                break;
+            case "li":
+                expect(args, 2, line);
+                i.rd = reg(args[0], line);
+                i.imm = value(args[1], line);
+                break;
+            case "la":
+                expect(args, 2, line);
+                i.rd = reg(args[0], line);
+                i.target = args[1];
+                break;
+            case "mv":
+                expect(args, 2, line);
+                i.rd = reg(args[0], line);
+                i.rs1 = reg(args[1], line);
+                break;
+            case "lw": case "sw": {
+                expect(args, 2, line);
+                int open = args[1].indexOf('(');
+                if (open < 0 || !args[1].endsWith(")")) throw new IllegalStateException("Bad memory operand: " + line);
+                i.rd = reg(args[0], line);
+                i.rs1 = reg(args[1].substring(open + 1, args[1].length() - 1), line);
+                i.imm = immediate(args[1].substring(0, open), -2048, 2047, line);
+                break;
+            }
+            case "j": case "jal":
+                expect(args, 1, line);
+                i.target = args[0];
+                break;
+            case "jalr": case "jr":
+                expect(args, 1, line);
+                i.rs1 = reg(args[0], line);
+                break;
+            case "beqz": case "bnez":
+                expect(args, 2, line);
+                i.rs1 = reg(args[0], line);
+                i.target = args[1];
+                break;
+            case "bgeu":
+                expect(args, 3, line);
+                i.rs1 = reg(args[0], line);
+                i.rs2 = reg(args[1], line);
+                i.target = args[2];
+                break;
+            case "ecall":
+                expect(args, 0, line);
+                break;
+            default:
+                throw new IllegalStateException("Unknown instruction: " + line);
+        }
+        return i;
+    }
+
+    /* Machine instructions a pseudo-instruction expands to */
+    private static int size(Instr i) {
+        switch (i.op) {
+            case "la":
+                return 2;
+            case "li":
+                return i.imm >= -2048 && i.imm <= 2047 ? 1 : 2;
+            default:
+                return 1;
+        }
+    }
+
+    private void define(String name, int value, String line) {
+        if (symbols.put(name, value) != null) throw new IllegalStateException("Duplicate symbol: " + line);
+    }
+
+    private static String[] operands(String rest) {
+        rest = rest.trim();
+        if (rest.isEmpty()) return new String[0];
+        if (rest.startsWith("\"")) return new String[] {rest};
+
+        String[] args = rest.split(",");
+        for (int k = 0; k < args.length; k++) args[k] = args[k].trim();
+        return args;
+    }
+
+    private static void expect(String[] args, int n, String line) {
+        if (args.length != n) throw new IllegalStateException("Expected " + n + " operands: " + line);
+    }
+
+    private static int reg(String name, String line) {
+        Integer r = REGISTERS.get(name);
+        if (r == null) throw new IllegalStateException("Unknown register " + name + ": " + line);
+        return r;
+    }
+
+    private int value(String text, String line) {
+        if (text.startsWith("@")) {
+            Integer v = symbols.get(text);
+            if (v == null) throw new IllegalStateException("Undefined constant: " + line);
+            return v;
+        }
+        try {
+            return Integer.decode(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Bad immediate: " + line);
+        }
+    }
+
+    private int immediate(String text, int min, int max, String line) {
+        int v = value(text, line);
+        if (v < min || v > max) throw new IllegalStateException("Immediate out of range: " + line);
+        return v;
+    }
+
+    private static String unquote(String s) {
+        return s.substring(1, s.length() - 1).replace("\\n", "\n").replace("\\\"", "\"");
+    }
+
+    // -------------------
+    // Machine
+    // -------------------
+
+    private void execute() {
+        regs[2] = STACK;
+        int pc = 0;
+
+        while (true) {
+            Integer at = index.get(pc);
+            if (at == null) {
+                if (pc == textEnd()) return;                        // Fell off the end, as Venus does
+                throw new IllegalStateException("Jump to a non-instruction address " + pc);
+            }
+            if (++steps > MAX_STEPS) throw new IllegalStateException("Program ran for more than " + MAX_STEPS + " steps");
+
+            Instr i = text.get(at);
+            int next = pc + 4 * size(i);
+            switch (i.op) {
+                case "add":  set(i.rd, regs[i.rs1] + regs[i.rs2]); break;
+                case "sub":  set(i.rd, regs[i.rs1] - regs[i.rs2]); break;
+                case "mul":  set(i.rd, regs[i.rs1] * regs[i.rs2]); break;
+                case "slt":  set(i.rd, regs[i.rs1] < regs[i.rs2] ? 1 : 0); break;
+                case "addi": set(i.rd, regs[i.rs1] + i.imm); break;
+                case "slti": set(i.rd, regs[i.rs1] < i.imm ? 1 : 0); break;
+                case "slli": set(i.rd, regs[i.rs1] << i.imm); break;
+                case "li":   set(i.rd, i.imm); break;
+                case "la":   set(i.rd, i.imm); break;
+                case "mv":   set(i.rd, regs[i.rs1]); break;
+                case "lw":   set(i.rd, loadWord(regs[i.rs1] + i.imm, i)); break;
+                case "sw":   storeWord(regs[i.rs1] + i.imm, regs[i.rd], i); break;
+                case "j":    next = i.imm; break;
+                case "jal":  set(1, next); next = i.imm; break;
+                case "jalr": { int to = regs[i.rs1]; set(1, next); next = to; break; }
+                case "jr":   next = regs[i.rs1]; break;
+                case "beqz": if (regs[i.rs1] == 0) next = i.imm; break;
+                case "bnez": if (regs[i.rs1] != 0) next = i.imm; break;
+                case "bgeu": if (Integer.compareUnsigned(regs[i.rs1], regs[i.rs2]) >= 0) next = i.imm; break;
+                case "ecall":
+                    if (!ecall()) return;
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown instruction: " + i.source);
+            }
+            pc = next;
+        }
+    }
+
+    private int textEnd() {
+        if (text.isEmpty()) return 0;
+        Instr last = text.get(text.size() - 1);
+        return last.address + 4 * size(last);
+    }
+
+    /* Venus environment call; false once the program exits */
+    private boolean ecall() {
+        int a1 = regs[11];
+        switch (regs[10]) {
+            case 1:
+                out.append(a1);
+                return true;
+            case 4:
+                for (int p = a1; load(p) != 0; p++) out.append((char) load(p));
+                return true;
+            case 11:
+                out.append((char) a1);
+                return true;
+            case 9:
+                if (a1 < 0) throw new IllegalStateException("sbrk of a negative size " + a1);
+                regs[10] = brk;
+                brk += a1;
+                return true;
+            case 10:
+            case 17:
+                return false;
+            default:
+                throw new IllegalStateException("Unknown environment call " + regs[10]);
+        }
+    }
+
+    private void set(int rd, int value) {
+        if (rd != 0) regs[rd] = value;
+    }
+
+    private int loadWord(int address, Instr i) {
+        aligned(address, i);
+        return (load(address) & 0xff) | (load(address + 1) & 0xff) << 8
+             | (load(address + 2) & 0xff) << 16 | (load(address + 3) & 0xff) << 24;
+    }
+
+    private void storeWord(int address, int value, Instr i) {
+        aligned(address, i);
+        for (int k = 0; k < 4; k++) store(address + k, (byte) (value >> (8 * k)));
+    }
+
+    private static void aligned(int address, Instr i) {
+        if ((address & 3) != 0) throw new IllegalStateException("Misaligned access at " + address + ": " + i.source);
+        if (Integer.compareUnsigned(address, DATA) < 0) {
+            throw new IllegalStateException("Access below the data segment at " + address + ": " + i.source);
+        }
+    }
+
+    private byte load(int address) {
+        byte[] page = pages.get(address >>> 12);
+        return page == null ? 0 : page[address & 0xfff];
+    }
+
+    private void store(int address, byte b) {
+        pages.computeIfAbsent(address >>> 12, k -> new byte[1 << 12])[address & 0xfff] = b;
+    }
+}
@@ -0,0 +1,314 @@
+package SV2V;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import Compiler.Programs;
+import IR.SparrowParser;
+import IR.registers.Registers;
+import IR.syntaxtree.Node;
+import IR.visitor.SparrowVConstructor;
+import S2SV.Allocator;
+import sparrowv.Program;
+
+public class SV2VTest {
+    private static final String INTERPRETER = "misc/sparrow.jar";
+
+    @BeforeClass public static void riscvRegisters() {
+        Registers.SetRiscVregs();
+    }
+
+    /* Every sample program prints on the simulator what it prints on the Sparrow-V interpreter */
+    @Test public void runsLikeTheInterpreter() throws Exception {
+        File[] files = new File("testcases/hw5").listFiles((dir, name) -> name.endsWith(".sparrow-v"));
+        Arrays.sort(files);
+        assertTrue(files.length > 0);
+        for (File f : files) {
+            String src = new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8);
+            assertEquals(f.getName(), interpret(src), Riscv.run(SV2V.translate(parse(src))));
+        }
+    }
+
+    /* An array bigger than a heap chunk gets its own, and the next allocation does not overlap it */
+    @Test public void allocatesMoreThanAChunk() throws Exception {
+        assertRunsLikeTheInterpreter(String.join("\n",
+            "class Main {",
+            "    public static void main(String[] a) {",
+            "        int[] big;",
+            "        int[] small;",
+            "        big = new int[40000];",
+            "        small = new int[4];",
+            "        big[0] = 1;",
+            "        big[39999] = 2;",
+            "        small[0] = 3;",
+            "        small[3] = 4;",
+            "        System.out.println(big.length);",
+            "        System.out.println(big[0]);",
+            "        System.out.println(big[39999]);",
+            "        System.out.println(small[0]);",
+            "        System.out.println(small[3]);",
+            "    }",
+            "}"));
+    }
+
+    /* Enough small objects to use up several chunks, each still zero-filled and distinct */
+    @Test public void allocatesAcrossChunks() throws Exception {
+        assertRunsLikeTheInterpreter(String.join("\n",
+            "class Main {",
+            "    public static void main(String[] a) {",
+            "        System.out.println(new List().run(12000));",
+            "    }",
+            "}",
+            "class List {",
+            "    public int run(int n) {",
+            "        Node head;",
+            "        Node node;",
+            "        int i;",
+            "        int sum;",
+            "        head = new Node();",
+            "        i = 0;",
+            "        while (i < n) {",
+            "            node = new Node();",
+            "            sum = node.init(i, head);",
+            "            head = node;",
+            "            i = i + 1;",
+            "        }",
+            "        sum = 0;",
+            "        i = head.value();",
+            "        while (0 < i) {",
+            "            sum = sum + i;",
+            "            head = head.next();",
+            "            i = head.value();",
+            "        }",
+            "        return sum;",
+            "    }",
+            "}",
+            "class Node {",
+            "    int v;",
+            "    Node rest;",
+            "    public int init(int x, Node r) {",
+            "        v = x;",
+            "        rest = r;",
+            "        return 0;",
+            "    }",
+            "    public int value() { return v; }",
+            "    public Node next() { return rest; }",
+            "}"));
+    }
+
+    @Test public void allocatesAnEmptyArray() throws Exception {
+        assertRunsLikeTheInterpreter(String.join("\n",
+            "class Main {",
+            "    public static void main(String[] a) {",
+            "        int[] empty;",
+            "        int[] next;",
+            "        empty = new int[0];",
+            "        next = new int[1];",
+            "        next[0] = 7;",
+            "        System.out.println(empty.length);",
+            "        System.out.println(next.length);",
+            "        System.out.println(next[0]);",
+            "    }",
+            "}"));
+    }
+
+    /* A branch past more code than a B-type offset reaches takes the long form, a near one does not */
+    @Test public void branchesToFarLabels() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        sb.append("func main()\n");
+        sb.append("t3 = 4\n");
+        sb.append("t4 = alloc(t3)\n");
+        sb.append("t1 = 0\n");
+        sb.append("[t4 + 0] = t1\n");
+        sb.append("t1 = [t4 + 0]\n");
+        sb.append("if0 t1 goto near\n");
+        sb.append("print(t1)\n");
+        sb.append("near:\n");
+        sb.append("t2 = 1\n");
+        sb.append("if0 t1 goto far\n");
+        for (int i = 0; i < 1200; i++) {
+            sb.append("t2 = t2 + t2\n");
+        }
+        sb.append("print(t2)\n");
+        sb.append("far:\n");
+        sb.append("print(t2)\n");
+        sb.append("v1 = t1\n");
+        sb.append("      return v1\n");
+        String src = sb.toString();
+
+        String asm = SV2V.translate(parse(src));
+        assertEquals(1, Programs.count(asm, "beqz "));
+        assertEquals(1, Programs.count(asm, "bnez "));
+        assertEquals(interpret(src), Riscv.run(asm));
+    }
+
+    /* A constant set before a label is loaded before it, since the label may be reached without it */
+    @Test public void loadsConstantsBeforeLabels() throws Exception {
+        String asm = assertTranslatesLikeTheInterpreter(lines(
+            "func main()",
+            "t1 = 5",
+            "t3 = 4",
+            "t2 = alloc(t3)",
+            "if0 t2 goto skip",
+            "t1 = 6",
+            "skip:",
+            "print(t1)",
+            "v1 = t1",
+            "      return v1"));
+        assertTrue(asm, asm.indexOf("li t1, 5") < asm.indexOf("main_skip:"));
+    }
+
+    /* A constant is loaded before a call, and not assumed to survive it */
+    @Test public void loadsConstantsBeforeCalls() throws Exception {
+        String asm = assertTranslatesLikeTheInterpreter(lines(
+            "func main()",
+            "s1 = 7",
+            "t1 = 3",
+            "t0 = @f",
+            "a2 = call t0()",
+            "print(s1)",
+            "print(t1)",
+            "t2 = t1 + s1",
+            "print(t2)",
+            "v1 = t1",
+            "      return v1",
+            "",
+            "func f()",
+            "t1 = 100",
+            "v2 = t1",
+            "      return v2"));
+        int call = asm.indexOf("jalr t0");
+        assertTrue(asm, asm.indexOf("li s1, 7") < call);
+        assertTrue(asm, asm.indexOf("add t2, t1, s1", call) > call);
+    }
+
+    /* An error reads no registers, so a constant stays pending past a branch to one */
+    @Test public void keepsConstantsPendingPastErrorBranches() throws Exception {
+        String asm = assertTranslatesLikeTheInterpreter(lines(
+            "func main()",
+            "t1 = 5",
+            "t3 = 4",
+            "t2 = alloc(t3)",
+            "if0 t2 goto nullErr",
+            "print(t1)",
+            "goto done",
+            "nullErr:",
+            "error(\"null pointer\")",
+            "done:",
+            "v1 = t1",
+            "      return v1"));
+        assertTrue(asm, asm.indexOf("li t1, 5") > asm.indexOf("main_nullErr"));
+    }
+
+    @Test public void readsAZeroConstantAsZero() throws Exception {
+        String asm = assertTranslatesLikeTheInterpreter(lines(
+            "func main()",
+            "t1 = 0",
+            "t3 = 8",
+            "t2 = alloc(t3)",
+            "[t2 + 4] = t1",
+            "t4 = [t2 + 4]",
+            "print(t4)",
+            "v1 = t4",
+            "      return v1"));
+        assertTrue(asm, asm.contains("sw zero, 4("));
+        assertFalse(asm, asm.contains("li t1, 0"));
+    }
+
+    /* addi, slti and slli take a constant only when it fits their immediate */
+    @Test public void foldsConstantsThatFitImmediates() throws Exception {
+        String asm = assertTranslatesLikeTheInterpreter(lines(
+            "func main()",
+            "t3 = 8",
+            "t2 = alloc(t3)",
+            "t1 = 5",
+            "[t2 + 4] = t1",
+            "t3 = [t2 + 4]",
+            "t1 = 2047",
+            "t4 = t3 + t1",
+            "print(t4)",
+            "t4 = t3 < t1",
+            "print(t4)",
+            "t1 = 2048",
+            "t4 = t3 + t1",
+            "print(t4)",
+            "t4 = t3 < t1",
+            "print(t4)",
+            "t4 = t3 - t1",
+            "print(t4)",
+            "t1 = 2049",
+            "t4 = t3 - t1",
+            "print(t4)",
+            "t1 = 1024",
+            "t4 = t3 * t1",
+            "print(t4)",
+            "t1 = 3",
+            "t4 = t3 * t1",
+            "print(t4)",
+            "v1 = t4",
+            "      return v1"));
+        assertTrue(asm, asm.contains("addi t4, t3, 2047"));
+        assertTrue(asm, asm.contains("slti t4, t3, 2047"));
+        assertTrue(asm, asm.contains("li t1, 2048"));
+        assertTrue(asm, asm.contains("add t4, t3, t1"));
+        assertTrue(asm, asm.contains("slt t4, t3, t1"));
+        assertTrue(asm, asm.contains("addi t4, t3, -2048"));
+        assertTrue(asm, asm.contains("sub t4, t3, t1"));
+        assertTrue(asm, asm.contains("slli t4, t3, 10"));
+        assertTrue(asm, asm.contains("mul t4, t3, t1"));
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    /* A MiniJava program prints on the simulator what its Sparrow prints on the interpreter */
+    private static void assertRunsLikeTheInterpreter(String src) throws Exception {
+        String asm = SV2V.translate(Programs.sparrowV(src, Allocator.LINEAR));
+        assertEquals(Programs.run(Programs.sparrow(src)), Riscv.run(asm));
+    }
+
+    /* A Sparrow-V program prints on the simulator what it prints on the interpreter
+       @return the assembly */
+    private static String assertTranslatesLikeTheInterpreter(String src) throws Exception {
+        String asm = SV2V.translate(parse(src));
+        assertEquals(interpret(src), Riscv.run(asm));
+        return asm;
+    }
+
+    private static String lines(String... lines) {
+        return String.join("\n", lines) + "\n";
+    }
+
+    private static Program parse(String src) throws Exception {
+        Node root = new SparrowParser(new StringReader(src)).Program();
+        SparrowVConstructor constructor = new SparrowVConstructor();
+        root.accept(constructor);
+        return constructor.getProgram();
+    }
+
+    /* Output of a Sparrow-V program on the reference interpreter, without its error banner */
+    private static String interpret(String src) throws Exception {
+        Process p = new ProcessBuilder("java", "-jar", INTERPRETER, "sv").redirectErrorStream(true).start();
+        try (OutputStream in = p.getOutputStream()) {
+            in.write(src.getBytes(StandardCharsets.UTF_8));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream from = p.getInputStream()) {
+            byte[] buf = new byte[8192];
+            for (int n; (n = from.read(buf)) > 0; ) out.write(buf, 0, n);
+        }
+        p.waitFor();
+        return out.toString("UTF-8").replaceAll("--- Error.*---\n", "");
+    }
+}
@@ -0,0 +1,107 @@
+package sparrow.visitor;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import IR.SparrowParser;
+import IR.token.Identifier;
+import IR.visitor.SparrowConstructor;
+import J2S.J2S;
+import Typecheck.Typecheck;
+import minijava.MiniJavaParser;
+import sparrow.Call;
+import sparrow.FunctionDecl;
+import sparrow.Instruction;
+import sparrow.Program;
+
+public class PrinterTest {
+    @Test public void printsWhatToStringUsedTo() throws Exception {
+        for (Program p : programs()) {
+            assertEquals(legacy(p), print(p));
+        }
+    }
+
+    @Test public void printedProgramsParseBackToTheSameText() throws Exception {
+        for (Program p : programs()) {
+            String text = print(p);
+            assertEquals(text, print(parse(text)));
+        }
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    /* The hw3 programs translated by J2S, and the bundled Sparrow programs */
+    private static List<Program> programs() throws Exception {
+        List<Program> result = new ArrayList<>();
+
+        File[] java = new File("testcases/hw3").listFiles((dir, name) -> name.endsWith(".java"));
+        Arrays.sort(java);
+        for (File f : java) {
+            try (InputStream in = new FileInputStream(f)) {
+                minijava.syntaxtree.Goal root = new MiniJavaParser(in).Goal();
+                Typecheck.check(root);
+                result.add(J2S.translate(root));
+            }
+        }
+
+        File[] sparrow = new File("testcases/hw4").listFiles((dir, name) -> name.endsWith(".sparrow"));
+        for (File f : sparrow) {
+            try (InputStream in = new FileInputStream(f)) {
+                SparrowConstructor constructor = new SparrowConstructor();
+                new SparrowParser(in).Program().accept(constructor);
+                result.add(constructor.getProgram());
+            }
+        }
+
+        assertTrue(result.size() > java.length);
+        return result;
+    }
+
+    private static Program parse(String text) throws Exception {
+        SparrowConstructor constructor = new SparrowConstructor();
+        new SparrowParser(new StringReader(text)).Program().accept(constructor);
+        return constructor.getProgram();
+    }
+
+    private static String print(Program p) {
+        StringBuilder sb = new StringBuilder();
+        new Printer(sb).visit(p);
+        return sb.toString();
+    }
+
+    /* The text Program.toString built before it delegated to Printer */
+    private static String legacy(Program p) {
+        String res = "";
+        for (FunctionDecl fd : p.funDecls) {
+            res = res + "func " + fd.functionName + "(" + join(fd.formalParameters) + ")\n";
+            for (Instruction i : fd.block.instructions) {
+                if (i instanceof Call) {
+                    Call c = (Call) i;
+                    res = res + c.lhs + " = call " + c.callee + "(" + join(c.args) + ")\n";
+                } else {
+                    res = res + i.toString() + "\n";
+                }
+            }
+            res = res + "      return " + fd.block.return_id + "\n\n";
+        }
+        return res;
+    }
+
+    private static String join(List<Identifier> ids) {
+        String s = "";
+        for (Identifier id : ids) {
+            s = s + id + " ";
+        }
+        return s.isEmpty() ? s : s.substring(0, s.length() - 1);
+    }
+}
@@ -0,0 +1,115 @@
+package sparrowv.visitor;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import IR.SparrowParser;
+import IR.registers.Registers;
+import IR.token.Identifier;
+import IR.visitor.SparrowVConstructor;
+import J2S.J2S;
+import S2SV.S2SV;
+import Typecheck.Typecheck;
+import minijava.MiniJavaParser;
+import sparrowv.Call;
+import sparrowv.FunctionDecl;
+import sparrowv.Instruction;
+import sparrowv.Program;
+
+public class PrinterTest {
+    @BeforeClass public static void registers() {
+        Registers.SetRiscVregs();
+    }
+
+    @Test public void printsWhatToStringUsedTo() throws Exception {
+        for (Program p : programs()) {
+            assertEquals(legacy(p), print(p));
+        }
+    }
+
+    @Test public void printedProgramsParseBackToTheSameText() throws Exception {
+        for (Program p : programs()) {
+            String text = print(p);
+            assertEquals(text, print(parse(text)));
+        }
+    }
+
+    // -------------------
+    // Helper functions
+    // -------------------
+
+    /* The hw3 programs lowered by S2SV, and the bundled Sparrow-V programs */
+    private static List<Program> programs() throws Exception {
+        List<Program> result = new ArrayList<>();
+
+        File[] java = new File("testcases/hw3").listFiles((dir, name) -> name.endsWith(".java"));
+        Arrays.sort(java);
+        for (File f : java) {
+            try (InputStream in = new FileInputStream(f)) {
+                minijava.syntaxtree.Goal root = new MiniJavaParser(in).Goal();
+                Typecheck.check(root);
+                result.add(S2SV.translate(J2S.translate(root)));
+            }
+        }
+
+        File[] sparrowv = new File("testcases/hw5").listFiles((dir, name) -> name.endsWith(".sparrow-v"));
+        Arrays.sort(sparrowv);
+        for (File f : sparrowv) {
+            try (InputStream in = new FileInputStream(f)) {
+                SparrowVConstructor constructor = new SparrowVConstructor();
+                new SparrowParser(in).Program().accept(constructor);
+                result.add(constructor.getProgram());
+            }
+        }
+
+        assertTrue(result.size() > java.length);
+        return result;
+    }
+
+    private static Program parse(String text) throws Exception {
+        SparrowVConstructor constructor = new SparrowVConstructor();
+        new SparrowParser(new StringReader(text)).Program().accept(constructor);
+        return constructor.getProgram();
+    }
+
+    private static String print(Program p) {
+        StringBuilder sb = new StringBuilder();
+        new Printer(sb).visit(p);
+        return sb.toString();
+    }
+
+    /* The text Program.toString built before it delegated to Printer */
+    private static String legacy(Program p) {
+        String res = "";
+        for (FunctionDecl fd : p.funDecls) {
+            res = res + "func " + fd.functionName + "(" + join(fd.formalParameters) + ")\n";
+            for (Instruction i : fd.block.instructions) {
+                if (i instanceof Call) {
+                    Call c = (Call) i;
+                    res = res + c.lhs + " = call " + c.callee + "(" + join(c.args) + ")\n";
+                } else {
+                    res = res + i.toString() + "\n";
+                }
+            }
+            res = res + "      return " + fd.block.return_id + "\n\n";
+        }
+        return res;
+    }
+
+    private static String join(List<Identifier> ids) {
+        String s = "";
+        for (Identifier id : ids) {
+            s = s + id + " ";
+        }
+        return s.isEmpty() ? s : s.substring(0, s.length() - 1);
+    }
+}